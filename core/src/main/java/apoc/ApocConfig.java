@@ -61,6 +61,13 @@ public class ApocConfig extends LifecycleAdapter {
     public static final String APOC_TRIGGER_ENABLED = "apoc.trigger.enabled";
     public static final String APOC_UUID_ENABLED = "apoc.uuid.enabled";
     public static final String APOC_UUID_ENABLED_DB = "apoc.uuid.enabled.%s";
+    public static final String APOC_CHANGELOG_ENABLED = "apoc.changelog.enabled";
+    public static final String APOC_CHANGELOG_ENABLED_DB = "apoc.changelog.enabled.%s";
+    public static final String APOC_CHANGELOG_DIRECTORY = "apoc.changelog.directory";
+    public static final String APOC_META_CACHE_ENABLED = "apoc.meta.cache.enabled";
+    public static final String APOC_META_CACHE_ENABLED_DB = "apoc.meta.cache.enabled.%s";
+    public static final String APOC_META_CACHE_DIRECTORY = "apoc.meta.cache.directory";
+    public static final String APOC_META_CACHE_RECONCILE = "apoc.meta.cache.reconcile";
     public static final String APOC_JSON_ZIP_URL = "apoc.json.zip.url";  // TODO: check if really needed
     public static final String APOC_JSON_SIMPLE_JSON_URL = "apoc.json.simpleJson.url"; // TODO: check if really needed
     public static final String APOC_IMPORT_FILE_ALLOW__READ__FROM__FILESYSTEM = "apoc.import.file.allow_read_from_filesystem";
@@ -80,6 +80,21 @@ public class ApocSettings implements SettingsDeclaration {
 
     public static final Setting<Boolean> apoc_uuid_enabled = newBuilder(APOC_UUID_ENABLED, BOOL, false ).build();
 
+    @Description("switches the change log of created, updated and deleted entities on or off")
+    public static final Setting<Boolean> apoc_changelog_enabled = newBuilder(APOC_CHANGELOG_ENABLED, BOOL, false ).build();
+
+    @Description("directory of the change log files, by default the `apoc-changelog` folder in the data directory")
+    public static final Setting<String> apoc_changelog_directory = newBuilder(APOC_CHANGELOG_DIRECTORY, STRING, null ).build();
+
+    @Description("switches the incrementally maintained profile served by apoc.meta.schema({cached:true}) on or off")
+    public static final Setting<Boolean> apoc_meta_cache_enabled = newBuilder(APOC_META_CACHE_ENABLED, BOOL, false ).build();
+
+    @Description("directory of the persisted meta schema profiles, by default the `apoc-meta` folder in the data directory")
+    public static final Setting<String> apoc_meta_cache_directory = newBuilder(APOC_META_CACHE_DIRECTORY, STRING, null ).build();
+
+    @Description("how often the cached meta schema profile is rebuilt from the graph, to correct any drift")
+    public static final Setting<Duration> apoc_meta_cache_reconcile = newBuilder(APOC_META_CACHE_RECONCILE, DURATION, Duration.ofHours(1) ).build();
+
     @Deprecated
     public static final Setting<String> apoc_initializer_cypher = newBuilder(APOC_CONFIG_INITIALIZER_CYPHER, STRING, null).build();
 
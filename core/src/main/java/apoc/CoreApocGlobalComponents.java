@@ -1,14 +1,20 @@
 package apoc;
 
+import apoc.changelog.ChangeLog;
+import apoc.changelog.ChangeLogHandler;
 import apoc.cypher.CypherInitializer;
+import apoc.meta.Meta;
+import apoc.meta.MetaSchemaHandler;
 import apoc.trigger.TriggerHandler;
 import org.neo4j.annotations.service.ServiceProvider;
+import org.neo4j.internal.helpers.collection.MapUtil;
 import org.neo4j.kernel.availability.AvailabilityListener;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.kernel.lifecycle.Lifecycle;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 @ServiceProvider
@@ -16,19 +22,31 @@ public class CoreApocGlobalComponents implements ApocGlobalComponents {
 
     @Override
     public Map<String,Lifecycle> getServices(GraphDatabaseAPI db, ApocExtensionFactory.Dependencies dependencies) {
-        return Collections.singletonMap("trigger", new TriggerHandler(db,
-                dependencies.databaseManagementService(),
-                dependencies.apocConfig(),
-                dependencies.log().getUserLog(TriggerHandler.class),
-                dependencies.globalProceduresRegistry(),
-                dependencies.pools(),
-                dependencies.scheduler())
+        return MapUtil.genericMap(
+                "trigger", new TriggerHandler(db,
+                        dependencies.databaseManagementService(),
+                        dependencies.apocConfig(),
+                        dependencies.log().getUserLog(TriggerHandler.class),
+                        dependencies.globalProceduresRegistry(),
+                        dependencies.pools(),
+                        dependencies.scheduler()),
+
+                "changelog", new ChangeLogHandler(db,
+                        dependencies.databaseManagementService(),
+                        dependencies.apocConfig(),
+                        dependencies.log().getUserLog(ChangeLog.class)),
+
+                "metaSchema", new MetaSchemaHandler(db,
+                        dependencies.databaseManagementService(),
+                        dependencies.apocConfig(),
+                        dependencies.pools(),
+                        dependencies.log().getUserLog(Meta.class))
         );
     }
 
     @Override
     public Collection<Class> getContextClasses() {
-        return Collections.singleton(TriggerHandler.class);
+        return List.of(TriggerHandler.class, ChangeLogHandler.class, MetaSchemaHandler.class);
     }
 
     @Override
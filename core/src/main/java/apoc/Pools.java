@@ -1,5 +1,6 @@
 package apoc;
 
+import apoc.load.util.JdbcConnectionPool;
 import apoc.periodic.Periodic;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
@@ -32,6 +33,7 @@ public class Pools extends LifecycleAdapter {
 
     public final static int DEFAULT_SCHEDULED_THREADS = Runtime.getRuntime().availableProcessors() / 4;
     public final static int DEFAULT_POOL_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+    private final static long JDBC_EVICTION_INTERVAL_SECONDS = 10;
     private final Log log;
     private final GlobalProcedures globalProceduresRegistry;
     private final ApocConfig apocConfig;
@@ -83,10 +85,13 @@ public class Pools extends LifecycleAdapter {
                 if (entry.getValue().isDone() || entry.getValue().isCancelled()) it.remove();
             }
         },10,10,TimeUnit.SECONDS);
+
+        scheduledExecutorService.scheduleAtFixedRate(JdbcConnectionPool::evictAllIdle, JDBC_EVICTION_INTERVAL_SECONDS, JDBC_EVICTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
     @Override
     public void shutdown() throws Exception {
+        JdbcConnectionPool.closeAll();
         Stream.of(singleExecutorService, defaultExecutorService, scheduledExecutorService).forEach( service -> {
             try {
                 service.shutdown();
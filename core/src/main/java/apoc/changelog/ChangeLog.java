@@ -0,0 +1,53 @@
+package apoc.changelog;
+
+import apoc.util.Util;
+import org.neo4j.procedure.Context;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+import org.neo4j.procedure.UserFunction;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class ChangeLog {
+
+    @Context
+    public ChangeLogHandler changeLogHandler;
+
+    public static class ChangeResult {
+        public final long sequence;
+        public final String operation;
+        public final String entityType;
+        public final long id;
+
+        public ChangeResult(ChangeLogFile.Entry entry) {
+            this.sequence = entry.sequence;
+            this.operation = entry.operation.name();
+            this.entityType = entry.entityType.name();
+            this.id = entry.id;
+        }
+    }
+
+    @UserFunction
+    @Description("apoc.changelog.sequence() - returns the sequence of the last transaction recorded in the change log")
+    public long sequence() {
+        return changeLogHandler.getChangeLog().getLastSequence();
+    }
+
+    @Procedure
+    @Description("apoc.changelog.changes(since, {limit: -1}) - returns the ids of the entities created, updated and deleted by the transactions after the `since` sequence")
+    public Stream<ChangeResult> changes(@Name(value = "since", defaultValue = "0") long since, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+        final long limit = Util.toLong(config.getOrDefault("limit", -1L));
+        final ChangeLogFile changeLog = changeLogHandler.getChangeLog();
+        // the entries are read as the results are consumed, up to the limit
+        final Iterator<ChangeLogFile.Entry> entries = changeLog.entries(since, changeLog.getLastSequence());
+        final Stream<ChangeResult> result = StreamSupport.stream(Spliterators.spliteratorUnknownSize(entries, Spliterator.ORDERED), false)
+                .map(ChangeResult::new);
+        return limit < 0 ? result : result.limit(limit);
+    }
+}
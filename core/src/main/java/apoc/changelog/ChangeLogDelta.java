@@ -0,0 +1,84 @@
+package apoc.changelog;
+
+import apoc.changelog.ChangeLogFile.EntityType;
+import apoc.changelog.ChangeLogFile.Operation;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import java.io.IOException;
+
+/**
+ * The net effect of the change log entries between two sequences:
+ * the entities that exist at the end and were changed have to be exported again,
+ * the ones that existed before and don't exist anymore have to be marked as deleted.
+ * Entities created and deleted in the same interval are ignored.
+ */
+public class ChangeLogDelta {
+
+    private final long since;
+    private final long until;
+    private final Changes nodes = new Changes();
+    private final Changes relationships = new Changes();
+
+    private ChangeLogDelta(long since, long until) {
+        this.since = since;
+        this.until = until;
+    }
+
+    public static ChangeLogDelta since(ChangeLogFile changeLog, long since) throws IOException {
+        final ChangeLogDelta delta = new ChangeLogDelta(since, changeLog.getLastSequence());
+        changeLog.read(since, delta.until, entry ->
+                (entry.entityType == EntityType.NODE ? delta.nodes : delta.relationships).accept(entry.operation, entry.id));
+        return delta;
+    }
+
+    public long getSince() {
+        return since;
+    }
+
+    public long getUntil() {
+        return until;
+    }
+
+    public Roaring64NavigableMap getChangedNodes() {
+        return nodes.exists;
+    }
+
+    public Roaring64NavigableMap getDeletedNodes() {
+        return nodes.deleted();
+    }
+
+    public Roaring64NavigableMap getChangedRelationships() {
+        return relationships.exists;
+    }
+
+    public Roaring64NavigableMap getDeletedRelationships() {
+        return relationships.deleted();
+    }
+
+    private static class Changes {
+        private final Roaring64NavigableMap seen = new Roaring64NavigableMap();
+        private final Roaring64NavigableMap existedBefore = new Roaring64NavigableMap();
+        private final Roaring64NavigableMap exists = new Roaring64NavigableMap();
+
+        private void accept(Operation operation, long id) {
+            if (!seen.contains(id)) {
+                seen.addLong(id);
+                if (operation != Operation.CREATED) {
+                    existedBefore.addLong(id);
+                }
+            }
+            if (operation == Operation.DELETED) {
+                exists.removeLong(id);
+            } else {
+                exists.addLong(id);
+            }
+        }
+
+        private Roaring64NavigableMap deleted() {
+            Roaring64NavigableMap deleted = new Roaring64NavigableMap();
+            deleted.or(existedBefore);
+            deleted.andNot(exists);
+            return deleted;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package apoc.changelog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of the entity ids changed by the committed transactions.
+ * Every transaction is stored as a frame:
+ * <pre>
+ *     sequence: long | count: int | count * (kind: byte | id: long)
+ * </pre>
+ * where the sequence is monotonic and the kind encodes the operation and the entity type.
+ * A frame that was not completely written, e.g. because of a crash, is truncated when the file is opened.
+ */
+public class ChangeLogFile implements AutoCloseable {
+
+    public enum Operation {CREATED, UPDATED, DELETED}
+
+    public enum EntityType {NODE, RELATIONSHIP}
+
+    static final int FRAME_HEADER_SIZE = Long.BYTES + Integer.BYTES;
+    static final int ENTRY_SIZE = Byte.BYTES + Long.BYTES;
+
+    public static class Entry {
+        public final long sequence;
+        public final Operation operation;
+        public final EntityType entityType;
+        public final long id;
+
+        public Entry(long sequence, Operation operation, EntityType entityType, long id) {
+            this.sequence = sequence;
+            this.operation = operation;
+            this.entityType = entityType;
+            this.id = id;
+        }
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private long size;
+    private long lastSequence;
+
+    private ChangeLogFile(Path path, FileChannel channel) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        recover();
+    }
+
+    public static ChangeLogFile open(Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new ChangeLogFile(path, channel);
+    }
+
+    private void recover() throws IOException {
+        final long fileSize = channel.size();
+        final ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        long position = 0;
+        while (position + FRAME_HEADER_SIZE <= fileSize) {
+            header.clear();
+            readFully(header, position);
+            long sequence = header.getLong(0);
+            int count = header.getInt(Long.BYTES);
+            long next = position + FRAME_HEADER_SIZE + (long) count * ENTRY_SIZE;
+            if (count < 0 || next > fileSize) {
+                break;
+            }
+            lastSequence = sequence;
+            position = next;
+        }
+        if (position < fileSize) {
+            channel.truncate(position);
+        }
+        size = position;
+    }
+
+    /**
+     * Appends the entries of one transaction and returns the sequence assigned to it.
+     */
+    public synchronized long append(int count, Consumer<ByteBuffer> entries) throws IOException {
+        final long sequence = lastSequence + 1;
+        final ByteBuffer buffer = ByteBuffer.allocate(FRAME_HEADER_SIZE + count * ENTRY_SIZE);
+        buffer.putLong(sequence).putInt(count);
+        entries.accept(buffer);
+        if (buffer.hasRemaining()) {
+            throw new IllegalStateException("Expected " + count + " entries but got " + (buffer.position() - FRAME_HEADER_SIZE) / ENTRY_SIZE);
+        }
+        buffer.flip();
+        long position = size;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        size = position;
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    static void putEntry(ByteBuffer buffer, Operation operation, EntityType entityType, long id) {
+        buffer.put((byte) (operation.ordinal() << 1 | entityType.ordinal())).putLong(id);
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    private synchronized long getSize() {
+        return size;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Reads the entries of the transactions with a sequence greater than <code>since</code> and up to <code>until</code>.
+     * The frames before <code>since</code> are skipped reading only their header.
+     */
+    public void read(long since, long until, Consumer<Entry> consumer) throws IOException {
+        try {
+            entries(since, until).forEachRemaining(consumer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Like {@link #read(long, long, Consumer)}, but the frames are read one at a time as the entries are consumed,
+     * so a consumer that stops early doesn't read the rest of the log.
+     * @throws UncheckedIOException if the log can't be read
+     */
+    public Iterator<Entry> entries(long since, long until) {
+        final long end = getSize();
+        final Operation[] operations = Operation.values();
+        final EntityType[] entityTypes = EntityType.values();
+        return new Iterator<>() {
+            private final ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+            private ByteBuffer entries = ByteBuffer.allocate(64 * ENTRY_SIZE).limit(0);
+            private long position;
+            private long sequence;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    while (!entries.hasRemaining() && position < end) {
+                        header.clear();
+                        readFully(header, position);
+                        sequence = header.getLong(0);
+                        int count = header.getInt(Long.BYTES);
+                        position += FRAME_HEADER_SIZE;
+                        if (sequence > until) {
+                            position = end;
+                            break;
+                        }
+                        if (sequence > since) {
+                            int length = count * ENTRY_SIZE;
+                            if (entries.capacity() < length) {
+                                entries = ByteBuffer.allocate(length);
+                            }
+                            entries.clear().limit(length);
+                            readFully(entries, position);
+                            entries.flip();
+                        }
+                        position += (long) count * ENTRY_SIZE;
+                    }
+                    return entries.hasRemaining();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public Entry next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                byte kind = entries.get();
+                long id = entries.getLong();
+                return new Entry(sequence, operations[kind >> 1], entityTypes[kind & 1], id);
+            }
+        };
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of the change log " + path);
+            }
+            position += read;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,163 @@
+package apoc.changelog;
+
+import apoc.ApocConfig;
+import apoc.changelog.ChangeLogFile.EntityType;
+import apoc.changelog.ChangeLogFile.Operation;
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.Entity;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.event.LabelEntry;
+import org.neo4j.graphdb.event.PropertyEntry;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventListener;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static apoc.ApocConfig.APOC_CHANGELOG_DIRECTORY;
+import static apoc.ApocConfig.APOC_CHANGELOG_ENABLED;
+import static apoc.ApocConfig.APOC_CHANGELOG_ENABLED_DB;
+
+/**
+ * Records the ids of the nodes and relationships created, updated and deleted by every committed transaction
+ * into the {@link ChangeLogFile} of the database, so exports can be limited to the changes since a given sequence.
+ */
+public class ChangeLogHandler extends LifecycleAdapter implements TransactionEventListener<Void> {
+
+    public static final String NOT_ENABLED_ERROR = "The change log has not been enabled." +
+            " Set 'apoc.changelog.enabled=true' or 'apoc.changelog.enabled.%s=true' in your apoc.conf file located in the $NEO4J_HOME/conf/ directory.";
+
+    private final GraphDatabaseAPI db;
+    private final DatabaseManagementService databaseManagementService;
+    private final ApocConfig apocConfig;
+    private final Log log;
+
+    private volatile ChangeLogFile changeLog;
+
+    public ChangeLogHandler(GraphDatabaseAPI db, DatabaseManagementService databaseManagementService, ApocConfig apocConfig, Log log) {
+        this.db = db;
+        this.databaseManagementService = databaseManagementService;
+        this.apocConfig = apocConfig;
+        this.log = log;
+    }
+
+    private boolean isEnabled() {
+        String enabledDb = String.format(APOC_CHANGELOG_ENABLED_DB, db.databaseName());
+        return apocConfig.getConfig().getBoolean(enabledDb, apocConfig.getBoolean(APOC_CHANGELOG_ENABLED, false));
+    }
+
+    private Path getPath() {
+        String directory = apocConfig.getString(APOC_CHANGELOG_DIRECTORY, null);
+        Path base = directory == null
+                ? Paths.get(apocConfig.getString("dbms.directories.data", "data"), "apoc-changelog")
+                : Paths.get(directory);
+        return base.resolve(db.databaseName() + ".changelog");
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (isEnabled()) {
+            changeLog = ChangeLogFile.open(getPath());
+            databaseManagementService.registerTransactionEventListener(db.databaseName(), this);
+            log.info("Change log for database %s enabled in %s, last sequence %d", db.databaseName(), changeLog.getPath(), changeLog.getLastSequence());
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (changeLog != null) {
+            databaseManagementService.unregisterTransactionEventListener(db.databaseName(), this);
+            changeLog.close();
+            changeLog = null;
+        }
+    }
+
+    public ChangeLogFile getChangeLog() {
+        ChangeLogFile current = changeLog;
+        if (current == null) {
+            throw new RuntimeException(String.format(NOT_ENABLED_ERROR, db.databaseName()));
+        }
+        return current;
+    }
+
+    @Override
+    public Void beforeCommit(TransactionData data, Transaction transaction, GraphDatabaseService databaseService) {
+        return null;
+    }
+
+    @Override
+    public void afterCommit(TransactionData data, Void state, GraphDatabaseService databaseService) {
+        final ChangeLogFile current = changeLog;
+        if (current == null) {
+            return;
+        }
+        final Changes nodes = new Changes();
+        data.createdNodes().forEach(node -> nodes.created.addLong(node.getId()));
+        data.deletedNodes().forEach(node -> nodes.deleted.addLong(node.getId()));
+        for (LabelEntry entry : data.assignedLabels()) nodes.updated.addLong(entry.node().getId());
+        for (LabelEntry entry : data.removedLabels()) nodes.updated.addLong(entry.node().getId());
+        addUpdated(nodes, data.assignedNodeProperties());
+        addUpdated(nodes, data.removedNodeProperties());
+
+        final Changes rels = new Changes();
+        data.createdRelationships().forEach(rel -> rels.created.addLong(rel.getId()));
+        data.deletedRelationships().forEach(rel -> rels.deleted.addLong(rel.getId()));
+        addUpdated(rels, data.assignedRelationshipProperties());
+        addUpdated(rels, data.removedRelationshipProperties());
+
+        nodes.normalize();
+        rels.normalize();
+        final int count = nodes.size() + rels.size();
+        if (count == 0) {
+            return;
+        }
+        try {
+            current.append(count, buffer -> {
+                nodes.write(buffer, EntityType.NODE);
+                rels.write(buffer, EntityType.RELATIONSHIP);
+            });
+        } catch (IOException e) {
+            log.error("Cannot write the change log of transaction " + data.getTransactionId(), e);
+        }
+    }
+
+    private <T extends Entity> void addUpdated(Changes changes, Iterable<PropertyEntry<T>> entries) {
+        for (PropertyEntry<T> entry : entries) {
+            changes.updated.addLong(entry.entity().getId());
+        }
+    }
+
+    @Override
+    public void afterRollback(TransactionData data, Void state, GraphDatabaseService databaseService) {
+
+    }
+
+    private static class Changes {
+        private final Roaring64NavigableMap created = new Roaring64NavigableMap();
+        private final Roaring64NavigableMap updated = new Roaring64NavigableMap();
+        private final Roaring64NavigableMap deleted = new Roaring64NavigableMap();
+
+        private void normalize() {
+            // created and deleted entities are not logged as updated too
+            updated.andNot(created);
+            updated.andNot(deleted);
+        }
+
+        private int size() {
+            return (int) (created.getLongCardinality() + updated.getLongCardinality() + deleted.getLongCardinality());
+        }
+
+        private void write(ByteBuffer buffer, EntityType entityType) {
+            created.forEach(id -> ChangeLogFile.putEntry(buffer, Operation.CREATED, entityType, id));
+            updated.forEach(id -> ChangeLogFile.putEntry(buffer, Operation.UPDATED, entityType, id));
+            deleted.forEach(id -> ChangeLogFile.putEntry(buffer, Operation.DELETED, entityType, id));
+        }
+    }
+}
@@ -3,6 +3,8 @@ package apoc.export.csv;
 import apoc.export.util.BatchTransaction;
 import apoc.export.util.CountingReader;
 import apoc.export.util.ProgressReporter;
+import apoc.export.util.SpillableIdMap;
+import apoc.load.CSVHeader;
 import apoc.load.CSVResult;
 import apoc.load.Mapping;
 import apoc.load.util.Results;
@@ -13,6 +15,10 @@ import org.neo4j.logging.Log;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -21,20 +27,31 @@ public class CsvEntityLoader {
     private final CsvLoaderConfig clc;
     private final ProgressReporter reporter;
     private final Log log;
+    private final ExecutorService executor;
 
     /**
      * @param clc configuration object
      * @param reporter
      */
     public CsvEntityLoader(CsvLoaderConfig clc, ProgressReporter reporter, Log log) {
+        this(clc, reporter, log, null);
+    }
+
+    /**
+     * @param clc configuration object
+     * @param reporter
+     * @param executor used to parse and convert the rows while the previous ones are written, if null the rows are parsed by the calling thread
+     */
+    public CsvEntityLoader(CsvLoaderConfig clc, ProgressReporter reporter, Log log, ExecutorService executor) {
         this.clc = clc;
         this.reporter = reporter;
         this.log = log;
+        this.executor = executor;
     }
 
     /**
      * Loads nodes from a CSV file with given labels to an online database, and fills the {@code idMapping},
-     * which will be used by the {@link #loadRelationships(Object, String, GraphDatabaseService, Map)}
+     * which will be used by the {@link #loadRelationships(Object, String, GraphDatabaseService, CsvIdMapping)}
      * method.
      *
      * @param fileName URI/Binary of the CSV file representing the node
@@ -44,7 +61,7 @@ public class CsvEntityLoader {
      * @throws IOException
      */
     public void loadNodes(final Object fileName, final List<String> labels, final GraphDatabaseService db,
-                          final Map<String, Map<String, Long>> idMapping) throws IOException {
+                          final CsvIdMapping idMapping) throws IOException {
         
         try (final CountingReader reader = FileUtils.readerFor(fileName, clc.getCompressionAlgo())) {
             final String header = readFirstLine(reader);
@@ -62,83 +79,72 @@ public class CsvEntityLoader {
             final Optional<String> idAttribute = idField.isPresent() ? Optional.of(idField.get().getName()) : Optional.empty();
             final String idSpace = idField.isPresent() ? idField.get().getIdSpace() : CsvLoaderConstants.DEFAULT_IDSPACE;
 
-            idMapping.putIfAbsent(idSpace, new HashMap<>());
-            final Map<String, Long> idspaceIdMapping = idMapping.get(idSpace);
+            final SpillableIdMap idspaceIdMapping = idMapping.idSpace(idSpace);
 
             final Map<String, Mapping> mapping = getMapping(fields);
 
             final CSVReader csv = new CSVReader(reader, clc.getDelimiter(), clc.getQuotationCharacter());
 
             final String[] loadCsvCompatibleHeader = fields.stream().map(f -> f.getName()).toArray(String[]::new);
-            int lineNo = 0;
-            try (BatchTransaction btx = new BatchTransaction(db, clc.getBatchSize(), reporter)) {
-                for (String[] line : csv.readAll()) {
-                    lineNo++;
-
-                    final EnumSet<Results> results = EnumSet.of(Results.map);
-                    final CSVResult result = new CSVResult(
-                            loadCsvCompatibleHeader, line, lineNo, false, mapping, Collections.emptyList(), results
-                    );
-
-                    final String nodeCsvId = (String) idAttribute.map(result.map::get).orElse(null);
-
-                    // if 'ignore duplicate nodes' is false, there is an id field and the mapping already has the current id,
-                    // we either fail the loading process or skip it depending on the 'ignore duplicate nodes' setting
-                    if (idField.isPresent() && idspaceIdMapping.containsKey(nodeCsvId)) {
-                        if (clc.getIgnoreDuplicateNodes()) {
-                            continue;
-                        } else {
-                            throw new IllegalStateException("Duplicate node with id " + nodeCsvId + " found on line " + lineNo + "\n"
-                                    + Arrays.toString(line));
+            final CSVHeader csvHeader = new CSVHeader(loadCsvCompatibleHeader, false, mapping, Collections.emptyList());
+            final EnumSet<Results> results = EnumSet.of(Results.map);
+            final List<Label> defaultLabels = labels.stream().map(Label::label).collect(Collectors.toList());
+
+            write(csv, db, (line, lineNo) -> {
+                final CSVResult result = new CSVResult(csvHeader, line, lineNo, results);
+
+                final String nodeCsvId = (String) idAttribute.map(result.map::get).orElse(null);
+                final List<Label> nodeLabels = new ArrayList<>(defaultLabels);
+                final Map<String, Object> properties = new LinkedHashMap<>();
+                for (CsvHeaderField field : fields) {
+                    final String name = field.getName();
+                    Object value = result.map.get(name);
+
+                    if (field.isMeta()) {
+                        final List<String> customLabels = (List<String>) value;
+                        for (String customLabel : customLabels) {
+                            nodeLabels.add(Label.label(customLabel));
                         }
-                    }
-
-                    // create node and add its id to the mapping
-                    final Node node = btx.getTransaction().createNode();
-                    if (idField.isPresent()) {
-                        idspaceIdMapping.put(nodeCsvId, node.getId());
-                    }
-
-                    // add labels
-                    for (String label : labels) {
-                        node.addLabel(Label.label(label));
-                    }
-
-                    // add properties
-                    int props = 0;
-                    for (CsvHeaderField field : fields) {
-                        final String name = field.getName();
-                        Object value = result.map.get(name);
-
-                        if (field.isMeta()) {
-                            final List<String> customLabels = (List<String>) value;
-                            for (String customLabel : customLabels) {
-                                node.addLabel(Label.label(customLabel));
-                            }
-                        } else if (field.isId()) {
-                            final Object idValue;
-                            if (clc.getStringIds()) {
-                                idValue = value;
-                            } else {
-                                idValue = Long.valueOf((String) value);
-                            }
-                            node.setProperty(field.getName(), idValue);
-                            props++;
+                    } else if (field.isId()) {
+                        final Object idValue;
+                        if (clc.getStringIds()) {
+                            idValue = value;
                         } else {
-                            boolean propertyAdded = CsvPropertyConverter.addPropertyToGraphEntity(node, field, value,clc);
-                            props += propertyAdded ? 1 : 0;
+                            idValue = Long.valueOf((String) value);
+                        }
+                        properties.put(name, idValue);
+                    } else {
+                        final Object propertyValue = CsvPropertyConverter.toPropertyValue(field, value, clc);
+                        if (propertyValue != null) {
+                            properties.put(name, propertyValue);
                         }
                     }
-                    reporter.update(1, 0, props++);
                 }
-            }
+                return new NodeRow(lineNo, line, nodeCsvId, nodeLabels, properties);
+            }, (tx, row) -> {
+                final Node node = tx.createNode(row.labels.toArray(new Label[0]));
+                // the files of an id space can be loaded concurrently, the map checks and adds the id as a single step
+                if (idField.isPresent() && idspaceIdMapping.putIfAbsent(row.csvId, node.getId()) != SpillableIdMap.NOT_FOUND) {
+                    // if 'ignore duplicate nodes' is false, there is an id field and the mapping already has the current id,
+                    // we either fail the loading process or skip it depending on the 'ignore duplicate nodes' setting
+                    node.delete();
+                    if (clc.getIgnoreDuplicateNodes()) {
+                        return;
+                    } else {
+                        throw new IllegalStateException("Duplicate node with id " + row.csvId + " found on line " + row.lineNo + "\n"
+                                + Arrays.toString(row.line));
+                    }
+                }
+                row.properties.forEach(node::setProperty);
+                reporter.update(1, 0, row.properties.size());
+            });
         }
     }
 
     /**
      * Loads relationships from a CSV file with given relationship types to an online database,
      * using the {@code idMapping} created by the
-     * {@link #loadNodes(Object, List, GraphDatabaseService, Map)} method.
+     * {@link #loadNodes(Object, List, GraphDatabaseService, CsvIdMapping)} method.
      *
      * @param data URI / Binary of the CSV file representing the relationship
      * @param type relationship type to be applied to each relationships
@@ -151,7 +157,7 @@ public class CsvEntityLoader {
             final Object data, 
             final String type,
             final GraphDatabaseService db,
-            final Map<String, Map<String, Long>> idMapping) throws IOException {
+            final CsvIdMapping idMapping) throws IOException {
         
         try (final CountingReader reader = FileUtils.readerFor(data, clc.getCompressionAlgo())) {
             final String header = readFirstLine(reader);
@@ -174,51 +180,186 @@ public class CsvEntityLoader {
 
             final CSVReader csv = new CSVReader(reader, clc.getDelimiter());
             final String[] loadCsvCompatibleHeader = fields.stream().map(f -> f.getName()).toArray(String[]::new);
+            final CSVHeader csvHeader = new CSVHeader(loadCsvCompatibleHeader, false, mapping, Collections.emptyList());
+            final EnumSet<Results> results = EnumSet.of(Results.map);
+            // the node ids are all known at this point, so the workers can resolve the endpoints
+            final SpillableIdMap startIdMapping = idMapping.idSpace(startIdField.getIdSpace());
+            final SpillableIdMap endIdMapping = idMapping.idSpace(endIdField.getIdSpace());
+
+            final RowParser<RelationshipRow> parser = (line, lineNo) -> {
+                final CSVResult result = new CSVResult(csvHeader, line, lineNo, results);
+
+                final Object startId = result.map.get(CsvLoaderConstants.START_ID_ATTR);
+                final long startInternalId = startIdMapping.get((String) startId);
+                if (startInternalId == SpillableIdMap.NOT_FOUND) {
+                    throw new IllegalStateException("Node for id space " + startIdField.getIdSpace() + " and id " + startId + " not found");
+                }
 
-            int lineNo = 0;
-            try (BatchTransaction btx = new BatchTransaction(db, clc.getBatchSize(), reporter)) {
-                for (String[] line : csv.readAll()) {
-                    lineNo++;
-
-                    final EnumSet<Results> results = EnumSet.of(Results.map);
-                    final CSVResult result = new CSVResult(
-                            loadCsvCompatibleHeader, line, lineNo, false, mapping, Collections.emptyList(), results
-                    );
-
-                    final Object startId = result.map.get(CsvLoaderConstants.START_ID_ATTR);
-                    final Object startInternalId = idMapping.get(startIdField.getIdSpace()).get(startId);
-                    if (startInternalId == null) {
-                        throw new IllegalStateException("Node for id space " + endIdField.getIdSpace() + " and id " + startId + " not found");
-                    }
-                    final Node source = btx.getTransaction().getNodeById((long) startInternalId);
+                final Object endId = result.map.get(CsvLoaderConstants.END_ID_ATTR);
+                final long endInternalId = endIdMapping.get((String) endId);
+                if (endInternalId == SpillableIdMap.NOT_FOUND) {
+                    throw new IllegalStateException("Node for id space " + endIdField.getIdSpace() + " and id " + endId + " not found");
+                }
 
-                    final Object endId = result.map.get(CsvLoaderConstants.END_ID_ATTR);
-                    final Object endInternalId = idMapping.get(endIdField.getIdSpace()).get(endId);
-                    if (endInternalId == null) {
-                        throw new IllegalStateException("Node for id space " + endIdField.getIdSpace() + " and id " + endId + " not found");
-                    }
-                    final Node target = btx.getTransaction().getNodeById((long) endInternalId);
+                final String currentType;
+                final Object overridingType = result.map.get(CsvLoaderConstants.TYPE_ATTR);
+                if (overridingType != null && !((String) overridingType).isEmpty()) {
+                    currentType = (String) overridingType;
+                } else {
+                    currentType = type;
+                }
 
-                    final String currentType;
-                    final Object overridingType = result.map.get(CsvLoaderConstants.TYPE_ATTR);
-                    if (overridingType != null && !((String) overridingType).isEmpty()) {
-                        currentType = (String) overridingType;
-                    } else {
-                        currentType = type;
+                final Map<String, Object> properties = new LinkedHashMap<>();
+                for (CsvHeaderField field : edgePropertiesFields) {
+                    final Object propertyValue = CsvPropertyConverter.toPropertyValue(field, result.map.get(field.getName()), clc);
+                    if (propertyValue != null) {
+                        properties.put(field.getName(), propertyValue);
                     }
-                    final Relationship rel = source.createRelationshipTo(target, RelationshipType.withName(currentType));
-
-                    // add properties
-                    int props = 0;
-                    for (CsvHeaderField field : edgePropertiesFields) {
-                        final String name = field.getName();
-                        Object value = result.map.get(name);
-                        boolean propertyAdded = CsvPropertyConverter.addPropertyToGraphEntity(rel, field, value, clc);
-                        props += propertyAdded ? 1 : 0;
+                }
+                return new RelationshipRow(lineNo, startInternalId, endInternalId, RelationshipType.withName(currentType), properties);
+            };
+
+            if (clc.isParallel() && executor != null) {
+                final ParallelRelationshipWriter writer = new ParallelRelationshipWriter(db, executor, clc.getBatchSize(), reporter, log);
+                pipeline(csv, parser, writer::add);
+                writer.finish();
+            } else {
+                // each chunk is a batch, so it can be retried when it conflicts with the files loaded concurrently
+                pipeline(csv, parser, rows -> reporter.update(0, rows.size(), ParallelRelationshipWriter.writeBatch(db, rows)));
+            }
+        }
+    }
+
+    private interface RowParser<T> {
+        T parse(String[] line, int lineNo);
+    }
+
+    private interface RowWriter<T> {
+        void write(Transaction tx, T row);
+    }
+
+    private static class NodeRow {
+        final int lineNo;
+        final String[] line;
+        final String csvId;
+        final List<Label> labels;
+        final Map<String, Object> properties;
+
+        NodeRow(int lineNo, String[] line, String csvId, List<Label> labels, Map<String, Object> properties) {
+            this.lineNo = lineNo;
+            this.line = line;
+            this.csvId = csvId;
+            this.labels = labels;
+            this.properties = properties;
+        }
+    }
+
+    static class RelationshipRow {
+        final int lineNo;
+        final long startId;
+        final long endId;
+        final RelationshipType type;
+        final Map<String, Object> properties;
+
+        RelationshipRow(int lineNo, long startId, long endId, RelationshipType type, Map<String, Object> properties) {
+            this.lineNo = lineNo;
+            this.startId = startId;
+            this.endId = endId;
+            this.type = type;
+            this.properties = properties;
+        }
+
+        /**
+         * @return the number of properties set
+         */
+        int create(Transaction tx) {
+            final Node source = tx.getNodeById(startId);
+            final Node target = tx.getNodeById(endId);
+            final Relationship rel = source.createRelationshipTo(target, type);
+            properties.forEach(rel::setProperty);
+            return properties.size();
+        }
+    }
+
+    /**
+     * Writes the rows of the file in file order, committing every {@code batchSize} rows.
+     */
+    private <T> void write(CSVReader csv, GraphDatabaseService db, RowParser<T> parser, RowWriter<T> writer) throws IOException {
+        try (BatchTransaction btx = new BatchTransaction(db, Math.max(1, clc.getBatchSize()), reporter)) {
+            pipeline(csv, parser, rows -> {
+                for (T row : rows) {
+                    writer.write(btx.getTransaction(), row);
+                    btx.increment();
+                }
+            });
+        }
+    }
+
+    /**
+     * Streams the rows of the file through a bounded pipeline: this thread reads chunks of {@code batchSize} lines,
+     * the executor parses and converts them and this thread hands the converted chunks to the consumer in file order.
+     * Only a few chunks are in flight at any time, so the memory used is proportional to the batch size
+     * and not to the size of the file.
+     */
+    private <T> void pipeline(CSVReader csv, RowParser<T> parser, Consumer<List<T>> consumer) throws IOException {
+        final int batchSize = Math.max(1, clc.getBatchSize());
+        final int maxPending = executor == null ? 0 : Math.max(2, Runtime.getRuntime().availableProcessors());
+        final Deque<FutureTask<List<T>>> pending = new ArrayDeque<>();
+        try {
+            int lineNo = 0;
+            List<String[]> lines = new ArrayList<>();
+            String[] line;
+            while ((line = csv.readNext()) != null) {
+                lines.add(line);
+                reporter.nextRow();
+                if (lines.size() == batchSize) {
+                    pending.addLast(parse(lines, lineNo, parser));
+                    lineNo += lines.size();
+                    lines = new ArrayList<>();
+                    while (pending.size() > maxPending) {
+                        consumer.accept(await(pending.removeFirst()));
                     }
-                    reporter.update(0, 1, props);
                 }
             }
+            if (!lines.isEmpty()) {
+                pending.addLast(parse(lines, lineNo, parser));
+            }
+            while (!pending.isEmpty()) {
+                consumer.accept(await(pending.removeFirst()));
+            }
+        } finally {
+            pending.forEach(task -> task.cancel(false));
+        }
+    }
+
+    private <T> FutureTask<List<T>> parse(List<String[]> lines, int lineNo, RowParser<T> parser) {
+        final FutureTask<List<T>> task = new FutureTask<>(() -> {
+            final List<T> rows = new ArrayList<>(lines.size());
+            int current = lineNo;
+            for (String[] line : lines) {
+                rows.add(parser.parse(line, ++current));
+            }
+            return rows;
+        });
+        if (executor != null) {
+            executor.execute(task);
+        }
+        return task;
+    }
+
+    // runs the task here if no worker has picked it up yet, so a busy pool cannot stall the import
+    static <V> V await(FutureTask<V> task) {
+        task.run();
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
         }
     }
 
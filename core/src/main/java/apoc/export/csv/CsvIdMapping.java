@@ -0,0 +1,33 @@
+package apoc.export.csv;
+
+import apoc.export.util.SpillableIdMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mapping between the CSV ids and the DB's internal node ids, one {@link SpillableIdMap} for each id space.
+ * The id spaces share a single memory budget. Deletes the spilled files of the id spaces when closed.
+ */
+public class CsvIdMapping implements AutoCloseable {
+
+    private final SpillableIdMap.Budget memoryBudget;
+    private final Map<String, SpillableIdMap> idSpaces = new HashMap<>();
+
+    /**
+     * @param memoryBudget bytes all the id spaces together can keep in memory before spilling entries to disk
+     */
+    public CsvIdMapping(long memoryBudget) {
+        this.memoryBudget = new SpillableIdMap.Budget(memoryBudget);
+    }
+
+    public synchronized SpillableIdMap idSpace(String idSpace) {
+        return idSpaces.computeIfAbsent(idSpace, k -> new SpillableIdMap(memoryBudget));
+    }
+
+    @Override
+    public synchronized void close() {
+        idSpaces.values().forEach(SpillableIdMap::close);
+        idSpaces.clear();
+    }
+}
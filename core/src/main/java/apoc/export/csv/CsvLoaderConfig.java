@@ -22,6 +22,10 @@ public class CsvLoaderConfig extends CompressionConfig {
     private static final String BATCH_SIZE = "batchSize";
     private static final String IGNORE_DUPLICATE_NODES = "ignoreDuplicateNodes";
     private static final String IGNORE_BLANK_STRING = "ignoreBlankString";
+    private static final String ID_MAPPING_MEMORY = "idMappingMemory";
+    private static final String PARALLEL = "parallel";
+    private static final String WORKERS = "workers";
+    private static final String REPORT_FILES = "reportFiles";
 
     private static char DELIMITER_DEFAULT = ',';
     private static char ARRAY_DELIMITER_DEFAULT = ';';
@@ -31,6 +35,10 @@ public class CsvLoaderConfig extends CompressionConfig {
     private static int BATCH_SIZE_DEFAULT = 2000;
     private static boolean IGNORE_DUPLICATE_NODES_DEFAULT = false;
     private static boolean IGNORE_BLANK_STRING_DEFAULT = false;
+    private static long ID_MAPPING_MEMORY_DEFAULT = Runtime.getRuntime().maxMemory() / 4;
+    private static boolean PARALLEL_DEFAULT = false;
+    private static int WORKERS_DEFAULT = 1;
+    private static boolean REPORT_FILES_DEFAULT = false;
 
     private final char delimiter;
     private final char arrayDelimiter;
@@ -40,6 +48,10 @@ public class CsvLoaderConfig extends CompressionConfig {
     private final int batchSize;
     private final boolean ignoreDuplicateNodes;
     private final boolean ignoreBlankString;
+    private final long idMappingMemory;
+    private final boolean parallel;
+    private final int workers;
+    private final boolean reportFiles;
 
     private CsvLoaderConfig(Builder builder) {
         super(Map.of(COMPRESSION, builder.compressionAlgo, CHARSET, builder.charset));
@@ -51,6 +63,10 @@ public class CsvLoaderConfig extends CompressionConfig {
         this.batchSize = builder.batchSize;
         this.ignoreDuplicateNodes = builder.ignoreDuplicateNodes;
         this.ignoreBlankString = builder.ignoreBlankString;
+        this.idMappingMemory = builder.idMappingMemory;
+        this.parallel = builder.parallel;
+        this.workers = builder.workers;
+        this.reportFiles = builder.reportFiles;
     }
 
     public char getDelimiter() {
@@ -83,6 +99,22 @@ public class CsvLoaderConfig extends CompressionConfig {
         return ignoreBlankString;
     }
 
+    public long getIdMappingMemory() {
+        return idMappingMemory;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public boolean isReportFiles() {
+        return reportFiles;
+    }
+
     /**
      * Creates builder to build {@link CsvLoaderConfig}.
      *
@@ -118,6 +150,10 @@ public class CsvLoaderConfig extends CompressionConfig {
         if (config.get(BATCH_SIZE) != null) builder.batchSize((int) config.get(BATCH_SIZE));
         if (config.get(IGNORE_DUPLICATE_NODES) != null) builder.ignoreDuplicateNodes((boolean) config.get(IGNORE_DUPLICATE_NODES));
         if (config.get(IGNORE_BLANK_STRING) != null) builder.ignoreBlankString((boolean) config.get(IGNORE_BLANK_STRING));
+        if (config.get(PARALLEL) != null) builder.parallel((boolean) config.get(PARALLEL));
+        if (config.get(WORKERS) != null) builder.workers(((Number) config.get(WORKERS)).intValue());
+        if (config.get(REPORT_FILES) != null) builder.reportFiles((boolean) config.get(REPORT_FILES));
+        if (config.get(ID_MAPPING_MEMORY) != null) builder.idMappingMemory(((Number) config.get(ID_MAPPING_MEMORY)).longValue());
         builder.binary((String) config.getOrDefault(COMPRESSION, CompressionAlgo.GZIP.name()));
         builder.charset((String) config.getOrDefault(CHARSET, UTF_8.name()));
         
@@ -136,6 +172,10 @@ public class CsvLoaderConfig extends CompressionConfig {
         private int batchSize = BATCH_SIZE_DEFAULT;
         private boolean ignoreDuplicateNodes = IGNORE_DUPLICATE_NODES_DEFAULT;
         private boolean ignoreBlankString = IGNORE_BLANK_STRING_DEFAULT;
+        private long idMappingMemory = ID_MAPPING_MEMORY_DEFAULT;
+        private boolean parallel = PARALLEL_DEFAULT;
+        private int workers = WORKERS_DEFAULT;
+        private boolean reportFiles = REPORT_FILES_DEFAULT;
         private String compressionAlgo = null;
         private String charset = UTF_8.name();
 
@@ -192,6 +232,26 @@ public class CsvLoaderConfig extends CompressionConfig {
             return this;
         }
 
+        public Builder idMappingMemory(long idMappingMemory) {
+            this.idMappingMemory = idMappingMemory;
+            return this;
+        }
+
+        public Builder parallel(boolean parallel) {
+            this.parallel = parallel;
+            return this;
+        }
+
+        public Builder workers(int workers) {
+            this.workers = Math.max(1, workers);
+            return this;
+        }
+
+        public Builder reportFiles(boolean reportFiles) {
+            this.reportFiles = reportFiles;
+            return this;
+        }
+
         public CsvLoaderConfig build() {
             return new CsvLoaderConfig(this);
         }
@@ -16,25 +16,34 @@ import java.util.Objects;
 public class CsvPropertyConverter {
 
     public static boolean addPropertyToGraphEntity(Entity entity, CsvHeaderField field, Object value, CsvLoaderConfig config) {
-        if (field.isIgnore() || value == null) {
+        final Object propertyValue = toPropertyValue(field, value, config);
+        if (propertyValue == null) {
             return false;
         }
+        entity.setProperty(field.getName(), propertyValue);
+        return true;
+    }
+
+    /**
+     * @return the value to be set as property of the graph entity, or null if the property must not be added
+     */
+    public static Object toPropertyValue(CsvHeaderField field, Object value, CsvLoaderConfig config) {
+        if (field.isIgnore() || value == null) {
+            return null;
+        }
         if (field.isArray()) {
             final List list = (List) value;
             final boolean listContainingNull = list.stream().anyMatch(Objects::isNull);
             if (listContainingNull) {
-                return false;
+                return null;
             }
             final Object[] prototype = getPrototypeFor(field.getType().toUpperCase());
-            final Object[] array = list.toArray(prototype);
-            entity.setProperty(field.getName(), array);
-        } else {
-            if (config.isIgnoreBlankString() && value instanceof String && StringUtils.isBlank((String) value)) {
-                return false;
-            }
-            entity.setProperty(field.getName(), value);
+            return list.toArray(prototype);
         }
-        return true;
+        if (config.isIgnoreBlankString() && value instanceof String && StringUtils.isBlank((String) value)) {
+            return null;
+        }
+        return value;
     }
 
     static Object[] getPrototypeFor(String type) {
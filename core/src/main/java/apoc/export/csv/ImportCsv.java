@@ -3,14 +3,21 @@ package apoc.export.csv;
 import apoc.Pools;
 import apoc.export.util.ProgressReporter;
 import apoc.result.ProgressInfo;
+import apoc.util.FileUtils;
 import apoc.util.Util;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.*;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.FutureTask;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class ImportCsv {
@@ -37,7 +44,7 @@ public class ImportCsv {
             @Name("relationships") List<Map<String, Object>> relationships,
             @Name("config") Map<String, Object> config
     ) throws Exception {
-        ProgressInfo result =
+        List<ProgressInfo> result =
                 Util.inThread(pools, () -> {
 
                     String file = "progress.csv";
@@ -48,25 +55,132 @@ public class ImportCsv {
                     }
                     final CsvLoaderConfig clc = CsvLoaderConfig.from(config);
                     final ProgressReporter reporter = new ProgressReporter(null, null, new ProgressInfo(file, source, "csv"));
-                    final CsvEntityLoader loader = new CsvEntityLoader(clc, reporter, log);
 
-                    final Map<String, Map<String, Long>> idMapping = new HashMap<>();
-                    for (Map<String, Object> node : nodes) {
-                        final Object data = node.getOrDefault("fileName", node.get("data"));
-                        final List<String> labels = (List<String>) node.get("labels");
-                        loader.loadNodes(data, labels, db, idMapping);
+                    final List<FileImport> files = new ArrayList<>();
+                    try (CsvIdMapping idMapping = new CsvIdMapping(clc.getIdMappingMemory())) {
+                        // all the nodes are loaded before the relationships that refer to them
+                        final List<FileImport> nodeFiles = new ArrayList<>();
+                        for (Map<String, Object> node : nodes) {
+                            final Object data = node.getOrDefault("fileName", node.get("data"));
+                            final List<String> labels = (List<String>) node.get("labels");
+                            addFiles(nodeFiles, data, (loader, fileData) -> loader.loadNodes(fileData, labels, db, idMapping));
+                        }
+                        load(nodeFiles, clc, clc.getWorkers());
+                        files.addAll(nodeFiles);
+
+                        final List<FileImport> relationshipFiles = new ArrayList<>();
+                        for (Map<String, Object> relationship : relationships) {
+                            final Object fileName = relationship.getOrDefault("fileName", relationship.get("data"));
+                            final String type = (String) relationship.get("type");
+                            addFiles(relationshipFiles, fileName, (loader, fileData) -> loader.loadRelationships(fileData, type, db, idMapping));
+                        }
+                        // the ranges of nodes of the parallel writers are only disjoint within a file, so its files are loaded one by one
+                        load(relationshipFiles, clc, clc.isParallel() ? 1 : clc.getWorkers());
+                        files.addAll(relationshipFiles);
                     }
 
-                    for (Map<String, Object> relationship : relationships) {
-                        final Object fileName = relationship.getOrDefault("fileName", relationship.get("data"));
-                        final String type = (String) relationship.get("type");
-                        loader.loadRelationships(fileName, type, db, idMapping);
+                    for (FileImport fileImport : files) {
+                        reporter.update(fileImport.progress.nodes, fileImport.progress.relationships, fileImport.progress.properties);
                     }
+                    final ProgressInfo total = reporter.getTotal();
+                    total.rows = files.stream().mapToLong(fileImport -> fileImport.progress.rows).sum();
 
-                    return reporter.getTotal();
+                    final List<ProgressInfo> results = new ArrayList<>();
+                    if (clc.isReportFiles()) {
+                        files.forEach(fileImport -> results.add(fileImport.progress));
+                    }
+                    results.add(total);
+                    return results;
                 });
-        return Stream.of(result);
+        return result.stream();
+    }
+
+    private interface FileLoader {
+        void load(CsvEntityLoader loader, Object data) throws IOException;
     }
 
+    /**
+     * The import of a single file, with its own counts, timing and error.
+     */
+    private class FileImport {
+        final Object data;
+        final FileLoader fileLoader;
+        final ProgressInfo progress;
+        RuntimeException error;
+
+        FileImport(Object data, FileLoader fileLoader) {
+            this.data = data;
+            this.fileLoader = fileLoader;
+            this.progress = data instanceof String
+                    ? new ProgressInfo((String) data, "file", "csv")
+                    : new ProgressInfo(null, "binary", "csv");
+        }
 
+        void run(CsvLoaderConfig clc) {
+            final ProgressReporter reporter = new ProgressReporter(null, null, progress);
+            try {
+                fileLoader.load(new CsvEntityLoader(clc, reporter, log, pools.getDefaultExecutorService()), data);
+            } catch (IOException e) {
+                error = new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+            reporter.getTotal();
+            if (error != null) {
+                progress.done = false;
+                progress.data = error.getMessage();
+            }
+        }
+    }
+
+    // a file name can be a glob pattern over the import directory, like 'file:/nodes-*.csv.gz'
+    private void addFiles(List<FileImport> files, Object data, FileLoader fileLoader) throws IOException {
+        if (data instanceof String) {
+            for (String fileName : FileUtils.expandGlob((String) data)) {
+                files.add(new FileImport(fileName, fileLoader));
+            }
+        } else {
+            files.add(new FileImport(data, fileLoader));
+        }
+    }
+
+    /**
+     * Loads the files with up to {@code workers} files at the same time.
+     * Unless the files are reported one by one, the import fails with the errors of the files that failed.
+     */
+    private void load(List<FileImport> files, CsvLoaderConfig clc, int workers) {
+        final Deque<FutureTask<Void>> pending = new ArrayDeque<>();
+        for (FileImport file : files) {
+            if (workers == 1) {
+                file.run(clc);
+                if (file.error != null && !clc.isReportFiles()) {
+                    throw file.error;
+                }
+                continue;
+            }
+            final FutureTask<Void> task = new FutureTask<>(() -> file.run(clc), null);
+            pools.getDefaultExecutorService().execute(task);
+            pending.addLast(task);
+            if (pending.size() >= workers) {
+                CsvEntityLoader.await(pending.removeFirst());
+            }
+        }
+        while (!pending.isEmpty()) {
+            CsvEntityLoader.await(pending.removeFirst());
+        }
+
+        final List<FileImport> failed = files.stream().filter(file -> file.error != null).collect(Collectors.toList());
+        if (failed.isEmpty() || clc.isReportFiles()) {
+            return;
+        }
+        if (failed.size() == 1) {
+            throw failed.get(0).error;
+        }
+        final String errors = failed.stream()
+                .map(file -> file.progress.file + ": " + file.error.getMessage())
+                .collect(Collectors.joining("\n"));
+        final IllegalStateException exception = new IllegalStateException(failed.size() + " files failed to import:\n" + errors);
+        failed.forEach(file -> exception.addSuppressed(file.error));
+        throw exception;
+    }
 }
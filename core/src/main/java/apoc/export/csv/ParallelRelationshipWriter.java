@@ -0,0 +1,105 @@
+package apoc.export.csv;
+
+import apoc.export.csv.CsvEntityLoader.RelationshipRow;
+import apoc.export.util.DisjointRangeScheduler;
+import apoc.export.util.ProgressReporter;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.logging.Log;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates the relationships of an import concurrently without lock contention between the transactions.
+ *
+ * The rows are collected in windows, which are written by a {@link DisjointRangeScheduler} on the ranges of their node ids.
+ *
+ * A batch that fails is reported and does not stop the others, {@link #finish()} fails with all the failed batches.
+ */
+class ParallelRelationshipWriter {
+
+    private static final int MAX_REPORTED_FAILURES = 10;
+
+    private final GraphDatabaseService db;
+    private final int batchSize;
+    private final ProgressReporter reporter;
+    private final Log log;
+    private final DisjointRangeScheduler<RelationshipRow> scheduler;
+    private final int windowSize;
+    private final List<RelationshipRow> window = new ArrayList<>();
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+    private final AtomicLong failedRows = new AtomicLong();
+
+    ParallelRelationshipWriter(GraphDatabaseService db, ExecutorService executor, int batchSize, ProgressReporter reporter, Log log) {
+        this.db = db;
+        this.batchSize = Math.max(1, batchSize);
+        this.reporter = reporter;
+        this.log = log;
+        this.scheduler = new DisjointRangeScheduler<>(executor, Runtime.getRuntime().availableProcessors(), row -> row.startId, row -> row.endId);
+        // a few batches for each range, so the memory stays proportional to the batch size
+        this.windowSize = (int) Math.min(Integer.MAX_VALUE - 8, (long) this.batchSize * scheduler.getPartitions() * 4);
+    }
+
+    void add(List<RelationshipRow> rows) {
+        window.addAll(rows);
+        if (window.size() >= windowSize) {
+            flush();
+        }
+    }
+
+    void finish() {
+        flush();
+        if (!failures.isEmpty()) {
+            final List<String> reported = new ArrayList<>(failures);
+            final String details = String.join("\n", reported.subList(0, Math.min(MAX_REPORTED_FAILURES, reported.size())));
+            throw new IllegalStateException(reported.size() + " relationship batch(es) with " + failedRows + " row(s) failed:\n" + details
+                    + (reported.size() > MAX_REPORTED_FAILURES ? "\n..." : ""));
+        }
+    }
+
+    private void flush() {
+        scheduler.schedule(window, this::write, counts -> reporter.update(0, counts[0], counts[1]));
+        window.clear();
+    }
+
+    // returns the relationships and the properties created
+    private long[] write(List<RelationshipRow> rows) {
+        rows.sort(Comparator.<RelationshipRow>comparingLong(row -> row.startId).thenComparingLong(row -> row.endId));
+        final long[] counts = new long[2];
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            final List<RelationshipRow> batch = rows.subList(from, Math.min(rows.size(), from + batchSize));
+            try {
+                counts[1] += writeBatch(db, batch);
+                counts[0] += batch.size();
+            } catch (Exception e) {
+                final int firstLine = batch.stream().mapToInt(row -> row.lineNo).min().getAsInt();
+                final int lastLine = batch.stream().mapToInt(row -> row.lineNo).max().getAsInt();
+                final String failure = "Batch of " + batch.size() + " relationship(s) between lines " + firstLine + " and " + lastLine + " failed: " + e.getMessage();
+                log.error(failure, e);
+                failures.add(failure);
+                failedRows.addAndGet(batch.size());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Creates the relationships in a single transaction, retried on transient failures like deadlocks.
+     *
+     * @return the number of properties set
+     */
+    static long writeBatch(GraphDatabaseService db, List<RelationshipRow> batch) {
+        return DisjointRangeScheduler.inTransaction(db, tx -> {
+            long properties = 0;
+            for (RelationshipRow row : batch) {
+                properties += row.create(tx);
+            }
+            return properties;
+        });
+    }
+}
@@ -139,7 +139,7 @@ public class ExportCypher {
     }
 
     private void doExport(SubGraph graph, ExportConfig c, boolean onlySchema, ProgressReporter reporter, ExportFileManager cypherFileManager) {
-        MultiStatementCypherSubGraphExporter exporter = new MultiStatementCypherSubGraphExporter(graph, c, db);
+        MultiStatementCypherSubGraphExporter exporter = new MultiStatementCypherSubGraphExporter(graph, c, db, pools.getDefaultExecutorService());
 
         if (onlySchema)
             exporter.exportOnlySchema(cypherFileManager, c);
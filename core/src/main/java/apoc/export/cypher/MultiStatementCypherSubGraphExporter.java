@@ -15,6 +15,7 @@ import org.neo4j.internal.helpers.collection.Iterables;
 
 import java.io.PrintWriter;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -66,13 +67,22 @@ public class MultiStatementCypherSubGraphExporter {
     private CypherFormatter cypherFormat;
     private ExportConfig exportConfig;
     private GraphDatabaseService db;
+    private ExecutorService executor;
 
     public MultiStatementCypherSubGraphExporter(SubGraph graph, ExportConfig config, GraphDatabaseService db) {
+        this(graph, config, db, null);
+    }
+
+    /**
+     * With an executor and <code>parallel: true</code> the UNWIND batched node and relationship statements are formatted concurrently.
+     */
+    public MultiStatementCypherSubGraphExporter(SubGraph graph, ExportConfig config, GraphDatabaseService db, ExecutorService executor) {
         this.graph = graph;
         this.exportFormat = config.getFormat();
         this.exportConfig = config;
         this.cypherFormat = config.getCypherFormat().getFormatter();
         this.db = db;
+        this.executor = executor;
         gatherUniqueConstraints();
     }
 
@@ -143,7 +153,7 @@ public class MultiStatementCypherSubGraphExporter {
 
     private void exportNodesUnwindBatch(PrintWriter out, Reporter reporter) {
         if (graph.getNodes().iterator().hasNext()) {
-            this.cypherFormat.statementForNodes(graph.getNodes(), uniqueConstraints, exportConfig, out, reporter, db);
+            this.cypherFormat.statementForNodes(graph.getNodes(), uniqueConstraints, exportConfig, out, reporter, db, executor);
             out.flush();
         }
     }
@@ -180,7 +190,7 @@ public class MultiStatementCypherSubGraphExporter {
 
     private void exportRelationshipsUnwindBatch(PrintWriter out, Reporter reporter) {
         if (graph.getRelationships().iterator().hasNext()) {
-            this.cypherFormat.statementForRelationships(graph.getRelationships(), uniqueConstraints, exportConfig, out, reporter, db);
+            this.cypherFormat.statementForRelationships(graph.getRelationships(), uniqueConstraints, exportConfig, out, reporter, db, executor);
             out.flush();
         }
     }
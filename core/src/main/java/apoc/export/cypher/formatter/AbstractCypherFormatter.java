@@ -5,6 +5,7 @@ import apoc.export.util.ExportFormat;
 import apoc.export.util.Reporter;
 import apoc.util.Util;
 import org.apache.commons.lang3.StringUtils;
+import org.neo4j.graphdb.Entity;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
@@ -15,7 +16,11 @@ import org.neo4j.internal.helpers.collection.Iterables;
 
 import java.io.PrintWriter;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -136,8 +141,7 @@ abstract class AbstractCypherFormatter implements CypherFormatter {
 									   Iterable<Node> nodes, Map<String, Set<String>> uniqueConstraints,
 									   ExportConfig exportConfig,
 									   PrintWriter out, Reporter reporter,
-									   GraphDatabaseService db) {
-		AtomicInteger nodeCount = new AtomicInteger(0);
+									   GraphDatabaseService db, ExecutorService executor) {
 		Function<Node, Map.Entry<Set<String>, Set<String>>> keyMapper = (node) -> {
 			try (Transaction tx = db.beginTx()) {
 				node = tx.getNodeById(node.getId());
@@ -150,53 +154,43 @@ abstract class AbstractCypherFormatter implements CypherFormatter {
 		Map<Map.Entry<Set<String>, Set<String>>, List<Node>> groupedData = StreamSupport.stream(nodes.spliterator(), true)
 				.collect(Collectors.groupingByConcurrent(keyMapper));
 
-		AtomicInteger propertiesCount = new AtomicInteger(0);
-
-		AtomicInteger batchCount = new AtomicInteger(0);
-		groupedData.forEach((key, nodeList) -> {
-			AtomicInteger unwindCount = new AtomicInteger(0);
-			final int nodeListSize = nodeList.size();
-			final Node last = nodeList.get(nodeListSize - 1);
-			nodeCount.addAndGet(nodeListSize);
-			for (int index = 0; index < nodeList.size(); index++) {
-				Node node = nodeList.get(index);
-				writeBatchBegin(exportConfig, out, batchCount);
-				writeUnwindStart(exportConfig, out, unwindCount);
-				batchCount.incrementAndGet();
-				unwindCount.incrementAndGet();
+		List<UnwindBlock<Map.Entry<Set<String>, Set<String>>, Node>> blocks = toUnwindBlocks(groupedData, exportConfig);
+		UnwindBlockFormatter<Map.Entry<Set<String>, Set<String>>, Node> formatter = (block, rebind, sb) -> {
+			long propertiesCount = 0;
+			writeUnwindStart(exportConfig, sb);
+			for (int index = 0; index < block.entities.size(); index++) {
+				Node node = rebind.apply(block.entities.get(index));
+				if (index > 0) {
+					sb.append(", ");
+				}
 				Map<String, Object> props = node.getAllProperties();
 				// start element
-				out.append("{");
+				sb.append("{");
 
 				// id
 				Map<String, Object> idMap = CypherFormatterUtils.getNodeIdProperties(node, uniqueConstraints);
-				writeNodeIds(out, idMap);
+				writeNodeIds(sb, idMap);
 
 				// properties
-				out.append(", ");
-				out.append("properties:");
+				sb.append(", ");
+				sb.append("properties:");
 
-				propertiesCount.addAndGet(props.size());
+				propertiesCount += props.size();
 				props.keySet().removeAll(idMap.keySet());
-				writeProperties(out, props);
+				writeProperties(sb, props);
 
 				// end element
-				out.append("}");
-				if (last.equals(node) || isBatchMatch(exportConfig, batchCount) || isUnwindBatchMatch(exportConfig, unwindCount)) {
-					closeUnwindNodes(nodeClause, setClause, uniqueConstraints, exportConfig, out, key, last);
-					writeBatchEnd(exportConfig, out, batchCount);
-					unwindCount.set(0);
-				} else {
-					out.append(", ");
-				}
+				sb.append("}");
 			}
-		});
-		addCommitToEnd(exportConfig, out, batchCount);
+			closeUnwindNodes(nodeClause, setClause, uniqueConstraints, exportConfig, sb, block.key, rebind.apply(block.last));
+			return propertiesCount;
+		};
+		long propertiesCount = writeUnwindBlocks(blocks, formatter, (tx, node) -> tx.getNodeById(node.getId()), exportConfig, out, db, executor);
 
-		reporter.update(nodeCount.get(), 0, propertiesCount.longValue());
+		reporter.update(countEntities(groupedData), 0, propertiesCount);
 	}
 
-	private void closeUnwindNodes(String nodeClause, String setClause, Map<String, Set<String>> uniqueConstraints, ExportConfig exportConfig, PrintWriter out, Map.Entry<Set<String>, Set<String>> key, Node last) {
+	private void closeUnwindNodes(String nodeClause, String setClause, Map<String, Set<String>> uniqueConstraints, ExportConfig exportConfig, StringBuilder out, Map.Entry<Set<String>, Set<String>> key, Node last) {
 		writeUnwindEnd(exportConfig, out);
 		out.append(StringUtils.LF);
 		out.append(nodeClause);
@@ -221,33 +215,27 @@ abstract class AbstractCypherFormatter implements CypherFormatter {
 		out.append(StringUtils.LF);
 	}
 
-	private void writeSetProperties(PrintWriter out, Set<String> value) {
+	private void writeSetProperties(StringBuilder out, Set<String> value) {
 		writeSetProperties(out, value, null);
 	}
 
-	private void writeSetProperties(PrintWriter out, Set<String> value, String prefix) {
+	private void writeSetProperties(StringBuilder out, Set<String> value, String prefix) {
 		if (prefix == null) prefix = "";
 		int size = value.size();
 		for (String s: value) {
 			--size;
-			out.append(Util.quote(s) + ": row." + prefix + formatNodeId(s));
+			out.append(Util.quote(s)).append(": row.").append(prefix).append(formatNodeId(s));
 			if (size > 0) {
 				out.append(", ");
 			}
 		}
 	}
 
-	private boolean isBatchMatch(ExportConfig exportConfig, AtomicInteger batchCount) {
-		return batchCount.get() % exportConfig.getBatchSize() == 0;
-	}
-
 	public void buildStatementForRelationships(String relationshipClause,
 											   String setClause, Iterable<Relationship> relationship,
 											   Map<String, Set<String>> uniqueConstraints, ExportConfig exportConfig,
 											   PrintWriter out, Reporter reporter,
-											   GraphDatabaseService db) {
-		AtomicInteger relCount = new AtomicInteger(0);
-
+											   GraphDatabaseService db, ExecutorService executor) {
 		Function<Relationship, Map<String, Object>> keyMapper = (rel) -> {
 			try (Transaction tx = db.beginTx()) {
 				rel = tx.getRelationshipById(rel.getId());
@@ -273,60 +261,49 @@ abstract class AbstractCypherFormatter implements CypherFormatter {
 		Map<Map<String, Object>, List<Relationship>> groupedData = StreamSupport.stream(relationship.spliterator(), true)
 				.collect(Collectors.groupingByConcurrent(keyMapper));
 
-		AtomicInteger propertiesCount = new AtomicInteger(0);
-		AtomicInteger batchCount = new AtomicInteger(0);
-
 		String start = "start";
 		String end = "end";
-		groupedData.forEach((path, relationshipList) -> {
-			AtomicInteger unwindCount = new AtomicInteger(0);
-			final int relSize = relationshipList.size();
-			relCount.addAndGet(relSize);
-			final Relationship last = relationshipList.get(relSize - 1);
-			for (int index = 0; index < relationshipList.size(); index++) {
-				Relationship rel = relationshipList.get(index);
-				writeBatchBegin(exportConfig, out, batchCount);
-				writeUnwindStart(exportConfig, out, unwindCount);
-				batchCount.incrementAndGet();
-				unwindCount.incrementAndGet();
+		List<UnwindBlock<Map<String, Object>, Relationship>> blocks = toUnwindBlocks(groupedData, exportConfig);
+		UnwindBlockFormatter<Map<String, Object>, Relationship> formatter = (block, rebind, sb) -> {
+			long propertiesCount = 0;
+			writeUnwindStart(exportConfig, sb);
+			for (int index = 0; index < block.entities.size(); index++) {
+				Relationship rel = rebind.apply(block.entities.get(index));
+				if (index > 0) {
+					sb.append(", ");
+				}
 				Map<String, Object> props = rel.getAllProperties();
 				// start element
-				out.append("{");
+				sb.append("{");
 
 				// start node
 				Node startNode = rel.getStartNode();
-				writeRelationshipNodeIds(uniqueConstraints, out, start, startNode);
+				writeRelationshipNodeIds(uniqueConstraints, sb, start, startNode);
 
-				out.append(", ");
+				sb.append(", ");
 
 				// end node
 				Node endNode = rel.getEndNode();
-				writeRelationshipNodeIds(uniqueConstraints, out, end, endNode);
+				writeRelationshipNodeIds(uniqueConstraints, sb, end, endNode);
 
 				// properties
-				out.append(", ");
-				out.append("properties:");
-				writeProperties(out, props);
-				propertiesCount.addAndGet(props.size());
+				sb.append(", ");
+				sb.append("properties:");
+				writeProperties(sb, props);
+				propertiesCount += props.size();
 
 				// end element
-				out.append("}");
-
-				if (last.equals(rel) || isBatchMatch(exportConfig, batchCount) || isUnwindBatchMatch(exportConfig, unwindCount)) {
-					closeUnwindRelationships(relationshipClause, setClause, uniqueConstraints, exportConfig, out, start, end, path, last);
-					writeBatchEnd(exportConfig, out, batchCount);
-					unwindCount.set(0);
-				} else {
-					out.append(", ");
-				}
+				sb.append("}");
 			}
-		});
-		addCommitToEnd(exportConfig, out, batchCount);
+			closeUnwindRelationships(relationshipClause, setClause, uniqueConstraints, exportConfig, sb, start, end, block.key, rebind.apply(block.last));
+			return propertiesCount;
+		};
+		long propertiesCount = writeUnwindBlocks(blocks, formatter, (tx, rel) -> tx.getRelationshipById(rel.getId()), exportConfig, out, db, executor);
 
-		reporter.update(0, relCount.get(), propertiesCount.longValue());
+		reporter.update(0, countEntities(groupedData), propertiesCount);
 	}
 
-	private void closeUnwindRelationships(String relationshipClause, String setClause, Map<String, Set<String>> uniqueConstraints, ExportConfig exportConfig, PrintWriter out, String start, String end, Map<String, Object> path, Relationship last) {
+	private void closeUnwindRelationships(String relationshipClause, String setClause, Map<String, Set<String>> uniqueConstraints, ExportConfig exportConfig, StringBuilder out, String start, String end, Map<String, Object> path, Relationship last) {
 		writeUnwindEnd(exportConfig, out);
 		// match start node
 		writeRelationshipMatchAsciiNode(last.getStartNode(), out, start, uniqueConstraints);
@@ -338,23 +315,177 @@ abstract class AbstractCypherFormatter implements CypherFormatter {
 
 		// create the relationship (depends on the strategy)
 		out.append(relationshipClause);
-		out.append("(start)-[r:" + Util.quote(path.get("type").toString()) + "]->(end) ");
+		out.append("(start)-[r:").append(Util.quote(path.get("type").toString())).append("]->(end) ");
 		out.append(setClause);
 		out.append("r += row.properties;");
 		out.append(StringUtils.LF);
 	}
 
-	private boolean isUnwindBatchMatch(ExportConfig exportConfig, AtomicInteger batchCount) {
-		return batchCount.get() % exportConfig.getUnwindBatchSize() == 0;
+	/**
+	 * One <code>UNWIND</code> statement: a slice of a group that ends when the group ends,
+	 * when <code>unwindBatchSize</code> rows are reached or when the <code>batchSize</code> transaction is full.
+	 */
+	private static class UnwindBlock<K, T extends Entity> {
+		private final K key;
+		private final List<T> entities;
+		private final T last;
+		private final boolean begin;
+		private final boolean commit;
+
+		private UnwindBlock(K key, List<T> entities, T last, boolean begin, boolean commit) {
+			this.key = key;
+			this.entities = entities;
+			this.last = last;
+			this.begin = begin;
+			this.commit = commit;
+		}
+	}
+
+	@FunctionalInterface
+	private interface UnwindBlockFormatter<K, T extends Entity> {
+		long format(UnwindBlock<K, T> block, Function<T, T> rebind, StringBuilder out);
+	}
+
+	private static class Partition {
+		private final String statements;
+		private final long properties;
+
+		private Partition(String statements, long properties) {
+			this.statements = statements;
+			this.properties = properties;
+		}
+	}
+
+	private static final int MAX_REUSED_BUFFER_SIZE = 1024 * 1024;
+
+	/**
+	 * Splits every group, sorted by id, into its <code>UNWIND</code> statements and decides in advance
+	 * which of them open and close a <code>batchSize</code> transaction, so they can be formatted independently.
+	 */
+	private <K, T extends Entity> List<UnwindBlock<K, T>> toUnwindBlocks(Map<K, List<T>> groupedData, ExportConfig exportConfig) {
+		final int batchSize = exportConfig.getBatchSize();
+		final int unwindBatchSize = exportConfig.getUnwindBatchSize();
+		List<UnwindBlock<K, T>> blocks = new ArrayList<>();
+		long batchCount = 0;
+		for (Map.Entry<K, List<T>> group : groupedData.entrySet()) {
+			List<T> entities = group.getValue();
+			entities.sort(Comparator.comparingLong(Entity::getId));
+			final T last = entities.get(entities.size() - 1);
+			int from = 0;
+			while (from < entities.size()) {
+				boolean begin = batchCount % batchSize == 0;
+				int size = (int) Math.min(entities.size() - from, Math.min(unwindBatchSize, batchSize - batchCount % batchSize));
+				batchCount += size;
+				blocks.add(new UnwindBlock<>(group.getKey(), entities.subList(from, from + size), last, begin, batchCount % batchSize == 0));
+				from += size;
+			}
+		}
+		return blocks;
 	}
 
-	private void writeBatchEnd(ExportConfig exportConfig, PrintWriter out, AtomicInteger batchCount) {
-		if (isBatchMatch(exportConfig, batchCount)) {
+	/**
+	 * With <code>parallel: true</code> the blocks are split into partitions of about <code>batchSize</code> entities
+	 * (i.e. id ranges of the groups) that the workers format in their own transaction into a buffer reused by the partitions
+	 * of this export; the partitions are then written in order, so the output is the same of the sequential export.
+	 */
+	private <K, T extends Entity> long writeUnwindBlocks(List<UnwindBlock<K, T>> blocks, UnwindBlockFormatter<K, T> formatter,
+														   BiFunction<Transaction, T, T> rebind, ExportConfig exportConfig,
+														   PrintWriter out, GraphDatabaseService db, ExecutorService executor) {
+		long propertiesCount = 0;
+		if (executor == null || !exportConfig.isParallel()) {
+			StringBuilder sb = new StringBuilder(8192);
+			for (UnwindBlock<K, T> block : blocks) {
+				sb.setLength(0);
+				propertiesCount += formatBlock(block, formatter, Function.identity(), exportConfig, sb);
+				out.append(sb);
+			}
+		} else {
+			final int maxPending = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+			final Deque<Future<Partition>> pending = new ArrayDeque<>();
+			// the buffers are dropped with the export, so the pool threads don't keep them
+			final Queue<StringBuilder> buffers = new ConcurrentLinkedQueue<>();
+			try {
+				int from = 0;
+				while (from < blocks.size()) {
+					int to = from;
+					int size = 0;
+					while (to < blocks.size() && size < exportConfig.getBatchSize()) {
+						size += blocks.get(to++).entities.size();
+					}
+					final List<UnwindBlock<K, T>> partition = blocks.subList(from, to);
+					pending.add(executor.submit(() -> formatPartition(partition, formatter, rebind, exportConfig, db, buffers)));
+					while (pending.size() >= maxPending) {
+						propertiesCount += writePartition(pending.poll(), out);
+					}
+					from = to;
+				}
+				while (!pending.isEmpty()) {
+					propertiesCount += writePartition(pending.poll(), out);
+				}
+			} finally {
+				pending.forEach(future -> future.cancel(false));
+			}
+		}
+		if (!blocks.isEmpty() && !blocks.get(blocks.size() - 1).commit) {
 			out.append(exportConfig.getFormat().commit());
 		}
+		return propertiesCount;
 	}
 
-	public void writeProperties(PrintWriter out, Map<String, Object> props) {
+	private <K, T extends Entity> Partition formatPartition(List<UnwindBlock<K, T>> blocks, UnwindBlockFormatter<K, T> formatter,
+															 BiFunction<Transaction, T, T> rebind, ExportConfig exportConfig, GraphDatabaseService db,
+															 Queue<StringBuilder> buffers) {
+		StringBuilder sb = buffers.poll();
+		if (sb == null) {
+			sb = new StringBuilder(8192);
+		}
+		sb.setLength(0);
+		long propertiesCount = 0;
+		try (Transaction tx = db.beginTx()) {
+			for (UnwindBlock<K, T> block : blocks) {
+				propertiesCount += formatBlock(block, formatter, entity -> rebind.apply(tx, entity), exportConfig, sb);
+			}
+			tx.commit();
+		}
+		String statements = sb.toString();
+		if (sb.capacity() <= MAX_REUSED_BUFFER_SIZE) {
+			buffers.add(sb);
+		}
+		return new Partition(statements, propertiesCount);
+	}
+
+	private <K, T extends Entity> long formatBlock(UnwindBlock<K, T> block, UnwindBlockFormatter<K, T> formatter,
+												   Function<T, T> rebind, ExportConfig exportConfig, StringBuilder sb) {
+		if (block.begin) {
+			sb.append(exportConfig.getFormat().begin());
+		}
+		long propertiesCount = formatter.format(block, rebind, sb);
+		if (block.commit) {
+			sb.append(exportConfig.getFormat().commit());
+		}
+		return propertiesCount;
+	}
+
+	private long writePartition(Future<Partition> future, PrintWriter out) {
+		try {
+			Partition partition = future.get();
+			out.write(partition.statements);
+			return partition.properties;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			throw new RuntimeException(cause);
+		}
+	}
+
+	private <K, T> long countEntities(Map<K, List<T>> groupedData) {
+		return groupedData.values().stream().mapToLong(List::size).sum();
+	}
+
+	public void writeProperties(StringBuilder out, Map<String, Object> props) {
 		out.append("{");
 		if (!props.isEmpty()) {
 			int size = props.size();
@@ -378,28 +509,14 @@ abstract class AbstractCypherFormatter implements CypherFormatter {
 		return Util.quote(key);
 	}
 
-	private void addCommitToEnd(ExportConfig exportConfig, PrintWriter out, AtomicInteger batchCount) {
-		if (batchCount.get() % exportConfig.getBatchSize() != 0) {
-			out.append(exportConfig.getFormat().commit());
-		}
-	}
-
-	private void writeBatchBegin(ExportConfig exportConfig, PrintWriter out, AtomicInteger batchCount) {
-		if (isBatchMatch(exportConfig, batchCount)) {
-			out.append(exportConfig.getFormat().begin());
-		}
+	private void writeUnwindStart(ExportConfig exportConfig, StringBuilder out) {
+		String start = (exportConfig.getFormat() == ExportFormat.CYPHER_SHELL
+				&& exportConfig.getOptimizationType() == ExportConfig.OptimizationType.UNWIND_BATCH_PARAMS) ?
+				":param rows => [" : "UNWIND [";
+		out.append(start);
 	}
 
-	private void writeUnwindStart(ExportConfig exportConfig, PrintWriter out, AtomicInteger batchCount) {
-		if (isUnwindBatchMatch(exportConfig, batchCount)) {
-			String start = (exportConfig.getFormat() == ExportFormat.CYPHER_SHELL
-					&& exportConfig.getOptimizationType() == ExportConfig.OptimizationType.UNWIND_BATCH_PARAMS) ?
-					":param rows => [" : "UNWIND [";
-			out.append(start);
-		}
-	}
-
-	private void writeUnwindEnd(ExportConfig exportConfig, PrintWriter out) {
+	private void writeUnwindEnd(ExportConfig exportConfig, StringBuilder out) {
 		out.append("]");
 		if (exportConfig.getFormat() == ExportFormat.CYPHER_SHELL
 				&& exportConfig.getOptimizationType() == ExportConfig.OptimizationType.UNWIND_BATCH_PARAMS) {
@@ -409,6 +526,7 @@ abstract class AbstractCypherFormatter implements CypherFormatter {
 		out.append(" AS row");
 	}
 
+
 	private String getUniqueConstrainedLabel(Node node, Map<String, Set<String>> uniqueConstraints) {
 		return uniqueConstraints.entrySet().stream()
 				.filter(e -> node.hasLabel(Label.label(e.getKey())) && e.getValue().stream().anyMatch(k -> node.hasProperty(k)))
@@ -435,7 +553,7 @@ abstract class AbstractCypherFormatter implements CypherFormatter {
 		return labels;
 	}
 
-	private void writeRelationshipMatchAsciiNode(Node node, PrintWriter out, String key, Map<String, Set<String>> uniqueConstraints) {
+	private void writeRelationshipMatchAsciiNode(Node node, StringBuilder out, String key, Map<String, Set<String>> uniqueConstraints) {
 		String uniqueConstrainedLabel = getUniqueConstrainedLabel(node, uniqueConstraints);
 		Set<String> uniqueConstrainedProps = getUniqueConstrainedProperties(uniqueConstraints, uniqueConstrainedLabel);
 
@@ -450,7 +568,7 @@ abstract class AbstractCypherFormatter implements CypherFormatter {
 		out.append("})");
 	}
 
-	private void writeRelationshipNodeIds(Map<String, Set<String>> uniqueConstraints, PrintWriter out, String key, Node node) {
+	private void writeRelationshipNodeIds(Map<String, Set<String>> uniqueConstraints, StringBuilder out, String key, Node node) {
 		String uniqueConstrainedLabel = getUniqueConstrainedLabel(node, uniqueConstraints);
 		Set<String> props = getUniqueConstrainedProperties(uniqueConstraints, uniqueConstrainedLabel);
 		Map<String, Object> properties;
@@ -462,13 +580,13 @@ abstract class AbstractCypherFormatter implements CypherFormatter {
 			properties = Util.map(UNIQUE_ID_PROP, node.getId());
 		}
 
-		out.append(key + ": ");
+		out.append(key).append(": ");
 		out.append("{");
 		writeNodeIds(out, properties);
 		out.append("}");
 	}
 
-	private void writeNodeIds(PrintWriter out, Map<String, Object> properties) {
+	private void writeNodeIds(StringBuilder out, Map<String, Object> properties) {
 		int size = properties.size();
 		for (Map.Entry<String, Object> es : properties.entrySet()) {
 			--size;
@@ -481,4 +599,3 @@ abstract class AbstractCypherFormatter implements CypherFormatter {
 		}
 	}
 }
-
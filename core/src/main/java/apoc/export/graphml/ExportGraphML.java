@@ -69,7 +69,8 @@ public class ExportGraphML {
             XmlGraphMLReader graphMLReader = new XmlGraphMLReader(db, tx).reporter(reporter)
                     .batchSize(exportConfig.getBatchSize())
                     .relType(exportConfig.defaultRelationshipType())
-                    .nodeLabels(exportConfig.readLabels());
+                    .nodeLabels(exportConfig.readLabels())
+                    .executor(pools.getDefaultExecutorService(), exportConfig.isParallel() ? Runtime.getRuntime().availableProcessors() : 1);
 
             if (exportConfig.storeNodeIds()) graphMLReader.storeNodeIds();
             
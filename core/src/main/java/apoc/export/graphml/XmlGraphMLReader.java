@@ -1,7 +1,9 @@
 package apoc.export.graphml;
 
 import apoc.export.util.BatchTransaction;
+import apoc.export.util.DisjointRangeScheduler;
 import apoc.export.util.Reporter;
+import apoc.export.util.StringIdMap;
 import apoc.util.JsonUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.neo4j.graphdb.*;
@@ -16,9 +18,16 @@ import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
 import java.io.Reader;
 import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
 /**
@@ -34,6 +43,8 @@ public class XmlGraphMLReader {
     private int batchSize = 40000;
     private Reporter reporter;
     private boolean labels;
+    private ExecutorService executor;
+    private int concurrency = 1;
 
     public XmlGraphMLReader storeNodeIds() {
         this.storeNodeIds = true;
@@ -60,6 +71,15 @@ public class XmlGraphMLReader {
         return this;
     }
 
+    /**
+     * The edges are written in batches of <code>batchSize</code> by up to <code>concurrency</code> tasks of the executor.
+     */
+    public XmlGraphMLReader executor(ExecutorService executor, int concurrency) {
+        this.executor = executor;
+        this.concurrency = concurrency;
+        return this;
+    }
+
 
 
     enum Type {
@@ -181,16 +201,19 @@ public class XmlGraphMLReader {
     }
 
     public long parseXML(Reader input) throws XMLStreamException {
-        Map<String, Long> cache = new HashMap<>(1024*32);
+        StringIdMap cache = new StringIdMap(1024*32);
         XMLInputFactory inputFactory = XMLInputFactory.newInstance();
         inputFactory.setProperty("javax.xml.stream.isCoalescing", true);
         inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
         XMLEventReader reader = inputFactory.createXMLEventReader(input);
         Entity last = null;
+        Edge lastEdge = null;
         Map<String, Key> nodeKeys = new HashMap<>();
         Map<String, Key> relKeys = new HashMap<>();
         int count = 0;
-        try (BatchTransaction tx = new BatchTransaction(db, batchSize * 10, reporter)) {
+        List<Edge> edges = new ArrayList<>(batchSize);
+        try (BatchTransaction tx = new BatchTransaction(db, batchSize * 10, reporter);
+             EdgeWriter edgeWriter = new EdgeWriter()) {
 
             while (reader.hasNext()) {
                 XMLEvent event = (XMLEvent) reader.next();
@@ -214,7 +237,7 @@ public class XmlGraphMLReader {
                         continue;
                     }
                     if (name.equals("data")) {
-                        if (last == null) continue;
+                        if (last == null && lastEdge == null) continue;
                         String id = getAttribute(element, KEY);
                         boolean isNode = last instanceof Node;
                         Key key = isNode ? nodeKeys.get(id) : relKeys.get(id);
@@ -228,11 +251,13 @@ public class XmlGraphMLReader {
                             if (this.labels && isNode && id.equals("labels")) {
                                 addLabels((Node)last,value.toString());
                             } else if (!this.labels || isNode || !id.equals("label")) {
-                                last.setProperty(key.name, value);
+                                if (isNode) last.setProperty(key.name, value);
+                                else lastEdge.properties.put(key.name, value);
                                 if (reporter != null) reporter.update(0, 0, 1);
                             }
                         } else if (next.getEventType() == XMLStreamConstants.END_ELEMENT) {
-                            last.setProperty(key.name, StringUtils.EMPTY);
+                            if (isNode) last.setProperty(key.name, StringUtils.EMPTY);
+                            else lastEdge.properties.put(key.name, StringUtils.EMPTY);
                             reporter.update(0, 0, 1);
                         }
                         continue;
@@ -248,32 +273,151 @@ public class XmlGraphMLReader {
                         if (storeNodeIds) node.setProperty("id", id);
                         setDefaults(nodeKeys, node);
                         last = node;
+                        lastEdge = null;
                         cache.put(id, node.getId());
                         if (reporter != null) reporter.update(1, 0, 0);
                         count++;
                         continue;
                     }
                     if (name.equals("edge")) {
-                        tx.increment();
                         String source = getAttribute(element, SOURCE);
                         String target = getAttribute(element, TARGET);
                         String label = getAttribute(element, LABEL);
-                        Node from = tx.getTransaction().getNodeById(cache.get(source));
-                        Node to = tx.getTransaction().getNodeById(cache.get(target));
+                        long from = getNodeId(cache, source);
+                        long to = getNodeId(cache, target);
 
                         RelationshipType relationshipType = label == null ? getRelationshipType(reader) : RelationshipType.withName(label);
-                        Relationship relationship = from.createRelationshipTo(to, relationshipType);
-                        setDefaults(relKeys, relationship);
-                        last = relationship;
+                        if (edges.size() == batchSize) {
+                            // the endpoints must be visible to the writers before they get the batch
+                            tx.manualCommit(false);
+                            edgeWriter.submit(edges);
+                            edges = new ArrayList<>(batchSize);
+                        }
+                        Edge edge = new Edge(from, to, relationshipType);
+                        setDefaults(relKeys, edge.properties);
+                        edges.add(edge);
+                        last = null;
+                        lastEdge = edge;
                         if (reporter != null) reporter.update(0, 1, 0);
                         count++;
                     }
                 }
             }
+            tx.manualCommit(false);
+            edgeWriter.submit(edges);
+            edgeWriter.finish();
         }
         return count;
     }
 
+    private long getNodeId(StringIdMap cache, String id) {
+        long nodeId = cache.get(id);
+        if (nodeId == StringIdMap.NOT_FOUND) {
+            throw new RuntimeException("Cannot find the node with id " + id + " referenced by an edge");
+        }
+        return nodeId;
+    }
+
+    static class Edge {
+        final long from;
+        final long to;
+        final RelationshipType type;
+        final Map<String, Object> properties = new LinkedHashMap<>();
+
+        Edge(long from, long to, RelationshipType type) {
+            this.from = from;
+            this.to = to;
+            this.type = type;
+        }
+    }
+
+    /**
+     * Writes the batches of edges collected by the parser in their own transactions.
+     * Without an executor the batches are written by the parser thread, with a single writer by one task of the
+     * executor while the parser goes on.
+     *
+     * With more writers the batches are collected in windows, which are written by a {@link DisjointRangeScheduler}
+     * on the ranges of their node ids, so the concurrent transactions can't deadlock on the node locks.
+     */
+    private class EdgeWriter implements AutoCloseable {
+        private final int writers = executor == null ? 0 : Math.max(1, concurrency);
+        private final DisjointRangeScheduler<Edge> scheduler = new DisjointRangeScheduler<>(executor, writers, edge -> edge.from, edge -> edge.to);
+        private final Deque<Future<?>> pending = new ArrayDeque<>();
+        private final List<Edge> window = new ArrayList<>();
+
+        void submit(List<Edge> edges) {
+            if (edges.isEmpty()) return;
+            if (writers == 0) {
+                write(edges);
+            } else if (writers == 1) {
+                awaitPending();
+                pending.add(executor.submit(() -> write(edges)));
+            } else {
+                window.addAll(edges);
+                if (window.size() >= (long) batchSize * scheduler.getPartitions()) {
+                    flush();
+                }
+            }
+        }
+
+        void finish() {
+            flush();
+            awaitPending();
+        }
+
+        private void flush() {
+            scheduler.schedule(window, edges -> {
+                for (int from = 0; from < edges.size(); from += batchSize) {
+                    write(edges.subList(from, Math.min(edges.size(), from + batchSize)));
+                }
+                return null;
+            }, done -> {});
+            window.clear();
+        }
+
+        private void awaitPending() {
+            while (!pending.isEmpty()) {
+                await(pending.poll());
+            }
+        }
+
+        private void write(List<Edge> edges) {
+            DisjointRangeScheduler.inTransaction(db, tx -> {
+                for (Edge edge : edges) {
+                    Relationship relationship = tx.getNodeById(edge.from).createRelationshipTo(tx.getNodeById(edge.to), edge.type);
+                    edge.properties.forEach(relationship::setProperty);
+                }
+                return null;
+            });
+        }
+
+        private void await(Future<?> future) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw new RuntimeException(cause);
+            }
+        }
+
+        @Override
+        public void close() {
+            // after a failure we still wait for the running batches, so nothing is written once the import returned
+            for (Future<?> future : pending) {
+                try {
+                    future.get();
+                } catch (Exception ignored) {
+                    // already failed
+                }
+            }
+            pending.clear();
+        }
+    }
+
     private RelationshipType getRelationshipType(XMLEventReader reader) throws XMLStreamException {
         if (this.labels) {
             XMLEvent peek = reader.peek();
@@ -330,6 +474,13 @@ public class XmlGraphMLReader {
         }
     }
 
+    private void setDefaults(Map<String, Key> keys, Map<String, Object> properties) {
+        if (keys.isEmpty()) return;
+        for (Key key : keys.values()) {
+            if (key.defaultValue!=null) properties.put(key.name,key.defaultValue);
+        }
+    }
+
     private String getAttribute(StartElement element, QName qname) {
         Attribute attribute = element.getAttributeByName(qname);
         return attribute != null ? attribute.getValue() : null;
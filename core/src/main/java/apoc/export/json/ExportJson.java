@@ -2,6 +2,8 @@ package apoc.export.json;
 
 import apoc.ApocConfig;
 import apoc.Pools;
+import apoc.changelog.ChangeLogDelta;
+import apoc.changelog.ChangeLogHandler;
 import apoc.export.cypher.ExportFileManager;
 import apoc.export.cypher.FileManagerFactory;
 import apoc.export.util.ExportConfig;
@@ -12,8 +14,10 @@ import apoc.result.ProgressInfo;
 import apoc.util.Util;
 import org.neo4j.cypher.export.DatabaseSubGraph;
 import org.neo4j.cypher.export.SubGraph;
+import org.neo4j.graphdb.Entity;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
@@ -22,11 +26,14 @@ import org.neo4j.procedure.Description;
 import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
 import org.neo4j.procedure.TerminationGuard;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.LongFunction;
 import java.util.stream.Stream;
 
 public class ExportJson {
@@ -45,6 +52,9 @@ public class ExportJson {
     @Context
     public TerminationGuard terminationGuard;
 
+    @Context
+    public ChangeLogHandler changeLogHandler;
+
     public ExportJson(GraphDatabaseService db) {
         this.db = db;
     }
@@ -86,13 +96,40 @@ public class ExportJson {
         return exportJson(fileName, source,result,config);
     }
 
+    @Procedure
+    @Description("apoc.export.json.delta(since,file,config) - exports the nodes and relationships changed after the `since` sequence of the change log as json to the provided file, followed by markers of the deleted ones")
+    public Stream<ProgressInfo> delta(@Name("since") long since, @Name("file") String fileName, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) throws Exception {
+        ChangeLogDelta delta = ChangeLogDelta.since(changeLogHandler.getChangeLog(), since);
+        List<Node> nodes = existing(delta.getChangedNodes(), tx::getNodeById);
+        List<Relationship> rels = existing(delta.getChangedRelationships(), tx::getRelationshipById);
+        long[] deletedNodes = delta.getDeletedNodes().toArray();
+        long[] deletedRels = delta.getDeletedRelationships().toArray();
+        String source = String.format("delta: since(%d), until(%d), nodes(%d), rels(%d), deleted nodes(%d), deleted rels(%d)",
+                delta.getSince(), delta.getUntil(), nodes.size(), rels.size(), deletedNodes.length, deletedRels.length);
+        return exportJson(fileName, source, new Delta(new NodesAndRelsSubGraph(tx, nodes, rels), deletedNodes, deletedRels), config);
+    }
+
+    private <T extends Entity> List<T> existing(Roaring64NavigableMap ids, LongFunction<T> lookup) {
+        List<T> entities = new ArrayList<>((int) ids.getLongCardinality());
+        ids.forEach(id -> {
+            try {
+                entities.add(lookup.apply(id));
+            } catch (NotFoundException e) {
+                // deleted after the last sequence of the delta, it will be part of the next one
+            }
+        });
+        return entities;
+    }
+
     private Stream<ProgressInfo> exportJson(String fileName, String source, Object data, Map<String,Object> config) throws Exception {
         ExportConfig exportConfig = new ExportConfig(config);
         apocConfig.checkWriteAllowed(exportConfig, fileName);
         final String format = "json";
         ProgressReporter reporter = new ProgressReporter(null, null, new ProgressInfo(fileName, source, format));
-        JsonFormat exporter = new JsonFormat(db, getJsonFormat(config));
-        ExportFileManager cypherFileManager = FileManagerFactory.createFileManager(fileName, false);
+        JsonFormat exporter = new JsonFormat(db, getJsonFormat(config), pools.getDefaultExecutorService());
+        // the parallel export can write every partition into its own part file
+        boolean partFiles = exportConfig.isParallel() && exportConfig.separateFiles() && !exportConfig.streamStatements();
+        ExportFileManager cypherFileManager = FileManagerFactory.createFileManager(fileName, partFiles);
         if (exportConfig.streamStatements()) {
             return ExportUtils.getProgressInfoStream(db, pools.getDefaultExecutorService() ,terminationGuard, format, exportConfig, reporter, cypherFileManager,
                     (reporterWithConsumer) -> dump(data, exportConfig, reporterWithConsumer, exporter, cypherFileManager));
@@ -116,10 +153,26 @@ public class ExportJson {
         try {
             if (data instanceof SubGraph)
                 exporter.dump(((SubGraph)data),cypherFileManager,reporter,c);
+            if (data instanceof Delta) {
+                Delta delta = (Delta) data;
+                exporter.dump(delta.graph, delta.deletedNodes, delta.deletedRels, cypherFileManager, reporter, c);
+            }
             if (data instanceof Result)
                 exporter.dump(((Result)data),cypherFileManager,reporter,c);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
+
+    private static class Delta {
+        private final SubGraph graph;
+        private final long[] deletedNodes;
+        private final long[] deletedRels;
+
+        private Delta(SubGraph graph, long[] deletedNodes, long[] deletedRels) {
+            this.graph = graph;
+            this.deletedNodes = deletedNodes;
+            this.deletedRels = deletedRels;
+        }
+    }
 }
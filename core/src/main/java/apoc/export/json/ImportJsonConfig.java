@@ -17,6 +17,8 @@ public class ImportJsonConfig extends CompressionConfig {
     private final int txBatchSize;
 
     private final String importIdName;
+    private final boolean directWrite;
+    private final long idMappingMemory;
 
     public ImportJsonConfig(Map<String, Object> config) {
         super(config);
@@ -26,6 +28,8 @@ public class ImportJsonConfig extends CompressionConfig {
         this.unwindBatchSize = Util.toInteger(config.getOrDefault("unwindBatchSize", 5000));
         this.txBatchSize = Util.toInteger(config.getOrDefault("txBatchSize", 5000));
         this.importIdName = (String) config.getOrDefault("importIdName", "neo4jImportId");
+        this.directWrite = Util.toBoolean(config.get("directWrite"));
+        this.idMappingMemory = Util.toLong(config.getOrDefault("idMappingMemory", Runtime.getRuntime().maxMemory() / 4));
     }
 
     public String typeForNode(Collection<String> labels, String property) {
@@ -51,4 +55,12 @@ public class ImportJsonConfig extends CompressionConfig {
     public String getImportIdName() {
         return importIdName;
     }
+
+    public boolean isDirectWrite() {
+        return directWrite;
+    }
+
+    public long getIdMappingMemory() {
+        return idMappingMemory;
+    }
 }
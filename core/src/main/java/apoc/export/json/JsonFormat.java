@@ -17,25 +17,39 @@ import org.neo4j.graphdb.Path;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.helpers.collection.Iterables;
 
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.io.Reader;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 
 public class JsonFormat implements Format {
     enum Format {JSON_LINES, ARRAY_JSON, JSON, JSON_ID_AS_KEYS}
     private final GraphDatabaseService db;
     private final Format format;
+    private final ExecutorService executor;
 
     private boolean isExportSubGraph = false;
 
     public JsonFormat(GraphDatabaseService db, Format format) {
+        this(db, format, null);
+    }
+
+    public JsonFormat(GraphDatabaseService db, Format format, ExecutorService executor) {
         this.db = db;
         this.format = format;
+        this.executor = executor;
     }
 
     @Override
@@ -58,15 +72,29 @@ public class JsonFormat implements Format {
 
     @Override
     public ProgressInfo dump(SubGraph graph, ExportFileManager writer, Reporter reporter, ExportConfig config) throws Exception {
+        isExportSubGraph = true;
+        if (config.isParallel() && format == Format.JSON_LINES && executor != null) {
+            return dumpParallel(graph, writer, reporter, config);
+        }
+        return dump(graph, new long[0], new long[0], writer, reporter, config);
+    }
+
+    /**
+     * Exports the given entities followed by a <code>{"type":..., "id":..., "deleted":true}</code> marker
+     * for every deleted node and relationship, that is written in the same container of the entities of its type.
+     */
+    public ProgressInfo dump(SubGraph graph, long[] deletedNodes, long[] deletedRels, ExportFileManager writer, Reporter reporter, ExportConfig config) throws Exception {
         isExportSubGraph = true;
         Consumer<JsonGenerator> consumer = (jsonGenerator) -> {
             try {
                 writeJsonContainerStart(jsonGenerator);
                 writeJsonNodeContainerStart(jsonGenerator);
                 writeNodes(graph.getNodes(), reporter, jsonGenerator, config);
+                writeDeleted(jsonGenerator, "node", deletedNodes);
                 writeJsonNodeContainerEnd(jsonGenerator);
                 writeJsonRelationshipContainerStart(jsonGenerator);
                 writeRels(graph.getRelationships(), reporter, jsonGenerator, config);
+                writeDeleted(jsonGenerator, "relationship", deletedRels);
                 writeJsonRelationshipContainerEnd(jsonGenerator);
                 writeJsonContainerEnd(jsonGenerator);
             } catch (IOException e) {
@@ -76,6 +104,108 @@ public class JsonFormat implements Format {
         return dump(writer.getPrintWriter("json"), reporter, consumer);
     }
 
+    /**
+     * JSON_LINES has no enclosing container, so the entities can be serialised independently:
+     * the ids are split into partitions of <code>batchSize</code> entities, every partition is rendered
+     * by a worker in its own transaction and the results are appended in partition order,
+     * which gives the same output of the sequential export.
+     * With <code>separateFiles: true</code> every partition is written by its worker into its own part file instead.
+     */
+    private ProgressInfo dumpParallel(SubGraph graph, ExportFileManager fileManager, Reporter reporter, ExportConfig config) throws Exception {
+        final boolean partFiles = fileManager.separatedFiles();
+        final PrintWriter out = partFiles ? null : fileManager.getPrintWriter("json");
+        final int maxPending = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+        final Deque<Future<Partition>> pending = new ArrayDeque<>();
+        boolean empty = true;
+        int partitionIndex = 0;
+        try {
+            for (boolean nodes : new boolean[]{true, false}) {
+                Iterator<Long> ids = nodes
+                        ? Iterables.stream(graph.getNodes()).map(Node::getId).iterator()
+                        : Iterables.stream(graph.getRelationships()).map(Relationship::getId).iterator();
+                while (ids.hasNext()) {
+                    long[] partitionIds = new long[config.getBatchSize()];
+                    int size = 0;
+                    while (size < partitionIds.length && ids.hasNext()) {
+                        partitionIds[size++] = ids.next();
+                    }
+                    PrintWriter partWriter = partFiles ? fileManager.getPrintWriter(String.format("part-%05d", partitionIndex)) : null;
+                    partitionIndex++;
+                    final boolean isNodes = nodes;
+                    final int partitionSize = size;
+                    pending.add(executor.submit(() -> writePartition(partitionIds, partitionSize, isNodes, partWriter, config)));
+                    while (pending.size() >= maxPending) {
+                        empty = append(pending.poll().get(), out, reporter, empty);
+                    }
+                }
+            }
+            while (!pending.isEmpty()) {
+                empty = append(pending.poll().get(), out, reporter, empty);
+            }
+            reporter.done();
+            return reporter.getTotal();
+        } finally {
+            // in case of failure we still wait for the running partitions, so no worker writes after we return
+            for (Future<Partition> future : pending) {
+                try {
+                    future.get();
+                } catch (Exception ignored) {
+                    // already failed
+                }
+            }
+            if (out != null) {
+                out.close();
+            }
+        }
+    }
+
+    private boolean append(Partition partition, PrintWriter out, Reporter reporter, boolean empty) {
+        if (out != null && partition.lines != null && !partition.lines.isEmpty()) {
+            if (!empty) {
+                // same root value separator of the MinimalPrettyPrinter used by the sequential export
+                out.write('\n');
+            }
+            out.write(partition.lines);
+            empty = false;
+        }
+        reporter.update(partition.nodes, partition.relationships, partition.properties);
+        return empty;
+    }
+
+    private Partition writePartition(long[] ids, int size, boolean nodes, PrintWriter partWriter, ExportConfig config) throws IOException {
+        final Partition partition = new Partition();
+        final StringWriter buffer = partWriter == null ? new StringWriter(size * 128) : null;
+        try (Transaction tx = db.beginTx();
+             JsonGenerator jsonGenerator = getJsonGenerator(partWriter == null ? buffer : partWriter)) {
+            for (int i = 0; i < size; i++) {
+                if (nodes) {
+                    Node node = tx.getNodeById(ids[i]);
+                    JsonFormatSerializer.DEFAULT.writeNode(jsonGenerator, node, config);
+                    partition.nodes++;
+                    partition.properties += Iterables.count(node.getPropertyKeys());
+                } else {
+                    Relationship rel = tx.getRelationshipById(ids[i]);
+                    JsonFormatSerializer.DEFAULT.writeRelationship(jsonGenerator, rel, config);
+                    partition.relationships++;
+                    partition.properties += Iterables.count(rel.getPropertyKeys());
+                }
+            }
+            jsonGenerator.flush();
+            tx.commit();
+        }
+        if (buffer != null) {
+            partition.lines = buffer.toString();
+        }
+        return partition;
+    }
+
+    private static class Partition {
+        private String lines;
+        private long nodes;
+        private long relationships;
+        private long properties;
+    }
+
     private void writeJsonRelationshipContainerEnd(JsonGenerator jsonGenerator) throws IOException {
         switch (format) {
             case JSON:
@@ -181,6 +311,17 @@ public class JsonFormat implements Format {
         reporter.update(1, 0, allProperties.size());
     }
 
+    private void writeDeleted(JsonGenerator jsonGenerator, String type, long[] ids) throws IOException {
+        for (long id : ids) {
+            writeJsonIdKeyStart(jsonGenerator, id);
+            jsonGenerator.writeStartObject();
+            jsonGenerator.writeStringField("type", type);
+            jsonGenerator.writeStringField("id", String.valueOf(id));
+            jsonGenerator.writeBooleanField("deleted", true);
+            jsonGenerator.writeEndObject();
+        }
+    }
+
     private void writeJsonIdKeyStart(JsonGenerator jsonGenerator, long id) throws IOException {
         if (!isExportSubGraph) {
             return;
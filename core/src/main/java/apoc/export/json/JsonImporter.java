@@ -1,11 +1,15 @@
 package apoc.export.json;
 
 import apoc.export.util.Reporter;
+import apoc.export.util.SpillableIdMap;
 import apoc.util.Util;
 import com.google.common.collect.Iterables;
 import org.apache.commons.lang3.StringUtils;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.schema.Schema;
 import org.neo4j.values.storable.DurationValue;
@@ -13,6 +17,7 @@ import org.neo4j.values.storable.PointValue;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.lang.reflect.Array;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -51,6 +56,8 @@ public class JsonImporter implements Closeable {
     private Map<String, Object> lastRelTypes;
 
     private final ImportJsonConfig importJsonConfig;
+    // import id -> node id of the nodes created by the direct write mode
+    private final SpillableIdMap idMapping;
 
     public JsonImporter(ImportJsonConfig importJsonConfig,
                         GraphDatabaseService db,
@@ -61,6 +68,7 @@ public class JsonImporter implements Closeable {
         this.unwindBatchSize = Math.min(importJsonConfig.getUnwindBatchSize(), txBatchSize);
         this.reporter = reporter;
         this.importJsonConfig = importJsonConfig;
+        this.idMapping = importJsonConfig.isDirectWrite() ? new SpillableIdMap(importJsonConfig.getIdMappingMemory()) : null;
     }
 
     public void importRow(Map<String, Object> param) {
@@ -84,7 +92,9 @@ public class JsonImporter implements Closeable {
         param.put("properties", convertProperties(type, properties, null));
 
         paramList.add(param);
-        if (paramList.size() % txBatchSize == 0) {
+        if (idMapping != null && paramList.size() >= txBatchSize) {
+            flush();
+        } else if (paramList.size() % txBatchSize == 0) {
             final Collection<List<Map<String, Object>>> results = chunkData();
             paramList.clear();
             // write
@@ -148,7 +158,8 @@ public class JsonImporter implements Closeable {
     }
 
     private void checkConstraints(List<String> labels) {
-        if (labels.isEmpty()) {
+        // the direct write mode resolves the endpoints of the relationships through the id mapping
+        if (labels.isEmpty() || idMapping != null) {
             return;
         }
         try (final Transaction tx = db.beginTx()) {
@@ -166,7 +177,7 @@ public class JsonImporter implements Closeable {
     }
 
     private void updateReporter(String type, Map<String, Object> properties) {
-        final int size = properties.size() + 1; // +1 is for the "neo4jImportId"
+        final int size = properties.size() + (idMapping == null ? 1 : 0); // +1 is for the "neo4jImportId"
         switch (type) {
             case "node":
                 reporter.update(1, 0, size);
@@ -330,14 +341,114 @@ public class JsonImporter implements Closeable {
                 .values();
     }
 
+    private void writeDirect() {
+        try (final Transaction tx = db.beginTx()) {
+            for (Map<String, Object> row : paramList) {
+                final Map<String, Object> properties = (Map<String, Object>) row.get("properties");
+                if ("node".equals(row.get("type"))) {
+                    final String importId = String.valueOf(row.get("id"));
+                    if (idMapping.get(importId) != SpillableIdMap.NOT_FOUND) {
+                        throw new IllegalStateException("Duplicate node with import id " + importId);
+                    }
+                    final Label[] labels = getLabels(row).stream().map(Label::label).toArray(Label[]::new);
+                    final Node node = tx.createNode(labels);
+                    properties.forEach((key, value) -> node.setProperty(key, toStorable(row, key, value)));
+                    idMapping.put(importId, node.getId());
+                } else {
+                    final Node start = getEndpoint(tx, (Map<String, Object>) row.get("start"));
+                    final Node end = getEndpoint(tx, (Map<String, Object>) row.get("end"));
+                    final Relationship rel = start.createRelationshipTo(end, RelationshipType.withName((String) row.get("label")));
+                    properties.forEach((key, value) -> rel.setProperty(key, toStorable(row, key, value)));
+                }
+            }
+            tx.commit();
+        }
+    }
+
+    private Node getEndpoint(Transaction tx, Map<String, Object> endpoint) {
+        final String importId = String.valueOf(endpoint.get("id"));
+        final long nodeId = idMapping.get(importId);
+        if (nodeId != SpillableIdMap.NOT_FOUND) {
+            return tx.getNodeById(nodeId);
+        }
+        // a node created by a previous import, which still has the import id property
+        for (String label : getLabels(endpoint)) {
+            final Node node = tx.findNode(Label.label(label), importJsonConfig.getImportIdName(), importId);
+            if (node != null) {
+                return node;
+            }
+        }
+        throw new RuntimeException("Cannot find the node with import id " + importId + " referenced by a relationship");
+    }
+
+    // the values are stored as Cypher would do with SET
+    private Object toStorable(Map<String, Object> row, String key, Object value) {
+        if (value instanceof Collection) {
+            final List<Object> values = ((Collection<Object>) value).stream().map(this::toStorable).collect(Collectors.toList());
+            if (values.isEmpty()) {
+                return new String[0];
+            }
+            // as in Cypher, a list of integers and floats is stored as floats
+            final boolean mixedNumbers = values.stream().allMatch(v -> v instanceof Number) && values.stream().anyMatch(v -> v instanceof Double);
+            if (!mixedNumbers) {
+                validateList(row, key, values);
+            }
+            final Class<?> componentType = mixedNumbers ? Double.class : values.get(0).getClass();
+            final Object array = Array.newInstance(componentType, values.size());
+            for (int i = 0; i < values.size(); i++) {
+                Array.set(array, i, mixedNumbers ? ((Number) values.get(i)).doubleValue() : values.get(i));
+            }
+            return array;
+        }
+        return toStorable(value);
+    }
+
+    private Object toStorable(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Float) {
+            return ((Float) value).doubleValue();
+        }
+        return value;
+    }
+
+    // the lists that Cypher can't store either, the elements must have all the same type
+    private void validateList(Map<String, Object> row, String key, List<Object> values) {
+        final Class<?> type = values.get(0) == null ? null : values.get(0).getClass();
+        for (Object element : values) {
+            final String error;
+            if (element == null) {
+                error = "it contains null values";
+            } else if (element instanceof Map || element instanceof Collection) {
+                error = "it contains " + (element instanceof Map ? "maps" : "lists");
+            } else if (element.getClass() != type) {
+                error = "it mixes values of type " + type.getSimpleName() + " and " + element.getClass().getSimpleName();
+            } else {
+                continue;
+            }
+            throw new IllegalArgumentException(String.format("Cannot store the list of the property %s of the %s with import id %s: %s",
+                    key, row.get("type"), row.get("id"), error));
+        }
+    }
+
     @Override
     public void close() throws IOException {
-        flush();
-        reporter.done();
+        try {
+            flush();
+            reporter.done();
+        } finally {
+            if (idMapping != null) {
+                idMapping.close();
+            }
+        }
     }
 
     private void flush() {
-        if (!paramList.isEmpty()) {
+        if (!paramList.isEmpty() && idMapping != null) {
+            writeDirect();
+            paramList.clear();
+        } else if (!paramList.isEmpty()) {
             final Collection<List<Map<String, Object>>> results = chunkData();
             try (final Transaction tx = db.beginTx()) {
                 results.forEach(resultList -> write(tx, resultList));
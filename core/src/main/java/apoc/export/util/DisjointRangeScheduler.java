@@ -0,0 +1,143 @@
+package apoc.export.util;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.TransientFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Writes the relationships of an import concurrently without lock contention between the transactions.
+ *
+ * The node ids of the items are split into {@code 2 * concurrency} ranges. An item belongs to the pair of ranges of its
+ * endpoints, and the pairs are scheduled in rounds like a round-robin tournament: in every round each range is in a
+ * single pair, so the concurrent tasks touch disjoint sets of nodes and can never deadlock. The rounds are separated by
+ * a barrier.
+ *
+ * @param <T> the items to write, like the relationships or the edges of an import
+ */
+public class DisjointRangeScheduler<T> {
+
+    private static final int MAX_RETRIES = 5;
+
+    private final ExecutorService executor;
+    private final int partitions;
+    private final ToLongFunction<T> startId;
+    private final ToLongFunction<T> endId;
+
+    public DisjointRangeScheduler(ExecutorService executor, int concurrency, ToLongFunction<T> startId, ToLongFunction<T> endId) {
+        this.executor = executor;
+        this.partitions = 2 * Math.max(1, concurrency);
+        this.startId = startId;
+        this.endId = endId;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Writes the items in rounds of tasks of the executor, every task gets the items of one pair of ranges.
+     * The result of each task is passed to {@code written} by the calling thread when its round is over.
+     * A failed task fails the schedule after the other tasks of its round are done.
+     */
+    public <R> void schedule(List<T> items, Function<List<T>, R> write, Consumer<R> written) {
+        if (items.isEmpty()) {
+            return;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (T item : items) {
+            min = Math.min(min, Math.min(startId.applyAsLong(item), endId.applyAsLong(item)));
+            max = Math.max(max, Math.max(startId.applyAsLong(item), endId.applyAsLong(item)));
+        }
+        final long rangeSize = (max - min) / partitions + 1;
+
+        final List<T>[] cells = new List[partitions * partitions];
+        for (T item : items) {
+            final int cell = (int) ((startId.applyAsLong(item) - min) / rangeSize) * partitions + (int) ((endId.applyAsLong(item) - min) / rangeSize);
+            if (cells[cell] == null) cells[cell] = new ArrayList<>();
+            cells[cell].add(item);
+        }
+
+        // circle method: range partitions - 1 is fixed, the others rotate
+        final int rotating = partitions - 1;
+        for (int round = 0; round < rotating; round++) {
+            final List<FutureTask<R>> tasks = new ArrayList<>(partitions / 2);
+            for (int k = 0; k < partitions / 2; k++) {
+                final int a = k == 0 ? rotating : (round + k) % rotating;
+                final int b = k == 0 ? round : (round - k + rotating) % rotating;
+                final List<T> group = new ArrayList<>();
+                addCell(group, cells, a * partitions + b);
+                addCell(group, cells, b * partitions + a);
+                if (round == 0) {
+                    // every range is in one pair of the first round, which takes the items inside the ranges
+                    addCell(group, cells, a * partitions + a);
+                    addCell(group, cells, b * partitions + b);
+                }
+                if (group.isEmpty()) continue;
+                final FutureTask<R> task = new FutureTask<>(() -> write.apply(group));
+                executor.execute(task);
+                tasks.add(task);
+            }
+            // the next round pairs the same ranges differently, so all the tasks of this one must be done
+            RuntimeException failure = null;
+            for (FutureTask<R> task : tasks) {
+                try {
+                    final R result = await(task);
+                    if (failure == null) written.accept(result);
+                } catch (RuntimeException e) {
+                    if (failure == null) failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private static <T> void addCell(List<T> group, List<T>[] cells, int cell) {
+        if (cells[cell] != null) {
+            group.addAll(cells[cell]);
+            cells[cell] = null;
+        }
+    }
+
+    // runs the task here if no worker has picked it up yet, so a busy pool cannot stall the import
+    private static <V> V await(FutureTask<V> task) {
+        task.run();
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs the work in a single transaction, retried on transient failures like deadlocks.
+     */
+    public static <R> R inTransaction(GraphDatabaseService db, Function<Transaction, R> work) {
+        for (int attempt = 1; ; attempt++) {
+            try (Transaction tx = db.beginTx()) {
+                final R result = work.apply(tx);
+                tx.commit();
+                return result;
+            } catch (TransientFailureException e) {
+                if (attempt == MAX_RETRIES) throw e;
+            }
+        }
+    }
+}
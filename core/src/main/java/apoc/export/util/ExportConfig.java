@@ -26,6 +26,7 @@ public class ExportConfig extends CompressionConfig {
     public static final String DEFAULT_QUOTES = ALWAYS_QUOTES;
     private final boolean streamStatements;
     private final boolean ifNotExists;
+    private final boolean parallel;
 
     private int batchSize;
     private boolean silent;
@@ -101,6 +102,7 @@ public class ExportConfig extends CompressionConfig {
         this.streamStatements = toBoolean(config.get("streamStatements")) || toBoolean(config.get("stream"));
         this.writeNodeProperties = toBoolean(config.get("writeNodeProperties"));
         this.ifNotExists = toBoolean(config.get("ifNotExists"));
+        this.parallel = toBoolean(config.get("parallel"));
         exportQuotes(config);
         this.optimizations = (Map<String, Object>) config.getOrDefault("useOptimizations", Collections.emptyMap());
         this.optimizationType = OptimizationType.valueOf(optimizations.getOrDefault("type", OptimizationType.UNWIND_BATCH.toString()).toString().toUpperCase());
@@ -214,4 +216,8 @@ public class ExportConfig extends CompressionConfig {
     public boolean ifNotExists() {
         return ifNotExists;
     }
+
+    public boolean isParallel() {
+        return parallel;
+    }
 }
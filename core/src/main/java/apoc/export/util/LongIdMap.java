@@ -0,0 +1,135 @@
+package apoc.export.util;
+
+import java.util.Arrays;
+
+/**
+ * Compact map from the numeric ids of an import file to the ids of the created entities,
+ * using open addressing over two primitive arrays. The values must not be negative.
+ */
+public class LongIdMap {
+
+    public static final long NOT_FOUND = -1;
+
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // an empty slot has the value NOT_FOUND
+    private final int maxCapacity;
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public LongIdMap() {
+        this(1024);
+    }
+
+    public LongIdMap(int expectedSize) {
+        this(expectedSize, MAX_CAPACITY);
+    }
+
+    LongIdMap(int expectedSize, int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+        allocate(tableSizeFor((int) Math.min(maxCapacity, Math.max(16, (long) (expectedSize / LOAD_FACTOR) + 1))));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(values, NOT_FOUND);
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the bytes used by the map
+     */
+    public long memoryUsage() {
+        return keys.length * 16L;
+    }
+
+    /**
+     * @return the value mapped to the key or {@link #NOT_FOUND}
+     */
+    public long get(long key) {
+        int slot = hash(key) & mask;
+        long value;
+        while ((value = values[slot]) != NOT_FOUND) {
+            if (keys[slot] == key) {
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * @throws IllegalStateException if the key is new and the table can't grow anymore
+     */
+    public void put(long key, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("The value mapped to " + key + " must not be negative: " + value);
+        }
+        int slot = hash(key) & mask;
+        while (values[slot] != NOT_FOUND) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size >= resizeAt && keys.length >= maxCapacity) {
+            // a full table would make the probes loop forever
+            throw new IllegalStateException("Cannot map more than " + size + " ids");
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash();
+        }
+    }
+
+    /**
+     * @return the keys of the map in ascending order
+     */
+    public long[] sortedKeys() {
+        final long[] sorted = new long[size];
+        int i = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != NOT_FOUND) {
+                sorted[i++] = keys[slot];
+            }
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private void rehash() {
+        final long[] oldKeys = keys;
+        final long[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == NOT_FOUND) continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (values[slot] != NOT_FOUND) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private static int hash(long key) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Math.min(MAX_CAPACITY, Integer.highestOneBit(capacity - 1) << 1);
+    }
+}
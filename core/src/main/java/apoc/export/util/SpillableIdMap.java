@@ -0,0 +1,530 @@
+package apoc.export.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Map from the ids of an import file to the ids of the created entities, which keeps its entries in memory
+ * until the maps sharing its {@link Budget} exceed it and then moves the entries of the largest map to a sorted run
+ * on disk, memory mapped for the lookups. A new run is merged with the previous one when they have a similar size,
+ * so each entry is rewritten a logarithmic number of times instead of once per spill.
+ * The ids written in decimal notation are kept as longs in a {@link LongIdMap}, the others in a {@link StringIdMap}.
+ *
+ * The imports check for duplicates before adding an entry, so every key is expected to be put once.
+ * The puts are serialized with the spills, which a put can start on any map of the same budget.
+ * Lookups can run concurrently as long as no entry is put at the same time in a map of the same budget,
+ * the loaders writing concurrently check for duplicates with {@link #putIfAbsent(String, long)}.
+ */
+public class SpillableIdMap implements AutoCloseable {
+
+    public static final long NOT_FOUND = -1;
+
+    // the maps start small, as an import can have many id spaces and a spilled map starts over
+    private static final int INITIAL_SIZE = 16;
+
+    private final Budget budget;
+    // not the monitor of the map, so a caller holding it can't block the spills started by other maps
+    private final Object lock = new Object();
+    private LongIdMap numbers = new LongIdMap(INITIAL_SIZE);
+    private StringIdMap strings = new StringIdMap(INITIAL_SIZE);
+    private volatile long memoryUsage;
+    // the oldest run first
+    private final List<LongRun> numberRuns = new ArrayList<>();
+    private final List<StringRun> stringRuns = new ArrayList<>();
+    private Path keysFile;
+
+    public SpillableIdMap(long memoryBudget) {
+        this(new Budget(memoryBudget));
+    }
+
+    public SpillableIdMap(Budget budget) {
+        this.budget = budget;
+        budget.register(this);
+    }
+
+    public long size() {
+        long size = numbers.size() + strings.size();
+        for (LongRun run : numberRuns) size += run.count;
+        for (StringRun run : stringRuns) size += run.count;
+        return size;
+    }
+
+    public boolean isSpilled() {
+        return !numberRuns.isEmpty() || !stringRuns.isEmpty();
+    }
+
+    /**
+     * @return the value mapped to the key or {@link #NOT_FOUND}
+     */
+    public long get(String key) {
+        if (key == null) {
+            return NOT_FOUND;
+        }
+        if (isNumeric(key)) {
+            final long number = Long.parseLong(key);
+            long value = numbers.get(number);
+            for (int i = numberRuns.size() - 1; i >= 0 && value == NOT_FOUND; i--) {
+                value = numberRuns.get(i).get(number);
+            }
+            return value;
+        }
+        long value = strings.get(key);
+        for (int i = stringRuns.size() - 1; i >= 0 && value == NOT_FOUND; i--) {
+            value = stringRuns.get(i).get(key);
+        }
+        return value;
+    }
+
+    public void put(String key, long value) {
+        synchronized (lock) {
+            insert(key, value);
+        }
+        // outside of the lock, as the spilled map can be another one
+        budget.enforce();
+    }
+
+    /**
+     * Checks the key and puts it as a single step, so it can run concurrently with the other puts and spills.
+     *
+     * @return the value already mapped to the key, or {@link #NOT_FOUND} if the value has been put
+     */
+    public long putIfAbsent(String key, long value) {
+        final long previous;
+        synchronized (lock) {
+            previous = get(key);
+            if (previous == NOT_FOUND) {
+                insert(key, value);
+            }
+        }
+        budget.enforce();
+        return previous;
+    }
+
+    private void insert(String key, long value) {
+        if (isNumeric(key)) {
+            numbers.put(Long.parseLong(key), value);
+        } else {
+            strings.put(key, value);
+        }
+        updateMemoryUsage();
+    }
+
+    private void updateMemoryUsage() {
+        final long usage = numbers.memoryUsage() + strings.memoryUsage();
+        budget.add(usage - memoryUsage);
+        memoryUsage = usage;
+    }
+
+    private void spill() {
+        synchronized (lock) {
+            // another put can have spilled a map since this one was chosen
+            if (!budget.isExceeded() || numbers.size() + strings.size() == 0) {
+                return;
+            }
+            try {
+                if (numbers.size() > 0) {
+                    numberRuns.add(LongRun.write(numbers));
+                    while (shouldMerge(numberRuns)) {
+                        final LongRun newer = numberRuns.remove(numberRuns.size() - 1);
+                        final LongRun older = numberRuns.remove(numberRuns.size() - 1);
+                        numberRuns.add(LongRun.merge(older, newer));
+                        older.close();
+                        newer.close();
+                    }
+                    numbers = new LongIdMap(INITIAL_SIZE);
+                }
+                if (strings.size() > 0) {
+                    if (keysFile == null) {
+                        keysFile = Files.createTempFile("apoc-id-mapping", ".keys");
+                    }
+                    stringRuns.add(StringRun.write(strings, keysFile));
+                    while (shouldMerge(stringRuns)) {
+                        final StringRun newer = stringRuns.remove(stringRuns.size() - 1);
+                        final StringRun older = stringRuns.remove(stringRuns.size() - 1);
+                        stringRuns.add(StringRun.merge(older, newer, keysFile));
+                        older.close();
+                        newer.close();
+                    }
+                    strings = new StringIdMap(INITIAL_SIZE);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot spill the id mapping to disk", e);
+            }
+            updateMemoryUsage();
+        }
+    }
+
+    // the runs double in size from the newest to the oldest one, so there are a logarithmic number of them
+    private static boolean shouldMerge(List<? extends Run> runs) {
+        final int size = runs.size();
+        return size > 1 && runs.get(size - 2).count <= 2 * runs.get(size - 1).count;
+    }
+
+    // the canonical decimal notation of a long, "007" or "-0" are kept as strings so they do not collide with "7" and "0"
+    static boolean isNumeric(String key) {
+        final int length = key.length();
+        final int start = length > 0 && key.charAt(0) == '-' ? 1 : 0;
+        if (length == start || length - start > 19) {
+            return false;
+        }
+        if (key.charAt(start) == '0' && (length > start + 1 || start == 1)) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            final char c = key.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        if (length - start < 19) {
+            return true;
+        }
+        try {
+            Long.parseLong(key);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            numberRuns.forEach(Run::close);
+            stringRuns.forEach(Run::close);
+            numberRuns.clear();
+            stringRuns.clear();
+            if (keysFile != null) {
+                delete(keysFile);
+                keysFile = null;
+            }
+            numbers = new LongIdMap(INITIAL_SIZE);
+            strings = new StringIdMap(INITIAL_SIZE);
+            budget.add(-memoryUsage);
+            memoryUsage = 0;
+        }
+        budget.unregister(this);
+    }
+
+    /**
+     * Bytes of memory shared by the maps of an import, like the id spaces of a CSV import.
+     * When they are exceeded, the largest map moves its entries to disk.
+     */
+    public static class Budget {
+        private final long bytes;
+        private final List<SpillableIdMap> maps = new ArrayList<>();
+        private long used;
+
+        public Budget(long bytes) {
+            this.bytes = bytes;
+        }
+
+        private synchronized void register(SpillableIdMap map) {
+            maps.add(map);
+        }
+
+        private synchronized void unregister(SpillableIdMap map) {
+            maps.remove(map);
+        }
+
+        private synchronized void add(long delta) {
+            used += delta;
+        }
+
+        private synchronized boolean isExceeded() {
+            return used > bytes;
+        }
+
+        // the lock of the budget is released before spilling, so it's never held while waiting for a map
+        private void enforce() {
+            SpillableIdMap largest = null;
+            synchronized (this) {
+                if (used <= bytes) {
+                    return;
+                }
+                for (SpillableIdMap map : maps) {
+                    if (largest == null || map.memoryUsage > largest.memoryUsage) {
+                        largest = map;
+                    }
+                }
+            }
+            if (largest != null) {
+                largest.spill();
+            }
+        }
+    }
+
+    private abstract static class Run {
+        final Path file;
+        final long count;
+
+        Run(Path file, long count) {
+            this.file = file;
+            this.count = count;
+        }
+
+        void close() {
+            delete(file);
+        }
+    }
+
+    private static DataOutputStream output(Path file, boolean append) throws IOException {
+        final StandardOpenOption mode = append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.WRITE, mode), 1 << 16));
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    /**
+     * Sorted records {@code [key][value]} of the numeric ids.
+     */
+    private static class LongRun extends Run {
+        private static final int RECORD = 16;
+
+        final MappedFile data;
+
+        private LongRun(Path file, long count) throws IOException {
+            super(file, count);
+            this.data = new MappedFile(file);
+        }
+
+        static LongRun write(LongIdMap memory) throws IOException {
+            final Path file = Files.createTempFile("apoc-id-mapping", ".ids");
+            final long[] keys = memory.sortedKeys();
+            try (DataOutputStream out = output(file, false)) {
+                for (long key : keys) {
+                    out.writeLong(key);
+                    out.writeLong(memory.get(key));
+                }
+            }
+            return new LongRun(file, keys.length);
+        }
+
+        static LongRun merge(LongRun older, LongRun newer) throws IOException {
+            final Path file = Files.createTempFile("apoc-id-mapping", ".ids");
+            long count = 0;
+            try (DataOutputStream out = output(file, false)) {
+                long i = 0;
+                long j = 0;
+                while (i < newer.count || j < older.count) {
+                    final long key;
+                    final long value;
+                    if (j == older.count || (i < newer.count && newer.key(i) <= older.key(j))) {
+                        key = newer.key(i);
+                        value = newer.value(i++);
+                        // the entry of the newer run is the most recent one
+                        if (j < older.count && older.key(j) == key) j++;
+                    } else {
+                        key = older.key(j);
+                        value = older.value(j++);
+                    }
+                    out.writeLong(key);
+                    out.writeLong(value);
+                    count++;
+                }
+            }
+            return new LongRun(file, count);
+        }
+
+        long key(long index) {
+            return data.getLong(index * RECORD);
+        }
+
+        long value(long index) {
+            return data.getLong(index * RECORD + 8);
+        }
+
+        long get(long key) {
+            long low = 0;
+            long high = count - 1;
+            while (low <= high) {
+                final long mid = (low + high) >>> 1;
+                final long current = key(mid);
+                if (current < key) {
+                    low = mid + 1;
+                } else if (current > key) {
+                    high = mid - 1;
+                } else {
+                    return value(mid);
+                }
+            }
+            return NOT_FOUND;
+        }
+    }
+
+    /**
+     * Records {@code [hash][value][key offset]} of the string ids sorted by hash, the keys are appended to a separate
+     * file of the map as {@code [length][chars]} and are shared by its runs.
+     */
+    private static class StringRun extends Run {
+        private static final int RECORD = 20;
+
+        final MappedFile data;
+        final MappedFile keys;
+
+        private StringRun(Path file, Path keysFile, long count) throws IOException {
+            super(file, count);
+            this.data = new MappedFile(file);
+            this.keys = new MappedFile(keysFile);
+        }
+
+        static StringRun write(StringIdMap memory, Path keysFile) throws IOException {
+            final long[] slots = memory.sortedSlots();
+            final long[] offsets = new long[slots.length];
+            long offset = Files.size(keysFile);
+            try (DataOutputStream out = output(keysFile, true)) {
+                for (int i = 0; i < slots.length; i++) {
+                    final String key = memory.keyAt((int) slots[i]);
+                    offsets[i] = offset;
+                    out.writeInt(key.length());
+                    out.writeChars(key);
+                    offset += 4 + key.length() * 2L;
+                }
+            }
+
+            final Path file = Files.createTempFile("apoc-id-mapping", ".idx");
+            try (DataOutputStream out = output(file, false)) {
+                for (int i = 0; i < slots.length; i++) {
+                    out.writeInt((int) (slots[i] >>> 32));
+                    out.writeLong(memory.valueAt((int) slots[i]));
+                    out.writeLong(offsets[i]);
+                }
+            }
+            return new StringRun(file, keysFile, slots.length);
+        }
+
+        // the records of the newer run come first among the ones with the same hash, so a lookup finds them first
+        static StringRun merge(StringRun older, StringRun newer, Path keysFile) throws IOException {
+            final Path file = Files.createTempFile("apoc-id-mapping", ".idx");
+            try (DataOutputStream out = output(file, false)) {
+                long i = 0;
+                long j = 0;
+                while (i < newer.count || j < older.count) {
+                    final StringRun run = j == older.count || (i < newer.count && newer.hash(i) <= older.hash(j)) ? newer : older;
+                    final long index = run == newer ? i++ : j++;
+                    out.writeInt(run.hash(index));
+                    out.writeLong(run.value(index));
+                    out.writeLong(run.keyOffset(index));
+                }
+            }
+            // the keys of both runs are in the file, mapped again as a whole
+            return new StringRun(file, keysFile, older.count + newer.count);
+        }
+
+        int hash(long index) {
+            return data.getInt(index * RECORD);
+        }
+
+        long value(long index) {
+            return data.getLong(index * RECORD + 4);
+        }
+
+        long keyOffset(long index) {
+            return data.getLong(index * RECORD + 12);
+        }
+
+        long get(String key) {
+            final int hash = StringIdMap.hash(key);
+            // first record with the hash, then the colliding ones are compared by key
+            long low = 0;
+            long high = count;
+            while (low < high) {
+                final long mid = (low + high) >>> 1;
+                if (hash(mid) < hash) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            for (long i = low; i < count && hash(i) == hash; i++) {
+                if (keyEquals(keyOffset(i), key)) {
+                    return value(i);
+                }
+            }
+            return NOT_FOUND;
+        }
+
+        private boolean keyEquals(long offset, String key) {
+            final int length = keys.getInt(offset);
+            if (length != key.length()) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (keys.getChar(offset + 4 + i * 2L) != key.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Read only mapping of a whole file, in segments as a single buffer is limited to 2GB.
+     */
+    private static class MappedFile {
+        private static final int SEGMENT_SHIFT = 30;
+        private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+        private final MappedByteBuffer[] segments;
+
+        MappedFile(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                final long size = channel.size();
+                segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+                for (int i = 0; i < segments.length; i++) {
+                    final long position = (long) i << SEGMENT_SHIFT;
+                    segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_MASK + 1, size - position));
+                }
+            }
+        }
+
+        byte get(long position) {
+            return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+        }
+
+        // reads the bytes one by one only when the value crosses the end of a segment
+        private long read(long position, int bytes) {
+            final MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+            final int offset = (int) (position & SEGMENT_MASK);
+            if (offset + bytes <= segment.limit()) {
+                switch (bytes) {
+                    case 2: return segment.getChar(offset);
+                    case 4: return segment.getInt(offset);
+                    default: return segment.getLong(offset);
+                }
+            }
+            long value = 0;
+            for (int i = 0; i < bytes; i++) {
+                value = (value << 8) | (get(position + i) & 0xFF);
+            }
+            return value;
+        }
+
+        long getLong(long position) {
+            return read(position, 8);
+        }
+
+        int getInt(long position) {
+            return (int) read(position, 4);
+        }
+
+        char getChar(long position) {
+            return (char) read(position, 2);
+        }
+    }
+}
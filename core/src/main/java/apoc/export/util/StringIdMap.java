@@ -0,0 +1,198 @@
+package apoc.export.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact map from the string ids of an import file to the ids of the created entities.
+ * It uses open addressing over primitive arrays and keeps the characters of the keys
+ * in large shared pages, so there are no per-entry objects, no boxing and no copies of the key strings.
+ */
+public class StringIdMap {
+
+    public static final long NOT_FOUND = -1;
+
+    private static final int PAGE_SIZE = 1 << 20;
+    private static final int FIRST_PAGE_SIZE = 1 << 12;
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final int maxCapacity;
+    private final List<char[]> pages = new ArrayList<>();
+    private char[] page;
+    private int pageOffset;
+
+    // per slot: address of the key in the pages (0 means empty), value and hash
+    private long[] addresses;
+    private long[] values;
+    private int[] hashes;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public StringIdMap() {
+        this(1024);
+    }
+
+    public StringIdMap(int expectedSize) {
+        this(expectedSize, MAX_CAPACITY);
+    }
+
+    StringIdMap(int expectedSize, int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+        allocate(tableSizeFor((int) Math.min(maxCapacity, Math.max(16, (long) (expectedSize / LOAD_FACTOR) + 1))));
+    }
+
+    private void allocate(int capacity) {
+        addresses = new long[capacity];
+        values = new long[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the bytes used by the table and by the pages of the keys
+     */
+    public long memoryUsage() {
+        long usage = addresses.length * 20L;
+        for (char[] keyPage : pages) {
+            usage += keyPage.length * 2L;
+        }
+        return usage;
+    }
+
+    /**
+     * @return the value mapped to the key or {@link #NOT_FOUND}
+     */
+    public long get(String key) {
+        final int hash = hash(key);
+        int slot = hash & mask;
+        long address;
+        while ((address = addresses[slot]) != 0) {
+            if (hashes[slot] == hash && keyEquals(address, key)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * @throws IllegalStateException if the key is new and the table can't grow anymore
+     */
+    public void put(String key, long value) {
+        final int hash = hash(key);
+        int slot = hash & mask;
+        long address;
+        while ((address = addresses[slot]) != 0) {
+            if (hashes[slot] == hash && keyEquals(address, key)) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size >= resizeAt && addresses.length >= maxCapacity) {
+            // a full table would make the probes loop forever
+            throw new IllegalStateException("Cannot map more than " + size + " ids");
+        }
+        addresses[slot] = store(key);
+        values[slot] = value;
+        hashes[slot] = hash;
+        if (++size > resizeAt) {
+            rehash();
+        }
+    }
+
+    /**
+     * @return the used slots as {@code unsigned hash << 32 | slot}, sorted by the hash of their key
+     */
+    long[] sortedSlots() {
+        final long[] sorted = new long[size];
+        int i = 0;
+        for (int slot = 0; slot < addresses.length; slot++) {
+            if (addresses[slot] != 0) {
+                sorted[i++] = (Integer.toUnsignedLong(hashes[slot]) << 32) | slot;
+            }
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    String keyAt(int slot) {
+        final long address = addresses[slot];
+        final char[] keyPage = pages.get((int) (address >>> 32) - 1);
+        final int offset = (int) address;
+        final int length = keyPage[offset] << 16 | keyPage[offset + 1];
+        return new String(keyPage, offset + 2, length);
+    }
+
+    long valueAt(int slot) {
+        return values[slot];
+    }
+
+    private void rehash() {
+        final long[] oldAddresses = addresses;
+        final long[] oldValues = values;
+        final int[] oldHashes = hashes;
+        allocate(oldAddresses.length * 2);
+        for (int i = 0; i < oldAddresses.length; i++) {
+            if (oldAddresses[i] == 0) continue;
+            int slot = oldHashes[i] & mask;
+            while (addresses[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            addresses[slot] = oldAddresses[i];
+            values[slot] = oldValues[i];
+            hashes[slot] = oldHashes[i];
+        }
+    }
+
+    // the key is stored as its length (two chars) followed by its chars, the address is (page index + 1) << 32 | offset
+    private long store(String key) {
+        final int length = key.length();
+        final int needed = length + 2;
+        if (page == null || pageOffset + needed > page.length) {
+            // the pages grow up to PAGE_SIZE, so a small map does not pay for a whole page
+            page = new char[Math.max(Math.min(PAGE_SIZE, FIRST_PAGE_SIZE << pages.size()), needed)];
+            pages.add(page);
+            pageOffset = 0;
+        }
+        final long address = ((long) pages.size() << 32) | pageOffset;
+        page[pageOffset++] = (char) (length >>> 16);
+        page[pageOffset++] = (char) length;
+        key.getChars(0, length, page, pageOffset);
+        pageOffset += length;
+        return address;
+    }
+
+    private boolean keyEquals(long address, String key) {
+        final char[] keyPage = pages.get((int) (address >>> 32) - 1);
+        int offset = (int) address;
+        final int length = keyPage[offset] << 16 | keyPage[offset + 1];
+        if (length != key.length()) {
+            return false;
+        }
+        offset += 2;
+        for (int i = 0; i < length; i++) {
+            if (keyPage[offset + i] != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int hash(String key) {
+        final int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int tableSizeFor(int capacity) {
+        return Math.min(maxCapacity, Integer.highestOneBit(capacity - 1) << 1);
+    }
+}
@@ -8,6 +8,9 @@ import java.util.Map;
 public class XlsExportConfig {
 
     public static final int DEFAULT_BATCH_SIZE = 20000;
+    public static final int DEFAULT_ROW_WINDOW_SIZE = 100;
+    // the row limit of the .xlsx format, header included
+    public static final int MAX_ROWS_PER_SHEET = 1_048_576;
 
     private final int batchSize;
     private final Map<String, Object> config;
@@ -20,6 +23,9 @@ public class XlsExportConfig {
     private final String dateStyle;
     private final boolean prefixSheetWithEntityType;
     private final boolean joinLabels;
+    private final int rowWindowSize;
+    private final boolean compressTempFiles;
+    private final int maxRowsPerSheet;
 
     public XlsExportConfig(Map<String,Object> c) {
         config = c != null ? c : Collections.emptyMap();
@@ -33,6 +39,15 @@ public class XlsExportConfig {
         this.batchSize = ((Number)config.getOrDefault("batchSize", DEFAULT_BATCH_SIZE)).intValue();
         this.prefixSheetWithEntityType = Util.toBoolean(config.getOrDefault("prefixSheetWithEntityType", false));
         this.joinLabels = Util.toBoolean(config.getOrDefault("joinLabels", false));
+        this.rowWindowSize = ((Number)config.getOrDefault("rowWindowSize", DEFAULT_ROW_WINDOW_SIZE)).intValue();
+        this.compressTempFiles = Util.toBoolean(config.getOrDefault("compressTempFiles", true));
+        this.maxRowsPerSheet = ((Number)config.getOrDefault("maxRowsPerSheet", MAX_ROWS_PER_SHEET)).intValue();
+        if (rowWindowSize <= 0) {
+            throw new RuntimeException("`rowWindowSize` must be greater than 0, but got " + rowWindowSize);
+        }
+        if (maxRowsPerSheet < 2 || maxRowsPerSheet > MAX_ROWS_PER_SHEET) {
+            throw new RuntimeException("`maxRowsPerSheet` must be between 2 and " + MAX_ROWS_PER_SHEET + ", but got " + maxRowsPerSheet);
+        }
     }
 
     public String getHeaderNodeId() {
@@ -74,4 +89,16 @@ public class XlsExportConfig {
     public boolean isJoinLabels() {
         return joinLabels;
     }
+
+    public int getRowWindowSize() {
+        return rowWindowSize;
+    }
+
+    public boolean isCompressTempFiles() {
+        return compressTempFiles;
+    }
+
+    public int getMaxRowsPerSheet() {
+        return maxRowsPerSheet;
+    }
 }
@@ -0,0 +1,241 @@
+package apoc.load;
+
+import apoc.load.util.Results;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * The columns of a CSV file, shared by all its rows: the keys of the maps, the columns of the lists and the mapping
+ * that converts each of them are computed once from the header and the config.
+ * The rows are views over the parsed values. The values with a mapping are converted when the row is built,
+ * so the conversion runs on the thread that parses the row and its errors are raised there.
+ */
+public class CSVHeader {
+
+    private static final Object NOT_CONVERTED = new Object();
+
+    private final Set<String> nullValues;
+    // null when the lists have all the values of the row
+    private final int[] listColumns;
+    private final Mapping[] listMappings;
+    // null without a header
+    private final String[] keys;
+    private final int[] mapColumns;
+    private final Mapping[] mapMappings;
+    private final Map<String, Integer> keyIndex;
+
+    public CSVHeader(String[] header, boolean ignore, Map<String, Mapping> mappings, List<String> nullValues) {
+        this.nullValues = nullValues.isEmpty() ? Collections.emptySet() : new HashSet<>(nullValues);
+
+        if (header == null || (!ignore && mappings.isEmpty())) {
+            this.listColumns = null;
+            this.listMappings = null;
+        } else {
+            final int[] columns = new int[header.length];
+            final Mapping[] converters = new Mapping[header.length];
+            int size = 0;
+            for (int i = 0; i < header.length; i++) {
+                final String name = header[i];
+                if (name == null) continue;
+                final Mapping mapping = mappings.get(name);
+                if (mapping != null && mapping.ignore) continue;
+                columns[size] = i;
+                converters[size++] = mapping;
+            }
+            this.listColumns = Arrays.copyOf(columns, size);
+            this.listMappings = Arrays.copyOf(converters, size);
+        }
+
+        if (header == null) {
+            this.keys = null;
+            this.mapColumns = null;
+            this.mapMappings = null;
+            this.keyIndex = null;
+        } else {
+            // a repeated key keeps its first position and the value of its last column
+            final Map<String, Integer> columnByKey = new LinkedHashMap<>(header.length, 1f);
+            final Map<String, Mapping> mappingByKey = new HashMap<>(header.length, 1f);
+            for (int i = 0; i < header.length; i++) {
+                final String name = header[i];
+                if (ignore && name == null) continue;
+                final Mapping mapping = mappings.get(name);
+                if (mapping != null && mapping.ignore) continue;
+                final String key = mapping == null ? name : mapping.name;
+                columnByKey.put(key, i);
+                mappingByKey.put(key, mapping);
+            }
+            final int size = columnByKey.size();
+            this.keys = new String[size];
+            this.mapColumns = new int[size];
+            this.mapMappings = new Mapping[size];
+            this.keyIndex = new HashMap<>(size * 2);
+            int position = 0;
+            for (Map.Entry<String, Integer> entry : columnByKey.entrySet()) {
+                keys[position] = entry.getKey();
+                mapColumns[position] = entry.getValue();
+                mapMappings[position] = mappingByKey.get(entry.getKey());
+                keyIndex.put(entry.getKey(), position++);
+            }
+        }
+    }
+
+    Row row(String[] values) {
+        return new Row(values);
+    }
+
+    /**
+     * The values of a row, with the converted ones cached by column.
+     */
+    class Row {
+        private final String[] values;
+        private Object[] converted;
+
+        private Row(String[] values) {
+            this.values = values;
+        }
+
+        private String raw(int column) {
+            final String value = values[column];
+            return value != null && !nullValues.isEmpty() && nullValues.contains(value) ? null : value;
+        }
+
+        private Object value(int column, Mapping mapping) {
+            if (mapping == null) {
+                return raw(column);
+            }
+            if (converted == null) {
+                converted = new Object[values.length];
+                Arrays.fill(converted, NOT_CONVERTED);
+            }
+            Object value = converted[column];
+            if (value == NOT_CONVERTED) {
+                value = mapping.convert(raw(column));
+                converted[column] = value;
+            }
+            return value;
+        }
+
+        /**
+         * Reads the values of the requested views, converting the ones with a mapping.
+         * @throws RuntimeException if a value can't be converted or the row misses a column of the header
+         */
+        void load(EnumSet<Results> results) {
+            final boolean convertList = results.contains(Results.list);
+            if (listColumns != null && (convertList || results.contains(Results.strings))) {
+                for (int i = 0; i < listColumns.length; i++) {
+                    value(listColumns[i], convertList ? listMappings[i] : null);
+                }
+            }
+            final boolean convertMap = results.contains(Results.map);
+            if (keys != null && (convertMap || results.contains(Results.stringMap))) {
+                for (int i = 0; i < mapColumns.length; i++) {
+                    value(mapColumns[i], convertMap ? mapMappings[i] : null);
+                }
+            }
+        }
+
+        List<Object> list(boolean convert) {
+            return new ListView(this, convert);
+        }
+
+        Map<String, Object> map(boolean convert) {
+            return keys == null ? null : new MapView(this, convert);
+        }
+    }
+
+    private class ListView extends AbstractList<Object> implements RandomAccess {
+        private final Row row;
+        private final boolean convert;
+
+        ListView(Row row, boolean convert) {
+            this.row = row;
+            this.convert = convert;
+        }
+
+        @Override
+        public Object get(int index) {
+            if (listColumns == null) {
+                return row.raw(index);
+            }
+            return row.value(listColumns[index], convert ? listMappings[index] : null);
+        }
+
+        @Override
+        public int size() {
+            return listColumns == null ? row.values.length : listColumns.length;
+        }
+    }
+
+    private class MapView extends AbstractMap<String, Object> {
+        private final Row row;
+        private final boolean convert;
+
+        MapView(Row row, boolean convert) {
+            this.row = row;
+            this.convert = convert;
+        }
+
+        private Object valueAt(int position) {
+            return row.value(mapColumns[position], convert ? mapMappings[position] : null);
+        }
+
+        @Override
+        public Object get(Object key) {
+            final Integer position = keyIndex.get(key);
+            return position == null ? null : valueAt(position);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return keyIndex.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        private int position;
+
+                        @Override
+                        public boolean hasNext() {
+                            return position < keys.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            final int current = position++;
+                            return new SimpleImmutableEntry<>(keys[current], valueAt(current));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+    }
+}
@@ -1,19 +1,16 @@
 package apoc.load;
 
 import apoc.Pools;
+import apoc.load.util.ArrowBatchReader;
+import apoc.load.util.LoadArrowConfig;
 import apoc.result.MapResult;
 import apoc.util.FileUtils;
-import apoc.util.JsonUtil;
 import apoc.util.Util;
 import org.apache.arrow.memory.RootAllocator;
-import org.apache.arrow.vector.BitVector;
-import org.apache.arrow.vector.DateMilliVector;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
-import org.apache.arrow.vector.ipc.ArrowFileReader;
 import org.apache.arrow.vector.ipc.ArrowReader;
 import org.apache.arrow.vector.ipc.ArrowStreamReader;
-import org.apache.arrow.vector.util.Text;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.Context;
@@ -21,21 +18,14 @@ import org.neo4j.procedure.Description;
 import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
 import org.neo4j.procedure.TerminationGuard;
-import org.neo4j.values.storable.Values;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
-import java.nio.channels.SeekableByteChannel;
-import java.time.Instant;
-import java.time.ZoneOffset;
-import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Spliterator;
 import java.util.Spliterators;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -57,31 +47,29 @@ public class LoadArrow {
 
         private final ArrowReader reader;
         private final VectorSchemaRoot schemaRoot;
-        private final AtomicInteger counter;
+        private FieldVector[] vectors;
+        private int counter;
 
         public ArrowSpliterator(ArrowReader reader, VectorSchemaRoot schemaRoot) throws IOException {
             super(Long.MAX_VALUE, Spliterator.ORDERED);
             this.reader = reader;
             this.schemaRoot = schemaRoot;
-            this.counter = new AtomicInteger();
             this.reader.loadNextBatch();
+            this.vectors = schemaRoot.getFieldVectors().toArray(new FieldVector[0]);
         }
 
         @Override
-        public synchronized boolean tryAdvance(Consumer<? super MapResult> action) {
+        public boolean tryAdvance(Consumer<? super MapResult> action) {
             try {
-                if (counter.get() >= schemaRoot.getRowCount()) {
+                if (counter >= schemaRoot.getRowCount()) {
                     if (reader.loadNextBatch()) {
-                        counter.set(0);
+                        counter = 0;
+                        vectors = schemaRoot.getFieldVectors().toArray(new FieldVector[0]);
                     } else {
                         return false;
                     }
                 }
-                final Map<String, Object> row = schemaRoot.getFieldVectors()
-                        .stream()
-                        .collect(HashMap::new, (map, fieldVector) -> map.put(fieldVector.getName(), read(fieldVector, counter.get())), HashMap::putAll); // please look at https://bugs.openjdk.java.net/browse/JDK-8148463
-                counter.incrementAndGet();
-                action.accept(new MapResult(row));
+                action.accept(new MapResult(ArrowBatchReader.readRow(vectors, counter++)));
                 return true;
             } catch (Exception e) {
                 return false;
@@ -109,63 +97,20 @@ public class LoadArrow {
     }
 
     @Procedure(name = "apoc.load.arrow")
-    @Description("apoc.load.arrow(fileName, config) - imports nodes and relationships from the provided file")
+    @Description("apoc.load.arrow(fileName, config) - imports nodes and relationships from the provided file. " +
+            "Config: {skip: 0, limit: -1, parallel: false, prefetch: <cores>}")
     public Stream<MapResult> file(
             @Name("source") String fileName,
             @Name(value = "config", defaultValue = "{}") Map<String, Object> config) throws IOException {
-        final SeekableByteChannel channel = FileUtils.inputStreamFor(fileName, null, null, null)
-                .asChannel();
-        RootAllocator allocator = new RootAllocator();
-        ArrowFileReader streamReader = new ArrowFileReader(channel, allocator);
-        VectorSchemaRoot schemaRoot = streamReader.getVectorSchemaRoot();
-        return StreamSupport.stream(new ArrowSpliterator(streamReader, schemaRoot), false)
-                .onClose(() -> {
-                    Util.close(allocator);
-                    Util.close(streamReader);
-                    Util.close(schemaRoot);
-                    Util.close(channel);
-                });
-    }
-
-    private static Object read(FieldVector fieldVector, int index) {
-        if (fieldVector.isNull(index)) {
-            return null;
-        } else if (fieldVector instanceof DateMilliVector) {
-            DateMilliVector fe = (DateMilliVector) fieldVector;
-            return Instant.ofEpochMilli(fe.get(index)).atOffset(ZoneOffset.UTC);
-        } else if (fieldVector instanceof BitVector) {
-            BitVector fe = (BitVector) fieldVector;
-            return fe.get(index) == 1;
-        } else {
-            Object object = fieldVector.getObject(index);
-            return getObject(object);
-        }
-    }
-
-    private static Object getObject(Object object) {
-        if (object instanceof Collection) {
-            return ((Collection<?>) object).stream()
-                    .map(LoadArrow::getObject)
-                    .collect(Collectors.toList());
-        }
-        if (object instanceof Map) {
-            return ((Map<String, Object>) object).entrySet().stream()
-                    .collect(Collectors.toMap(Map.Entry::getKey, e -> getObject(e.getValue())));
-        }
-        if (object instanceof Text) {
-            return object.toString();
-        }
-        try {
-            // we test if is a valid Neo4j type
-            return Values.of(object);
-        } catch (Exception e) {
-            // otherwise we try coerce it
-            return valueToString(object);
-        }
-    }
-
-    private static String valueToString(Object value) {
-        return JsonUtil.writeValueAsString(value);
+        final LoadArrowConfig conf = new LoadArrowConfig(config);
+        // local files are memory-mapped, any other source is read fully into memory as before
+        final File file = FileUtils.getLocalFile(fileName);
+        final ArrowBatchReader reader = file != null
+                ? ArrowBatchReader.open(file.toPath())
+                : ArrowBatchReader.open(FileUtils.inputStreamFor(fileName, null, null, null).readAllBytes());
+        return reader.stream(conf.getSkip(), conf.getLimit(), conf.isParallel() ? pools.getDefaultExecutorService() : null, conf.getPrefetch())
+                .map(MapResult::new)
+                .onClose(reader::close);
     }
 
-}
\ No newline at end of file
+}
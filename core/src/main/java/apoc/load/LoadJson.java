@@ -3,6 +3,7 @@ package apoc.load;
 import apoc.result.MapResult;
 import apoc.result.ObjectResult;
 import apoc.util.CompressionAlgo;
+import apoc.util.FileUtils;
 import apoc.util.JsonUtil;
 import apoc.util.Util;
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -11,6 +12,7 @@ import org.neo4j.procedure.Description;
 import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -65,6 +67,12 @@ public class LoadJson {
     }
     public static Stream<MapResult> loadJsonStream(@Name("urlOrKeyOrBinary") Object urlOrKeyOrBinary, @Name("headers") Map<String, Object> headers, @Name("payload") String payload, String path, boolean failOnError, String compressionAlgo, List<String> pathOptions) {
         if (urlOrKeyOrBinary instanceof String) {
+            // the files matching a glob pattern are loaded one after the other
+            final List<String> files = expandGlob((String) urlOrKeyOrBinary, failOnError);
+            if (files.size() != 1 || !files.get(0).equals(urlOrKeyOrBinary)) {
+                final Map<String, Object> fileHeaders = headers;
+                return files.stream().flatMap(file -> loadJsonStream(file, fileHeaders == null ? null : new HashMap<>(fileHeaders), payload, path, failOnError, compressionAlgo, pathOptions));
+            }
             headers = null != headers ? headers : new HashMap<>();
             headers.putAll(Util.extractCredentialsIfNeeded((String) urlOrKeyOrBinary, failOnError));
         }
@@ -86,4 +94,14 @@ public class LoadJson {
         });
     }
 
+    private static List<String> expandGlob(String url, boolean failOnError) {
+        try {
+            return FileUtils.expandGlob(url);
+        } catch (IOException e) {
+            if (failOnError) {
+                throw new RuntimeException("Can't read the files matching " + url, e);
+            }
+            return Collections.emptyList();
+        }
+    }
 }
@@ -0,0 +1,431 @@
+package apoc.load;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Evaluates a simple XPath location path while the document is read, so only the matched elements are kept in memory.
+ *
+ * The supported paths are made of child ({@code /}) and descendant ({@code //}) steps with an element name or {@code *},
+ * each one with any number of {@code [@attr]}, {@code [@attr='value']} and {@code [n]} predicates,
+ * like {@code /catalog/book[@id='bk101']/author} or {@code //item[2]}.
+ * The matched elements are converted to the same maps as {@link Xml} does from the DOM, in document order.
+ */
+class StreamingXPath {
+
+    private static final String REPORT_CDATA_EVENT = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+    static final XMLInputFactory FACTORY = XMLInputFactory.newFactory();
+    static {
+        // the text and the CDATA sections are kept apart, like the DOM does
+        FACTORY.setProperty(XMLInputFactory.IS_COALESCING, false);
+        if (FACTORY.isPropertySupported(REPORT_CDATA_EVENT)) {
+            FACTORY.setProperty(REPORT_CDATA_EVENT, true);
+        }
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private static class Predicate {
+        // null for a position
+        final String attribute;
+        // null to only check that the attribute exists
+        final String value;
+        final int position;
+
+        Predicate(String attribute, String value, int position) {
+            this.attribute = attribute;
+            this.value = value;
+            this.position = position;
+        }
+    }
+
+    private static class Step {
+        final boolean descendant;
+        // null for *
+        final String name;
+        final List<Predicate> predicates;
+
+        Step(boolean descendant, String name, List<Predicate> predicates) {
+            this.descendant = descendant;
+            this.name = name;
+            this.predicates = predicates;
+        }
+    }
+
+    private final List<Step> steps;
+
+    private StreamingXPath(List<Step> steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * @return the compiled path, or null if the path needs the DOM evaluation
+     */
+    static StreamingXPath compile(String path) {
+        final String expression = path.trim();
+        final List<Step> steps = new ArrayList<>();
+        if (expression.equals("/")) {
+            // the document, that is converted as its root element
+            steps.add(new Step(false, null, Collections.emptyList()));
+            return new StreamingXPath(steps);
+        }
+        int i = 0;
+        final int length = expression.length();
+        while (true) {
+            boolean descendant = false;
+            if (expression.startsWith("//", i)) {
+                descendant = true;
+                i += 2;
+            } else if (expression.startsWith("/", i)) {
+                i++;
+            } else if (i > 0) {
+                return null;
+            }
+            if (i == length) {
+                return null;
+            }
+            final String name;
+            if (expression.charAt(i) == '*') {
+                name = null;
+                i++;
+            } else {
+                final int end = nameEnd(expression, i);
+                if (end == i) {
+                    // axes, abbreviated steps, functions and attributes
+                    return null;
+                }
+                name = expression.substring(i, end);
+                i = end;
+            }
+            final List<Predicate> predicates = new ArrayList<>();
+            while (i < length && expression.charAt(i) == '[') {
+                final int close = expression.indexOf(']', i);
+                if (close < 0) {
+                    return null;
+                }
+                final Predicate predicate = predicate(expression.substring(i + 1, close).trim());
+                if (predicate == null) {
+                    return null;
+                }
+                predicates.add(predicate);
+                i = close + 1;
+            }
+            steps.add(new Step(descendant, name, predicates));
+            if (i == length) {
+                return new StreamingXPath(steps);
+            }
+        }
+    }
+
+    // the end of the unprefixed name that starts at the index
+    private static int nameEnd(String expression, int start) {
+        int end = start;
+        while (end < expression.length()) {
+            final char c = expression.charAt(end);
+            final boolean nameChar = Character.isLetter(c) || c == '_' || (end > start && (Character.isDigit(c) || c == '-' || c == '.'));
+            if (!nameChar) break;
+            end++;
+        }
+        // prefixed names, node tests and functions
+        if (end < expression.length() && (expression.charAt(end) == ':' || expression.charAt(end) == '(')) {
+            return start;
+        }
+        return end;
+    }
+
+    private static Predicate predicate(String content) {
+        if (!content.isEmpty() && content.length() < 10 && content.chars().allMatch(Character::isDigit)) {
+            final int position = Integer.parseInt(content);
+            return position > 0 ? new Predicate(null, null, position) : null;
+        }
+        if (!content.startsWith("@")) {
+            return null;
+        }
+        final int end = nameEnd(content, 1);
+        if (end == 1) {
+            return null;
+        }
+        final String attribute = content.substring(1, end);
+        final String rest = content.substring(end).trim();
+        if (rest.isEmpty()) {
+            return new Predicate(attribute, null, 0);
+        }
+        if (!rest.startsWith("=")) {
+            return null;
+        }
+        final String literal = rest.substring(1).trim();
+        if (literal.length() < 2 || (literal.charAt(0) != '\'' && literal.charAt(0) != '"')
+                || literal.indexOf(literal.charAt(0), 1) != literal.length() - 1) {
+            return null;
+        }
+        return new Predicate(attribute, literal.substring(1, literal.length() - 1), 0);
+    }
+
+    /**
+     * Reads the prolog of the document, then returns the matched elements one by one.
+     * If {@code failOnError} is false, an error while reading ends the results with an empty map.
+     */
+    Iterator<Map<String, Object>> matches(XMLStreamReader reader, boolean simpleMode, boolean failOnError) throws XMLStreamException {
+        final Matches matches = new Matches(reader, simpleMode, failOnError);
+        while (reader.hasNext()) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.DTD) {
+                throw new XMLStreamException("DOCTYPE is disallowed", reader.getLocation());
+            }
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                matches.startElement();
+                break;
+            }
+        }
+        return matches;
+    }
+
+    // a matched element, converted when its end is read
+    private static class Match {
+        Map<String, Object> value;
+    }
+
+    private class Frame {
+        final String localName;
+        // the steps that the element matched: j when it matched the steps before j
+        final BitSet reached;
+        // the steps of the descendant axis that the element or one of its ancestors reached
+        final BitSet descendants;
+        // the steps for which the children of the element are candidates
+        final BitSet context;
+        // the positions of the children for each step and predicate
+        int[][] positions;
+
+        // not null when the element is part of a match
+        Map<String, Object> map;
+        List<Object> children;
+        StringBuilder text;
+        Match match;
+
+        Frame(String localName, BitSet reached, BitSet parentDescendants) {
+            this.localName = localName;
+            this.reached = reached;
+            this.descendants = (BitSet) parentDescendants.clone();
+            this.context = new BitSet();
+            for (int j = reached.nextSetBit(0); j >= 0 && j < steps.size(); j = reached.nextSetBit(j + 1)) {
+                if (steps.get(j).descendant) {
+                    descendants.set(j);
+                } else {
+                    context.set(j);
+                }
+            }
+            context.or(descendants);
+        }
+
+        int nextPosition(int step, int predicate) {
+            if (positions == null) {
+                positions = new int[steps.size()][];
+            }
+            if (positions[step] == null) {
+                positions[step] = new int[steps.get(step).predicates.size()];
+            }
+            return ++positions[step][predicate];
+        }
+    }
+
+    private class Matches implements Iterator<Map<String, Object>> {
+        private final XMLStreamReader reader;
+        private final boolean simpleMode;
+        private final boolean failOnError;
+        private final Deque<Frame> stack = new ArrayDeque<>();
+        // in document order, the first one is returned when it's converted
+        private final Deque<Match> pending = new ArrayDeque<>();
+        private boolean finished;
+
+        Matches(XMLStreamReader reader, boolean simpleMode, boolean failOnError) {
+            this.reader = reader;
+            this.simpleMode = simpleMode;
+            this.failOnError = failOnError;
+            final BitSet document = new BitSet();
+            document.set(0);
+            stack.push(new Frame(null, document, new BitSet()));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!finished && (pending.isEmpty() || pending.peekFirst().value == null)) {
+                try {
+                    if (!reader.hasNext()) {
+                        finished = true;
+                        break;
+                    }
+                    read(reader.next());
+                } catch (XMLStreamException | RuntimeException e) {
+                    finished = true;
+                    if (failOnError) {
+                        throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
+                    }
+                    pending.clear();
+                    final Match empty = new Match();
+                    empty.value = Collections.emptyMap();
+                    pending.add(empty);
+                }
+            }
+            return !pending.isEmpty() && pending.peekFirst().value != null;
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return pending.removeFirst().value;
+        }
+
+        private void read(int event) throws XMLStreamException {
+            final Frame top = stack.peek();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    startElement();
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    endElement();
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    if (top.map != null) {
+                        if (top.text == null) top.text = new StringBuilder();
+                        top.text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    break;
+                case XMLStreamConstants.CDATA:
+                    if (top.map != null) {
+                        flushText(top);
+                        Xml.addText(top.map, reader.getText());
+                    }
+                    break;
+                case XMLStreamConstants.COMMENT:
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    // the DOM has separate text nodes on each side
+                    if (top.map != null) flushText(top);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void startElement() throws XMLStreamException {
+            final Frame parent = stack.peek();
+            if (parent.map != null) flushText(parent);
+            final String localName = reader.getLocalName();
+            final BitSet reached = new BitSet();
+            for (int j = parent.context.nextSetBit(0); j >= 0; j = parent.context.nextSetBit(j + 1)) {
+                if (matches(parent, j, localName)) {
+                    reached.set(j + 1);
+                }
+            }
+            final boolean matched = reached.get(steps.size());
+            if (parent.map == null && !matched && parent.descendants.isEmpty() && reached.isEmpty()) {
+                // nothing in the element can match
+                skipElement();
+                return;
+            }
+            final Frame frame = new Frame(localName, reached, parent.descendants);
+            if (parent.map != null || matched) {
+                frame.map = new LinkedHashMap<>();
+                frame.map.put("_type", localName);
+                for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                    final String prefix = reader.getNamespacePrefix(i);
+                    frame.map.put(prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix, reader.getNamespaceURI(i));
+                }
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                    final String prefix = reader.getAttributePrefix(i);
+                    final String name = reader.getAttributeLocalName(i);
+                    frame.map.put(prefix == null || prefix.isEmpty() ? name : prefix + ":" + name, reader.getAttributeValue(i));
+                }
+            }
+            if (matched) {
+                frame.match = new Match();
+                pending.addLast(frame.match);
+            }
+            stack.push(frame);
+        }
+
+        private void endElement() {
+            final Frame frame = stack.pop();
+            if (frame.map == null) {
+                return;
+            }
+            flushText(frame);
+            if (frame.children != null) {
+                Xml.addChildren(frame.map, frame.children, simpleMode ? "_" + frame.localName : "_children");
+            }
+            final Frame parent = stack.peek();
+            if (parent.map != null) {
+                if (parent.children == null) parent.children = new ArrayList<>();
+                parent.children.add(frame.map);
+            }
+            if (frame.match != null) {
+                frame.match.value = frame.map;
+            }
+        }
+
+        private void skipElement() throws XMLStreamException {
+            int depth = 1;
+            while (depth > 0) {
+                final int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) depth++;
+                else if (event == XMLStreamConstants.END_ELEMENT) depth--;
+            }
+        }
+
+        private void flushText(Frame frame) {
+            if (frame.text != null) {
+                Xml.addText(frame.map, frame.text.toString());
+                frame.text = null;
+            }
+        }
+
+        // the element at the reader is a child of the parent: does it match the step?
+        private boolean matches(Frame parent, int j, String localName) {
+            final Step step = steps.get(j);
+            if (step.name != null) {
+                final String namespace = reader.getNamespaceURI();
+                // an unprefixed name is in no namespace
+                if (!step.name.equals(localName) || (namespace != null && !namespace.isEmpty())) {
+                    return false;
+                }
+            }
+            for (int k = 0; k < step.predicates.size(); k++) {
+                final Predicate predicate = step.predicates.get(k);
+                if (predicate.attribute == null) {
+                    if (parent.nextPosition(j, k) != predicate.position) {
+                        return false;
+                    }
+                    continue;
+                }
+                final String value = attribute(predicate.attribute);
+                if (value == null || (predicate.value != null && !predicate.value.equals(value))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String attribute(String name) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                final String namespace = reader.getAttributeNamespace(i);
+                if (name.equals(reader.getAttributeLocalName(i)) && (namespace == null || namespace.isEmpty())) {
+                    return reader.getAttributeValue(i);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -54,13 +54,17 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static apoc.util.CompressionConfig.COMPRESSION;
 import static apoc.util.FileUtils.getInputStreamFromBinary;
@@ -115,6 +119,23 @@ public class Xml {
     private Stream<MapResult> parse(InputStream data, boolean simpleMode, String path, boolean failOnError) throws Exception {
         List<MapResult> result = new ArrayList<>();
         try {
+            path = StringUtils.isEmpty(path) ? "/" : path;
+            StreamingXPath streamingPath = StreamingXPath.compile(path);
+            if (streamingPath != null) {
+                XMLStreamReader reader = StreamingXPath.FACTORY.createXMLStreamReader(data);
+                Iterator<Map<String, Object>> matches = streamingPath.matches(reader, simpleMode, failOnError);
+                return StreamSupport.stream(Spliterators.spliteratorUnknownSize(matches, Spliterator.ORDERED), false)
+                        .map(MapResult::new)
+                        .onClose(() -> {
+                            try {
+                                reader.close();
+                                data.close();
+                            } catch (XMLStreamException | IOException e) {
+                                throw new RuntimeException(e);
+                            }
+                        });
+            }
+
             DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
             documentBuilderFactory.setNamespaceAware(true);
             documentBuilderFactory.setIgnoringElementContentWhitespace(true);
@@ -127,7 +148,6 @@ public class Xml {
 
             XPath xPath = xPathFactory.newXPath();
 
-            path = StringUtils.isEmpty(path) ? "/" : path;
             XPathExpression xPathExpression = xPath.compile(path);
             NodeList nodeList = (NodeList) xPathExpression.evaluate(doc, XPathConstants.NODESET);
 
@@ -226,18 +246,7 @@ public class Xml {
                 }
                 String key = simpleMode ? "_" + node.getLocalName() : "_children";
                 Collections.reverse(nodeChildren);
-                if (nodeChildren.size() > 0) {
-                    // Before adding the children we need to handle mixed text
-                    Object text = elementMap.get("_text");
-                    if (text instanceof List) {
-                        for (Object element : (List) text) {
-                            nodeChildren.add(element);
-                        }
-                        elementMap.remove("_text");
-                    }
-
-                    elementMap.put(key, nodeChildren);
-                }
+                addChildren(elementMap, nodeChildren, key);
             }
         }
 
@@ -246,6 +255,28 @@ public class Xml {
         }
     }
 
+    /**
+     * Sets the converted children of an element, with its text when it's mixed
+     *
+     * @param elementMap
+     * @param nodeChildren
+     * @param key
+     */
+    static void addChildren(Map<String, Object> elementMap, List<Object> nodeChildren, String key) {
+        if (nodeChildren.size() > 0) {
+            // Before adding the children we need to handle mixed text
+            Object text = elementMap.get("_text");
+            if (text instanceof List) {
+                for (Object element : (List) text) {
+                    nodeChildren.add(element);
+                }
+                elementMap.remove("_text");
+            }
+
+            elementMap.put(key, nodeChildren);
+        }
+    }
+
     /**
      * Collects type and attributes for the node
      *
@@ -275,18 +306,27 @@ public class Xml {
      * @param elementMap
      */
     private void handleTextNode(Node node, Map<String, Object> elementMap) {
-        Object text = "";
         int nodeType = node.getNodeType();
         switch (nodeType) {
             case Node.TEXT_NODE:
-                text = normalizeText(node.getNodeValue());
+                addText(elementMap, node.getNodeValue());
                 break;
             case Node.CDATA_SECTION_NODE:
-                text = normalizeText(((CharacterData) node).getData());
+                addText(elementMap, ((CharacterData) node).getData());
                 break;
             default:
                 break;
         }
+    }
+
+    /**
+     * Collects the normalized content of a TEXT or CDATA node
+     *
+     * @param elementMap
+     * @param value
+     */
+    static void addText(Map<String, Object> elementMap, String value) {
+        Object text = normalizeText(value);
 
         // If the text is valid ...
         if (!StringUtils.isEmpty(text.toString())) {
@@ -306,7 +346,7 @@ public class Xml {
      * @param text
      * @return
      */
-    private String normalizeText(String text) {
+    private static String normalizeText(String text) {
         String[] tokens = StringUtils.split(text, "\n");
         for (int i = 0; i < tokens.length; i++) {
             tokens[i] = tokens[i].trim();
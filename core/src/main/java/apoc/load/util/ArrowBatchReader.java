@@ -0,0 +1,293 @@
+package apoc.load.util;
+
+import apoc.util.JsonUtil;
+import apoc.util.Util;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.ReadChannel;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+import org.apache.arrow.vector.ipc.message.MessageMetadataResult;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+import org.apache.arrow.vector.util.Text;
+import org.neo4j.values.storable.Values;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Random access reader for the Arrow IPC file format.
+ * The record batches are located through the file footer and their row counts are read from the
+ * message headers only, so a batch can be fetched by index (and rows skipped) without decoding the
+ * batches before it. Every worker uses its own {@link ArrowFileReader} over a shared (memory-mapped)
+ * buffer, which allows decoding several batches in parallel.
+ */
+public class ArrowBatchReader implements AutoCloseable {
+
+    private final ByteBuffer[] segments;
+    private final BufferAllocator allocator;
+    private final List<ArrowBlock> blocks;
+    // rowOffsets[i] is the index of the first row of block i, rowOffsets[blocks.size()] the total row count
+    private final long[] rowOffsets;
+    private final Queue<ArrowFileReader> idleReaders = new ConcurrentLinkedQueue<>();
+    private final Queue<ArrowFileReader> allReaders = new ConcurrentLinkedQueue<>();
+
+    public ArrowBatchReader(ByteBuffer[] segments) throws IOException {
+        this.segments = segments;
+        this.allocator = new RootAllocator();
+        final ArrowFileReader reader = acquire();
+        try {
+            this.blocks = reader.getRecordBlocks();
+        } finally {
+            release(reader);
+        }
+        this.rowOffsets = new long[blocks.size() + 1];
+        for (int i = 0; i < blocks.size(); i++) {
+            rowOffsets[i + 1] = rowOffsets[i] + rowCount(blocks.get(i));
+        }
+    }
+
+    public static ArrowBatchReader open(Path path) throws IOException {
+        return new ArrowBatchReader(ByteBufferChannel.map(path));
+    }
+
+    public static ArrowBatchReader open(byte[] bytes) throws IOException {
+        return new ArrowBatchReader(ByteBufferChannel.wrap(bytes));
+    }
+
+    private long rowCount(ArrowBlock block) throws IOException {
+        try (ByteBufferChannel channel = new ByteBufferChannel(segments)) {
+            channel.position(block.getOffset());
+            final MessageMetadataResult metadata = MessageSerializer.readMessage(new ReadChannel(channel));
+            if (metadata == null) {
+                throw new IOException("Unexpected end of input reading the record batch at offset " + block.getOffset());
+            }
+            final RecordBatch recordBatch = (RecordBatch) metadata.getMessage().header(new RecordBatch());
+            return recordBatch.length();
+        }
+    }
+
+    public int getBatchCount() {
+        return blocks.size();
+    }
+
+    public long getRowCount() {
+        return rowOffsets[blocks.size()];
+    }
+
+    /**
+     * Decodes the rows [from, to) of the batch with the given index into maps
+     */
+    public List<Map<String, Object>> readBatch(int batch, int from, int to) throws IOException {
+        final ArrowFileReader reader = acquire();
+        try {
+            reader.loadRecordBatch(blocks.get(batch));
+            final VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            // the vectors are reused by the reader for the next batch, so the rows are copied
+            final FieldVector[] vectors = root.getFieldVectors().toArray(new FieldVector[0]);
+            final int end = Math.min(to, root.getRowCount());
+            final List<Map<String, Object>> rows = new ArrayList<>(Math.max(0, end - from));
+            for (int i = from; i < end; i++) {
+                rows.add(readRow(vectors, i));
+            }
+            return rows;
+        } finally {
+            release(reader);
+        }
+    }
+
+    /**
+     * Streams the rows starting at {@code skip}, seeking directly to the batch containing it.
+     *
+     * @param limit the maximum number of rows, or a negative number for all of them
+     * @param pool if not null the batches are decoded on this executor, up to {@code prefetch} ahead of the consumer
+     */
+    public Stream<Map<String, Object>> stream(long skip, long limit, ExecutorService pool, int prefetch) {
+        final long total = getRowCount();
+        final long first = Math.min(Math.max(0, skip), total);
+        final long last = limit < 0 || limit > total - first ? total : first + limit;
+        final BatchIterator iterator = new BatchIterator(first, last, pool, Math.max(1, prefetch));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .flatMap(List::stream)
+                .onClose(iterator::close);
+    }
+
+    private int batchOf(long row) {
+        int index = Arrays.binarySearch(rowOffsets, row);
+        if (index < 0) {
+            return -index - 2;
+        }
+        // skip empty batches sharing the same offset
+        while (index < blocks.size() - 1 && rowOffsets[index + 1] == row) {
+            index++;
+        }
+        return index;
+    }
+
+    private ArrowFileReader acquire() {
+        final ArrowFileReader idle = idleReaders.poll();
+        if (idle != null) {
+            return idle;
+        }
+        final ArrowFileReader reader = new ArrowFileReader(new ByteBufferChannel(segments), allocator);
+        allReaders.add(reader);
+        return reader;
+    }
+
+    private void release(ArrowFileReader reader) {
+        idleReaders.offer(reader);
+    }
+
+    @Override
+    public void close() {
+        allReaders.forEach(Util::close);
+        Util.close(allocator);
+    }
+
+    /**
+     * Decodes the values of a row of the loaded batch
+     */
+    public static Map<String, Object> readRow(FieldVector[] vectors, int index) {
+        final Map<String, Object> row = new HashMap<>(vectors.length * 4 / 3 + 1);
+        for (FieldVector vector : vectors) {
+            row.put(vector.getName(), read(vector, index));
+        }
+        return row;
+    }
+
+    private static Object read(FieldVector fieldVector, int index) {
+        if (fieldVector.isNull(index)) {
+            return null;
+        } else if (fieldVector instanceof DateMilliVector) {
+            DateMilliVector fe = (DateMilliVector) fieldVector;
+            return Instant.ofEpochMilli(fe.get(index)).atOffset(ZoneOffset.UTC);
+        } else if (fieldVector instanceof BitVector) {
+            BitVector fe = (BitVector) fieldVector;
+            return fe.get(index) == 1;
+        } else {
+            Object object = fieldVector.getObject(index);
+            return getObject(object);
+        }
+    }
+
+    private static Object getObject(Object object) {
+        if (object instanceof Collection) {
+            return ((Collection<?>) object).stream()
+                    .map(ArrowBatchReader::getObject)
+                    .collect(Collectors.toList());
+        }
+        if (object instanceof Map) {
+            return ((Map<String, Object>) object).entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, e -> getObject(e.getValue())));
+        }
+        if (object instanceof Text) {
+            return object.toString();
+        }
+        try {
+            // we test if is a valid Neo4j type
+            return Values.of(object);
+        } catch (Exception e) {
+            // otherwise we try coerce it
+            return valueToString(object);
+        }
+    }
+
+    private static String valueToString(Object value) {
+        return JsonUtil.writeValueAsString(value);
+    }
+
+    private class BatchIterator implements Iterator<List<Map<String, Object>>>, AutoCloseable {
+        private final long last;
+        private final ExecutorService pool;
+        private final int prefetch;
+        private final Deque<Future<List<Map<String, Object>>>> inFlight = new ArrayDeque<>();
+        private long nextRow;
+        private int nextBatch;
+
+        BatchIterator(long first, long last, ExecutorService pool, int prefetch) {
+            this.last = last;
+            this.pool = pool;
+            this.prefetch = prefetch;
+            this.nextRow = first;
+            this.nextBatch = first < last ? batchOf(first) : blocks.size();
+        }
+
+        private boolean hasMoreBatches() {
+            return nextRow < last && nextBatch < blocks.size();
+        }
+
+        private Callable<List<Map<String, Object>>> nextTask() {
+            final int batch = nextBatch++;
+            final int from = (int) (nextRow - rowOffsets[batch]);
+            final int to = (int) (Math.min(last, rowOffsets[batch + 1]) - rowOffsets[batch]);
+            nextRow = rowOffsets[batch + 1];
+            return () -> readBatch(batch, from, to);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !inFlight.isEmpty() || hasMoreBatches();
+        }
+
+        @Override
+        public List<Map<String, Object>> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            try {
+                if (pool == null) {
+                    return nextTask().call();
+                }
+                while (inFlight.size() < prefetch && hasMoreBatches()) {
+                    inFlight.add(pool.submit(nextTask()));
+                }
+                return inFlight.poll().get();
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Error reading Arrow record batch", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (Exception e) {
+                throw new RuntimeException("Error reading Arrow record batch", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            // wait for the pending batches before the readers and the allocator are released
+            for (Future<List<Map<String, Object>>> future : inFlight) {
+                try {
+                    future.get();
+                } catch (Exception ignored) { }
+            }
+            inFlight.clear();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package apoc.load.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only {@link SeekableByteChannel} over one or more (memory-mapped) byte buffers.
+ * Every channel keeps its own position, so many of them can share the same mapping
+ * and be read concurrently.
+ */
+public class ByteBufferChannel implements SeekableByteChannel {
+
+    // a single MappedByteBuffer can't address more than Integer.MAX_VALUE bytes
+    static final int SEGMENT_SIZE = 1 << 30;
+
+    private final ByteBuffer[] segments;
+    private final long size;
+    private long position;
+    private boolean open = true;
+
+    public ByteBufferChannel(ByteBuffer... segments) {
+        this.segments = segments;
+        long size = 0;
+        for (ByteBuffer segment : segments) {
+            size += segment.limit();
+        }
+        this.size = size;
+    }
+
+    public static ByteBuffer[] wrap(byte[] bytes) {
+        final int count = Math.max(1, (int) (((long) bytes.length + SEGMENT_SIZE - 1) / SEGMENT_SIZE));
+        final ByteBuffer[] segments = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            int offset = i * SEGMENT_SIZE;
+            segments[i] = ByteBuffer.wrap(bytes, offset, Math.min(SEGMENT_SIZE, bytes.length - offset)).slice();
+        }
+        return segments;
+    }
+
+    public static ByteBuffer[] map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final int count = (int) Math.max(1, (size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+            final ByteBuffer[] segments = new ByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long offset = (long) i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(SEGMENT_SIZE, size - offset));
+            }
+            return segments;
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        if (position >= size) {
+            return -1;
+        }
+        int read = 0;
+        while (dst.hasRemaining() && position < size) {
+            final int offset = (int) (position % SEGMENT_SIZE);
+            final ByteBuffer src = segments[(int) (position / SEGMENT_SIZE)].duplicate();
+            final int length = Math.min(src.limit() - offset, dst.remaining());
+            src.limit(offset + length).position(offset);
+            dst.put(src);
+            position += length;
+            read += length;
+        }
+        return read;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Position must be non negative: " + newPosition);
+        }
+        this.position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package apoc.load.util;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The pooled connections of a jdbc url and user, enabled with the {@code poolSize} config.
+ *
+ * At most {@code poolSize} connections are open at the same time, the ones idle for longer than {@code poolIdleTimeout}
+ * ms are closed. Each connection keeps up to {@code statementCacheSize} prepared statements, which are reused when the
+ * same sql is prepared again. Closing the connection or a statement returns it to the pool.
+ *
+ * The connections sharing a url, user and pool options share a pool, the url and credentials are only kept hashed in its key.
+ * The idle connections are evicted by {@link apoc.Pools}, which closes all of them on shutdown.
+ */
+public class JdbcConnectionPool {
+
+    private static final long BORROW_TIMEOUT_SECONDS = 30;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+    private static final Map<String, JdbcConnectionPool> POOLS = new ConcurrentHashMap<>();
+
+    private final String url;
+    // the start of the hash of the key, the url can hold credentials so it's not part of the messages
+    private final String name;
+    private final LoadJdbcConfig config;
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private boolean closed;
+
+    private JdbcConnectionPool(String url, String name, LoadJdbcConfig config) {
+        this.url = url;
+        this.name = name;
+        this.config = config;
+        this.permits = new Semaphore(config.getPoolSize());
+    }
+
+    public static Connection getConnection(String url, LoadJdbcConfig config) throws Exception {
+        // the url can hold credentials as well
+        final String user = config.hasCredentials() ? config.getCredentials().getUser() + "\n" + config.getCredentials().getPassword() : "";
+        final String hash = DigestUtils.sha256Hex(url + "\n" + user);
+        final String key = String.join("\n", hash, String.valueOf(config.getPoolSize()),
+                String.valueOf(config.getPoolIdleTimeout()), String.valueOf(config.getStatementCacheSize()));
+        return POOLS.computeIfAbsent(key, k -> new JdbcConnectionPool(url, hash.substring(0, 12), config)).borrow();
+    }
+
+    private Connection borrow() throws Exception {
+        if (!permits.tryAcquire(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new SQLException(String.format("No connection of the pool %s was released in %d seconds, all the %d connections are in use", name, BORROW_TIMEOUT_SECONDS, config.getPoolSize()));
+        }
+        try {
+            PooledConnection pooled;
+            while ((pooled = poll()) != null) {
+                if (pooled.isValid()) {
+                    return pooled.open();
+                }
+                pooled.closePhysical();
+            }
+            return new PooledConnection(JdbcUtil.openConnection(url, config)).open();
+        } catch (Exception e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private synchronized PooledConnection poll() {
+        return idle.pollFirst();
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            boolean pooledAgain = false;
+            if (pooled.reset()) {
+                synchronized (this) {
+                    // a connection released after the pool was closed isn't reused
+                    if (!closed) {
+                        pooled.lastUsed = System.currentTimeMillis();
+                        idle.addFirst(pooled);
+                        pooledAgain = true;
+                    }
+                }
+            }
+            if (!pooledAgain) {
+                pooled.closePhysical();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evictIdle() {
+        final long expired = System.currentTimeMillis() - config.getPoolIdleTimeout();
+        final List<PooledConnection> evicted = new ArrayList<>();
+        synchronized (this) {
+            // the most recently used connections are first
+            while (!idle.isEmpty() && idle.peekLast().lastUsed < expired) {
+                evicted.add(idle.pollLast());
+            }
+        }
+        evicted.forEach(PooledConnection::closePhysical);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class PooledConnection {
+        private final Connection physical;
+        private final boolean autoCommit;
+        // only used by the current borrower of the connection
+        private final Map<String, PreparedStatement> statements;
+        private long lastUsed;
+
+        PooledConnection(Connection physical) throws SQLException {
+            this.physical = physical;
+            this.autoCommit = physical.getAutoCommit();
+            final int cacheSize = config.getStatementCacheSize();
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() <= cacheSize) return false;
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+            };
+        }
+
+        Connection open() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[]{Connection.class}, new Lease());
+        }
+
+        boolean isValid() {
+            try {
+                return !physical.isClosed() && physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        // the transaction left open is rolled back: false if the connection can't be reused
+        boolean reset() {
+            try {
+                if (physical.isClosed()) return false;
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                }
+                if (physical.getAutoCommit() != autoCommit) {
+                    physical.setAutoCommit(autoCommit);
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            statements.values().forEach(JdbcConnectionPool::closeQuietly);
+            statements.clear();
+            closeQuietly(physical);
+        }
+
+        /**
+         * The connection returned to a borrower, that gives it back to the pool when it's closed.
+         */
+        private class Lease implements InvocationHandler {
+            private volatile boolean closed;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!closed) {
+                            closed = true;
+                            release(PooledConnection.this);
+                        }
+                        return null;
+                    case "isClosed":
+                        return closed || physical.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Pooled " + physical;
+                    default:
+                        break;
+                }
+                if (closed) {
+                    throw new SQLException("The connection is closed");
+                }
+                if (method.getName().equals("prepareStatement") && (args.length == 1 || (args.length == 3 && args[1] instanceof Integer))) {
+                    return prepare(proxy, method, args);
+                }
+                return JdbcConnectionPool.invoke(physical, method, args);
+            }
+
+            private PreparedStatement prepare(Object connection, Method method, Object[] args) throws Throwable {
+                final String key = args.length == 1 ? args[0].toString() : args[1] + ":" + args[2] + ":" + args[0];
+                PreparedStatement statement = statements.remove(key);
+                if (statement == null || statement.isClosed()) {
+                    statement = (PreparedStatement) JdbcConnectionPool.invoke(physical, method, args);
+                }
+                final PreparedStatement physicalStatement = statement;
+                return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class[]{PreparedStatement.class},
+                        new InvocationHandler() {
+                            private boolean statementClosed;
+
+                            @Override
+                            public Object invoke(Object statementProxy, Method statementMethod, Object[] statementArgs) throws Throwable {
+                                switch (statementMethod.getName()) {
+                                    case "close":
+                                        if (!statementClosed) {
+                                            statementClosed = true;
+                                            cache(key, physicalStatement);
+                                        }
+                                        return null;
+                                    case "isClosed":
+                                        return statementClosed || physicalStatement.isClosed();
+                                    case "getConnection":
+                                        return connection;
+                                    case "equals":
+                                        return statementProxy == statementArgs[0];
+                                    case "hashCode":
+                                        return System.identityHashCode(statementProxy);
+                                    default:
+                                        return JdbcConnectionPool.invoke(physicalStatement, statementMethod, statementArgs);
+                                }
+                            }
+                        });
+            }
+
+            // a statement closed after its connection can't be cached, the connection could be borrowed again
+            private void cache(String key, PreparedStatement statement) {
+                try {
+                    if (closed || statement.isClosed() || physical.isClosed() || config.getStatementCacheSize() == 0) {
+                        closeQuietly(statement);
+                        return;
+                    }
+                    final ResultSet resultSet = statement.getResultSet();
+                    if (resultSet != null) {
+                        resultSet.close();
+                    }
+                    statement.clearBatch();
+                    statement.clearParameters();
+                    final PreparedStatement previous = statements.put(key, statement);
+                    if (previous != null && previous != statement) {
+                        closeQuietly(previous);
+                    }
+                } catch (SQLException e) {
+                    closeQuietly(statement);
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
+    /**
+     * Closes the connections idle for longer than the {@code poolIdleTimeout} of their pool.
+     */
+    public static void evictAllIdle() {
+        POOLS.values().forEach(JdbcConnectionPool::evictIdle);
+    }
+
+    /**
+     * Closes the idle connections of all the pools, the ones in use are closed when they are released.
+     */
+    public static void closeAll() {
+        for (Iterator<JdbcConnectionPool> it = POOLS.values().iterator(); it.hasNext(); ) {
+            final JdbcConnectionPool pool = it.next();
+            it.remove();
+            final List<PooledConnection> connections;
+            synchronized (pool) {
+                pool.closed = true;
+                connections = new ArrayList<>(pool.idle);
+                pool.idle.clear();
+            }
+            connections.forEach(PooledConnection::closePhysical);
+        }
+    }
+}
@@ -21,6 +21,13 @@ public class JdbcUtil {
     private JdbcUtil() {}
 
     public static Connection getConnection(String jdbcUrl, LoadJdbcConfig config) throws Exception {
+        if (config.getPoolSize() > 0) {
+            return JdbcConnectionPool.getConnection(jdbcUrl, config);
+        }
+        return openConnection(jdbcUrl, config);
+    }
+
+    static Connection openConnection(String jdbcUrl, LoadJdbcConfig config) throws Exception {
         if(config.hasCredentials()) {
             return createConnection(jdbcUrl, config.getCredentials().getUser(), config.getCredentials().getPassword());
         } else {
@@ -0,0 +1,40 @@
+package apoc.load.util;
+
+import apoc.util.Util;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class LoadArrowConfig {
+
+    private final long skip;
+    private final long limit;
+    private final boolean parallel;
+    private final int prefetch;
+
+    public LoadArrowConfig(Map<String, Object> config) {
+        if (config == null) {
+            config = Collections.emptyMap();
+        }
+        this.skip = Math.max(0L, Util.toLong(config.getOrDefault("skip", 0L)));
+        this.limit = Util.toLong(config.getOrDefault("limit", -1L));
+        this.parallel = Util.toBoolean(config.getOrDefault("parallel", false));
+        this.prefetch = Math.max(1, Util.toInteger(config.getOrDefault("prefetch", Runtime.getRuntime().availableProcessors())));
+    }
+
+    public long getSkip() {
+        return skip;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public int getPrefetch() {
+        return prefetch;
+    }
+}
@@ -17,6 +17,7 @@ public class LoadCsvConfig extends CompressionConfig {
     public static final char DEFAULT_QUOTE_CHAR = '"';
     // this is the same value as ICSVParser.DEFAULT_ESCAPE_CHARACTER
     public static final char DEFAULT_ESCAPE_CHAR = '\\';
+    public static final long DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
 
     private final boolean ignoreErrors;
     private char separator;
@@ -29,6 +30,9 @@ public class LoadCsvConfig extends CompressionConfig {
 
     private boolean failOnError;
     private boolean ignoreQuotations;
+    private boolean parallel;
+    private boolean ordered;
+    private long chunkSize;
 
     private EnumSet<Results> results;
 
@@ -53,6 +57,9 @@ public class LoadCsvConfig extends CompressionConfig {
         limit = (long) config.getOrDefault("limit", Long.MAX_VALUE);
         failOnError = (boolean) config.getOrDefault("failOnError", true);
         ignoreQuotations = (boolean) config.getOrDefault("ignoreQuotations", false);
+        parallel = Util.toBoolean(config.getOrDefault("parallel", false));
+        ordered = Util.toBoolean(config.getOrDefault("ordered", true));
+        chunkSize = Math.max(1, Util.toLong(config.getOrDefault("chunkSize", DEFAULT_CHUNK_SIZE)));
 
         results = EnumSet.noneOf(Results.class);
         List<String> resultList = (List<String>) config.getOrDefault("results", asList("map","list"));
@@ -135,4 +142,16 @@ public class LoadCsvConfig extends CompressionConfig {
     public boolean isIgnoreQuotations() {
         return ignoreQuotations;
     }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
 }
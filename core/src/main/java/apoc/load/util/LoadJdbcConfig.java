@@ -22,6 +22,20 @@ public class LoadJdbcConfig {
 
     private final boolean autoCommit;
 
+    private final int poolSize;
+
+    private final long poolIdleTimeout;
+
+    private final int statementCacheSize;
+
+    private final String partitionColumn;
+
+    private final Long lowerBound;
+
+    private final Long upperBound;
+
+    private final int numPartitions;
+
     public LoadJdbcConfig(Map<String,Object> config) {
         config = config != null ? config : Collections.emptyMap();
         try {
@@ -33,6 +47,25 @@ public class LoadJdbcConfig {
         this.credentials = config.containsKey("credentials") ? createCredentials((Map<String, String>) config.get("credentials")) : null;
         this.fetchSize = Util.toLong(config.getOrDefault("fetchSize", 5000L));
         this.autoCommit = Util.toBoolean(config.getOrDefault("autoCommit", false));
+        this.partitionColumn = (String) config.get("partitionColumn");
+        this.lowerBound = Util.toLong(config.get("lowerBound"));
+        this.upperBound = Util.toLong(config.get("upperBound"));
+        this.numPartitions = Util.toLong(config.getOrDefault("numPartitions", 1L)).intValue();
+        // each partition is read on its own pooled connection
+        this.poolSize = Util.toLong(config.getOrDefault("poolSize", isPartitioned() ? numPartitions : 0L)).intValue();
+        this.poolIdleTimeout = Util.toLong(config.getOrDefault("poolIdleTimeout", 60_000L));
+        this.statementCacheSize = Util.toLong(config.getOrDefault("statementCacheSize", 20L)).intValue();
+        if (poolSize < 0 || statementCacheSize < 0) {
+            throw new IllegalArgumentException("The poolSize and statementCacheSize must not be negative");
+        }
+        if (isPartitioned()) {
+            if (lowerBound == null || upperBound == null || lowerBound > upperBound) {
+                throw new IllegalArgumentException("The lowerBound and upperBound of the partitionColumn must be set, with lowerBound <= upperBound");
+            }
+            if (numPartitions < 1 || (poolSize > 0 && poolSize < numPartitions)) {
+                throw new IllegalArgumentException("The numPartitions must be positive and not greater than the poolSize");
+            }
+        }
     }
 
     public ZoneId getZoneId(){
@@ -82,4 +115,36 @@ public class LoadJdbcConfig {
     public boolean isAutoCommit() {
         return autoCommit;
     }
-}
\ No newline at end of file
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public long getPoolIdleTimeout() {
+        return poolIdleTimeout;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public boolean isPartitioned() {
+        return partitionColumn != null;
+    }
+
+    public String getPartitionColumn() {
+        return partitionColumn;
+    }
+
+    public Long getLowerBound() {
+        return lowerBound;
+    }
+
+    public Long getUpperBound() {
+        return upperBound;
+    }
+
+    public int getNumPartitions() {
+        return numPartitions;
+    }
+}
@@ -0,0 +1,156 @@
+package apoc.meta;
+
+import apoc.util.kernel.MultiThreadedGlobalGraphOperations;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.kernel.api.Read;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static apoc.util.kernel.MultiThreadedGlobalGraphOperations.GlobalOperationsTypes.NODES;
+
+/**
+ * Picks the nodes of a label inspected with the {@code sample} config of the apoc.meta procedures.
+ *
+ * When the label is a large enough part of the store, random node ids are looked up until enough nodes of the label
+ * are found, so the label is not scanned. Otherwise the nodes of the label are scanned, and one every {@code skip} is picked.
+ * The random ids are seeded by the label, so the same nodes are picked as long as the graph doesn't change.
+ */
+class LabelSampler {
+
+    // a lookup by id costs about as much as reading this many nodes of a label scan
+    private static final long SEEK_COST = 10;
+
+    private final Transaction tx;
+    private final Read read;
+    private final long highId;
+
+    LabelSampler(GraphDatabaseAPI db, Transaction tx, Read read) {
+        // the ids up to the high id of the store, the deleted ones included
+        this(tx, read, MultiThreadedGlobalGraphOperations.getHighestIdInUseForStore(db.getDependencyResolver(), NODES));
+    }
+
+    private LabelSampler(Transaction tx, Read read, long highId) {
+        this.tx = tx;
+        this.read = read;
+        this.highId = highId;
+    }
+
+    /**
+     * @return a sampler of the nodes of another transaction, with the same id range
+     */
+    LabelSampler in(Transaction other) {
+        return new LabelSampler(other, ((InternalTransaction) other).kernelTransaction().dataRead(), highId);
+    }
+
+    /**
+     * @param skip one node every {@code skip} is inspected, -1 to inspect all of them, as returned by {@link Meta#getSampleForLabelCount}
+     * @return the sampled nodes, to be closed as they may hold a label scan
+     */
+    ResourceIterator<Node> nodes(Label label, long labelCount, long skip) {
+        // the expected number of lookups is highId / skip
+        if (skip > 1 && highId / skip * SEEK_COST < labelCount) {
+            return seek(label, labelCount / skip, highId / skip * 4 + 100, skip);
+        }
+        return skip(tx.findNodes(label), skip);
+    }
+
+    // closes the nodes if they are a resource
+    static ResourceIterator<Node> skip(Iterator<Node> nodes, long skip) {
+        return new ResourceIterator<>() {
+            private long count = 1;
+            private Node next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && nodes.hasNext()) {
+                    Node node = nodes.next();
+                    if (count++ % skip == 0) {
+                        next = node;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Node next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Node node = next;
+                next = null;
+                return node;
+            }
+
+            @Override
+            public void close() {
+                if (nodes instanceof ResourceIterator) {
+                    ((ResourceIterator<Node>) nodes).close();
+                }
+            }
+        };
+    }
+
+    // stops after maxSeeks lookups, and scans the label if far fewer nodes than expected were found,
+    // as when the label is rarer than its count says
+    private ResourceIterator<Node> seek(Label label, long sampleSize, long maxSeeks, long skip) {
+        return new ResourceIterator<>() {
+            private final SplittableRandom random = new SplittableRandom(label.name().hashCode());
+            private final Set<Long> found = new HashSet<>();
+            private long seeks;
+            private ResourceIterator<Node> scan;
+            private Node next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && found.size() < sampleSize && seeks++ < maxSeeks) {
+                    long id = random.nextLong(Math.max(1, highId));
+                    if (found.contains(id) || !read.nodeExists(id)) continue;
+                    try {
+                        Node node = tx.getNodeById(id);
+                        if (node.hasLabel(label)) {
+                            found.add(id);
+                            next = node;
+                        }
+                    } catch (NotFoundException e) {
+                        // deleted in the meantime
+                    }
+                }
+                if (next == null && seeks > maxSeeks && found.size() < sampleSize / 2) {
+                    if (scan == null) {
+                        scan = skip(tx.findNodes(label), skip);
+                    }
+                    while (next == null && found.size() < sampleSize && scan.hasNext()) {
+                        Node node = scan.next();
+                        if (found.add(node.getId())) {
+                            next = node;
+                        }
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Node next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Node node = next;
+                next = null;
+                return node;
+            }
+
+            @Override
+            public void close() {
+                if (scan != null) {
+                    scan.close();
+                }
+            }
+        };
+    }
+}
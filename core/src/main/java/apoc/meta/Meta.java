@@ -1,5 +1,6 @@
 package apoc.meta;
 
+import apoc.Pools;
 import apoc.export.util.NodesAndRelsSubGraph;
 import apoc.result.GraphResult;
 import apoc.result.MapResult;
@@ -7,6 +8,7 @@ import apoc.result.VirtualGraph;
 import apoc.result.VirtualNode;
 import apoc.result.VirtualRelationship;
 import apoc.util.MapUtil;
+import apoc.util.Util;
 import org.apache.commons.collections4.CollectionUtils;
 import org.neo4j.cypher.export.CypherResultSubGraph;
 import org.neo4j.cypher.export.DatabaseSubGraph;
@@ -33,6 +35,7 @@ import org.neo4j.internal.helpers.collection.Pair;
 import org.neo4j.internal.kernel.api.Read;
 import org.neo4j.internal.kernel.api.TokenRead;
 import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.Context;
 import org.neo4j.procedure.Description;
@@ -61,7 +64,10 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -87,6 +93,12 @@ public class Meta {
 
     @Context public Log log;
 
+    @Context
+    public Pools pools;
+
+    @Context
+    public MetaSchemaHandler metaSchemaHandler;
+
     public static class ConstraintTracker {
         // The following maps are (label|rel-type)/constraintdefinition entries
 
@@ -216,6 +228,13 @@ public class Meta {
             return this;
         }
 
+        public MetaResult scale(double factor) {
+            count = Math.round(count * factor);
+            leftCount = Math.round(leftCount * factor);
+            rightCount = Math.round(rightCount * factor);
+            return this;
+        }
+
         public MetaResult other(List<String> labels) {
             for (String l : labels) {
                 if (!this.other.contains(l)) this.other.add(l);
@@ -537,10 +556,19 @@ public class Meta {
     public Stream<MapResult> schema(@Name(value = "config",defaultValue = "{}") Map<String,Object> config) {
         MetaStats metaStats = collectStats();
         MetaConfig metaConfig = new MetaConfig(config);
+        if (metaConfig.isCached()) {
+            MetaSchemaProfile profile = metaSchemaHandler.getProfile();
+            Map<String, Object> relationships = collectCachedRelationships(metaStats, profile);
+            return Stream.of(new MapResult(mergeSchema(collectCachedNodes(metaStats, profile, relationships), relationships)));
+        }
         Map<Set<String>, Map<String, MetaResult>> metaData = collectMetaData(new DatabaseSubGraph(transaction), metaConfig);
 
         Map<String, Object> relationships = collectRelationshipsMetaData(metaStats, metaData);
         Map<String, Object> nodes = collectNodesMetaData(metaStats, metaData, relationships);
+        return Stream.of(new MapResult(mergeSchema(nodes, relationships)));
+    }
+
+    private Map<String, Object> mergeSchema(Map<String, Object> nodes, Map<String, Object> relationships) {
         final Collection<String> commonKeys = CollectionUtils.intersection(nodes.keySet(), relationships.keySet());
         if (!commonKeys.isEmpty()) {
             relationships = relationships.entrySet().stream()
@@ -552,7 +580,100 @@ public class Meta {
                     }).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
         }
         nodes.putAll(relationships);
-        return Stream.of(new MapResult(nodes));
+        return nodes;
+    }
+
+    // the schema of the cached profile, with the counts of the count store and the indexes and constraints of the current schema
+    private Map<String, Object> collectCachedRelationships(MetaStats metaStats, MetaSchemaProfile profile) {
+        Schema schema = tx.schema();
+        Map<String, Object> relationships = new LinkedHashMap<>();
+        metaStats.relTypesCount.forEach((typeName, count) -> {
+            RelationshipType type = RelationshipType.withName(typeName);
+            Set<String> indexed = getIndexedProperties(schema.getIndexes(type));
+            Set<String> existence = getConstrainedProperties(schema.getConstraints(type), ConstraintType.RELATIONSHIP_PROPERTY_EXISTENCE);
+            Map<String, Object> properties = new LinkedHashMap<>();
+            profile.relProperties.getOrDefault(typeName, Map.of()).forEach((prop, types) -> {
+                String propType = mostObserved(types);
+                properties.put(prop, MapUtil.map(
+                        "type", propType,
+                        "array", Types.LIST.name().equals(propType),
+                        "existence", existence.contains(prop),
+                        "indexed", indexed.contains(prop)));
+            });
+            relationships.put(typeName, MapUtil.map(
+                    "type", "relationship",
+                    "count", count,
+                    "properties", properties));
+        });
+        return relationships;
+    }
+
+    private Map<String, Object> collectCachedNodes(MetaStats metaStats, MetaSchemaProfile profile, Map<String, Object> relationships) {
+        Schema schema = tx.schema();
+        Map<String, Object> nodes = new LinkedHashMap<>();
+        metaStats.labels.forEach((labelName, count) -> {
+            Label label = Label.label(labelName);
+            Set<String> indexed = getIndexedProperties(schema.getIndexes(label));
+            Set<String> unique = getConstrainedProperties(schema.getConstraints(label), ConstraintType.UNIQUENESS);
+            Set<String> existence = getConstrainedProperties(schema.getConstraints(label), ConstraintType.NODE_PROPERTY_EXISTENCE);
+            Map<String, Object> properties = new LinkedHashMap<>();
+            profile.nodeProperties.getOrDefault(labelName, Map.of()).forEach((prop, types) -> properties.put(prop, MapUtil.map(
+                    "type", mostObserved(types),
+                    "indexed", indexed.contains(prop),
+                    "unique", unique.contains(prop),
+                    "existence", existence.contains(prop))));
+
+            Map<String, Object> nodeRelationships = new LinkedHashMap<>();
+            profile.patterns.forEach((typeName, starts) -> {
+                Map<String, Long> ends = starts.getOrDefault(labelName, Map.of());
+                if (!ends.isEmpty()) {
+                    nodeRelationships.put(typeName, cachedRelationship("out", ends, relationships.get(typeName)));
+                }
+            });
+            profile.patterns.forEach((typeName, starts) -> {
+                Map<String, Long> startCounts = new TreeMap<>();
+                starts.forEach((start, ends) -> {
+                    Long startCount = ends.get(labelName);
+                    if (startCount != null) startCounts.put(start, startCount);
+                });
+                if (startCounts.isEmpty()) return;
+                // as the other schema, the incoming relationships of a type also outgoing only add their labels
+                Map<String, Object> existing = (Map<String, Object>) nodeRelationships.get(typeName);
+                if (existing != null) {
+                    ((List<String>) existing.get("labels")).addAll(startCounts.keySet());
+                } else {
+                    nodeRelationships.put(typeName, cachedRelationship("in", startCounts, relationships.get(typeName)));
+                }
+            });
+
+            nodes.put(labelName, MapUtil.map(
+                    "type", "node",
+                    "count", count,
+                    "labels", new ArrayList<>(),
+                    "properties", properties,
+                    "relationships", nodeRelationships));
+        });
+        return nodes;
+    }
+
+    private Map<String, Object> cachedRelationship(String direction, Map<String, Long> counts, Object relationship) {
+        return MapUtil.map(
+                "direction", direction,
+                "count", counts.values().stream().mapToLong(Long::longValue).sum(),
+                "labels", new ArrayList<>(counts.keySet()),
+                "properties", relationship == null ? Map.of() : ((Map<String, Object>) relationship).get("properties"));
+    }
+
+    private static String mostObserved(Map<String, Long> types) {
+        return types.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(Types.NULL.name());
+    }
+
+    private Set<String> getConstrainedProperties(Iterable<ConstraintDefinition> constraints, ConstraintType constraintType) {
+        return Iterables.stream(constraints)
+                .filter(constraint -> constraint.isConstraintType(constraintType))
+                .map(ConstraintDefinition::getPropertyKeys)
+                .flatMap(Iterables::stream)
+                .collect(Collectors.toSet());
     }
 
     /**
@@ -630,6 +751,8 @@ public class Meta {
         Set<String> includeRels = config.getIncludesRels();
         Set<String> excludeRels = config.getExcludeRels();
 
+        LabelSampler sampler = new LabelSampler((GraphDatabaseAPI) db, tx, kernelTx.dataRead());
+        List<Label> labels = new ArrayList<>();
         for (Label label : tx.getAllLabelsInUse()) {
             String labelName = label.name();
 
@@ -638,36 +761,38 @@ public class Meta {
 
                 for (ConstraintDefinition cd : schema.getConstraints(label)) { profile.noteConstraint(label, cd); }
                 for (IndexDefinition index : schema.getIndexes(label)) { profile.noteIndex(label, index); }
+                labels.add(label);
+            }
+        }
 
-                long labelCount = countStore.get(labelName);
-                long sample = getSampleForLabelCount(labelCount, config.getSample());
-
-                //System.out.println("Sampling " + sample + " for " + labelName);
-
-                try (ResourceIterator<Node> nodes = tx.findNodes(label)) {
-                    int count = 1;
-                    while (nodes.hasNext()) {
-                        Node node = nodes.next();
-                        if(count++ % sample == 0) {
-                            boolean skipNode = false;
-                            for (RelationshipType rel : node.getRelationshipTypes()) {
-                                String relName = rel.name();
-                                if (excludeRels.contains(relName)) {
-                                    // Skip if explicitly excluded
-                                    skipNode = true;
-                                } else if (!includeRels.isEmpty() && !includeRels.contains(relName)) {
-                                    // Skip if included set is specified and this is not in it.
-                                    skipNode = true;
-                                }
-                            }
-                            if (skipNode != true) {
-                                profile.observe(node, config);
-                            }
+        List<Tables4LabelsProfile> partials = collectPerLabel(labels, true, (labelTx, label) -> {
+            Tables4LabelsProfile partial = new Tables4LabelsProfile();
+            long labelCount = countStore.get(label.name());
+            long sample = getSampleForLabelCount(labelCount, config.getSample());
+
+            try (ResourceIterator<Node> nodes = sampler.in(labelTx).nodes(label, labelCount, sample)) {
+                while (nodes.hasNext()) {
+                    Node node = nodes.next();
+                    boolean skipNode = false;
+                    for (RelationshipType rel : node.getRelationshipTypes()) {
+                        String relName = rel.name();
+                        if (excludeRels.contains(relName)) {
+                            // Skip if explicitly excluded
+                            skipNode = true;
+                        } else if (!includeRels.isEmpty() && !includeRels.contains(relName)) {
+                            // Skip if included set is specified and this is not in it.
+                            skipNode = true;
                         }
                     }
+                    if (skipNode != true) {
+                        partial.observe(node, config);
+                    }
                 }
             }
-        }
+            return partial;
+        });
+        // merged in the order of the labels, so the result doesn't depend on which one was read first
+        partials.forEach(partial -> profile.merge(partial, config.getMaxRels()));
 
         return profile.finished();
     }
@@ -678,33 +803,104 @@ public class Meta {
         Map<Set<String>, Map<String,MetaResult>> metaData = new LinkedHashMap<>(100);
 
         Set<RelationshipType> types = Iterables.asSet(graph.getAllRelationshipTypesInUse());
+        for (RelationshipType type : types) {
+            metaData.put(Set.of(Types.RELATIONSHIP.name(), type.name()), new LinkedHashMap<>(10));
+        }
+        List<Label> labels = Iterables.asList(graph.getAllLabelsInUse());
+        // only the whole database can be sampled without a scan, and read in other transactions
+        boolean wholeDatabase = graph instanceof DatabaseSubGraph;
+        LabelSampler sampler = wholeDatabase ? new LabelSampler((GraphDatabaseAPI) db, tx, kernelTx.dataRead()) : null;
+        List<Map<Set<String>, Map<String, MetaResult>>> partials = collectPerLabel(labels, wholeDatabase, (labelTx, label) -> {
+            Map<Set<String>, Map<String, MetaResult>> partial = new LinkedHashMap<>(types.size() + 1);
+            for (RelationshipType type : types) {
+                partial.put(Set.of(Types.RELATIONSHIP.name(), type.name()), new LinkedHashMap<>(10));
+            }
+            if (wholeDatabase) {
+                collectLabelMetaData(partial, new DatabaseSubGraph(labelTx), label, types, sampler.in(labelTx), config);
+            } else {
+                collectLabelMetaData(partial, graph, label, types, null, config);
+            }
+            return partial;
+        });
+        // merged in the order of the labels: as with a single transaction, the first label seeing a property describes it
+        for (Map<Set<String>, Map<String, MetaResult>> partial : partials) {
+            partial.forEach((key, entityMeta) -> {
+                Map<String, MetaResult> merged = metaData.computeIfAbsent(key, k -> new LinkedHashMap<>(50));
+                entityMeta.forEach(merged::putIfAbsent);
+            });
+        }
+        return metaData;
+    }
+
+    private void collectLabelMetaData(Map<Set<String>, Map<String, MetaResult>> metaData, SubGraph graph, Label label,
+                                      Set<RelationshipType> types, LabelSampler sampler, MetaConfig config) {
         Map<String, Iterable<ConstraintDefinition>> relConstraints = new HashMap<>(20);
         Map<String, Set<String>> relIndexes = new HashMap<>();
-        for (RelationshipType type : graph.getAllRelationshipTypesInUse()) {
-            metaData.put(Set.of(Types.RELATIONSHIP.name(), type.name()), new LinkedHashMap<>(10));
+        for (RelationshipType type : types) {
             relConstraints.put(type.name(),graph.getConstraints(type));
             relIndexes.put(type.name(), getIndexedProperties(graph.getIndexes(type)));
         }
-        for (Label label : graph.getAllLabelsInUse()) {
-            Map<String,MetaResult> nodeMeta = new LinkedHashMap<>(50);
-            String labelName = label.name();
-            // workaround in case of duplicated keys
-            metaData.put(Set.of(Types.NODE.name(), labelName), nodeMeta);
-            Iterable<ConstraintDefinition> constraints = graph.getConstraints(label);
-            Set<String> indexed = getIndexedProperties(graph.getIndexes(label));
-            long labelCount = graph.countsForNode(label);
-            long sample = getSampleForLabelCount(labelCount, config.getSample());
-            Iterator<Node> nodes = graph.findNodes(label);
-            int count = 1;
+        Map<String,MetaResult> nodeMeta = new LinkedHashMap<>(50);
+        String labelName = label.name();
+        // workaround in case of duplicated keys
+        metaData.put(Set.of(Types.NODE.name(), labelName), nodeMeta);
+        Iterable<ConstraintDefinition> constraints = graph.getConstraints(label);
+        Set<String> indexed = getIndexedProperties(graph.getIndexes(label));
+        long labelCount = graph.countsForNode(label);
+        long sample = getSampleForLabelCount(labelCount, config.getSample());
+        long sampled = 0;
+        try (ResourceIterator<Node> nodes = sampler != null ? sampler.nodes(label, labelCount, sample) : LabelSampler.skip(graph.findNodes(label), sample)) {
             while (nodes.hasNext()) {
                 Node node = nodes.next();
-                if(count++ % sample == 0) {
-                    addRelationships(metaData, nodeMeta, labelName, node, relConstraints, types, relIndexes);
-                    addProperties(nodeMeta, labelName, constraints, indexed, node, node);
-                }
+                sampled++;
+                addRelationships(metaData, nodeMeta, labelName, node, relConstraints, types, relIndexes);
+                addProperties(nodeMeta, labelName, constraints, indexed, node, node);
+            }
+        }
+        if (sampled > 0 && sampled < labelCount) {
+            extrapolateRelationships(metaData, nodeMeta, labelName, (double) labelCount / sampled);
+        }
+    }
+
+    /**
+     * Applies the collector to each label, in a read transaction per label on the default pool.
+     * The current transaction is used instead when it has changes, which the other ones would not see.
+     *
+     * @return the results in the order of the labels
+     */
+    private <T> List<T> collectPerLabel(List<Label> labels, boolean parallel, BiFunction<Transaction, Label, T> collector) {
+        if (!parallel || labels.size() < 2 || kernelTx.dataRead().transactionStateHasChanges()) {
+            return labels.stream().map(label -> collector.apply(tx, label)).collect(Collectors.toList());
+        }
+        List<Future<T>> futures = labels.stream()
+                .map(label -> Util.inTxFuture(pools.getDefaultExecutorService(), db, labelTx -> collector.apply(labelTx, label)))
+                .collect(Collectors.toList());
+        try {
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new RuntimeException("Error collecting the metadata of the labels", e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while collecting the metadata of the labels", e);
+        }
+    }
+
+    // the relationships counted on the sampled nodes are extrapolated to all the nodes of the label
+    private void extrapolateRelationships(Map<Set<String>, Map<String, MetaResult>> metaData, Map<String, MetaResult> nodeMeta, String labelName, double factor) {
+        for (MetaResult relMeta : nodeMeta.values()) {
+            if (!Types.RELATIONSHIP.name().equals(relMeta.type)) continue;
+            relMeta.scale(factor);
+            MetaResult relNodeMeta = metaData.get(Set.of(Types.RELATIONSHIP.name(), relMeta.property)).get(labelName);
+            if (relNodeMeta != null) {
+                relNodeMeta.scale(factor);
             }
         }
-        return metaData;
     }
 
     private Set<String> getIndexedProperties(Iterable<IndexDefinition> indexes) {
@@ -1101,43 +1297,42 @@ public class Meta {
             combine(aggregated, Pair.of(rel.from, rel.type), rel);
             combine(aggregated, Pair.of(rel.type, rel.to), rel);
         }
+        // the sampler reads the id range of the store, so it's built once for all the checks
+        LabelSampler sampler = new LabelSampler((GraphDatabaseAPI) db, tx, kernelTx.dataRead());
+        Map<String, Long> countStore = getLabelCountStore();
         aggregated.values().stream()
                 .filter( c -> c.size() > 1)
                 .flatMap(Collection::stream)
-                .filter( p -> !relationshipExists(p, vRels.get(p), metaConfig))
+                .filter( p -> !relationshipExists(p, vRels.get(p), metaConfig, sampler, countStore))
                 .forEach(vRels::remove);
     }
 
-    private boolean relationshipExists(Pattern p, Relationship relationship, MetaConfig metaConfig) {
+    private boolean relationshipExists(Pattern p, Relationship relationship, MetaConfig metaConfig, LabelSampler sampler, Map<String, Long> countStore) {
         if (relationship==null) return false;
         double degreeFrom = (double)(long)relationship.getProperty("out")  / (long)relationship.getStartNode().getProperty("count");
         double degreeTo = (double)(long)relationship.getProperty("in")  / (long)relationship.getEndNode().getProperty("count");
 
         if (degreeFrom < degreeTo) {
-            if (relationshipExists(p.labelFrom(), p.labelTo(), p.relationshipType(), Direction.OUTGOING, metaConfig)) return true;
+            if (relationshipExists(p.labelFrom(), p.labelTo(), p.relationshipType(), Direction.OUTGOING, metaConfig, sampler, countStore)) return true;
         } else {
-            if (relationshipExists(p.labelTo(), p.labelFrom(), p.relationshipType(), Direction.INCOMING, metaConfig)) return true;
+            if (relationshipExists(p.labelTo(), p.labelFrom(), p.relationshipType(), Direction.INCOMING, metaConfig, sampler, countStore)) return true;
         }
         return false;
     }
 
-    private boolean relationshipExists(Label labelFromLabel, Label labelToLabel, RelationshipType relationshipType, Direction direction, MetaConfig metaConfig) {
-        Map<String, Long> countStore = getLabelCountStore();
-        try (ResourceIterator<Node> nodes = tx.findNodes(labelFromLabel)) {
-            long count = 1L;
-            String labelName = labelFromLabel.name();
-            long labelCount = countStore.get(labelName);
-            long sample = getSampleForLabelCount(labelCount, metaConfig.getSample());
+    private boolean relationshipExists(Label labelFromLabel, Label labelToLabel, RelationshipType relationshipType, Direction direction, MetaConfig metaConfig,
+                                       LabelSampler sampler, Map<String, Long> countStore) {
+        String labelName = labelFromLabel.name();
+        long labelCount = countStore.get(labelName);
+        long sample = getSampleForLabelCount(labelCount, metaConfig.getSample());
+        try (ResourceIterator<Node> nodes = sampler.nodes(labelFromLabel, labelCount, sample)) {
             while (nodes.hasNext()) {
-                count++;
-                if(count % sample == 0) {
-                    Node node = nodes.next();
-                    long maxRels = metaConfig.getMaxRels();
-                    for (Relationship rel : node.getRelationships(direction, relationshipType)) {
-                        Node otherNode = direction == Direction.OUTGOING ? rel.getEndNode() : rel.getStartNode();
-                        if (otherNode.hasLabel(labelToLabel)) return true;
-                        if (maxRels != -1 && maxRels-- == 0) break;
-                    }
+                Node node = nodes.next();
+                long maxRels = metaConfig.getMaxRels();
+                for (Relationship rel : node.getRelationships(direction, relationshipType)) {
+                    Node otherNode = direction == Direction.OUTGOING ? rel.getEndNode() : rel.getStartNode();
+                    if (otherNode.hasLabel(labelToLabel)) return true;
+                    if (maxRels != -1 && maxRels-- == 0) break;
                 }
             }
         }
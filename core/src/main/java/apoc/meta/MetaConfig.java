@@ -16,6 +16,7 @@ public class MetaConfig {
     private final long maxRels;
     private final long sample;
     private final boolean addRelationshipsBetweenNodes;
+    private final boolean cached;
 
     /**
      * A map of values, with the following keys and meanings.
@@ -30,6 +31,8 @@ public class MetaConfig {
      * every 1000th node will be examined.  It does **not** mean that a total of 1000 nodes
      * will be sampled.
      * - maxRels: the maximum number of relationships of a given type to look at.
+     * - cached: if true, apoc.meta.schema returns the profile maintained by the
+     * transaction listener instead of examining the graph.
      * @param config
      */
 
@@ -60,6 +63,7 @@ public class MetaConfig {
         this.sample = (long) config.getOrDefault("sample", 1000L);
         this.maxRels = (long) config.getOrDefault("maxRels", 100L);
         this.addRelationshipsBetweenNodes = Util.toBoolean(config.getOrDefault("addRelationshipsBetweenNodes", true));
+        this.cached = Util.toBoolean(config.getOrDefault("cached", false));
     }
 
 
@@ -135,4 +139,8 @@ public class MetaConfig {
     public boolean isAddRelationshipsBetweenNodes() {
         return addRelationshipsBetweenNodes;
     }
+
+    public boolean isCached() {
+        return cached;
+    }
 }
@@ -0,0 +1,372 @@
+package apoc.meta;
+
+import apoc.ApocConfig;
+import apoc.Pools;
+import apoc.util.JsonUtil;
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.Entity;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.event.LabelEntry;
+import org.neo4j.graphdb.event.PropertyEntry;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventListener;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.storageengine.api.TransactionIdStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static apoc.ApocConfig.APOC_META_CACHE_DIRECTORY;
+import static apoc.ApocConfig.APOC_META_CACHE_ENABLED;
+import static apoc.ApocConfig.APOC_META_CACHE_ENABLED_DB;
+import static apoc.ApocConfig.APOC_META_CACHE_RECONCILE;
+
+/**
+ * Keeps the {@link MetaSchemaProfile} of the database served by {@code apoc.meta.schema({cached:true})}.
+ *
+ * Every committed transaction adds the delta of the entities it changed. The profile is rebuilt from the whole graph
+ * every {@code apoc.meta.cache.reconcile}, to correct the changes missed while it was rebuilt or while the database
+ * was down, and persisted in {@code <db>.json}, so it can be served right after a restart.
+ *
+ * The deltas of the transactions committed before a rebuild started are skipped, as the scan already counts them.
+ * The scan doesn't read a snapshot of the graph, so the transactions committed while it runs can be counted twice,
+ * or missed, until the next rebuild.
+ */
+public class MetaSchemaHandler extends LifecycleAdapter implements TransactionEventListener<MetaSchemaProfile> {
+
+    public static final String NOT_ENABLED_ERROR = "The meta schema cache has not been enabled." +
+            " Set 'apoc.meta.cache.enabled=true' or 'apoc.meta.cache.enabled.%s=true' in your apoc.conf file located in the $NEO4J_HOME/conf/ directory.";
+
+    private final GraphDatabaseAPI db;
+    private final DatabaseManagementService databaseManagementService;
+    private final ApocConfig apocConfig;
+    private final Pools pools;
+    private final Log log;
+
+    private final Object rebuildLock = new Object();
+    private volatile boolean enabled;
+    // guarded by this, null until loaded or built
+    private volatile MetaSchemaProfile profile;
+    // guarded by this, the last transaction committed before the scan that built the profile
+    private long builtAfterTransaction = -1;
+    private ScheduledFuture<?> reconciliation;
+
+    public MetaSchemaHandler(GraphDatabaseAPI db, DatabaseManagementService databaseManagementService, ApocConfig apocConfig, Pools pools, Log log) {
+        this.db = db;
+        this.databaseManagementService = databaseManagementService;
+        this.apocConfig = apocConfig;
+        this.pools = pools;
+        this.log = log;
+    }
+
+    private boolean isEnabled() {
+        String enabledDb = String.format(APOC_META_CACHE_ENABLED_DB, db.databaseName());
+        return apocConfig.getConfig().getBoolean(enabledDb, apocConfig.getBoolean(APOC_META_CACHE_ENABLED, false));
+    }
+
+    private Path getPath() {
+        String directory = apocConfig.getString(APOC_META_CACHE_DIRECTORY, null);
+        Path base = directory == null
+                ? Paths.get(apocConfig.getString("dbms.directories.data", "data"), "apoc-meta")
+                : Paths.get(directory);
+        return base.resolve(db.databaseName() + ".json");
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (isEnabled()) {
+            profile = load();
+            databaseManagementService.registerTransactionEventListener(db.databaseName(), this);
+            long interval = apocConfig.getInt(APOC_META_CACHE_RECONCILE, 3600);
+            reconciliation = pools.getScheduledExecutorService().scheduleWithFixedDelay(this::scheduledReconcile, interval, interval, TimeUnit.SECONDS);
+            enabled = true;
+            log.info("Meta schema cache for database %s enabled in %s", db.databaseName(), getPath());
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (enabled) {
+            enabled = false;
+            reconciliation.cancel(false);
+            databaseManagementService.unregisterTransactionEventListener(db.databaseName(), this);
+            MetaSchemaProfile snapshot;
+            synchronized (this) {
+                snapshot = profile == null ? null : profile.copy();
+            }
+            if (snapshot != null) {
+                persist(snapshot);
+            }
+        }
+    }
+
+    /**
+     * @return a copy of the profile, which is built from the graph by the caller if it wasn't loaded nor built yet
+     */
+    MetaSchemaProfile getProfile() {
+        if (!enabled) {
+            throw new RuntimeException(String.format(NOT_ENABLED_ERROR, db.databaseName()));
+        }
+        if (profile == null) {
+            synchronized (rebuildLock) {
+                if (profile == null) {
+                    reconcile();
+                }
+            }
+        }
+        synchronized (this) {
+            return profile.copy();
+        }
+    }
+
+    private void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            // an exception would stop the next executions
+            log.warn("Error while rebuilding the meta schema profile of database " + db.databaseName(), e);
+        }
+    }
+
+    /**
+     * Rebuilds the profile from all the nodes and relationships, the changes committed in the meantime may be missed
+     * or counted twice until the next run.
+     */
+    void reconcile() {
+        synchronized (rebuildLock) {
+            long lastCommitted = db.getDependencyResolver().resolveDependency(TransactionIdStore.class).getLastCommittedTransactionId();
+            MetaSchemaProfile rebuilt = new MetaSchemaProfile();
+            try (Transaction tx = db.beginTx()) {
+                for (Node node : tx.getAllNodes()) {
+                    rebuilt.node(labelsOf(node), node.getAllProperties(), 1);
+                }
+                for (Relationship rel : tx.getAllRelationships()) {
+                    rebuilt.relationship(rel.getType().name(), rel.getAllProperties(), labelsOf(rel.getStartNode()), labelsOf(rel.getEndNode()), 1);
+                }
+                tx.commit();
+            }
+            MetaSchemaProfile snapshot;
+            synchronized (this) {
+                profile = rebuilt;
+                builtAfterTransaction = lastCommitted;
+                snapshot = rebuilt.copy();
+            }
+            persist(snapshot);
+        }
+    }
+
+    private MetaSchemaProfile load() {
+        Path path = getPath();
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            return MetaSchemaProfile.fromMap(JsonUtil.OBJECT_MAPPER.readValue(in, Map.class));
+        } catch (IOException e) {
+            log.warn("Cannot read the meta schema profile " + path + ", it will be rebuilt", e);
+            return null;
+        }
+    }
+
+    private void persist(MetaSchemaProfile snapshot) {
+        Path path = getPath();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.getParent());
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                JsonUtil.OBJECT_MAPPER.writeValue(out, snapshot.toMap());
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Cannot write the meta schema profile " + path, e);
+        }
+    }
+
+    @Override
+    public MetaSchemaProfile beforeCommit(TransactionData data, Transaction transaction, GraphDatabaseService databaseService) {
+        if (profile == null) {
+            // the next build will see the changes
+            return null;
+        }
+        return new Delta(data, transaction).compute();
+    }
+
+    @Override
+    public void afterCommit(TransactionData data, MetaSchemaProfile delta, GraphDatabaseService databaseService) {
+        if (delta == null || delta.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            // a transaction committed before the scan can still be running its listeners after the rebuild
+            if (profile != null && data.getTransactionId() > builtAfterTransaction) {
+                profile.add(delta);
+            }
+        }
+    }
+
+    @Override
+    public void afterRollback(TransactionData data, MetaSchemaProfile delta, GraphDatabaseService databaseService) {
+
+    }
+
+    private static Set<String> labelsOf(Node node) {
+        Set<String> labels = new HashSet<>();
+        for (Label label : node.getLabels()) {
+            labels.add(label.name());
+        }
+        return labels;
+    }
+
+    private static class Change {
+        private final Entity entity;
+        private boolean created;
+        private boolean deleted;
+        private final Set<String> assignedLabels = new HashSet<>();
+        private final Set<String> removedLabels = new HashSet<>();
+        // the committed values of the changed properties, null if they didn't exist
+        private final Map<String, Object> previous = new HashMap<>();
+
+        private Change(Entity entity) {
+            this.entity = entity;
+        }
+
+        private boolean isUpdate() {
+            return !created && !deleted;
+        }
+
+        private Map<String, Object> propertiesBefore(Map<String, Object> current) {
+            Map<String, Object> before = new HashMap<>(current);
+            previous.forEach((key, value) -> {
+                if (value == null) {
+                    before.remove(key);
+                } else {
+                    before.put(key, value);
+                }
+            });
+            return before;
+        }
+    }
+
+    /**
+     * The profile of what a transaction changed: the changed entities as they were before, counted negatively,
+     * and as they are after. The relationships of the nodes whose labels changed are counted again in their new patterns.
+     */
+    private static class Delta {
+        private final MetaSchemaProfile profile = new MetaSchemaProfile();
+        private final Transaction tx;
+        private final Map<Long, Change> nodes = new HashMap<>();
+        private final Map<Long, Change> rels = new HashMap<>();
+        private final Map<Long, Set<String>> unchangedLabels = new HashMap<>();
+
+        private Delta(TransactionData data, Transaction tx) {
+            this.tx = tx;
+            data.createdNodes().forEach(node -> nodeChange(node).created = true);
+            data.deletedNodes().forEach(node -> nodeChange(node).deleted = true);
+            for (LabelEntry entry : data.assignedLabels()) nodeChange(entry.node()).assignedLabels.add(entry.label().name());
+            for (LabelEntry entry : data.removedLabels()) nodeChange(entry.node()).removedLabels.add(entry.label().name());
+            for (PropertyEntry<Node> entry : data.assignedNodeProperties()) nodeChange(entry.entity()).previous.put(entry.key(), entry.previouslyCommittedValue());
+            for (PropertyEntry<Node> entry : data.removedNodeProperties()) nodeChange(entry.entity()).previous.put(entry.key(), entry.previouslyCommittedValue());
+
+            data.createdRelationships().forEach(rel -> relChange(rel).created = true);
+            data.deletedRelationships().forEach(rel -> relChange(rel).deleted = true);
+            for (PropertyEntry<Relationship> entry : data.assignedRelationshipProperties()) relChange(entry.entity()).previous.put(entry.key(), entry.previouslyCommittedValue());
+            for (PropertyEntry<Relationship> entry : data.removedRelationshipProperties()) relChange(entry.entity()).previous.put(entry.key(), entry.previouslyCommittedValue());
+        }
+
+        private Change nodeChange(Node node) {
+            return nodes.computeIfAbsent(node.getId(), id -> new Change(node));
+        }
+
+        private Change relChange(Relationship rel) {
+            return rels.computeIfAbsent(rel.getId(), id -> new Change(rel));
+        }
+
+        private MetaSchemaProfile compute() {
+            for (Change change : nodes.values()) {
+                Node node = (Node) change.entity;
+                Set<String> before = labelsBefore(node.getId());
+                Set<String> after = labelsAfter(node.getId());
+                Map<String, Object> current = change.deleted ? Map.of() : node.getAllProperties();
+                Map<String, Object> previous = change.propertiesBefore(current);
+                if (change.isUpdate()) {
+                    if (before.equals(after)) {
+                        // only the changed properties count
+                        current = restrict(current, change.previous.keySet());
+                        previous = restrict(previous, change.previous.keySet());
+                    } else {
+                        node.getRelationships().forEach(this::relChange);
+                    }
+                }
+                if (!change.created) profile.node(before, previous, -1);
+                if (!change.deleted) profile.node(after, current, 1);
+            }
+            for (Change change : rels.values()) {
+                Relationship rel = (Relationship) change.entity;
+                String type = rel.getType().name();
+                Map<String, Object> current = change.deleted ? Map.of() : rel.getAllProperties();
+                Map<String, Object> previous = change.propertiesBefore(current);
+                if (change.isUpdate()) {
+                    // the pattern cancels out unless the labels of its nodes changed
+                    current = restrict(current, change.previous.keySet());
+                    previous = restrict(previous, change.previous.keySet());
+                }
+                if (!change.created) profile.relationship(type, previous, labelsBefore(rel.getStartNodeId()), labelsBefore(rel.getEndNodeId()), -1);
+                if (!change.deleted) profile.relationship(type, current, labelsAfter(rel.getStartNodeId()), labelsAfter(rel.getEndNodeId()), 1);
+            }
+            return profile;
+        }
+
+        private Set<String> labelsBefore(long nodeId) {
+            Change change = nodes.get(nodeId);
+            if (change == null) {
+                return unchanged(nodeId);
+            }
+            if (change.created) {
+                return Set.of();
+            }
+            Set<String> labels = change.deleted ? new HashSet<>() : labelsOf((Node) change.entity);
+            labels.removeAll(change.assignedLabels);
+            labels.addAll(change.removedLabels);
+            return labels;
+        }
+
+        private Set<String> labelsAfter(long nodeId) {
+            Change change = nodes.get(nodeId);
+            if (change == null) {
+                return unchanged(nodeId);
+            }
+            return change.deleted ? Set.of() : labelsOf((Node) change.entity);
+        }
+
+        private Set<String> unchanged(long nodeId) {
+            return unchangedLabels.computeIfAbsent(nodeId, id -> labelsOf(tx.getNodeById(id)));
+        }
+
+        private static Map<String, Object> restrict(Map<String, Object> properties, Set<String> keys) {
+            Map<String, Object> restricted = new HashMap<>();
+            for (String key : keys) {
+                if (properties.containsKey(key)) {
+                    restricted.put(key, properties.get(key));
+                }
+            }
+            return restricted;
+        }
+    }
+}
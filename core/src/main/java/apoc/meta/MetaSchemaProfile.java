@@ -0,0 +1,93 @@
+package apoc.meta;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The property types and relationship patterns of a whole database, kept by {@link MetaSchemaHandler} for
+ * {@code apoc.meta.schema({cached:true})}.
+ *
+ * Every entry counts the entities it was observed on, so the profile can be maintained with deltas:
+ * a delta is a profile of the same kind with negative counts for what a transaction removed.
+ */
+class MetaSchemaProfile {
+
+    // label -> property -> type -> number of nodes
+    final Map<String, Map<String, Map<String, Long>>> nodeProperties = new TreeMap<>();
+    // relationship type -> property -> type -> number of relationships
+    final Map<String, Map<String, Map<String, Long>>> relProperties = new TreeMap<>();
+    // relationship type -> start label -> end label -> number of relationships
+    final Map<String, Map<String, Map<String, Long>>> patterns = new TreeMap<>();
+
+    void node(Collection<String> labels, Map<String, Object> properties, long count) {
+        for (String label : labels) {
+            properties.forEach((key, value) -> add(nodeProperties, label, key, typeOf(value), count));
+        }
+    }
+
+    void relationship(String type, Map<String, Object> properties, Collection<String> startLabels, Collection<String> endLabels, long count) {
+        properties.forEach((key, value) -> add(relProperties, type, key, typeOf(value), count));
+        pattern(type, startLabels, endLabels, count);
+    }
+
+    void pattern(String type, Collection<String> startLabels, Collection<String> endLabels, long count) {
+        for (String start : startLabels) {
+            for (String end : endLabels) {
+                add(patterns, type, start, end, count);
+            }
+        }
+    }
+
+    void add(MetaSchemaProfile delta) {
+        addAll(nodeProperties, delta.nodeProperties);
+        addAll(relProperties, delta.relProperties);
+        addAll(patterns, delta.patterns);
+    }
+
+    boolean isEmpty() {
+        return nodeProperties.isEmpty() && relProperties.isEmpty() && patterns.isEmpty();
+    }
+
+    MetaSchemaProfile copy() {
+        MetaSchemaProfile copy = new MetaSchemaProfile();
+        copy.add(this);
+        return copy;
+    }
+
+    Map<String, Object> toMap() {
+        return Map.of("nodeProperties", nodeProperties, "relProperties", relProperties, "patterns", patterns);
+    }
+
+    static MetaSchemaProfile fromMap(Map<String, Map<String, Map<String, Map<String, Number>>>> map) {
+        MetaSchemaProfile profile = new MetaSchemaProfile();
+        read(profile.nodeProperties, map.get("nodeProperties"));
+        read(profile.relProperties, map.get("relProperties"));
+        read(profile.patterns, map.get("patterns"));
+        return profile;
+    }
+
+    static String typeOf(Object value) {
+        return Meta.Types.of(value == null ? null : value.getClass()).name();
+    }
+
+    private static void read(Map<String, Map<String, Map<String, Long>>> target, Map<String, Map<String, Map<String, Number>>> source) {
+        if (source == null) return;
+        source.forEach((first, seconds) -> seconds.forEach((second, thirds) ->
+                thirds.forEach((third, count) -> add(target, first, second, third, count.longValue()))));
+    }
+
+    private static void addAll(Map<String, Map<String, Map<String, Long>>> target, Map<String, Map<String, Map<String, Long>>> delta) {
+        delta.forEach((first, seconds) -> seconds.forEach((second, thirds) ->
+                thirds.forEach((third, count) -> add(target, first, second, third, count))));
+    }
+
+    // the entries dropping to zero are removed, so what is no longer in the graph disappears from the profile
+    private static void add(Map<String, Map<String, Map<String, Long>>> target, String first, String second, String third, long count) {
+        Map<String, Map<String, Long>> seconds = target.computeIfAbsent(first, k -> new TreeMap<>());
+        Map<String, Long> thirds = seconds.computeIfAbsent(second, k -> new TreeMap<>());
+        thirds.merge(third, count, (a, b) -> a + b == 0 ? null : a + b);
+        if (thirds.isEmpty()) seconds.remove(second);
+        if (seconds.isEmpty()) target.remove(first);
+    }
+}
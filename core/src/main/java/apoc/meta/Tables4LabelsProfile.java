@@ -189,6 +189,23 @@ public class Tables4LabelsProfile {
         }
     }
 
+    /**
+     * Adds the observations of a profile collected separately, for instance on another label.
+     * The relationships of the other profile are kept only if fewer than maxRels of the same kind were seen so far.
+     */
+    public void merge(Tables4LabelsProfile other, long maxRels) {
+        other.labelMap.forEach((labels, prof) -> getNodeProfile(labels).merge(prof));
+        other.obsByNode.forEach((labels, count) -> obsByNode.merge(labels, count, Long::sum));
+
+        other.relMap.forEach((relIdentifier, prof) -> {
+            PropertyContainerProfile localRelProfile = getRelProfile(relIdentifier);
+            if (obsByRelType.getOrDefault(relIdentifier, 0L) < maxRels) {
+                localRelProfile.merge(prof);
+            }
+        });
+        other.obsByRelType.forEach((relIdentifier, count) -> obsByRelType.merge(relIdentifier, count, Long::sum));
+    }
+
     public Tables4LabelsProfile finished() {
         for (PropertyContainerProfile prof : labelMap.values()) {
             prof.finished();
@@ -49,6 +49,13 @@ public class PropertyContainerProfile {
         }
     }
 
+    public void merge(PropertyContainerProfile other) {
+        observations += other.observations;
+        isNode |= other.isNode;
+
+        other.profile.forEach((propName, tracker) -> profile.computeIfAbsent(propName, PropertyTracker::new).merge(tracker));
+    }
+
     public PropertyContainerProfile finished() {
         PropertyTracker tracker;
 
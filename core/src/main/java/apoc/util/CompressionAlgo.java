@@ -5,51 +5,107 @@ import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
 import org.apache.commons.compress.compressors.deflate.DeflateCompressorInputStream;
 import org.apache.commons.compress.compressors.deflate.DeflateCompressorOutputStream;
+import org.apache.commons.compress.compressors.deflate.DeflateParameters;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
 import org.apache.commons.compress.compressors.lz4.BlockLZ4CompressorInputStream;
 import org.apache.commons.compress.compressors.lz4.BlockLZ4CompressorOutputStream;
 import org.apache.commons.compress.compressors.snappy.FramedSnappyCompressorInputStream;
 import org.apache.commons.compress.compressors.snappy.FramedSnappyCompressorOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdUtils;
 import org.apache.commons.io.IOUtils;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.Charset;
+import java.util.concurrent.ExecutorService;
 
 import static apoc.ApocConfig.apocConfig;
 
 public enum CompressionAlgo {
 
-    NONE(null, null),
-    GZIP(GzipCompressorOutputStream.class, GzipCompressorInputStream.class),
-    BZIP2(BZip2CompressorOutputStream.class, BZip2CompressorInputStream.class),
-    DEFLATE(DeflateCompressorOutputStream.class, DeflateCompressorInputStream.class),
-    BLOCK_LZ4(BlockLZ4CompressorOutputStream.class, BlockLZ4CompressorInputStream.class),
-    FRAMED_SNAPPY(FramedSnappyCompressorOutputStream.class, FramedSnappyCompressorInputStream.class);
+    NONE(null, null, false),
+    GZIP((stream, level) -> level < 0 ? new GzipCompressorOutputStream(stream) : new GzipCompressorOutputStream(stream, gzipParameters(level)),
+            stream -> new GzipCompressorInputStream(stream, true), true),
+    BZIP2((stream, level) -> level < 0 ? new BZip2CompressorOutputStream(stream) : new BZip2CompressorOutputStream(stream, level),
+            stream -> new BZip2CompressorInputStream(stream, true), true),
+    DEFLATE((stream, level) -> level < 0 ? new DeflateCompressorOutputStream(stream) : new DeflateCompressorOutputStream(stream, deflateParameters(level)),
+            DeflateCompressorInputStream::new, false),
+    BLOCK_LZ4((stream, level) -> new BlockLZ4CompressorOutputStream(stream), BlockLZ4CompressorInputStream::new, false),
+    FRAMED_SNAPPY((stream, level) -> new FramedSnappyCompressorOutputStream(stream), FramedSnappyCompressorInputStream::new, false),
+    ZSTD((stream, level) -> {
+        checkZstdAvailable();
+        return level < 0 ? new ZstdCompressorOutputStream(stream) : new ZstdCompressorOutputStream(stream, level);
+    }, stream -> {
+        checkZstdAvailable();
+        return new ZstdCompressorInputStream(stream);
+    }, true);
 
-    private final Class<?> compressor;
-    private final Class<?> decompressor;
+    @FunctionalInterface
+    private interface CompressorFactory {
+        OutputStream create(OutputStream stream, int level) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface DecompressorFactory {
+        InputStream create(InputStream stream) throws IOException;
+    }
 
-    CompressionAlgo(Class<?> compressor, Class<?> decompressor) {
+    private final CompressorFactory compressor;
+    private final DecompressorFactory decompressor;
+    // the format allows concatenated members (gzip), streams (bzip2) or frames (zstd), so independently compressed blocks form a valid file
+    private final boolean concatenable;
+
+    CompressionAlgo(CompressorFactory compressor, DecompressorFactory decompressor, boolean concatenable) {
         this.compressor = compressor;
         this.decompressor = decompressor;
+        this.concatenable = concatenable;
     }
 
     public byte[] compress(String string, Charset charset) throws Exception {
+        return compress(string, charset, CompressionConfig.DEFAULT_LEVEL);
+    }
+
+    public byte[] compress(String string, Charset charset, int level) throws Exception {
         try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
-            try (OutputStream outputStream = getOutputStream(stream)) {
+            try (OutputStream outputStream = getOutputStream(stream, level)) {
                 outputStream.write(string.getBytes(charset));
             }
             return stream.toByteArray();
         }
     }
 
-    private OutputStream getOutputStream(ByteArrayOutputStream stream) throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
-        return compressor == null ? stream : (OutputStream) compressor.getConstructor(OutputStream.class).newInstance(stream);
+    public byte[] compress(String string, CompressionConfig config, ExecutorService executor) throws Exception {
+        try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
+            try (OutputStream outputStream = getOutputStream(stream, config, executor)) {
+                outputStream.write(string.getBytes(config.getCharset()));
+            }
+            return stream.toByteArray();
+        }
+    }
+
+    public OutputStream getOutputStream(OutputStream stream, int level) throws IOException {
+        return compressor == null ? stream : compressor.create(stream, level);
+    }
+
+    /**
+     * With <code>parallelCompression: true</code> the data is split into blocks of <code>compressionBlockSize</code> bytes
+     * that are compressed independently by the executor, like <code>pigz</code> does.
+     */
+    public OutputStream getOutputStream(OutputStream stream, CompressionConfig config, ExecutorService executor) throws IOException {
+        if (!config.isParallelCompression() || compressor == null) {
+            return getOutputStream(stream, config.getCompressionLevel());
+        }
+        if (!concatenable) {
+            throw new RuntimeException("Parallel compression is not supported by " + name() + ", please use one of GZIP, BZIP2, ZSTD");
+        }
+        return new ParallelCompressorOutputStream(stream, this, config.getCompressionLevel(), config.getCompressionBlockSize(), executor);
     }
 
     public String decompress(byte[] byteArray, Charset charset) throws Exception {
@@ -59,8 +115,8 @@ public enum CompressionAlgo {
         }
     }
 
-    private InputStream getInputStream(ByteArrayInputStream stream) throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
-        return decompressor == null ? stream : (InputStream) decompressor.getConstructor(InputStream.class).newInstance(stream);
+    public InputStream getInputStream(InputStream stream) throws IOException {
+        return decompressor == null ? stream : decompressor.create(stream);
     }
 
     public CountingInputStream toInputStream(byte[] data) {
@@ -74,4 +130,22 @@ public enum CompressionAlgo {
             throw new RuntimeException(e);
         }
     }
+
+    private static GzipParameters gzipParameters(int level) {
+        GzipParameters parameters = new GzipParameters();
+        parameters.setCompressionLevel(level);
+        return parameters;
+    }
+
+    private static DeflateParameters deflateParameters(int level) {
+        DeflateParameters parameters = new DeflateParameters();
+        parameters.setCompressionLevel(level);
+        return parameters;
+    }
+
+    private static void checkZstdAvailable() {
+        if (!ZstdUtils.isZstdCompressionAvailable()) {
+            throw new RuntimeException("ZSTD compression requires the zstd-jni library, please add the `com.github.luben:zstd-jni` jar to the plugins directory");
+        }
+    }
 }
@@ -9,14 +9,29 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public class CompressionConfig {
     public static final String COMPRESSION = "compression";
     public static final String CHARSET = "charset";
+    public static final String COMPRESSION_LEVEL = "compressionLevel";
+    public static final String PARALLEL_COMPRESSION = "parallelCompression";
+    public static final String COMPRESSION_BLOCK_SIZE = "compressionBlockSize";
+
+    public static final int DEFAULT_LEVEL = -1;
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
 
     private final String compressionAlgo;
     private final Charset charset;
+    private final int compressionLevel;
+    private final boolean parallelCompression;
+    private final int compressionBlockSize;
 
     public CompressionConfig(Map<String, Object> config) {
         if (config == null) config = Collections.emptyMap();
         this.compressionAlgo = (String) config.getOrDefault(COMPRESSION, CompressionAlgo.GZIP.name());
         this.charset = Charset.forName((String) config.getOrDefault(CHARSET, UTF_8.name()));
+        this.compressionLevel = Util.toInteger(config.getOrDefault(COMPRESSION_LEVEL, DEFAULT_LEVEL));
+        this.parallelCompression = Util.toBoolean(config.get(PARALLEL_COMPRESSION));
+        this.compressionBlockSize = Util.toInteger(config.getOrDefault(COMPRESSION_BLOCK_SIZE, DEFAULT_BLOCK_SIZE));
+        if (compressionBlockSize <= 0) {
+            throw new RuntimeException("`" + COMPRESSION_BLOCK_SIZE + "` must be greater than 0, but got " + compressionBlockSize);
+        }
     }
 
     public String getCompressionAlgo() {
@@ -26,4 +41,16 @@ public class CompressionConfig {
     public Charset getCharset() {
         return charset;
     }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public boolean isParallelCompression() {
+        return parallelCompression;
+    }
+
+    public int getCompressionBlockSize() {
+        return compressionBlockSize;
+    }
 }
@@ -21,12 +21,17 @@ import java.net.URI;
 import java.net.URL;
 import java.net.URLStreamHandler;
 import java.net.URLStreamHandlerFactory;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static apoc.ApocConfig.APOC_IMPORT_FILE_ALLOW__READ__FROM__FILESYSTEM;
 import static apoc.ApocConfig.apocConfig;
@@ -143,6 +148,7 @@ public class FileUtils {
 
     }
 
+    private static final String GLOB_CHARS = "*[{";
     public static final String ERROR_READ_FROM_FS_NOT_ALLOWED = "Import file %s not enabled, please set " + APOC_IMPORT_FILE_ALLOW__READ__FROM__FILESYSTEM + "=true in your neo4j.conf";
     public static final String ACCESS_OUTSIDE_DIR_ERROR = "You're providing a directory outside the import directory " +
             "defined into `dbms.directories.import`";
@@ -173,6 +179,79 @@ public class FileUtils {
         }
     }
 
+    /**
+     * Resolves the input to a readable local file, applying the same checks as {@link #inputStreamFor}.
+     * Returns null for remote urls and compressed archive entries, so callers can fall back to streaming.
+     */
+    public static File getLocalFile(String fileName) throws IOException {
+        if (fileName == null || (fileName.contains("!") && (fileName.contains(".zip") || fileName.contains(".tar") || fileName.contains(".tgz")))) {
+            return null;
+        }
+        apocConfig().checkReadAllowed(fileName);
+        final String url = changeFileUrlIfImportDirectoryConstrained(fileName);
+        if (!isFile(url)) {
+            return null;
+        }
+        File file;
+        try {
+            file = new File(URI.create(url));
+        } catch (IllegalArgumentException iae) {
+            try {
+                file = new File(new URL(url).getFile());
+            } catch (MalformedURLException mue) {
+                file = new File(url);
+            }
+        }
+        if (!file.exists() || !file.isFile() || !file.canRead()) {
+            throw new IOException(String.format(StreamConnection.FileStreamConnection.CANNOT_OPEN_FILE_FOR_READING, file.getAbsolutePath()));
+        }
+        return file;
+    }
+
+    /**
+     * Expands a file url with the glob wildcards {@code *}, {@code **}, {@code [...]} and {@code {...}} to the sorted list
+     * of the matching files. The matches keep the prefix of the pattern, so each one is resolved and checked as the pattern would be.
+     * Other urls, and the names of existing files that contain those characters like {@code data[1].csv}, are returned as they are.
+     */
+    public static List<String> expandGlob(String fileName) throws IOException {
+        final int wildcard = StringUtils.indexOfAny(fileName, GLOB_CHARS);
+        if (wildcard < 0 || !isFile(fileName)) {
+            return List.of(fileName);
+        }
+        apocConfig().checkReadAllowed(fileName);
+        if (isRegularFile(fileName)) {
+            return List.of(fileName);
+        }
+        final int separator = fileName.lastIndexOf('/', wildcard);
+        final String prefix = fileName.substring(0, separator + 1);
+        final String glob = fileName.substring(separator + 1);
+        final Path directory = getPath(changeFileUrlIfImportDirectoryConstrained(prefix.isEmpty() ? "./" : prefix));
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        final int depth = glob.contains("/") || glob.contains("**") ? Integer.MAX_VALUE : 1;
+        final List<String> files;
+        try (Stream<Path> paths = Files.walk(directory, depth)) {
+            files = paths.filter(Files::isRegularFile)
+                    .map(directory::relativize)
+                    .filter(matcher::matches)
+                    .map(path -> prefix + FilenameUtils.separatorsToUnix(path.toString()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        if (files.isEmpty()) {
+            throw new IOException("No file matches the pattern " + fileName);
+        }
+        return files;
+    }
+
+    private static boolean isRegularFile(String fileName) {
+        try {
+            return Files.isRegularFile(getPath(changeFileUrlIfImportDirectoryConstrained(fileName)));
+        } catch (IOException | RuntimeException e) {
+            // not a valid path, the errors of the pattern are reported by the expansion
+            return false;
+        }
+    }
+
     public static String changeFileUrlIfImportDirectoryConstrained(String urlNotEncoded) throws IOException {
         final String url = encodeExceptQM(urlNotEncoded);
 
@@ -218,7 +297,7 @@ public class FileUtils {
         Path urlPath;
         URL toURL = null;
         try {
-            final URI uri = URI.create(url.trim());
+            final URI uri = toUri(url.trim());
             toURL = uri.toURL();
             urlPath = Paths.get(uri);
         } catch (Exception e) {
@@ -231,6 +310,18 @@ public class FileUtils {
         return urlPath;
     }
 
+    // the names of the local files can have characters that are not valid in an URI, like the wildcards of the glob patterns
+    private static URI toUri(String url) {
+        try {
+            return URI.create(url);
+        } catch (IllegalArgumentException e) {
+            if (!isFile(url)) {
+                throw e;
+            }
+            return URI.create(encodeExceptQM(url));
+        }
+    }
+
     private static boolean pathStartsWithOther(Path resolvedPath, Path basePath) throws IOException {
         try {
             return resolvedPath.toRealPath().startsWith(basePath.toRealPath());
@@ -9,9 +9,13 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Option;
+import com.jayway.jsonpath.ParseContext;
 import com.jayway.jsonpath.spi.json.JacksonJsonProvider;
 import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
 import org.apache.commons.lang3.StringUtils;
@@ -25,7 +29,10 @@ import java.time.temporal.Temporal;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -34,7 +41,9 @@ import java.util.stream.StreamSupport;
  * @since 04.05.16
  */
 public class JsonUtil {
-    private final static Option[] defaultJsonPathOptions = { Option.DEFAULT_PATH_LEAF_TO_NULL, Option.SUPPRESS_EXCEPTIONS };
+    private final static Set<Option> DEFAULT_JSON_PATH_OPTIONS = EnumSet.of(Option.DEFAULT_PATH_LEAF_TO_NULL, Option.SUPPRESS_EXCEPTIONS);
+    private final static Map<Set<Option>, ParseContext> PARSE_CONTEXTS = new ConcurrentHashMap<>();
+    private final static Cache<String, JsonPath> PATH_CACHE = CacheBuilder.newBuilder().maximumSize(1000).build();
     
     public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     public static final String PATH_OPTIONS_ERROR_MESSAGE = "Invalid pathOptions. The allowed values are: " + EnumSet.allOf(Option.class);
@@ -65,17 +74,38 @@ public class JsonUtil {
         }
     }
 
-    private static Configuration getJsonPathConfig(List<String> options) {
+    private static ParseContext getParseContext(List<String> options) {
+        final Set<Option> opts;
         try {
-            Option[] opts = options == null ? defaultJsonPathOptions : options.stream().map(Option::valueOf).toArray(Option[]::new);
-            return Configuration.builder()
-                    .options(opts)
-                    .jsonProvider(new JacksonJsonProvider(OBJECT_MAPPER))
-                    .mappingProvider(new JacksonMappingProvider(OBJECT_MAPPER))
-                    .build();
+            opts = options == null ? DEFAULT_JSON_PATH_OPTIONS : options.stream().map(Option::valueOf).collect(Collectors.toCollection(() -> EnumSet.noneOf(Option.class)));
         } catch (Exception e) {
             throw new RuntimeException(PATH_OPTIONS_ERROR_MESSAGE, e);
         }
+        // the configurations are immutable, so there is a single one for each set of options
+        return PARSE_CONTEXTS.computeIfAbsent(opts, key -> JsonPath.using(Configuration.builder()
+                .options(key)
+                .jsonProvider(new JacksonJsonProvider(OBJECT_MAPPER))
+                .mappingProvider(new JacksonMappingProvider(OBJECT_MAPPER))
+                .build()));
+    }
+
+    private static JsonPath compilePath(String path) {
+        JsonPath jsonPath = PATH_CACHE.getIfPresent(path);
+        if (jsonPath == null) {
+            jsonPath = JsonPath.compile(path);
+            PATH_CACHE.put(path, jsonPath);
+        }
+        return jsonPath;
+    }
+
+    // the mapping provider converts with a serialization round-trip, which isn't needed when the value has already the type
+    private static <T> T read(DocumentContext document, JsonPath path, Class<T> type) {
+        final Object value = document.read(path);
+        if (value == null || type.isInstance(value)) {
+            return type.cast(value);
+        }
+        final Configuration configuration = document.configuration();
+        return configuration.mappingProvider().map(value, type, configuration);
     }
     
     public static Stream<Object> loadJson(String url, Map<String,Object> headers, String payload) {
@@ -86,6 +116,10 @@ public class JsonUtil {
         return loadJson(urlOrBinary, headers, payload, path, failOnError, null, options);
     }
     
+    /**
+     * With the default options, the paths supported by {@link StreamingJsonPath} are evaluated while the input is parsed,
+     * and the matches of an indefinite path are returned one by one when they are maps.
+     */
     public static Stream<Object> loadJson(Object urlOrBinary, Map<String,Object> headers, String payload, String path, boolean failOnError, String compressionAlgo, List<String> options) {
         try {
             if (urlOrBinary instanceof String) {
@@ -94,9 +128,18 @@ public class JsonUtil {
             }
             InputStream input = FileUtils.inputStreamFor(urlOrBinary, headers, payload, compressionAlgo);
             JsonParser parser = OBJECT_MAPPER.getFactory().createParser(input);
+            StreamingJsonPath streamingPath = StringUtils.isBlank(path) || options != null ? null : StreamingJsonPath.compile(path);
+            if (streamingPath != null) {
+                return StreamSupport.stream(Spliterators.spliteratorUnknownSize(streamingPath.values(parser, OBJECT_MAPPER), 0), false);
+            }
             MappingIterator<Object> it = OBJECT_MAPPER.readValues(parser, Object.class);
             Stream<Object> stream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, 0), false);
-            return StringUtils.isBlank(path) ? stream : stream.map((value) -> JsonPath.parse(value, getJsonPathConfig(options)).read(path));
+            if (StringUtils.isBlank(path)) {
+                return stream;
+            }
+            ParseContext parseContext = getParseContext(options);
+            JsonPath jsonPath = compilePath(path);
+            return stream.map((value) -> parseContext.parse(value).read(jsonPath));
         } catch (IOException e) {
             if(!failOnError) {
                 return Stream.of();
@@ -124,7 +167,7 @@ public class JsonUtil {
             if (path == null || path.isEmpty()) {
                 return OBJECT_MAPPER.readValue(json, type);
             }
-            return JsonPath.parse(json, getJsonPathConfig(options)).read(path, type);
+            return read(getParseContext(options).parse(json), compilePath(path), type);
         } catch (IOException e) {
             throw new RuntimeException("Can't convert " + json + " to "+type.getSimpleName()+" with path "+path, e);
         }
@@ -0,0 +1,131 @@
+package apoc.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Splits the written data into blocks that are compressed independently on an executor
+ * and appended to the target stream in order, so the result is a sequence of gzip members,
+ * bzip2 streams or zstd frames that standard tools read as a single file.
+ */
+public class ParallelCompressorOutputStream extends OutputStream {
+
+    private final OutputStream out;
+    private final CompressionAlgo algo;
+    private final int level;
+    private final int blockSize;
+    private final ExecutorService executor;
+    private final int maxPending;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+    private byte[] block;
+    private int count;
+    private boolean written;
+    private boolean closed;
+
+    public ParallelCompressorOutputStream(OutputStream out, CompressionAlgo algo, int level, int blockSize, ExecutorService executor) {
+        this.out = out;
+        this.algo = algo;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.executor = executor;
+        this.maxPending = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        block[count++] = (byte) b;
+        if (count == blockSize) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, block, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == blockSize) {
+                submitBlock();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (count > 0) {
+            submitBlock();
+        }
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            // an empty input still needs one (empty) member to be a valid compressed file
+            if (count > 0 || !written) {
+                submitBlock();
+            }
+            while (!pending.isEmpty()) {
+                writeNext();
+            }
+        } finally {
+            for (Future<byte[]> future : pending) {
+                future.cancel(false);
+            }
+            out.close();
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        final byte[] data = block;
+        final int length = count;
+        pending.add(executor.submit(() -> compressBlock(data, length)));
+        written = true;
+        block = new byte[blockSize];
+        count = 0;
+        while (pending.size() >= maxPending) {
+            writeNext();
+        }
+    }
+
+    private byte[] compressBlock(byte[] data, int length) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 64);
+        try (OutputStream stream = algo.getOutputStream(compressed, level)) {
+            stream.write(data, 0, length);
+        }
+        return compressed.toByteArray();
+    }
+
+    private void writeNext() throws IOException {
+        try {
+            out.write(pending.poll().get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package apoc.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Evaluates a JsonPath while the documents are parsed, so only the matched values are read in memory, one at a time.
+ *
+ * Only the paths made of member names, array indexes and wildcards are supported, like {@code $.items[*]},
+ * {@code $['data'].*.name} or {@code $[0].values}, with the semantics of the default options of JsonUtil:
+ * a missing leaf member is null and the other missing members are skipped.
+ */
+public class StreamingJsonPath {
+
+    private static final String NAME_DELIMITERS = ".[]*'\"()?@,: ";
+
+    private static class Segment {
+        // null for an index or a wildcard
+        final String name;
+        // -1 for a name or a wildcard
+        final int index;
+
+        Segment(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+
+        boolean isWildcard() {
+            return name == null && index < 0;
+        }
+    }
+
+    private final List<Segment> segments;
+    private final boolean definite;
+
+    private StreamingJsonPath(List<Segment> segments) {
+        this.segments = segments;
+        this.definite = segments.stream().noneMatch(Segment::isWildcard);
+    }
+
+    /**
+     * @return the compiled path, or null if the path needs the JsonPath engine
+     */
+    public static StreamingJsonPath compile(String path) {
+        if (path == null) {
+            return null;
+        }
+        String expression = path.trim();
+        if (!expression.startsWith("$")) {
+            expression = (expression.startsWith("[") ? "$" : "$.") + expression;
+        }
+        final List<Segment> segments = new ArrayList<>();
+        int i = 1;
+        final int length = expression.length();
+        while (i < length) {
+            final char c = expression.charAt(i);
+            if (c == '.') {
+                if (i + 1 < length && expression.charAt(i + 1) == '*') {
+                    segments.add(new Segment(null, -1));
+                    i += 2;
+                    continue;
+                }
+                int end = i + 1;
+                while (end < length && NAME_DELIMITERS.indexOf(expression.charAt(end)) < 0) {
+                    end++;
+                }
+                // deep scans and functions are not supported
+                if (end == i + 1 || (end < length && expression.charAt(end) == '(')) {
+                    return null;
+                }
+                segments.add(new Segment(expression.substring(i + 1, end), -1));
+                i = end;
+            } else if (c == '[') {
+                final int close = expression.indexOf(']', i);
+                if (close < 0) {
+                    return null;
+                }
+                final String content = expression.substring(i + 1, close).trim();
+                if (content.equals("*")) {
+                    segments.add(new Segment(null, -1));
+                } else if (content.length() >= 2 && (content.charAt(0) == '\'' || content.charAt(0) == '"')
+                        && content.charAt(content.length() - 1) == content.charAt(0)) {
+                    final String name = content.substring(1, content.length() - 1);
+                    // unions of names and escaped quotes are not supported
+                    if (name.indexOf('\'') >= 0 || name.indexOf('"') >= 0 || name.indexOf('\\') >= 0) {
+                        return null;
+                    }
+                    segments.add(new Segment(name, -1));
+                } else if (!content.isEmpty() && content.chars().allMatch(Character::isDigit) && content.length() < 10) {
+                    segments.add(new Segment(null, Integer.parseInt(content)));
+                } else {
+                    // filters, slices, unions and negative indexes
+                    return null;
+                }
+                i = close + 1;
+            } else {
+                return null;
+            }
+        }
+        return new StreamingJsonPath(segments);
+    }
+
+    public boolean isDefinite() {
+        return definite;
+    }
+
+    /**
+     * Reads the documents of the parser and returns, for each one, the same values as the JsonPath engine would,
+     * except that when the path is not definite and its first match in the document is a map, the matches are
+     * returned one by one instead of as a list.
+     */
+    public Iterator<Object> values(JsonParser parser, ObjectMapper mapper) {
+        return new Iterator<>() {
+            private Matches matches;
+            private Object value;
+            private boolean hasValue;
+            private boolean finished;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    while (!hasValue && !finished) {
+                        fill();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return hasValue;
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                hasValue = false;
+                final Object next = value;
+                value = null;
+                return next;
+            }
+
+            private void set(Object next) {
+                value = next;
+                hasValue = true;
+            }
+
+            private void fill() throws IOException {
+                if (matches != null) {
+                    if (matches.hasNext()) {
+                        set(matches.next());
+                        return;
+                    }
+                    matches = null;
+                }
+                if (parser.nextToken() == null) {
+                    finished = true;
+                    return;
+                }
+                final Matches document = new Matches(parser, mapper);
+                if (definite) {
+                    set(document.hasNext() ? document.next() : null);
+                    document.skipRest();
+                    return;
+                }
+                if (!document.hasNext()) {
+                    return;
+                }
+                final Object first = document.next();
+                if (first instanceof Map) {
+                    set(first);
+                    matches = document;
+                } else {
+                    final List<Object> all = new ArrayList<>();
+                    all.add(first);
+                    while (document.hasNext()) {
+                        all.add(document.next());
+                    }
+                    set(all);
+                }
+            }
+        };
+    }
+
+    /**
+     * The matches in the document that starts at the current token of the parser.
+     */
+    private class Matches {
+        private final JsonParser parser;
+        private final ObjectMapper mapper;
+        private final Deque<Frame> stack = new ArrayDeque<>();
+        private boolean started;
+        private boolean hasMatch;
+        private Object match;
+
+        Matches(JsonParser parser, ObjectMapper mapper) {
+            this.parser = parser;
+            this.mapper = mapper;
+        }
+
+        boolean hasNext() throws IOException {
+            if (!hasMatch) {
+                hasMatch = advance();
+            }
+            return hasMatch;
+        }
+
+        Object next() throws IOException {
+            if (!hasNext()) throw new NoSuchElementException();
+            hasMatch = false;
+            final Object value = match;
+            match = null;
+            return value;
+        }
+
+        // moves the parser to the end of the document without reading the values
+        void skipRest() throws IOException {
+            if (!started) {
+                started = true;
+                parser.skipChildren();
+                return;
+            }
+            while (!stack.isEmpty()) {
+                final JsonToken token = parser.nextToken();
+                if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                } else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY || token == null) {
+                    stack.pop();
+                }
+            }
+        }
+
+        private boolean advance() throws IOException {
+            if (!started) {
+                started = true;
+                if (enter(0)) return true;
+            }
+            while (!stack.isEmpty()) {
+                final Frame frame = stack.peek();
+                final JsonToken token = parser.nextToken();
+                if (token == null) {
+                    throw new IOException("Unexpected end of the JSON input");
+                }
+                if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                    stack.pop();
+                    if (frame.nullIfMissing && !frame.found) {
+                        match = null;
+                        return true;
+                    }
+                    continue;
+                }
+                final Segment segment = segments.get(frame.depth);
+                final boolean selected;
+                if (frame.object) {
+                    final String name = parser.getCurrentName();
+                    parser.nextToken();
+                    selected = segment.isWildcard() || segment.name.equals(name);
+                    frame.found |= selected;
+                } else {
+                    final int index = frame.index++;
+                    selected = segment.isWildcard() || segment.index == index;
+                }
+                if (!selected) {
+                    parser.skipChildren();
+                } else if (enter(frame.depth + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // the parser is at the first token of a value that matches the path until the segment: true if it is a match
+        private boolean enter(int depth) throws IOException {
+            if (depth == segments.size()) {
+                match = mapper.readValue(parser, Object.class);
+                return true;
+            }
+            final Segment segment = segments.get(depth);
+            final JsonToken token = parser.currentToken();
+            if (token == JsonToken.START_OBJECT && segment.index < 0) {
+                stack.push(new Frame(depth, true, segment.name != null && depth == segments.size() - 1));
+            } else if (token == JsonToken.START_ARRAY && segment.name == null) {
+                stack.push(new Frame(depth, false, false));
+            } else {
+                parser.skipChildren();
+            }
+            return false;
+        }
+    }
+
+    private static class Frame {
+        final int depth;
+        final boolean object;
+        // a missing leaf member is null
+        final boolean nullIfMissing;
+        boolean found;
+        int index;
+
+        Frame(int depth, boolean object, boolean nullIfMissing) {
+            this.depth = depth;
+            this.object = object;
+            this.nullIfMissing = nullIfMissing;
+        }
+    }
+}
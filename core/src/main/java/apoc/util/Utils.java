@@ -1,5 +1,6 @@
 package apoc.util;
 
+import apoc.Pools;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.TransactionTerminatedException;
@@ -20,6 +21,9 @@ public class Utils {
     @Context
     public TerminationGuard terminationGuard;
 
+    @Context
+    public Pools pools;
+
     @UserFunction
     @Description("apoc.util.sha1([values]) | computes the sha1 of the concatenation of all string values of the list")
     public String sha1(@Name("values") List<Object> values) {
@@ -102,6 +106,6 @@ public class Utils {
     public byte[] compress(@Name("data") String data, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) throws Exception {
 
         CompressionConfig conf = new CompressionConfig(config);
-        return CompressionAlgo.valueOf(conf.getCompressionAlgo()).compress(data, conf.getCharset());
+        return CompressionAlgo.valueOf(conf.getCompressionAlgo()).compress(data, conf, pools.getDefaultExecutorService());
     }
 }
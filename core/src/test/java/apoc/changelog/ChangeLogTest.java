@@ -0,0 +1,108 @@
+package apoc.changelog;
+
+import apoc.ApocSettings;
+import apoc.export.json.ExportJson;
+import apoc.util.JsonUtil;
+import apoc.util.TestUtil;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.test.rule.DbmsRule;
+import org.neo4j.test.rule.ImpermanentDbmsRule;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static apoc.util.MapUtil.map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ChangeLogTest {
+
+    private static File directory = new File("target/import");
+    private static File changeLogDirectory = new File("target/changelog");
+
+    static { //noinspection ResultOfMethodCallIgnored
+        directory.mkdirs();
+        FileUtils.deleteQuietly(changeLogDirectory);
+    }
+
+    @Rule
+    public DbmsRule db = new ImpermanentDbmsRule()
+            .withSetting(GraphDatabaseSettings.load_csv_file_url_root, directory.toPath().toAbsolutePath())
+            .withSetting(ApocSettings.apoc_export_file_enabled, true)
+            .withSetting(ApocSettings.apoc_changelog_enabled, true)
+            .withSetting(ApocSettings.apoc_changelog_directory, changeLogDirectory.getAbsolutePath());
+
+    @Before
+    public void setUp() throws Exception {
+        TestUtil.registerProcedure(db, ChangeLog.class, ExportJson.class);
+    }
+
+    @Test
+    public void testChangesAreRecordedWithSequence() {
+        long start = TestUtil.singleResultFirstColumn(db, "RETURN apoc.changelog.sequence()");
+        db.executeTransactionally("CREATE (:Person {name: 'Sam'})-[:KNOWS]->(:Person {name: 'Anna'})");
+        db.executeTransactionally("MATCH (p:Person {name: 'Sam'}) SET p.age = 42");
+
+        TestUtil.testResult(db, "CALL apoc.changelog.changes($since)", map("since", start), r -> {
+            List<Map<String, Object>> changes = r.stream().collect(Collectors.toList());
+            assertEquals(4, changes.size());
+            assertEquals(List.of(start + 1, start + 1, start + 1, start + 2),
+                    changes.stream().map(row -> row.get("sequence")).collect(Collectors.toList()));
+            assertEquals(List.of("CREATED", "CREATED", "CREATED", "UPDATED"),
+                    changes.stream().map(row -> row.get("operation")).collect(Collectors.toList()));
+            assertEquals(List.of("NODE", "NODE", "RELATIONSHIP", "NODE"),
+                    changes.stream().map(row -> row.get("entityType")).collect(Collectors.toList()));
+        });
+        assertEquals(start + 2, (long) TestUtil.singleResultFirstColumn(db, "RETURN apoc.changelog.sequence()"));
+    }
+
+    @Test
+    public void testChangesStopAtTheLimit() {
+        long start = TestUtil.singleResultFirstColumn(db, "RETURN apoc.changelog.sequence()");
+        for (int i = 0; i < 10; i++) {
+            db.executeTransactionally("CREATE (:Item {i: $i})", map("i", i));
+        }
+
+        TestUtil.testResult(db, "CALL apoc.changelog.changes($since, {limit: 3})", map("since", start), r ->
+                assertEquals(List.of(start + 1, start + 2, start + 3), r.stream().map(row -> row.get("sequence")).collect(Collectors.toList())));
+        TestUtil.testCall(db, "CALL apoc.changelog.changes($since, {limit: 1})", map("since", start + 9), r ->
+                assertEquals(start + 10, r.get("sequence")));
+    }
+
+    @Test
+    public void testExportJsonDelta() {
+        db.executeTransactionally("CREATE (:Person {name: 'Sam'})-[:KNOWS]->(:Person {name: 'Anna'}), (:Person {name: 'Grace'})");
+        long since = TestUtil.singleResultFirstColumn(db, "RETURN apoc.changelog.sequence()");
+        long annaId = TestUtil.singleResultFirstColumn(db, "MATCH (p:Person {name: 'Anna'}) RETURN id(p)");
+        long knowsId = TestUtil.singleResultFirstColumn(db, "MATCH ()-[r:KNOWS]->() RETURN id(r)");
+
+        db.executeTransactionally("MATCH (p:Person {name: 'Sam'}) SET p.age = 42");
+        db.executeTransactionally("MATCH (p:Person {name: 'Anna'}) DETACH DELETE p");
+        db.executeTransactionally("CREATE (:Person {name: 'Tmp'})");
+        db.executeTransactionally("MATCH (p:Person {name: 'Tmp'}) DELETE p");
+
+        String filename = "delta.json";
+        TestUtil.testCall(db, "CALL apoc.export.json.delta($since, $file)", map("since", since, "file", filename), r -> {
+            assertEquals(1L, r.get("nodes"));
+            assertEquals(0L, r.get("relationships"));
+            assertTrue(r.get("source").toString().contains("deleted nodes(1), deleted rels(1)"));
+        });
+
+        List<Map<String, Object>> lines = Stream.of(TestUtil.readFileToString(new File(directory, filename)).split("\n"))
+                .map(line -> (Map<String, Object>) JsonUtil.parse(line, null, Map.class))
+                .collect(Collectors.toList());
+        assertEquals(3, lines.size());
+        Map<String, Object> sam = (Map<String, Object>) lines.get(0).get("properties");
+        assertEquals("Sam", sam.get("name"));
+        assertEquals(42L, ((Number) sam.get("age")).longValue());
+        assertEquals(map("type", "node", "id", String.valueOf(annaId), "deleted", true), lines.get(1));
+        assertEquals(map("type", "relationship", "id", String.valueOf(knowsId), "deleted", true), lines.get(2));
+    }
+}
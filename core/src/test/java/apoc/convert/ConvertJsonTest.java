@@ -97,6 +97,27 @@ public class ConvertJsonTest {
         }
     }
     
+    @Test
+    public void testJsonPathRowWise() {
+        // the compiled path and the configurations are shared by the rows, whatever the order of the options
+        testResult(db, "UNWIND range(0, 99) AS i " +
+                        "RETURN apoc.json.path($json, '$.columns.row.poi') AS poi, " +
+                        "apoc.json.path($json, '$..columns', CASE i % 2 WHEN 0 THEN ['AS_PATH_LIST', 'SUPPRESS_EXCEPTIONS'] ELSE ['SUPPRESS_EXCEPTIONS', 'AS_PATH_LIST'] END) AS paths, " +
+                        "apoc.convert.fromJsonMap($json, '$.columns.col2') AS col2",
+                Map.of("json", JSON),
+                (result) -> {
+                    int rows = 0;
+                    while (result.hasNext()) {
+                        Map<String, Object> row = result.next();
+                        assertEquals(772L, row.get("poi"));
+                        assertEquals(EXPECTED_AS_PATH_LIST, row.get("paths"));
+                        assertEquals(Map.of("_id", "772col2"), row.get("col2"));
+                        rows++;
+                    }
+                    assertEquals(100, rows);
+                });
+    }
+
     @Test
     public void testJsonPathWithMapFunctions() {
         // apoc.convert.getJsonPropertyMap and apoc.convert.fromJsonMap must fail with "ALWAYS_RETURN_LIST" because should return a Map.
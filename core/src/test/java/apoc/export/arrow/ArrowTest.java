@@ -334,6 +334,32 @@ public class ArrowTest {
         db.executeTransactionally("MATCH (n:ArrowNode) DELETE n");
     }
 
+    @Test
+    public void testFileSkipLimitParallelArrow() {
+        // given - when
+        db.executeTransactionally("UNWIND range(0, 10000 - 1) AS id CREATE (:ArrowNode{id:id})");
+
+        String file = db.executeTransactionally("CALL apoc.export.arrow.query('skip_limit_test.arrow', 'MATCH (n:ArrowNode) RETURN n.id AS id', {batchSize: 1000}) YIELD file ",
+                Map.of(),
+                this::extractFileName);
+
+        final String query = "CALL apoc.load.arrow($file, $config) YIELD value " +
+                "RETURN value.id AS id";
+        final List<Long> all = db.executeTransactionally(query, Map.of("file", file, "config", Map.of()),
+                result -> result.<Long>columnAs("id").stream().collect(Collectors.toList()));
+        assertEquals(10000, all.size());
+
+        // then
+        final Map<String, Object> config = Map.of("skip", 2500, "limit", 5000, "parallel", true, "prefetch", 3);
+        db.executeTransactionally(query, Map.of("file", file, "config", config), result -> {
+            final List<Long> actual = result.<Long>columnAs("id").stream().collect(Collectors.toList());
+            assertEquals(all.subList(2500, 7500), actual);
+            return null;
+        });
+
+        db.executeTransactionally("MATCH (n:ArrowNode) DELETE n");
+    }
+
     @Test
     public void testValidNonStorableQuery() {
         final List<byte[]> list = db.executeTransactionally("CALL apoc.export.arrow.stream.query($query) YIELD value AS byteArray ",
@@ -13,6 +13,7 @@ import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.QueryExecutionException;
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.graphdb.Result;
+import org.neo4j.internal.helpers.collection.Iterators;
 import org.neo4j.kernel.impl.core.NodeEntity;
 import org.neo4j.kernel.impl.core.RelationshipEntity;
 import org.neo4j.test.rule.DbmsRule;
@@ -611,6 +612,118 @@ public class ImportCsvTest {
         assertThat(pairs, Matchers.contains("Jane 26 <6> John 25", "John 25 <3> Jane 26"));
     }
 
+    @Test
+    public void testImportManyBatches() throws IOException {
+        importManyBatches(map("delimiter", '|', "batchSize", 100));
+    }
+
+    @Test
+    public void testImportWithSpilledIdMapping() throws IOException {
+        importManyBatches(map("delimiter", '|', "batchSize", 100, "idMappingMemory", 64 * 1024));
+    }
+
+    @Test
+    public void testImportWithParallelRelationships() throws IOException {
+        importManyBatches(map("delimiter", '|', "batchSize", 100, "parallel", true));
+    }
+
+    private void importManyBatches(Map<String, Object> config) throws IOException {
+        final int count = 10_000;
+        final StringBuilder nodes = new StringBuilder(":ID|name:STRING|value:INT|:LABEL\n");
+        final StringBuilder rels = new StringBuilder(":START_ID|:END_ID|weight:FLOAT\n");
+        for (int i = 0; i < count; i++) {
+            nodes.append(manyBatchesId(i)).append("|name").append(i).append("|").append(i).append("|").append(i % 2 == 0 ? "Even" : "Odd").append("\n");
+            rels.append(manyBatchesId(i)).append("|").append(manyBatchesId((i + 1) % count)).append("|").append(i).append(".5\n");
+        }
+        CsvTestUtil.saveCsvFile("many-nodes", nodes.toString());
+        CsvTestUtil.saveCsvFile("many-rels", rels.toString());
+
+        TestUtil.testCall(
+                db,
+                "CALL apoc.import.csv([{fileName: $nodeFile, labels: ['Item']}], [{fileName: $relFile, type: 'NEXT'}], $config)",
+                map(
+                        "nodeFile", "file:/many-nodes.csv",
+                        "relFile", "file:/many-rels.csv",
+                        "config", config
+                ),
+                (r) -> {
+                    assertEquals((long) count, r.get("nodes"));
+                    assertEquals((long) count, r.get("relationships"));
+                }
+        );
+        assertEquals((long) count / 2, (long) TestUtil.<Long>singleResultFirstColumn(db, "MATCH (n:Item:Even) RETURN count(n)"));
+        assertEquals((long) count, (long) TestUtil.<Long>singleResultFirstColumn(db,
+                "MATCH (a:Item)-[r:NEXT]->(b:Item) WHERE b.value = (a.value + 1) % $count AND r.weight = a.value + 0.5 AND a.name = 'name' + a.value RETURN count(r)",
+                map("count", count)));
+    }
+
+    // both numeric and string ids
+    private static String manyBatchesId(int i) {
+        return i % 2 == 0 ? String.valueOf(i) : "n" + i;
+    }
+
+    @Test
+    public void testImportGlobPatternsWithWorkers() throws IOException {
+        CsvTestUtil.saveCsvFile("glob-nodes-1", ":ID|name:STRING\na|Alice\nb|Bob\n");
+        CsvTestUtil.saveCsvFile("glob-nodes-2", ":ID|name:STRING\nc|Carol\n");
+        CsvTestUtil.saveCsvFile("glob-rels-1", ":START_ID|:END_ID\na|b\n");
+        CsvTestUtil.saveCsvFile("glob-rels-2", ":START_ID|:END_ID\nb|c\nc|a\n");
+        CsvTestUtil.saveCsvFile("glob-rels-3", ":START_ID|:END_ID\na|missing\n");
+
+        TestUtil.testResult(
+                db,
+                "CALL apoc.import.csv([{fileName: 'file:/glob-nodes-*.csv', labels: ['Person']}], [{fileName: 'file:/glob-rels-*.csv', type: 'KNOWS'}], $config)",
+                map("config", map("delimiter", '|', "workers", 2, "reportFiles", true)),
+                (r) -> {
+                    final List<Map<String, Object>> rows = Iterators.asList(r);
+                    assertEquals(6, rows.size());
+                    assertEquals(asList("file:/glob-nodes-1.csv", "file:/glob-nodes-2.csv", "file:/glob-rels-1.csv", "file:/glob-rels-2.csv", "file:/glob-rels-3.csv"),
+                            rows.subList(0, 5).stream().map(row -> row.get("file")).collect(Collectors.toList()));
+                    assertEquals(asList(2L, 1L, 0L, 0L, 0L), rows.stream().limit(5).map(row -> row.get("nodes")).collect(Collectors.toList()));
+                    assertEquals(asList(0L, 0L, 1L, 2L, 0L), rows.stream().limit(5).map(row -> row.get("relationships")).collect(Collectors.toList()));
+                    assertEquals(asList(true, true, true, true, false), rows.stream().limit(5).map(row -> row.get("done")).collect(Collectors.toList()));
+                    assertThat((String) rows.get(4).get("data"), Matchers.containsString("missing not found"));
+
+                    final Map<String, Object> total = rows.get(5);
+                    assertEquals("progress.csv", total.get("file"));
+                    assertEquals(3L, total.get("nodes"));
+                    assertEquals(3L, total.get("relationships"));
+                    assertEquals(7L, total.get("rows"));
+                }
+        );
+        assertEquals("Alice Bob, Bob Carol, Carol Alice", TestUtil.singleResultFirstColumn(db,
+                "MATCH (p1:Person)-[:KNOWS]->(p2:Person) WITH p1.name + ' ' + p2.name AS pair ORDER BY pair RETURN apoc.text.join(collect(pair), ', ')"));
+    }
+
+    @Test
+    public void testImportExistingFileWithGlobCharactersInTheName() throws IOException {
+        CsvTestUtil.saveCsvFile("literal-nodes[1]", ":ID|name:STRING\na|Alice\n");
+        CsvTestUtil.saveCsvFile("literal-nodes-2", ":ID|name:STRING\nb|Bob\n");
+
+        TestUtil.testCall(
+                db,
+                "CALL apoc.import.csv([{fileName: 'file:/literal-nodes[1].csv', labels: ['Person']}], [], $config)",
+                map("config", map("delimiter", '|')),
+                (r) -> assertEquals(1L, r.get("nodes"))
+        );
+        assertEquals(List.of("Alice"), TestUtil.firstColumn(db, "MATCH (p:Person) RETURN p.name"));
+    }
+
+    @Test
+    public void testDuplicateNodesInConcurrentFilesOfAnIdSpace() throws IOException {
+        CsvTestUtil.saveCsvFile("dup-nodes-1", ":ID|name:STRING\na|Alice\nb|Bob\n");
+        CsvTestUtil.saveCsvFile("dup-nodes-2", ":ID|name:STRING\nb|Other Bob\nc|Carol\n");
+
+        TestUtil.testCall(
+                db,
+                "CALL apoc.import.csv([{fileName: 'file:/dup-nodes-*.csv', labels: ['Person']}], [], $config)",
+                map("config", map("delimiter", '|', "workers", 2, "ignoreDuplicateNodes", true)),
+                (r) -> assertEquals(3L, r.get("nodes"))
+        );
+        // either file can map 'b' first, the other node is discarded
+        assertEquals(3L, (long) TestUtil.<Long>singleResultFirstColumn(db, "MATCH (p:Person) RETURN count(p)"));
+    }
+
     @Test(expected = QueryExecutionException.class)
     public void testNoDuplicateEndpointsCreated() {
         // some of the endpoints of the edges in 'knows.csv' do not exist,
@@ -621,6 +734,103 @@ public class ImportCsvTest {
                     "config", map("stringIds", false)));
     }
 
+    @Test
+    public void testRelationshipsAreCommittedPerBatch() throws IOException {
+        CsvTestUtil.saveCsvFile("knows-missing-start", ":START_ID(Person),:END_ID(Person)\n" +
+                "1,2\n" +
+                "2,1\n" +
+                "3,1\n");
+        CsvTestUtil.saveCsvFile("persons-with-idspace", ":ID(Person),name:STRING\n" +
+                "1,John\n" +
+                "2,Jane\n");
+        try {
+            db.executeTransactionally("CALL apoc.import.csv([{fileName: $nodeFile, labels: ['Person']}], [{fileName: $relFile, type: 'KNOWS'}], $config)",
+                    map("nodeFile", "file:/persons-with-idspace.csv",
+                        "relFile", "file:/knows-missing-start.csv",
+                        "config", map("batchSize", 1)));
+            Assert.fail("the start node 3 doesn't exist");
+        } catch (QueryExecutionException e) {
+            assertThat(e.getMessage(), Matchers.containsString("Node for id space Person and id 3 not found"));
+        }
+        // the import is not atomic: the batches before the failed one are kept
+        assertEquals(2L, (long) TestUtil.<Long>singleResultFirstColumn(db, "MATCH (:Person) RETURN count(*)"));
+        assertEquals(2L, (long) TestUtil.<Long>singleResultFirstColumn(db, "MATCH (:Person)-[:KNOWS]->(:Person) RETURN count(*)"));
+    }
+
+    @Test
+    public void testParallelRelationshipsReportTheFailedBatches() throws IOException {
+        CsvTestUtil.saveCsvFile("persons-parallel", ":ID,name:STRING\n" +
+                "1,John\n" +
+                "2,Jane\n" +
+                "3,Jack\n");
+        // a type with a null byte is not a valid token name, so the relationship fails when it's written
+        CsvTestUtil.saveCsvFile("knows-invalid-type", ":START_ID,:END_ID,:TYPE\n" +
+                "1,2,KNOWS\n" +
+                "2,3,KNO\u0000WS\n" +
+                "3,1,KNOWS\n");
+        try {
+            db.executeTransactionally("CALL apoc.import.csv([{fileName: $nodeFile, labels: ['Person']}], [{fileName: $relFile, type: 'KNOWS'}], $config)",
+                    map("nodeFile", "file:/persons-parallel.csv",
+                        "relFile", "file:/knows-invalid-type.csv",
+                        "config", map("batchSize", 1, "parallel", true)));
+            Assert.fail("the relationship on line 2 has an invalid type");
+        } catch (QueryExecutionException e) {
+            assertThat(e.getMessage(), Matchers.containsString("1 relationship batch(es) with 1 row(s) failed"));
+            assertThat(e.getMessage(), Matchers.containsString("Batch of 1 relationship(s) between lines 2 and 2 failed"));
+        }
+        // the failed batch does not stop the others
+        assertEquals(2L, (long) TestUtil.<Long>singleResultFirstColumn(db, "MATCH (:Person)-[:KNOWS]->(:Person) RETURN count(*)"));
+    }
+
+    @Test
+    public void testParallelRelationshipsWithMissingEndpoint() throws IOException {
+        CsvTestUtil.saveCsvFile("persons-parallel", ":ID,name:STRING\n" +
+                "1,John\n" +
+                "2,Jane\n");
+        CsvTestUtil.saveCsvFile("knows-parallel-missing-end", ":START_ID,:END_ID\n" +
+                "1,2\n" +
+                "2,4\n");
+        try {
+            db.executeTransactionally("CALL apoc.import.csv([{fileName: $nodeFile, labels: ['Person']}], [{fileName: $relFile, type: 'KNOWS'}], $config)",
+                    map("nodeFile", "file:/persons-parallel.csv",
+                        "relFile", "file:/knows-parallel-missing-end.csv",
+                        "config", map("batchSize", 1, "parallel", true)));
+            Assert.fail("the end node 4 doesn't exist");
+        } catch (QueryExecutionException e) {
+            assertThat(e.getMessage(), Matchers.containsString("Node for id space __CSV_DEFAULT_IDSPACE and id 4 not found"));
+        }
+        // the endpoints are resolved before the batches are written, so the pending relationships are not created
+        assertEquals(0L, (long) TestUtil.<Long>singleResultFirstColumn(db, "MATCH (:Person)-[:KNOWS]->(:Person) RETURN count(*)"));
+    }
+
+    @Test
+    public void testParallelRelationshipsOfSeveralFilesWithWorkers() throws IOException {
+        final StringBuilder persons = new StringBuilder(":ID,name:STRING\n");
+        final StringBuilder knows = new StringBuilder(":START_ID,:END_ID\n");
+        final StringBuilder likes = new StringBuilder(":START_ID,:END_ID\n");
+        for (int i = 0; i < 100; i++) {
+            persons.append(i).append(",Person").append(i).append('\n');
+            knows.append(i).append(',').append((i + 1) % 100).append('\n');
+            likes.append((i + 1) % 100).append(',').append(i).append('\n');
+        }
+        CsvTestUtil.saveCsvFile("persons-parallel-workers", persons.toString());
+        CsvTestUtil.saveCsvFile("knows-parallel-workers", knows.toString());
+        CsvTestUtil.saveCsvFile("likes-parallel-workers", likes.toString());
+
+        // the relationship files share their nodes, so they are loaded one by one
+        TestUtil.testCall(db, "CALL apoc.import.csv([{fileName: $nodeFile, labels: ['Person']}], [{fileName: $knowsFile, type: 'KNOWS'}, {fileName: $likesFile, type: 'LIKES'}], $config)",
+                map("nodeFile", "file:/persons-parallel-workers.csv",
+                    "knowsFile", "file:/knows-parallel-workers.csv",
+                    "likesFile", "file:/likes-parallel-workers.csv",
+                    "config", map("batchSize", 5, "parallel", true, "workers", 2)),
+                r -> {
+                    assertEquals(100L, r.get("nodes"));
+                    assertEquals(200L, r.get("relationships"));
+                });
+        assertEquals(100L, (long) TestUtil.<Long>singleResultFirstColumn(db, "MATCH (:Person)-[:KNOWS]->(:Person) RETURN count(*)"));
+        assertEquals(100L, (long) TestUtil.<Long>singleResultFirstColumn(db, "MATCH (:Person)-[:LIKES]->(:Person) RETURN count(*)"));
+    }
+
     @Test(expected = QueryExecutionException.class)
     public void testIgnoreDuplicateNodes() {
         db.executeTransactionally(
@@ -478,6 +478,15 @@ public class ExportCypherTest {
         assertEquals(EXPECTED_QUERY_CYPHER_SHELL_OPTIMIZED_UNWIND, readFile(fileName));
     }
 
+    @Test
+    public void testExportQueryCypherShellParallelWithUnwindBatchSizeWithBatchSizeOptimized() throws Exception {
+        String fileName = "allPlainParallelOptimized.cypher";
+        TestUtil.testCall(db, "CALL apoc.export.cypher.all($file,{format:'cypher-shell', useOptimizations: { type: 'unwind_batch', unwindBatchSize: 2}, batchSize: 2, parallel: true})",
+                map("file", fileName),
+                (r) -> assertResultsOptimized(fileName, r));
+        assertEquals(EXPECTED_QUERY_CYPHER_SHELL_OPTIMIZED_UNWIND, readFile(fileName));
+    }
+
     @Test
     public void testExportQueryCypherShellWithUnwindBatchSizeWithBatchSizeOddDataset() throws Exception {
         String fileName = "allPlainOdd.cypher";
@@ -16,6 +16,7 @@ import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.QueryExecutionException;
 import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
 import org.neo4j.test.rule.DbmsRule;
 import org.neo4j.test.rule.ImpermanentDbmsRule;
 import org.xmlunit.builder.DiffBuilder;
@@ -28,9 +29,12 @@ import javax.xml.namespace.QName;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
+import java.io.StringReader;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static apoc.ApocConfig.APOC_EXPORT_FILE_ENABLED;
 import static apoc.ApocConfig.APOC_IMPORT_FILE_ENABLED;
@@ -212,6 +216,79 @@ public class ExportGraphMLTest {
                 });
     }
 
+    @Test
+    public void testImportGraphMLParallel() throws Exception {
+        db.executeTransactionally("MATCH (n) DETACH DELETE n");
+
+        StringBuilder graphml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n" +
+                "  <key id=\"name\" for=\"node\" attr.name=\"name\" attr.type=\"string\"/>\n" +
+                "  <key id=\"weight\" for=\"edge\" attr.name=\"weight\" attr.type=\"long\"/>\n" +
+                "  <graph id=\"G\" edgedefault=\"directed\">\n");
+        for (int i = 0; i < 100; i++) {
+            graphml.append(String.format("    <node id=\"n%d\"><data key=\"name\">node%d</data></node>%n", i, i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            graphml.append(String.format("    <edge source=\"n%d\" target=\"n%d\" label=\"LINK\"><data key=\"weight\">%d</data></edge>%n", i % 100, (i * 7) % 100, i));
+        }
+        graphml.append("  </graph>\n</graphml>");
+        File output = new File(directory, "importParallel.graphml");
+        FileWriter fw = new FileWriter(output);
+        fw.write(graphml.toString()); fw.close();
+
+        TestUtil.testCall(db, "CALL apoc.import.graphml($file,{parallel: true, batchSize: 50})", map("file", output.getAbsolutePath()),
+                (r) -> {
+                    assertEquals(100L, r.get("nodes"));
+                    assertEquals(1000L, r.get("relationships"));
+                    assertEquals(1100L, r.get("properties"));
+                });
+        TestUtil.testCall(db, "MATCH (a)-[r:LINK]->(b) RETURN count(r) AS count, sum(r.weight) AS weight, " +
+                        "sum(CASE WHEN toInteger(substring(a.name, 4)) = r.weight % 100 AND toInteger(substring(b.name, 4)) = (r.weight * 7) % 100 THEN 1 ELSE 0 END) AS matching",
+                (r) -> {
+                    assertEquals(1000L, r.get("count"));
+                    assertEquals(499500L, r.get("weight"));
+                    assertEquals(1000L, r.get("matching"));
+                });
+    }
+
+    @Test
+    public void testImportGraphMLConcurrentWritersWithSharedEndpoints() throws Exception {
+        db.executeTransactionally("MATCH (n) DETACH DELETE n");
+
+        StringBuilder graphml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n" +
+                "  <key id=\"weight\" for=\"edge\" attr.name=\"weight\" attr.type=\"long\"/>\n" +
+                "  <graph id=\"G\" edgedefault=\"directed\">\n");
+        for (int i = 0; i < 200; i++) {
+            graphml.append(String.format("    <node id=\"n%d\"/>%n", i));
+        }
+        // every edge shares the hub n0 or crosses the id space, so any two batches overlap
+        for (int i = 0; i < 2000; i++) {
+            int source = i % 2 == 0 ? 0 : i % 200;
+            int target = i % 2 == 0 ? i % 200 : 199 - i % 200;
+            graphml.append(String.format("    <edge source=\"n%d\" target=\"n%d\" label=\"LINK\"><data key=\"weight\">%d</data></edge>%n", source, target, i));
+        }
+        graphml.append("  </graph>\n</graphml>");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (Transaction tx = db.beginTx()) {
+            long count = new XmlGraphMLReader(db, tx)
+                    .batchSize(25)
+                    .executor(executor, 4)
+                    .parseXML(new StringReader(graphml.toString()));
+            assertEquals(2200L, count);
+        } finally {
+            executor.shutdown();
+        }
+        TestUtil.testCall(db, "MATCH ()-[r:LINK]->() RETURN count(r) AS count, sum(r.weight) AS weight",
+                (r) -> {
+                    assertEquals(2000L, r.get("count"));
+                    assertEquals(1999000L, r.get("weight"));
+                });
+        TestUtil.testCall(db, "MATCH (n)-[r:LINK]->() WITH n, count(r) AS out RETURN max(out) AS hub",
+                (r) -> assertEquals(1000L, r.get("hub")));
+    }
+
     @Test
     public void testImportGraphMLWithEdgeWithoutDataKeys() throws Exception {
         db.executeTransactionally("MATCH (n) DETACH DELETE n");
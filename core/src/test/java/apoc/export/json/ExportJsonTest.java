@@ -50,6 +50,30 @@ public class ExportJsonTest {
         assertFileEquals(filename);
     }
 
+    @Test
+    public void testExportAllJsonParallel() {
+        db.executeTransactionally("UNWIND range(1, 100) AS id CREATE (:Parallel {id: id})-[:NEXT {id: id}]->(:Parallel {id: -id})");
+        TestUtil.testCall(db, "CALL apoc.export.json.all('all_sequential.json', null)", (r) -> {});
+        TestUtil.testCall(db, "CALL apoc.export.json.all('all_parallel.json', {parallel: true, batchSize: 7})",
+                (r) -> {
+                    assertEquals(203L, r.get("nodes"));
+                    assertEquals(101L, r.get("relationships"));
+                    assertEquals(311L, r.get("properties"));
+                });
+        assertEquals(TestUtil.readFileToString(new File(directory, "all_sequential.json")),
+                TestUtil.readFileToString(new File(directory, "all_parallel.json")));
+
+        TestUtil.testCall(db, "CALL apoc.export.json.all('all_parts.json', {parallel: true, batchSize: 100, separateFiles: true})",
+                (r) -> assertEquals(203L, r.get("nodes")));
+        StringBuilder parts = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            if (i > 0) parts.append("\n");
+            parts.append(TestUtil.readFileToString(new File(directory, String.format("all_parts.part-%05d.json", i))));
+        }
+        assertFalse(new File(directory, "all_parts.part-00005.json").exists());
+        assertEquals(TestUtil.readFileToString(new File(directory, "all_sequential.json")), parts.toString());
+    }
+
     @Test
     public void testExportAllJsonArray() {
         String filename = "all_array.json";
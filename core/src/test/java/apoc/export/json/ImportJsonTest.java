@@ -80,6 +80,95 @@ public class ImportJsonTest {
         assertionsAllJsonDbResult();
     }
 
+    @Test
+    public void shouldImportAllJsonWithDirectWrite() {
+        // no constraint is needed, the relationships are resolved by the id mapping
+        TestUtil.testCall(db, "CALL apoc.import.json($file, {directWrite: true, txBatchSize: 2})",
+                map("file", "all.json"),
+                (r) -> {
+                    Assert.assertEquals(3L, r.get("nodes"));
+                    Assert.assertEquals(1L, r.get("relationships"));
+                    Assert.assertEquals(11L, r.get("properties"));
+                    Assert.assertEquals(true, r.get("done"));
+                }
+        );
+
+        try (Transaction tx = db.beginTx()) {
+            final Map<String, Object> props = tx.execute("MATCH (n:User {name: 'Adam'})-[:KNOWS {since: 1993}]->(:User {name: 'Jim'}) RETURN n")
+                    .<Node>columnAs("n")
+                    .next()
+                    .getAllProperties();
+            Assert.assertEquals(8, props.size());
+            Assert.assertFalse(props.containsKey("neo4jImportId"));
+            Assert.assertEquals(42L, props.get("age"));
+            Assert.assertArrayEquals(new String[] {"Sam", "Anna", "Grace"}, (String[]) props.get("kids"));
+            Assert.assertEquals(13.1D, props.get("place.latitude"));
+        }
+    }
+
+    @Test
+    public void shouldImportAllNodesAndRelsWithDirectWrite() {
+        TestUtil.testCall(db, "CALL apoc.import.json($file, {directWrite: true})",
+                map("file", "multiLabels.json"), (r) -> {
+                    assertEquals(NODES_BIG_JSON, r.get("nodes"));
+                    assertEquals(RELS_BIG_JSON, r.get("relationships"));
+                });
+
+        assertEntities(NODES_BIG_JSON, RELS_BIG_JSON);
+    }
+
+    @Test
+    public void shouldImportWithDirectWriteAndSpilledIdMapping() {
+        TestUtil.testCall(db, "CALL apoc.import.json($file, {directWrite: true, idMappingMemory: 1})",
+                map("file", "multiLabels.json"), (r) -> {
+                    assertEquals(NODES_BIG_JSON, r.get("nodes"));
+                    assertEquals(RELS_BIG_JSON, r.get("relationships"));
+                });
+
+        assertEntities(NODES_BIG_JSON, RELS_BIG_JSON);
+    }
+
+    @Test
+    public void shouldFailOnDuplicateIdsWithDirectWrite() {
+        final String json = "{\"type\":\"node\",\"id\":\"1\",\"labels\":[\"User\"],\"properties\":{\"name\":\"Adam\"}}\n" +
+                "{\"type\":\"node\",\"id\":\"2\",\"labels\":[\"User\"],\"properties\":{\"name\":\"Jim\"}}\n" +
+                "{\"type\":\"node\",\"id\":\"1\",\"labels\":[\"User\"],\"properties\":{\"name\":\"Sam\"}}\n";
+        try {
+            TestUtil.testCall(db, "CALL apoc.import.json($file, {directWrite: true, txBatchSize: 2, compression: 'NONE'})",
+                    map("file", json.getBytes()),
+                    (r) -> fail("Should fail due to the duplicate id"));
+        } catch (Exception e) {
+            assertRootMessage("Duplicate node with import id 1", e);
+        }
+
+        // the first batch is committed
+        assertEntities(2L, 0L);
+    }
+
+    @Test
+    public void shouldFailOnListsThatCannotBeStoredWithDirectWrite() {
+        final String nulls = "{\"type\":\"node\",\"id\":\"1\",\"labels\":[\"User\"],\"properties\":{\"tags\":[null,\"a\"]}}\n";
+        assertDirectWriteFails(nulls, "Cannot store the list of the property tags of the node with import id 1: it contains null values");
+
+        final String mixed = "{\"type\":\"node\",\"id\":\"2\",\"labels\":[\"User\"],\"properties\":{\"tags\":[\"a\",1]}}\n";
+        assertDirectWriteFails(mixed, "Cannot store the list of the property tags of the node with import id 2: it mixes values of type String and Long");
+
+        final String maps = "{\"type\":\"node\",\"id\":\"3\",\"labels\":[\"User\"],\"properties\":{\"tags\":[{\"a\":1}]}}\n";
+        assertDirectWriteFails(maps, "Cannot store the list of the property tags of the node with import id 3: it contains maps");
+
+        assertEntities(0L, 0L);
+    }
+
+    private void assertDirectWriteFails(String json, String expectedMsg) {
+        try {
+            TestUtil.testCall(db, "CALL apoc.import.json($file, {directWrite: true, compression: 'NONE'})",
+                    map("file", json.getBytes()),
+                    (r) -> fail("Should fail due to the list of the property"));
+        } catch (Exception e) {
+            assertRootMessage(expectedMsg, e);
+        }
+    }
+
     @Test
     public void shouldImportAllJsonWithPropertyMappings() throws Exception {
         db.executeTransactionally("CREATE CONSTRAINT ON (n:User) assert n.neo4jImportId IS UNIQUE");
@@ -0,0 +1,56 @@
+package apoc.export.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class LongIdMapTest {
+
+    @Test
+    public void testPutAndGetWithResize() {
+        LongIdMap map = new LongIdMap(4);
+        for (int i = 0; i < 100_000; i++) {
+            map.put(i * 7L - 50_000, i * 3L);
+        }
+        assertEquals(100_000, map.size());
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i * 3L, map.get(i * 7L - 50_000));
+        }
+        assertEquals(LongIdMap.NOT_FOUND, map.get(1L));
+        map.put(Long.MIN_VALUE, 1L);
+        map.put(-50_000L, 2L);
+        assertEquals(1L, map.get(Long.MIN_VALUE));
+        assertEquals(2L, map.get(-50_000L));
+        assertEquals(100_001, map.size());
+    }
+
+    @Test
+    public void testSortedKeys() {
+        LongIdMap map = new LongIdMap();
+        map.put(42L, 0L);
+        map.put(-1L, 1L);
+        map.put(7L, 2L);
+        assertArrayEquals(new long[]{-1L, 7L, 42L}, map.sortedKeys());
+    }
+
+    @Test
+    public void testFailsWhenFullInsteadOfLooping() {
+        LongIdMap map = new LongIdMap(4, 64);
+        for (int i = 0; i < 38; i++) {
+            map.put(i, i);
+        }
+        try {
+            map.put(38, 38);
+            fail("the map should be full");
+        } catch (IllegalStateException e) {
+            assertEquals("Cannot map more than 38 ids", e.getMessage());
+        }
+        // the existing keys can still be updated and looked up
+        map.put(0, 100);
+        assertEquals(100L, map.get(0));
+        assertEquals(LongIdMap.NOT_FOUND, map.get(38));
+        assertEquals(38, map.size());
+    }
+}
@@ -0,0 +1,100 @@
+package apoc.export.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpillableIdMapTest {
+
+    @Test
+    public void testSpillAndLookup() {
+        final int count = 200_000;
+        try (SpillableIdMap map = new SpillableIdMap(4 * 1024 * 1024)) {
+            for (int i = 0; i < count; i++) {
+                map.put(String.valueOf(i), i * 2L);
+                map.put("key-" + i, i * 2L + 1);
+            }
+            assertTrue(map.isSpilled());
+            assertEquals(count * 2L, map.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(i * 2L, map.get(String.valueOf(i)));
+                assertEquals(i * 2L + 1, map.get("key-" + i));
+            }
+            assertEquals(SpillableIdMap.NOT_FOUND, map.get(String.valueOf(count)));
+            assertEquals(SpillableIdMap.NOT_FOUND, map.get("key-" + count));
+            assertEquals(SpillableIdMap.NOT_FOUND, map.get("007"));
+            assertEquals(SpillableIdMap.NOT_FOUND, map.get(null));
+        }
+    }
+
+    @Test
+    public void testSpillOnEveryPutMergesTheRuns() {
+        final int count = 2_000;
+        try (SpillableIdMap map = new SpillableIdMap(1)) {
+            for (int i = 0; i < count; i++) {
+                map.put(String.valueOf(i), i * 2L);
+                map.put("key-" + i, i * 2L + 1);
+            }
+            assertTrue(map.isSpilled());
+            assertEquals(count * 2L, map.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(i * 2L, map.get(String.valueOf(i)));
+                assertEquals(i * 2L + 1, map.get("key-" + i));
+            }
+            assertEquals(SpillableIdMap.NOT_FOUND, map.get("key-" + count));
+        }
+    }
+
+    @Test
+    public void testMapsShareTheBudget() {
+        final SpillableIdMap.Budget budget = new SpillableIdMap.Budget(400 * 1024);
+        try (SpillableIdMap numbers = new SpillableIdMap(budget);
+             SpillableIdMap strings = new SpillableIdMap(budget)) {
+            for (int i = 0; i < 9_000; i++) {
+                numbers.put(String.valueOf(i), i);
+            }
+            assertFalse(numbers.isSpilled());
+            // the other map exceeds the budget, the largest one moves to disk
+            for (int i = 0; i < 3_000; i++) {
+                strings.put("key-" + i, i);
+            }
+            assertTrue(numbers.isSpilled());
+            assertFalse(strings.isSpilled());
+            for (int i = 0; i < 9_000; i++) {
+                assertEquals(i, numbers.get(String.valueOf(i)));
+            }
+            for (int i = 0; i < 3_000; i++) {
+                assertEquals(i, strings.get("key-" + i));
+            }
+        }
+    }
+
+    @Test
+    public void testNumericAndStringIdsDoNotCollide() {
+        try (SpillableIdMap map = new SpillableIdMap(Long.MAX_VALUE)) {
+            map.put("7", 1L);
+            map.put("007", 2L);
+            map.put("0", 3L);
+            map.put("-0", 4L);
+            map.put("9223372036854775807", 5L);
+            map.put("9223372036854775808", 6L);
+            map.put("", 7L);
+
+            assertFalse(map.isSpilled());
+            assertEquals(7, map.size());
+            assertEquals(1L, map.get("7"));
+            assertEquals(2L, map.get("007"));
+            assertEquals(3L, map.get("0"));
+            assertEquals(4L, map.get("-0"));
+            assertEquals(5L, map.get("9223372036854775807"));
+            assertEquals(6L, map.get("9223372036854775808"));
+            assertEquals(7L, map.get(""));
+        }
+        assertTrue(SpillableIdMap.isNumeric("-42"));
+        assertFalse(SpillableIdMap.isNumeric("-"));
+        assertFalse(SpillableIdMap.isNumeric("+42"));
+        assertFalse(SpillableIdMap.isNumeric("4.2"));
+    }
+}
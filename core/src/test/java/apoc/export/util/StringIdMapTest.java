@@ -0,0 +1,63 @@
+package apoc.export.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class StringIdMapTest {
+
+    @Test
+    public void testPutAndGetWithResize() {
+        StringIdMap map = new StringIdMap(4);
+        for (int i = 0; i < 100_000; i++) {
+            map.put("id-" + i, i * 3L);
+        }
+        assertEquals(100_000, map.size());
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i * 3L, map.get("id-" + i));
+        }
+        assertEquals(StringIdMap.NOT_FOUND, map.get("id-100000"));
+        assertEquals(StringIdMap.NOT_FOUND, map.get("id-1 "));
+    }
+
+    @Test
+    public void testOverwriteAndSpecialKeys() {
+        StringIdMap map = new StringIdMap();
+        map.put("", 1L);
+        map.put("Aa", 2L);
+        map.put("BB", 3L); // same String.hashCode of "Aa"
+        map.put("Aa", 4L);
+        String longKey = "x".repeat(70_000);
+        map.put(longKey, 5L);
+        String pageFiller = "y".repeat((1 << 20) - 10);
+        map.put(pageFiller, 6L);
+
+        assertEquals(5, map.size());
+        assertEquals(1L, map.get(""));
+        assertEquals(4L, map.get("Aa"));
+        assertEquals(3L, map.get("BB"));
+        assertEquals(5L, map.get(longKey));
+        assertEquals(6L, map.get(pageFiller));
+        assertEquals(StringIdMap.NOT_FOUND, map.get(longKey.substring(1)));
+    }
+
+    @Test
+    public void testFailsWhenFullInsteadOfLooping() {
+        StringIdMap map = new StringIdMap(4, 64);
+        for (int i = 0; i < 38; i++) {
+            map.put("id-" + i, i);
+        }
+        try {
+            map.put("id-38", 38);
+            fail("the map should be full");
+        } catch (IllegalStateException e) {
+            assertEquals("Cannot map more than 38 ids", e.getMessage());
+        }
+        // the existing keys can still be updated and looked up
+        map.put("id-0", 100);
+        assertEquals(100L, map.get("id-0"));
+        assertEquals(StringIdMap.NOT_FOUND, map.get("id-38"));
+        assertEquals(38, map.size());
+    }
+}
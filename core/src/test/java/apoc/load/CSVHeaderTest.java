@@ -0,0 +1,70 @@
+package apoc.load;
+
+import apoc.load.util.Results;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static apoc.util.MapUtil.map;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CSVHeaderTest {
+
+    private static final EnumSet<Results> ALL = EnumSet.allOf(Results.class);
+
+    private static Map<String, Mapping> mappings(Map<String, Object> config) {
+        Map<String, Mapping> mappings = new HashMap<>();
+        config.forEach((name, mapping) -> mappings.put(name, new Mapping(name, (Map<String, Object>) mapping, ',', false)));
+        return mappings;
+    }
+
+    @Test
+    public void testMappingNullValuesAndArraySep() {
+        Map<String, Mapping> mappings = mappings(map(
+                "age", map("type", "int", "name", "years"),
+                "kids", map("type", "int", "array", true, "arraySep", ":"),
+                "pass", map("ignore", true)));
+        CSVHeader header = new CSVHeader(new String[]{"name", "age", "kids", "pass"}, true, mappings, List.of("na"));
+
+        CSVResult row = new CSVResult(header, new String[]{"Michael", "41", "8:11:18", "secret"}, 0, ALL);
+        assertEquals(map("name", "Michael", "years", 41L, "kids", asList(8L, 11L, 18L)), row.map);
+        assertEquals(map("name", "Michael", "years", "41", "kids", "8:11:18"), row.stringMap);
+        assertEquals(asList("Michael", 41L, asList(8L, 11L, 18L)), row.list);
+        assertEquals(asList("Michael", "41", "8:11:18"), row.strings);
+
+        // the same header is shared by the rows of the file
+        CSVResult nulls = new CSVResult(header, new String[]{"na", "na", "1", "na"}, 1, ALL);
+        assertNull(nulls.map.get("name"));
+        assertNull(nulls.map.get("years"));
+        assertTrue(nulls.map.containsKey("years"));
+        assertEquals(asList(null, null, asList(1L)), nulls.list);
+        assertEquals(asList(null, null, "1"), nulls.strings);
+    }
+
+    @Test
+    public void testConversionErrorsAreRaisedWhenTheRowIsBuilt() {
+        Map<String, Mapping> mappings = mappings(map("born", map("type", "date")));
+        CSVHeader header = new CSVHeader(new String[]{"name", "born"}, false, mappings, List.of());
+
+        assertEquals(asList("Selma", "2010-01-02"), new CSVResult(header, new String[]{"Selma", "2010-01-02"}, 0, EnumSet.of(Results.strings)).strings);
+        try {
+            new CSVResult(header, new String[]{"Rana", "not a date"}, 1, ALL);
+            fail("the date should not be converted");
+        } catch (RuntimeException e) {
+            // expected
+        }
+        try {
+            new CSVResult(header, new String[]{"Selina"}, 2, EnumSet.of(Results.map));
+            fail("the row misses a column");
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
+}
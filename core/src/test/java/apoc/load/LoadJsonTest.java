@@ -165,6 +165,33 @@ public class LoadJsonTest {
                 (res) -> assertEquals(List.of(EXPECTED_AS_PATH_LIST), Iterators.asList(res.columnAs("value"))));
     }
     
+    @Test public void testLoadJsonStreamingPath() throws Exception {
+        File file = File.createTempFile("streaming", ".json");
+        StringBuilder json = new StringBuilder("{\"meta\": {\"count\": 1000, \"source\": {\"name\": \"test\"}}, \"items\": [");
+        for (int i = 0; i < 1000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\": ").append(i).append(", \"tags\": [\"a").append(i).append("\", \"b\"]");
+            if (i % 2 == 0) json.append(", \"name\": \"item").append(i).append("\"");
+            json.append("}");
+        }
+        json.append("]}\n{\"items\": [1, 2]}");
+        java.nio.file.Files.writeString(file.toPath(), json.toString());
+        try {
+            Map<String, Object> jsonPathEngine = map("pathOptions", List.of("DEFAULT_PATH_LEAF_TO_NULL", "SUPPRESS_EXCEPTIONS"));
+            for (String path : List.of("$.items[*]", "$.items[*].name", "$['items'][*].tags[0]", "$.items[3]", "items[*].id", "$.meta.*", "$.meta.source.name", "$.missing[*]", "$.items")) {
+                for (String procedure : List.of("apoc.load.json", "apoc.load.jsonArray")) {
+                    String query = "CALL " + procedure + "($url, $path, $config) YIELD value RETURN value";
+                    List<Object> expected = db.executeTransactionally(query, map("url", file.toURI().toString(), "path", path, "config", jsonPathEngine),
+                            r -> Iterators.asList(r.columnAs("value")));
+                    List<Object> streamed = db.executeTransactionally(query, map("url", file.toURI().toString(), "path", path, "config", map()),
+                            r -> Iterators.asList(r.columnAs("value")));
+                    assertEquals(procedure + " " + path, expected, streamed);
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
     @Test public void testLoadJsonArrayPath() throws Exception {
 		URL url = ClassLoader.getSystemResource("map.json");
 		testCall(db, "CALL apoc.load.jsonArray($url,'$.foo')",map("url",url.toString()), // 'file:map.json' YIELD value RETURN value
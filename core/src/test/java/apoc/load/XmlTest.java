@@ -155,6 +155,21 @@ public class XmlTest {
                 });
     }
 
+    @Test
+    public void testLoadXmlStreamingXpath() {
+        // the paths ending with '/.' are evaluated on the DOM, the others while the file is read
+        String query = "CALL apoc.load.xml($url, $path, {}, $simple) YIELD value RETURN collect(value) AS values";
+        for (String path : asList("/", "/catalog/book", "//author", "//book[2]", "/catalog/book[@id='bk105']/title", "/*/*[3]", "catalog//*[@id][1]", "//missing")) {
+            for (boolean simple : asList(false, true)) {
+                String url = TestUtil.getUrlFileName("xml/books.xml");
+                String domPath = path.equals("/") ? "/*/." : path + "/.";
+                Object streamed = singleResultFirstColumn(db, query, map("url", url, "path", path, "simple", simple));
+                Object dom = singleResultFirstColumn(db, query, map("url", url, "path", domPath, "simple", simple));
+                assertEquals(path, dom, streamed);
+            }
+        }
+    }
+
     @Test
     public void testLoadXmlXpathGenreFromBookTitle () {
         testCall(db, "CALL apoc.load.xml('" + TestUtil.getUrlFileName("xml/books.xml") + "', '/catalog/book[title=\"Maeve Ascendant\"]/genre') yield value as result",
@@ -0,0 +1,87 @@
+package apoc.meta;
+
+import apoc.ApocSettings;
+import apoc.util.TestUtil;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.test.rule.DbmsRule;
+import org.neo4j.test.rule.ImpermanentDbmsRule;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static apoc.util.MapUtil.map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetaSchemaCacheTest {
+
+    private static File cacheDirectory = new File("target/meta-cache");
+
+    static {
+        FileUtils.deleteQuietly(cacheDirectory);
+    }
+
+    @Rule
+    public DbmsRule db = new ImpermanentDbmsRule()
+            .withSetting(ApocSettings.apoc_meta_cache_enabled, true)
+            .withSetting(ApocSettings.apoc_meta_cache_directory, cacheDirectory.getAbsolutePath());
+
+    @Before
+    public void setUp() throws Exception {
+        TestUtil.registerProcedure(db, Meta.class);
+    }
+
+    private void testCachedSchema(Consumer<Map<String, Object>> consumer) {
+        TestUtil.testCall(db, "CALL apoc.meta.schema({cached:true})", row -> consumer.accept((Map<String, Object>) row.get("value")));
+    }
+
+    @Test
+    public void testCachedSchemaFollowsTheChanges() {
+        db.executeTransactionally("CREATE (:Person {name: 'Sam'})-[:KNOWS {since: 2010}]->(:Person {name: 'Anna'})");
+
+        // the first call builds the profile
+        testCachedSchema(schema -> {
+            Map<String, Object> person = (Map<String, Object>) schema.get("Person");
+            assertEquals(2L, person.get("count"));
+            assertEquals(map("name", map("type", "STRING", "indexed", false, "unique", false, "existence", false)), person.get("properties"));
+            Map<String, Object> knows = (Map<String, Object>) ((Map<String, Object>) person.get("relationships")).get("KNOWS");
+            assertEquals("out", knows.get("direction"));
+            assertEquals(1L, knows.get("count"));
+            assertEquals(map("since", map("type", "INTEGER", "array", false, "existence", false, "indexed", false)), knows.get("properties"));
+            assertEquals(map("type", "relationship", "count", 1L, "properties", knows.get("properties")), schema.get("KNOWS"));
+        });
+        assertTrue(new File(cacheDirectory, "neo4j.json").exists());
+
+        db.executeTransactionally("MATCH (p:Person {name: 'Anna'}) SET p:Employee, p.age = 42");
+        testCachedSchema(schema -> {
+            Map<String, Object> person = (Map<String, Object>) schema.get("Person");
+            assertEquals(List.of("age", "name"), List.copyOf(((Map<String, Object>) person.get("properties")).keySet()));
+            Map<String, Object> employee = (Map<String, Object>) schema.get("Employee");
+            assertEquals(1L, employee.get("count"));
+            Map<String, Object> knows = (Map<String, Object>) ((Map<String, Object>) employee.get("relationships")).get("KNOWS");
+            assertEquals("in", knows.get("direction"));
+            assertEquals(List.of("Person"), knows.get("labels"));
+        });
+
+        db.executeTransactionally("MATCH (p:Person {name: 'Anna'}) REMOVE p.age");
+        testCachedSchema(schema -> {
+            Map<String, Object> employee = (Map<String, Object>) schema.get("Employee");
+            assertEquals(List.of("name"), List.copyOf(((Map<String, Object>) employee.get("properties")).keySet()));
+        });
+
+        db.executeTransactionally("MATCH (p:Employee) DETACH DELETE p");
+        testCachedSchema(schema -> {
+            assertFalse(schema.containsKey("Employee"));
+            assertFalse(schema.containsKey("KNOWS"));
+            Map<String, Object> person = (Map<String, Object>) schema.get("Person");
+            assertEquals(1L, person.get("count"));
+            assertTrue(((Map<String, Object>) person.get("relationships")).isEmpty());
+        });
+    }
+}
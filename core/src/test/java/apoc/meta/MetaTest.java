@@ -19,6 +19,7 @@ import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.internal.helpers.collection.Iterables;
+import org.neo4j.internal.helpers.collection.Iterators;
 import org.neo4j.test.rule.DbmsRule;
 import org.neo4j.test.rule.ImpermanentDbmsRule;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
@@ -735,6 +736,61 @@ public class MetaTest {
                 });
     }
 
+    @Test
+    public void testMetaDataWithSampleExtrapolatesCounts() throws Exception {
+        db.executeTransactionally("UNWIND range(1, 2000) AS i CREATE (:Foo {id: i})-[:REL]->(:Bar)");
+        // about 10 nodes of each label are looked up by id, the relationship counts are extrapolated from them
+        TestUtil.testResult(db, "CALL apoc.meta.data({sample:10})",
+                (r) -> {
+                    Map<String, Map<String, Object>> fooMeta = r.stream()
+                            .filter(m -> "Foo".equals(m.get("label")))
+                            .collect(Collectors.toMap(m -> (String) m.get("property"), m -> m));
+                    assertEquals("INTEGER", fooMeta.get("id").get("type"));
+                    assertEquals("RELATIONSHIP", fooMeta.get("REL").get("type"));
+                    assertEquals(2000L, fooMeta.get("REL").get("count"));
+                });
+    }
+
+    @Test
+    public void testMetaWithManyLabelsIsDeterministic() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            db.executeTransactionally(String.format("UNWIND range(1, 10) AS i CREATE (:Label%d {id: i, name: 'name' + i})-[:REL {weight: i}]->(:Target)", i));
+        }
+        // each label is read in its own transaction, the results are merged in the order of the labels
+        List<Map<String, Object>> nodeTypeProperties = TestUtil.firstColumn(db, "CALL apoc.meta.nodeTypeProperties() YIELD nodeType, propertyName, propertyObservations " +
+                "RETURN {nodeType: nodeType, propertyName: propertyName, propertyObservations: propertyObservations}");
+        assertEquals(21, nodeTypeProperties.size());
+        assertEquals(nodeTypeProperties, TestUtil.firstColumn(db, "CALL apoc.meta.nodeTypeProperties() YIELD nodeType, propertyName, propertyObservations " +
+                "RETURN {nodeType: nodeType, propertyName: propertyName, propertyObservations: propertyObservations}"));
+        assertTrue(nodeTypeProperties.stream().filter(row -> row.get("propertyName") != null)
+                .allMatch(row -> row.get("propertyObservations").equals(10L)));
+
+        List<Map<String, Object>> metaData = TestUtil.firstColumn(db, "CALL apoc.meta.data() YIELD label, property, count RETURN {label: label, property: property, count: count}");
+        assertEquals(metaData, TestUtil.firstColumn(db, "CALL apoc.meta.data() YIELD label, property, count RETURN {label: label, property: property, count: count}"));
+        for (int i = 0; i < 10; i++) {
+            String label = "Label" + i;
+            assertTrue(metaData.contains(map("label", label, "property", "REL", "count", 10L)));
+            assertTrue(metaData.contains(map("label", "REL", "property", label, "count", 10L)));
+        }
+    }
+
+    @Test
+    public void testMetaDataWithSampleAfterDeletes() throws Exception {
+        // the ids below the surviving nodes are all deleted, so most of the random lookups miss
+        db.executeTransactionally("UNWIND range(1, 6000) AS i CREATE (:Tmp)");
+        db.executeTransactionally("UNWIND range(1, 2000) AS i CREATE (:Foo {id: i})-[:REL]->(:Bar)");
+        db.executeTransactionally("MATCH (n:Tmp) DELETE n");
+        final String query = "CALL apoc.meta.data({sample:10}) YIELD label, property, type, count " +
+                "WHERE label = 'Foo' RETURN property, type, count ORDER BY property";
+        final List<Map<String, Object>> first = db.executeTransactionally(query, Map.of(), Iterators::asList);
+        Map<String, Map<String, Object>> fooMeta = first.stream().collect(Collectors.toMap(m -> (String) m.get("property"), m -> m));
+        assertEquals("INTEGER", fooMeta.get("id").get("type"));
+        assertEquals("RELATIONSHIP", fooMeta.get("REL").get("type"));
+        assertEquals(2000L, fooMeta.get("REL").get("count"));
+        // the same nodes are sampled by the next call
+        assertEquals(first, db.executeTransactionally(query, Map.of(), Iterators::asList));
+    }
+
     @Test
     public void testMetaDataWithSample5() throws Exception {
         db.executeTransactionally("create index on :Person(name)");
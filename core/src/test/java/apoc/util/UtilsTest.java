@@ -1,5 +1,6 @@
 package apoc.util;
 
+import org.apache.commons.io.IOUtils;
 import org.hamcrest.Matchers;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
@@ -10,6 +11,9 @@ import org.neo4j.graphdb.Transaction;
 import org.neo4j.test.rule.DbmsRule;
 import org.neo4j.test.rule.ImpermanentDbmsRule;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashSet;
@@ -18,6 +22,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
 
 import static apoc.util.MapUtil.map;
 import static apoc.util.TestUtil.testCallEmpty;
@@ -124,6 +129,49 @@ public class UtilsTest {
         );
     }
 
+    @Test
+    public void testZstdCompressionWithLevel() throws Exception {
+        TestUtil.testCall(db,
+                "WITH apoc.util.compress($text, {compression: 'ZSTD', compressionLevel: 19}) AS compressed " +
+                        "RETURN apoc.util.decompress(compressed, {compression: 'ZSTD'}) AS value",
+                map("text", COMPLEX_STRING),
+                r -> assertEquals(COMPLEX_STRING, r.get("value"))
+        );
+    }
+
+    @Test
+    public void testParallelCompressionIsReadableAsSingleFile() throws Exception {
+        String text = COMPLEX_STRING.repeat(10000);
+        for (String compression : List.of("GZIP", "BZIP2", "ZSTD")) {
+            TestUtil.testCall(db,
+                    "WITH apoc.util.compress($text, {compression: $compression, parallelCompression: true, compressionBlockSize: 4096}) AS compressed " +
+                            "RETURN compressed, apoc.util.decompress(compressed, {compression: $compression}) AS value",
+                    map("text", text, "compression", compression),
+                    r -> {
+                        assertEquals(text, r.get("value"));
+                        if (compression.equals("GZIP")) {
+                            // the members are read as one stream by the standard gzip implementation too
+                            try (GZIPInputStream stream = new GZIPInputStream(new ByteArrayInputStream((byte[]) r.get("compressed")))) {
+                                assertEquals(text, IOUtils.toString(stream, StandardCharsets.UTF_8));
+                            } catch (IOException e) {
+                                throw new RuntimeException(e);
+                            }
+                        }
+                    }
+            );
+        }
+    }
+
+    @Test
+    public void testParallelCompressionNotSupported() {
+        try {
+            TestUtil.testCall(db, "RETURN apoc.util.compress('test', {compression: 'DEFLATE', parallelCompression: true}) AS value", r -> {});
+            fail("Should fail because DEFLATE cannot be compressed in parallel");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("Parallel compression is not supported by DEFLATE"));
+        }
+    }
+
     @Test(expected = RuntimeException.class)
     public void testWrongDecompressionFromPreviousDifferentCompressionAlgo() throws Exception {
         try {
@@ -0,0 +1,218 @@
+package apoc.export.parquet;
+
+import apoc.ApocConfig;
+import apoc.Extended;
+import apoc.export.util.ExportConfig;
+import apoc.export.util.NodesAndRelsSubGraph;
+import apoc.export.util.ProgressReporter;
+import apoc.result.ProgressInfo;
+import apoc.util.Util;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroup;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+import org.neo4j.cypher.export.DatabaseSubGraph;
+import org.neo4j.cypher.export.SubGraph;
+import org.neo4j.graphdb.Entity;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.helpers.collection.Iterables;
+import org.neo4j.logging.Log;
+import org.neo4j.procedure.Context;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static apoc.export.parquet.ParquetUtil.FIELD_ID;
+import static apoc.export.parquet.ParquetUtil.FIELD_LABELS;
+import static apoc.export.parquet.ParquetUtil.FIELD_SOURCE_ID;
+import static apoc.export.parquet.ParquetUtil.FIELD_TARGET_ID;
+import static apoc.export.parquet.ParquetUtil.FIELD_TYPE;
+import static apoc.util.FileUtils.getOutputStream;
+
+@Extended
+public class ExportParquet {
+
+    @Context
+    public Transaction tx;
+
+    @Context
+    public GraphDatabaseService db;
+
+    @Context
+    public ApocConfig apocConfig;
+
+    @Context
+    public Log log;
+
+    @Procedure
+    @Description("apoc.export.parquet.all(file,config) - exports whole database as parquet to the provided file")
+    public Stream<ProgressInfo> all(@Name("file") String fileName, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) throws Exception {
+
+        String source = String.format("database: nodes(%d), rels(%d)", Util.nodeCount(tx), Util.relCount(tx));
+        return exportParquet(fileName, source, new DatabaseSubGraph(tx), config);
+    }
+
+    @Procedure
+    @Description("apoc.export.parquet.data(nodes,rels,file,config) - exports given nodes and relationships as parquet to the provided file")
+    public Stream<ProgressInfo> data(@Name("nodes") List<Node> nodes, @Name("rels") List<Relationship> rels, @Name("file") String fileName, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) throws Exception {
+
+        String source = String.format("data: nodes(%d), rels(%d)", nodes.size(), rels.size());
+        return exportParquet(fileName, source, new NodesAndRelsSubGraph(tx, nodes, rels), config);
+    }
+
+    @Procedure
+    @Description("apoc.export.parquet.graph(graph,file,config) - exports given graph object as parquet to the provided file")
+    public Stream<ProgressInfo> graph(@Name("graph") Map<String,Object> graph, @Name("file") String fileName, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) throws Exception {
+
+        Collection<Node> nodes = (Collection<Node>) graph.get("nodes");
+        Collection<Relationship> rels = (Collection<Relationship>) graph.get("relationships");
+        String source = String.format("graph: nodes(%d), rels(%d)", nodes.size(), rels.size());
+        return exportParquet(fileName, source, new NodesAndRelsSubGraph(tx, nodes, rels), config);
+    }
+
+    @Procedure
+    @Description("apoc.export.parquet.query(query,file,{config,...,params:{params}}) - exports results from the cypher statement as parquet to the provided file")
+    public Stream<ProgressInfo> query(@Name("query") String query, @Name("file") String fileName, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) throws Exception {
+        Map<String,Object> params = config == null ? Collections.emptyMap() : (Map<String,Object>)config.getOrDefault("params", Collections.emptyMap());
+        Result result = tx.execute(query,params);
+        String source = String.format("statement: cols(%d)", result.columns().size());
+        return exportParquet(fileName, source, result, config);
+    }
+
+    private Stream<ProgressInfo> exportParquet(String fileName, String source, Object data, Map<String,Object> configMap) throws Exception {
+        ExportConfig c = new ExportConfig(configMap);
+        apocConfig.checkWriteAllowed(c, fileName);
+        ParquetConfig config = new ParquetConfig(configMap);
+        ProgressInfo progressInfo = new ProgressInfo(fileName, source, "parquet");
+        ProgressReporter reporter = new ProgressReporter(null, null, progressInfo);
+
+        final Iterator<Map<String, Object>> rows;
+        final Set<String> columns = new LinkedHashSet<>();
+        if (data instanceof SubGraph) {
+            SubGraph subGraph = (SubGraph) data;
+            columns.add(FIELD_ID);
+            columns.add(FIELD_LABELS);
+            if (subGraph.getRelationships().iterator().hasNext()) {
+                columns.add(FIELD_SOURCE_ID);
+                columns.add(FIELD_TARGET_ID);
+                columns.add(FIELD_TYPE);
+            }
+            // every property key of the exported entities gets a column, the ones not found in the sample are stored as strings
+            columns.addAll(propertyKeys(subGraph));
+            rows = Stream.concat(Iterables.stream(subGraph.getNodes()), Iterables.stream(subGraph.getRelationships()))
+                    .map(entity -> {
+                        reporter.update(entity instanceof Node ? 1 : 0, entity instanceof Relationship ? 1 : 0, entity.getAllProperties().size());
+                        return entityToMap(entity);
+                    })
+                    .iterator();
+        } else if (data instanceof Result) {
+            Result result = (Result) data;
+            columns.addAll(result.columns());
+            rows = result.stream()
+                    .map(row -> {
+                        reporter.update(0, 0, row.size());
+                        reporter.nextRow();
+                        return row;
+                    })
+                    .iterator();
+        } else {
+            throw new UnsupportedOperationException("cannot handle " + data.getClass());
+        }
+
+        try (OutputStream out = getOutputStream(fileName)) {
+            write(rows, columns, new ParquetUtil.StreamOutputFile(out), config);
+        }
+        reporter.done();
+        return reporter.stream();
+    }
+
+    // the keys are read without the values, in a pass before the export
+    private Set<String> propertyKeys(SubGraph subGraph) {
+        final Set<String> keys = new TreeSet<>();
+        for (Node node : subGraph.getNodes()) {
+            node.getPropertyKeys().forEach(keys::add);
+        }
+        for (Relationship rel : subGraph.getRelationships()) {
+            rel.getPropertyKeys().forEach(keys::add);
+        }
+        return keys;
+    }
+
+    private void write(Iterator<Map<String, Object>> rows, Set<String> columns, ParquetUtil.StreamOutputFile file, ParquetConfig config) throws IOException {
+        // the column types are derived from the first rows, that we keep in memory until the schema is known
+        final List<Map<String, Object>> sample = new ArrayList<>(config.getSampleSize());
+        while (rows.hasNext() && sample.size() < config.getSampleSize()) {
+            sample.add(rows.next());
+        }
+        final MessageType schema = ParquetUtil.schemaFor(new ArrayList<>(columns), sample);
+
+        long incompatible = 0;
+        try (ParquetWriter<Group> writer = ExampleParquetWriter.builder(file)
+                .withType(schema)
+                .withCompressionCodec(config.getCompression())
+                .withRowGroupSize(config.getRowGroupSize())
+                .withPageSize(config.getPageSize())
+                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                .build()) {
+            for (Map<String, Object> row : sample) {
+                incompatible += writeRow(writer, schema, row);
+            }
+            sample.clear();
+            while (rows.hasNext()) {
+                incompatible += writeRow(writer, schema, rows.next());
+            }
+        }
+        if (incompatible > 0) {
+            log.warn("apoc.export.parquet: %d values didn't match the column types derived from the first %d rows and were written as null, " +
+                    "please increase the `sampleSize` config", incompatible, config.getSampleSize());
+        }
+    }
+
+    private int writeRow(ParquetWriter<Group> writer, MessageType schema, Map<String, Object> row) throws IOException {
+        final Group group = new SimpleGroup(schema);
+        int incompatible = 0;
+        for (Type field : schema.getFields()) {
+            if (!ParquetUtil.append(group, field, row.get(field.getName()))) {
+                incompatible++;
+            }
+        }
+        writer.write(group);
+        return incompatible;
+    }
+
+    private Map<String, Object> entityToMap(Entity entity) {
+        Map<String, Object> flattened = new HashMap<>();
+        flattened.put(FIELD_ID, entity.getId());
+        if (entity instanceof Node) {
+            flattened.put(FIELD_LABELS, Util.labelStrings((Node) entity));
+        } else {
+            Relationship rel = (Relationship) entity;
+            flattened.put(FIELD_TYPE, rel.getType().name());
+            flattened.put(FIELD_SOURCE_ID, rel.getStartNodeId());
+            flattened.put(FIELD_TARGET_ID, rel.getEndNodeId());
+        }
+        flattened.putAll(entity.getAllProperties());
+        return flattened;
+    }
+}
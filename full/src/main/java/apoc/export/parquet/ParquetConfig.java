@@ -0,0 +1,72 @@
+package apoc.export.parquet;
+
+import apoc.util.Util;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class ParquetConfig {
+
+    public static final int DEFAULT_SAMPLE_SIZE = 1000;
+
+    private final int sampleSize;
+    private final int rowGroupSize;
+    private final int pageSize;
+    private final CompressionCodecName compression;
+    private final List<String> columns;
+    private final Map<String, Object> filter;
+    private final long skip;
+    private final long limit;
+    private final Map<String, Object> config;
+
+    public ParquetConfig(Map<String, Object> config) {
+        this.config = config == null ? Collections.emptyMap() : config;
+        this.sampleSize = Math.max(1, Util.toInteger(this.config.getOrDefault("sampleSize", DEFAULT_SAMPLE_SIZE)));
+        this.rowGroupSize = Util.toInteger(this.config.getOrDefault("rowGroupSize", ParquetWriter.DEFAULT_BLOCK_SIZE));
+        this.pageSize = Util.toInteger(this.config.getOrDefault("pageSize", ParquetWriter.DEFAULT_PAGE_SIZE));
+        this.compression = CompressionCodecName.valueOf(((String) this.config.getOrDefault("compression", CompressionCodecName.SNAPPY.name())).toUpperCase());
+        this.columns = (List<String>) this.config.getOrDefault("columns", Collections.emptyList());
+        this.filter = (Map<String, Object>) this.config.getOrDefault("filter", Collections.emptyMap());
+        this.skip = Math.max(0L, Util.toLong(this.config.getOrDefault("skip", 0L)));
+        this.limit = Util.toLong(this.config.getOrDefault("limit", Long.MAX_VALUE));
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    public int getRowGroupSize() {
+        return rowGroupSize;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public CompressionCodecName getCompression() {
+        return compression;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public Map<String, Object> getFilter() {
+        return filter;
+    }
+
+    public long getSkip() {
+        return skip;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public Map<String, Object> getConfig() {
+        return config;
+    }
+}
@@ -0,0 +1,436 @@
+package apoc.export.parquet;
+
+import apoc.convert.Json;
+import apoc.load.util.ByteBufferChannel;
+import apoc.util.JsonUtil;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.io.DelegatingSeekableInputStream;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.SeekableInputStream;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+import org.neo4j.values.storable.DurationValue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.BINARY;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.BOOLEAN;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.DOUBLE;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT32;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+
+public class ParquetUtil {
+
+    public static final String FIELD_ID = "<id>";
+    public static final String FIELD_LABELS = "labels";
+    public static final String FIELD_SOURCE_ID = "<source.id>";
+    public static final String FIELD_TARGET_ID = "<target.id>";
+    public static final String FIELD_TYPE = "<type>";
+
+    public static final String SCHEMA_NAME = "neo4j";
+    private static final String LIST_NAME = "list";
+    private static final String ELEMENT_NAME = "element";
+
+    private ParquetUtil() {}
+
+    /**
+     * The Parquet column types we derive from the sampled values
+     */
+    public enum ColumnType {
+        LONG, DOUBLE, BOOLEAN, STRING, TIMESTAMP, DATE;
+
+        public static ColumnType of(Object value) {
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                return LONG;
+            } else if (value instanceof Double || value instanceof Float) {
+                return DOUBLE;
+            } else if (value instanceof Boolean) {
+                return BOOLEAN;
+            } else if (value instanceof ZonedDateTime || value instanceof OffsetDateTime
+                    || value instanceof LocalDateTime || value instanceof Date) {
+                return TIMESTAMP;
+            } else if (value instanceof LocalDate) {
+                return DATE;
+            }
+            return STRING;
+        }
+
+        /**
+         * Merges the types found for the same column: integers are widened to doubles,
+         * any other mix ends up as a string column.
+         */
+        public static ColumnType merge(Set<ColumnType> types) {
+            if (types.isEmpty()) return STRING;
+            if (types.size() == 1) return types.iterator().next();
+            if (types.size() == 2 && types.contains(LONG) && types.contains(DOUBLE)) return DOUBLE;
+            return STRING;
+        }
+
+        PrimitiveType toPrimitiveType(Type.Repetition repetition, String name) {
+            switch (this) {
+                case LONG:
+                    return Types.primitive(INT64, repetition).named(name);
+                case DOUBLE:
+                    return Types.primitive(DOUBLE, repetition).named(name);
+                case BOOLEAN:
+                    return Types.primitive(BOOLEAN, repetition).named(name);
+                case TIMESTAMP:
+                    return Types.primitive(INT64, repetition)
+                            .as(LogicalTypeAnnotation.timestampType(true, LogicalTypeAnnotation.TimeUnit.MILLIS))
+                            .named(name);
+                case DATE:
+                    return Types.primitive(INT32, repetition).as(LogicalTypeAnnotation.dateType()).named(name);
+                default:
+                    return Types.primitive(BINARY, repetition).as(LogicalTypeAnnotation.stringType()).named(name);
+            }
+        }
+    }
+
+    /**
+     * Derives the Parquet schema from the sampled rows. Lists whose elements share a type become
+     * Parquet LIST columns, everything else that doesn't map to a primitive type is stored as (JSON) string.
+     */
+    public static MessageType schemaFor(List<String> columns, List<Map<String, Object>> sample) {
+        final List<Type> fields = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            final Set<ColumnType> types = EnumSet.noneOf(ColumnType.class);
+            final Set<ColumnType> elementTypes = EnumSet.noneOf(ColumnType.class);
+            boolean lists = false;
+            boolean scalars = false;
+            for (Map<String, Object> row : sample) {
+                final Object value = row.get(column);
+                if (value == null) continue;
+                if (isList(value)) {
+                    lists = true;
+                    for (Object element : toList(value)) {
+                        if (element != null) elementTypes.add(ColumnType.of(element));
+                    }
+                } else {
+                    scalars = true;
+                    types.add(ColumnType.of(value));
+                }
+            }
+            if (lists && !scalars) {
+                final ColumnType elementType = ColumnType.merge(elementTypes);
+                fields.add(Types.optionalGroup()
+                        .as(LogicalTypeAnnotation.listType())
+                        .addField(Types.repeatedGroup()
+                                .addField(elementType.toPrimitiveType(Type.Repetition.OPTIONAL, ELEMENT_NAME))
+                                .named(LIST_NAME))
+                        .named(column));
+            } else {
+                final ColumnType type = lists ? ColumnType.STRING : ColumnType.merge(types);
+                fields.add(type.toPrimitiveType(Type.Repetition.OPTIONAL, column));
+            }
+        }
+        return new MessageType(SCHEMA_NAME, fields);
+    }
+
+    public static boolean isList(Object value) {
+        return value instanceof Collection || (value != null && value.getClass().isArray() && !(value instanceof byte[]));
+    }
+
+    public static List<Object> toList(Object value) {
+        if (value instanceof List) {
+            return (List<Object>) value;
+        }
+        if (value instanceof Collection) {
+            return new ArrayList<>((Collection<Object>) value);
+        }
+        final int length = Array.getLength(value);
+        final List<Object> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            list.add(Array.get(value, i));
+        }
+        return list;
+    }
+
+    /**
+     * Appends the value to the group, coercing it to the column type.
+     *
+     * @return false if the value can't be represented in the column type and has been written as null
+     */
+    public static boolean append(Group group, Type type, Object value) {
+        if (value == null) {
+            return true;
+        }
+        if (!type.isPrimitive()) {
+            if (!isList(value)) {
+                return false;
+            }
+            final Group list = group.addGroup(type.getName());
+            final PrimitiveType elementType = type.asGroupType().getType(0).asGroupType().getType(0).asPrimitiveType();
+            boolean compatible = true;
+            for (Object element : toList(value)) {
+                final Group wrapper = list.addGroup(LIST_NAME);
+                compatible &= appendPrimitive(wrapper, elementType, element);
+            }
+            return compatible;
+        }
+        return appendPrimitive(group, type.asPrimitiveType(), value);
+    }
+
+    private static boolean appendPrimitive(Group group, PrimitiveType type, Object value) {
+        if (value == null) {
+            return true;
+        }
+        final String name = type.getName();
+        final LogicalTypeAnnotation logicalType = type.getLogicalTypeAnnotation();
+        switch (type.getPrimitiveTypeName()) {
+            case INT64:
+                if (logicalType instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) {
+                    final Long millis = toEpochMillis(value);
+                    if (millis == null) return false;
+                    group.append(name, millis);
+                    return true;
+                }
+                if (!(value instanceof Number) || ColumnType.of(value) != ColumnType.LONG) return false;
+                group.append(name, ((Number) value).longValue());
+                return true;
+            case INT32:
+                if (!(value instanceof LocalDate)) return false;
+                group.append(name, (int) ((LocalDate) value).toEpochDay());
+                return true;
+            case DOUBLE:
+                if (!(value instanceof Number)) return false;
+                group.append(name, ((Number) value).doubleValue());
+                return true;
+            case BOOLEAN:
+                if (!(value instanceof Boolean)) return false;
+                group.append(name, (Boolean) value);
+                return true;
+            default:
+                group.append(name, toStringValue(value));
+                return true;
+        }
+    }
+
+    public static Long toEpochMillis(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        } else if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } else if (value instanceof ZonedDateTime) {
+            return ((ZonedDateTime) value).toInstant().toEpochMilli();
+        } else if (value instanceof OffsetDateTime) {
+            return ((OffsetDateTime) value).toInstant().toEpochMilli();
+        } else if (value instanceof Instant) {
+            return ((Instant) value).toEpochMilli();
+        }
+        return null;
+    }
+
+    public static String toStringValue(Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character
+                || value instanceof TemporalAccessor || value instanceof DurationValue) {
+            return value.toString();
+        }
+        return JsonUtil.writeValueAsString(Json.writeJsonResult(value));
+    }
+
+    public static Map<String, Object> toMap(Group group) {
+        final GroupType type = group.getType();
+        final Map<String, Object> map = new LinkedHashMap<>(type.getFieldCount() * 4 / 3 + 1);
+        for (int i = 0; i < type.getFieldCount(); i++) {
+            map.put(type.getFieldName(i), read(group, i));
+        }
+        return map;
+    }
+
+    private static Object read(Group group, int field) {
+        final int repetitions = group.getFieldRepetitionCount(field);
+        if (repetitions == 0) {
+            return null;
+        }
+        final Type type = group.getType().getType(field);
+        if (type.isPrimitive()) {
+            if (repetitions == 1 && !type.isRepetition(Type.Repetition.REPEATED)) {
+                return readPrimitive(group, field, 0, type.asPrimitiveType());
+            }
+            final List<Object> values = new ArrayList<>(repetitions);
+            for (int i = 0; i < repetitions; i++) {
+                values.add(readPrimitive(group, field, i, type.asPrimitiveType()));
+            }
+            return values;
+        }
+        if (type.getLogicalTypeAnnotation() instanceof LogicalTypeAnnotation.ListLogicalTypeAnnotation) {
+            final Group list = group.getGroup(field, 0);
+            final int size = list.getFieldRepetitionCount(0);
+            final List<Object> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(read(list.getGroup(0, i), 0));
+            }
+            return values;
+        }
+        return toMap(group.getGroup(field, 0));
+    }
+
+    private static Object readPrimitive(Group group, int field, int index, PrimitiveType type) {
+        final LogicalTypeAnnotation logicalType = type.getLogicalTypeAnnotation();
+        switch (type.getPrimitiveTypeName()) {
+            case INT64:
+                final long value = group.getLong(field, index);
+                if (logicalType instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) {
+                    return toInstant(value, ((LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) logicalType).getUnit())
+                            .atOffset(ZoneOffset.UTC);
+                }
+                return value;
+            case INT32:
+                if (logicalType instanceof LogicalTypeAnnotation.DateLogicalTypeAnnotation) {
+                    return LocalDate.ofEpochDay(group.getInteger(field, index));
+                }
+                return (long) group.getInteger(field, index);
+            case DOUBLE:
+                return group.getDouble(field, index);
+            case FLOAT:
+                return (double) group.getFloat(field, index);
+            case BOOLEAN:
+                return group.getBoolean(field, index);
+            case BINARY:
+            case FIXED_LEN_BYTE_ARRAY:
+                if (logicalType == null || logicalType instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) {
+                    return group.getBinary(field, index).getBytes();
+                }
+                return group.getString(field, index);
+            default:
+                return group.getValueToString(field, index);
+        }
+    }
+
+    private static Instant toInstant(long value, LogicalTypeAnnotation.TimeUnit unit) {
+        switch (unit) {
+            case MICROS:
+                return Instant.ofEpochSecond(Math.floorDiv(value, 1_000_000L), Math.floorMod(value, 1_000_000L) * 1_000L);
+            case NANOS:
+                return Instant.ofEpochSecond(Math.floorDiv(value, 1_000_000_000L), Math.floorMod(value, 1_000_000_000L));
+            default:
+                return Instant.ofEpochMilli(value);
+        }
+    }
+
+    /**
+     * Parquet {@link OutputFile} over any output stream returned by {@link apoc.util.FileUtils#getOutputStream(String)}
+     */
+    public static class StreamOutputFile implements OutputFile {
+        private final OutputStream out;
+
+        public StreamOutputFile(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) {
+            return new PositionOutputStream() {
+                private long position = 0;
+
+                @Override
+                public long getPos() {
+                    return position;
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    position++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    position += len;
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    out.close();
+                }
+            };
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+            return create(blockSizeHint);
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return false;
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return 0;
+        }
+    }
+
+    /**
+     * Parquet {@link InputFile} over (memory-mapped) buffers, every stream keeps its own position
+     */
+    public static class BufferInputFile implements InputFile {
+        private final ByteBuffer[] segments;
+        private final long length;
+
+        public BufferInputFile(ByteBuffer[] segments) {
+            this.segments = segments;
+            long length = 0;
+            for (ByteBuffer segment : segments) {
+                length += segment.limit();
+            }
+            this.length = length;
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public SeekableInputStream newStream() {
+            final ByteBufferChannel channel = new ByteBufferChannel(segments);
+            return new DelegatingSeekableInputStream(Channels.newInputStream(channel)) {
+                @Override
+                public long getPos() throws IOException {
+                    return channel.position();
+                }
+
+                @Override
+                public void seek(long newPos) throws IOException {
+                    channel.position(newPos);
+                }
+            };
+        }
+    }
+}
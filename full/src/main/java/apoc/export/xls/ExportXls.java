@@ -8,7 +8,7 @@ import apoc.export.util.ProgressReporter;
 import apoc.result.ProgressInfo;
 import apoc.util.Util;
 import org.apache.commons.collections4.ListUtils;
-import org.apache.commons.lang3.tuple.Triple;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
@@ -80,11 +80,12 @@ public class ExportXls {
     private Stream<ProgressInfo> exportXls(@Name("file") String fileName, String source, Object data, Map<String,Object> configMap) throws Exception {
         ExportConfig c = new ExportConfig(configMap);
         apocConfig.checkWriteAllowed(c, fileName);
+        XlsExportConfig config = new XlsExportConfig(configMap);
+        // only a window of rows is kept on the heap, the older ones are flushed to (compressed) temp files
         try (Transaction tx = db.beginTx();
              OutputStream out = getOutputStream(fileName);
-             SXSSFWorkbook wb = new SXSSFWorkbook(-1)) {
+             SXSSFWorkbook wb = new SXSSFWorkbook(null, config.getRowWindowSize(), config.isCompressTempFiles())) {
 
-            XlsExportConfig config = new XlsExportConfig(configMap);
             ProgressInfo progressInfo = new ProgressInfo(fileName, source, "xls");
             progressInfo.batchSize = config.getBatchSize();
             ProgressReporter reporter = new ProgressReporter(null, null, progressInfo);
@@ -110,72 +111,149 @@ public class ExportXls {
     }
 
     private void dumpResult(Result result, XlsExportConfig config, SXSSFWorkbook wb, Map<Class, CellStyle> styles) {
-        SXSSFSheet sheet = wb.createSheet();
-        sheet.trackAllColumnsForAutoSizing();
-
-        // header row
-        int columnNum = 0;
-        int rowNum = 0;
-        Row headerRow = sheet.createRow(rowNum++);
-
-        for (String header: result.columns()) {
-            Cell cell = headerRow.createCell(columnNum);
-            sheet.autoSizeColumn(columnNum);
-            cell.setCellValue(header);
-            columnNum++;
-        }
+        XlsSheetWriter writer = new XlsSheetWriter(wb, null, result.columns(), config);
 
         while (result.hasNext()) {
             Map<String, Object> map = result.next();
-            Row row = sheet.createRow(rowNum++);
-            columnNum = 0;
+            Row row = writer.nextRow();
+            int columnNum = 0;
             for (String header: result.columns()) {
                 columnNum = amendCell(row, columnNum, map.get(header), config, styles);
             }
         }
+        writer.finish();
     }
 
     private void dumpSubGraph(SubGraph subgraph, XlsExportConfig config, ProgressReporter reporter, SXSSFWorkbook wb, Map<Class, CellStyle> styles) {
-        // what's in the triple used below?
-        // left: sheet instance
-        // middle: list of "magic" property keys: <id> for nodes, <startNodeId> and <endNodeId> for rels
-        // right: list of  "normal" property keys
-        Map<String, Triple<SXSSFSheet, List<String>, List<String>>> sheetAndPropsForName = new HashMap<>();
-
+        // the rows are flushed out of the window while writing, so a first pass collects the property keys
+        // of every sheet to write the header line before the rows
+        Map<String, SheetColumns> columnsForName = new LinkedHashMap<>();
         for (Node node : subgraph.getNodes()) {
-            final List<String> labels;
-            if (config.isJoinLabels()) {
-                labels = Collections.singletonList(StreamSupport.stream(node.getLabels().spliterator(), false)
-                        .map(Label::name)
-                        .collect(Collectors.joining(",")));
-            } else {
-                labels = StreamSupport.stream(node.getLabels().spliterator(), false)
-                        .map(Label::name)
-                        .collect(Collectors.toList());
+            for (String labelName : sheetNames(node, config)) {
+                columnsForName.computeIfAbsent(labelName, s -> new SheetColumns(Arrays.asList(config.getHeaderNodeId())))
+                        .add(node.getPropertyKeys());
             }
-            for (String label :labels) {
-                String labelName = (config.isPrefixSheetWithEntityType() ? "Node-" : "") + label;
-                createRowForEntity(wb, sheetAndPropsForName, node, labelName, reporter, config, styles);
+        }
+        for (Relationship relationship: subgraph.getRelationships()) {
+            columnsForName.computeIfAbsent(sheetName(relationship, config), s -> new SheetColumns(
+                    Arrays.asList(config.getHeaderRelationshipId(), config.getHeaderStartNodeId(), config.getHeaderEndNodeId())))
+                    .add(relationship.getPropertyKeys());
+        }
+
+        Map<String, XlsSheetWriter> writers = new HashMap<>();
+        columnsForName.forEach((name, columns) -> writers.put(name, new XlsSheetWriter(wb, name, columns.header(), config)));
+
+        for (Node node : subgraph.getNodes()) {
+            for (String labelName : sheetNames(node, config)) {
+                createRowForEntity(writers.get(labelName), columnsForName.get(labelName).keys, node, reporter, config, styles);
             }
         }
         for (Relationship relationship: subgraph.getRelationships()) {
-            String relationshipType = (config.isPrefixSheetWithEntityType() ? "Rel-" : "") + relationship.getType().name();
-            createRowForEntity(wb, sheetAndPropsForName, relationship, relationshipType, reporter, config,styles);
+            String relationshipType = sheetName(relationship, config);
+            createRowForEntity(writers.get(relationshipType), columnsForName.get(relationshipType).keys, relationship, reporter, config, styles);
+        }
+        writers.values().forEach(XlsSheetWriter::finish);
+    }
+
+    private List<String> sheetNames(Node node, XlsExportConfig config) {
+        final List<String> labels;
+        if (config.isJoinLabels()) {
+            labels = Collections.singletonList(StreamSupport.stream(node.getLabels().spliterator(), false)
+                    .map(Label::name)
+                    .collect(Collectors.joining(",")));
+        } else {
+            labels = StreamSupport.stream(node.getLabels().spliterator(), false)
+                    .map(Label::name)
+                    .collect(Collectors.toList());
+        }
+        String prefix = config.isPrefixSheetWithEntityType() ? "Node-" : "";
+        return labels.stream().map(label -> prefix + label).collect(Collectors.toList());
+    }
+
+    private String sheetName(Relationship relationship, XlsExportConfig config) {
+        return (config.isPrefixSheetWithEntityType() ? "Rel-" : "") + relationship.getType().name();
+    }
+
+    /**
+     * The "magic" property keys: <id> for nodes, <startNodeId> and <endNodeId> for rels,
+     * followed by the "normal" property keys in order of appearance.
+     */
+    private static class SheetColumns {
+        private final List<String> magicKeys;
+        private final List<String> keys = new ArrayList<>();
+        private final Set<String> knownKeys = new HashSet<>();
+
+        SheetColumns(List<String> magicKeys) {
+            this.magicKeys = magicKeys;
         }
 
-        // spit out header lines
-        for (Triple<SXSSFSheet,List<String>, List<String>> triple: sheetAndPropsForName.values()) {
-            Sheet sheet = triple.getLeft();
+        void add(Iterable<String> propertyKeys) {
+            SortedSet<String> sortedKeys = new TreeSet<>();
+            propertyKeys.forEach(sortedKeys::add);
+            for (String key : sortedKeys) {
+                if (knownKeys.add(key)) {
+                    keys.add(key);
+                }
+            }
+        }
+
+        List<String> header() {
+            return ListUtils.union(magicKeys, keys);
+        }
+    }
+
+    /**
+     * Writes the rows of a sheet, continuing on a new sheet with the same header
+     * when <code>maxRowsPerSheet</code> (by default the 1,048,576 rows limit of the format) is reached.
+     */
+    private static class XlsSheetWriter {
+        private final SXSSFWorkbook wb;
+        private final List<String> header;
+        private final int maxRows;
+        private final List<SXSSFSheet> sheets = new ArrayList<>();
+        private String name;
+        private SXSSFSheet sheet;
+        private int rowNum;
+
+        XlsSheetWriter(SXSSFWorkbook wb, String name, List<String> header, XlsExportConfig config) {
+            this.wb = wb;
+            this.name = name;
+            this.header = header;
+            this.maxRows = config.getMaxRowsPerSheet();
+            newSheet();
+        }
+
+        Row nextRow() {
+            if (rowNum >= maxRows) {
+                newSheet();
+            }
+            return sheet.createRow(rowNum++);
+        }
 
-            List<String> magicKeys = triple.getMiddle();
-            List<String> keys = triple.getRight();
-            Row row = sheet.getRow(0);
+        private void newSheet() {
+            if (sheets.isEmpty()) {
+                sheet = name == null ? wb.createSheet() : wb.createSheet(name);
+                name = sheet.getSheetName();
+            } else {
+                String suffix = " (" + (sheets.size() + 1) + ")";
+                // sheet names are limited to 31 characters
+                sheet = wb.createSheet(StringUtils.left(name, 31 - suffix.length()) + suffix);
+            }
+            sheet.trackAllColumnsForAutoSizing();
+            sheets.add(sheet);
+            rowNum = 0;
+            Row headerRow = sheet.createRow(rowNum++);
             int cellNum = 0;
-            for (String key: ListUtils.union(magicKeys,keys)) {
-                sheet.autoSizeColumn(cellNum);
-                Cell cell = row.createCell(cellNum++);
-                cell.setCellValue(key);
+            for (String key : header) {
+                headerRow.createCell(cellNum++).setCellValue(key);
+            }
+        }
 
+        void finish() {
+            for (SXSSFSheet sheet : sheets) {
+                for (int cellNum = 0; cellNum < header.size(); cellNum++) {
+                    sheet.autoSizeColumn(cellNum);
+                }
             }
         }
     }
@@ -193,25 +271,10 @@ public class ExportXls {
         return styles;
     }
 
-    private void createRowForEntity(Workbook wb, Map<String, Triple<SXSSFSheet, List<String>, List<String>>> sheetAndPropsForName, Entity entity, String sheetName, ProgressReporter reporter, XlsExportConfig config, Map<Class, CellStyle> styles) {
-        Triple<SXSSFSheet, List<String>, List<String>> triple = sheetAndPropsForName.computeIfAbsent(sheetName, s -> {
-            SXSSFSheet sheet = (SXSSFSheet) wb.createSheet(sheetName);
-            sheet.trackAllColumnsForAutoSizing();
-            sheet.createRow(0); // placeholder for header line
-            return Triple.of(
-                    sheet,
-                    entity instanceof Node ?
-                            Arrays.asList(config.getHeaderNodeId()) :
-                            Arrays.asList(config.getHeaderRelationshipId(), config.getHeaderStartNodeId(), config.getHeaderEndNodeId()),
-                    new ArrayList<>());
-        });
-        Sheet sheet = triple.getLeft();
-        List<String> propertyKeys = triple.getRight();
-
-        int lastRowNum = sheet.getLastRowNum();
-        Row row = sheet.createRow(lastRowNum+1);
+    private void createRowForEntity(XlsSheetWriter writer, List<String> propertyKeys, Entity entity, ProgressReporter reporter, XlsExportConfig config, Map<Class, CellStyle> styles) {
+        Row row = writer.nextRow();
         int cellNum = 0;
-        SortedMap<String, Object> props = new TreeMap<>(entity.getAllProperties()); // copy props
+        Map<String, Object> props = entity.getAllProperties();
 
         if (entity instanceof Node) {
             Node node = (Node) entity;
@@ -229,14 +292,7 @@ public class ExportXls {
             reporter.update(0, 1, props.size());
         }
 
-        // deal with property keys already being known
         for (String key: propertyKeys) {
-            cellNum = amendCell(row, cellNum, props.remove(key), config, styles);
-        }
-
-        // add remaining properties as new keys
-        for (String key: props.keySet()) {
-            propertyKeys.add(key);
             cellNum = amendCell(row, cellNum, props.get(key), config, styles);
         }
     }
@@ -1,9 +1,11 @@
 package apoc.load;
 
 import apoc.Extended;
+import apoc.Pools;
 import apoc.load.util.LoadJdbcConfig;
 import apoc.result.RowResult;
 import apoc.util.MapUtil;
+import apoc.util.Util;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.Context;
@@ -44,6 +46,9 @@ public class Jdbc {
     @Context
     public GraphDatabaseService db;
 
+    @Context
+    public Pools pools;
+
     @Procedure
     @Description("apoc.load.driver('org.apache.derby.jdbc.EmbeddedDriver') register JDBC driver of source database")
     public void driver(@Name("driverClass") String driverClass) {
@@ -78,6 +83,9 @@ public class Jdbc {
         LoadJdbcConfig loadJdbcConfig = new LoadJdbcConfig(config);
         String url = getUrlOrKey(urlOrKey);
         String query = getSqlOrKey(tableOrSelect);
+        if (loadJdbcConfig.isPartitioned()) {
+            return executePartitionedQuery(url, query, loadJdbcConfig, params);
+        }
         try {
             Connection connection = getConnection(url,loadJdbcConfig);
             // see https://jdbc.postgresql.org/documentation/91/query.html#query-with-cursors
@@ -88,7 +96,7 @@ public class Jdbc {
                 try {
                     for (int i = 0; i < params.length; i++) stmt.setObject(i + 1, params[i]);
                     ResultSet rs = stmt.executeQuery();
-                    Iterator<Map<String, Object>> supplier = new ResultSetIterator(log, rs, true, loadJdbcConfig);
+                    Iterator<Map<String, Object>> supplier = new ResultSetIterator(log, rs, stmt, connection, loadJdbcConfig);
                     Spliterator<Map<String, Object>> spliterator = Spliterators.spliteratorUnknownSize(supplier, Spliterator.ORDERED);
                     return StreamSupport.stream(spliterator, false)
                             .map(RowResult::new)
@@ -109,6 +117,19 @@ public class Jdbc {
         }
     }
 
+    private Stream<RowResult> executePartitionedQuery(String url, String query, LoadJdbcConfig loadJdbcConfig, Object... params) {
+        try {
+            JdbcPartitions partitions = new JdbcPartitions(log, pools.getDefaultExecutorService(), url, query, loadJdbcConfig, params);
+            Spliterator<Map<String, Object>> spliterator = Spliterators.spliteratorUnknownSize(partitions, 0);
+            return StreamSupport.stream(spliterator, false)
+                    .map(RowResult::new)
+                    .onClose(partitions::close);
+        } catch (Exception e) {
+            log.error(String.format("Cannot execute SQL statement `%s`.%nError:%n%s", query, e.getMessage()),e);
+            throw new RuntimeException(String.format("Cannot execute SQL statement `%s`.%nError:%n%s", query, e.getMessage()), e);
+        }
+    }
+
     @Procedure(mode = Mode.DBMS)
     @Description("apoc.load.jdbcUpdate('key or url','statement',[params],config) YIELD row - update relational database, from a SQL statement with optional parameters")
     public Stream<RowResult> jdbcUpdate(@Name("jdbc") String urlOrKey, @Name("query") String query, @Name(value = "params", defaultValue = "[]") List<Object> params,  @Name(value = "config",defaultValue = "{}") Map<String, Object> config) {
@@ -147,6 +168,99 @@ public class Jdbc {
         }
     }
 
+    @Procedure(mode = Mode.DBMS)
+    @Description("apoc.load.jdbcUpdateBatch('key or url','statement',[[params]],config) YIELD row - update relational database, with a SQL statement executed in batches, once for each list of parameters")
+    public Stream<RowResult> jdbcUpdateBatch(@Name("jdbc") String urlOrKey, @Name("query") String query, @Name("paramsList") List<List<Object>> paramsList, @Name(value = "config",defaultValue = "{}") Map<String, Object> config) {
+        log.info( String.format( "Executing SQL batch update: %s", query ) );
+        String url = getUrlOrKey(urlOrKey);
+        LoadJdbcConfig jdbcConfig = new LoadJdbcConfig(config);
+        int batchSize = Util.toLong(config.getOrDefault("batchSize", 1000L)).intValue();
+        long commitInterval = Util.toLong(config.getOrDefault("commitInterval", 0L));
+        boolean failOnError = Util.toBoolean(config.getOrDefault("failOnError", true));
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batchSize must be positive");
+        }
+        paramsList = paramsList != null ? paramsList : Collections.emptyList();
+        try {
+            Connection connection = getConnection(url,jdbcConfig);
+            try {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try (PreparedStatement stmt = connection.prepareStatement(query)) {
+                    return executeBatches(connection, stmt, paramsList, batchSize, commitInterval, failOnError).stream()
+                            .map(RowResult::new);
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            } finally {
+                closeIt(log, connection);
+            }
+        } catch (Exception e) {
+            log.error(String.format("Cannot execute SQL statement `%s`.%nError:%n%s", query, e.getMessage()),e);
+            String errorMessage = "Cannot execute SQL statement `%s`.%nError:%n%s";
+            if(e.getMessage() != null && e.getMessage().contains("No suitable driver")) errorMessage="Cannot execute SQL statement `%s`.%nError:%n%s%n%s";
+            throw new RuntimeException(String.format(errorMessage, query, e.getMessage(), "Please download and copy the JDBC driver into $NEO4J_HOME/plugins,more details at https://neo4j-contrib.github.io/neo4j-apoc-procedures/#_load_jdbc_resources"), e);
+        }
+    }
+
+    /**
+     * Executes the batches in a transaction committed every {@code commitInterval} rows, or once at the end.
+     * The first failed batch stops the execution and rolls back the batches not committed yet,
+     * it's reported in the results unless {@code failOnError} is true.
+     */
+    private List<Map<String, Object>> executeBatches(Connection connection, PreparedStatement stmt, List<List<Object>> paramsList, int batchSize, long commitInterval, boolean failOnError) throws SQLException {
+        List<Map<String, Object>> results = new ArrayList<>();
+        List<Map<String, Object>> uncommitted = new ArrayList<>();
+        long uncommittedRows = 0;
+        for (int from = 0; from < paramsList.size(); from += batchSize) {
+            List<List<Object>> batch = paramsList.subList(from, Math.min(paramsList.size(), from + batchSize));
+            Map<String, Object> result = MapUtil.map("batch", (long) results.size(), "rows", (long) batch.size(), "count", 0L, "committed", false, "error", null);
+            results.add(result);
+            uncommitted.add(result);
+            try {
+                for (List<Object> params : batch) {
+                    for (int i = 0; i < params.size(); i++) stmt.setObject(i + 1, params.get(i));
+                    stmt.addBatch();
+                }
+                result.put("count", updateCount(stmt.executeBatch()));
+            } catch (SQLException e) {
+                if (e instanceof BatchUpdateException) {
+                    result.put("count", updateCount(((BatchUpdateException) e).getUpdateCounts()));
+                }
+                result.put("error", e.getMessage());
+                // the rows added before a failed setObject would be run by the next use of a cached statement
+                stmt.clearBatch();
+                connection.rollback();
+                if (failOnError) {
+                    throw e;
+                }
+                return results;
+            }
+            uncommittedRows += batch.size();
+            if (commitInterval > 0 && uncommittedRows >= commitInterval) {
+                commit(connection, uncommitted);
+                uncommittedRows = 0;
+            }
+        }
+        commit(connection, uncommitted);
+        return results;
+    }
+
+    private static void commit(Connection connection, List<Map<String, Object>> uncommitted) throws SQLException {
+        connection.commit();
+        uncommitted.forEach(result -> result.put("committed", true));
+        uncommitted.clear();
+    }
+
+    // the statements that succeeded without a known count are not counted
+    private static long updateCount(int[] counts) {
+        long count = 0;
+        for (int c : counts) {
+            if (c > 0) count += c;
+        }
+        return count;
+    }
+
     static void closeIt(Log log, AutoCloseable...closeables) {
         for (AutoCloseable c : closeables) {
             try {
@@ -160,21 +274,24 @@ public class Jdbc {
         }
     }
 
-    private static class ResultSetIterator implements Iterator<Map<String, Object>> {
+    static class ResultSetIterator implements Iterator<Map<String, Object>> {
         private final Log log;
         private final ResultSet rs;
         private final String[] columns;
-        private final boolean closeConnection;
+        // closed with the result set, they can be pooled so they aren't the ones of the result set
+        private final Statement statement;
+        private final Connection connection;
         private Map<String, Object> map;
         private LoadJdbcConfig config;
 
 
-        public ResultSetIterator(Log log, ResultSet rs, boolean closeConnection, LoadJdbcConfig config) throws SQLException {
+        public ResultSetIterator(Log log, ResultSet rs, Statement statement, Connection connection, LoadJdbcConfig config) throws SQLException {
             this.config = config;
             this.log = log;
             this.rs = rs;
             this.columns = getMetaData(rs);
-            this.closeConnection = closeConnection;
+            this.statement = statement;
+            this.connection = connection;
             this.map = get();
         }
 
@@ -265,7 +382,7 @@ public class Jdbc {
         private void closeRs() {
             Boolean closed = isRsClosed();
             if (closed==null || !closed) {
-                closeIt(log, ignore(rs::getStatement), closeConnection ? ignore(()->rs.getStatement().getConnection()) : null);
+                closeIt(log, rs, statement, connection);
             }
         }
 
@@ -0,0 +1,191 @@
+package apoc.load;
+
+import apoc.load.util.LoadJdbcConfig;
+import org.neo4j.logging.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+
+import static apoc.load.util.JdbcUtil.getConnection;
+
+/**
+ * Reads a query split in ranges of the {@code partitionColumn}, like the Spark jdbc source: the range between the
+ * {@code lowerBound} and the {@code upperBound} is split in {@code numPartitions} strides, the first partition also
+ * has the rows below and the null values, and the last one the rows above.
+ *
+ * The partitions are read concurrently, each one on its own connection, in chunks of {@code fetchSize} rows.
+ * The rows are returned in the order the chunks are read.
+ */
+class JdbcPartitions implements Iterator<Map<String, Object>>, AutoCloseable {
+
+    private final Log log;
+    private final ExecutorService executor;
+    private final LoadJdbcConfig config;
+    private final List<Partition> partitions = new ArrayList<>();
+    private Iterator<Map<String, Object>> chunk = Collections.emptyIterator();
+    private volatile boolean closed;
+
+    JdbcPartitions(Log log, ExecutorService executor, String url, String query, LoadJdbcConfig config, Object[] params) {
+        this.log = log;
+        this.executor = executor;
+        this.config = config;
+        for (String condition : conditions(config)) {
+            final String sql = "SELECT * FROM (" + query + ") APOC_PARTITION WHERE " + condition;
+            partitions.add(new Partition(url, sql, params));
+        }
+        partitions.forEach(Partition::readNext);
+    }
+
+    static List<String> conditions(LoadJdbcConfig config) {
+        final String column = config.getPartitionColumn();
+        final long lowerBound = config.getLowerBound();
+        final long upperBound = config.getUpperBound();
+        final long numPartitions = Math.max(1, Math.min(config.getNumPartitions(), upperBound - lowerBound));
+        if (numPartitions == 1) {
+            return Collections.singletonList("1 = 1");
+        }
+        // computed this way to avoid an overflow
+        final long stride = upperBound / numPartitions - lowerBound / numPartitions;
+        final List<String> conditions = new ArrayList<>();
+        long current = lowerBound;
+        for (int i = 0; i < numPartitions; i++) {
+            final String lower = i == 0 ? null : column + " >= " + current;
+            current += stride;
+            final String upper = i == numPartitions - 1 ? null : column + " < " + current;
+            if (lower == null) {
+                conditions.add("(" + upper + " OR " + column + " IS NULL)");
+            } else if (upper == null) {
+                conditions.add(lower);
+            } else {
+                conditions.add(lower + " AND " + upper);
+            }
+        }
+        return conditions;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!chunk.hasNext()) {
+            final Partition partition = nextRead();
+            if (partition == null) {
+                return false;
+            }
+            chunk = partition.take().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return chunk.next();
+    }
+
+    // a partition whose chunk is read, or else the first one still reading
+    private Partition nextRead() {
+        Partition first = null;
+        for (Partition partition : partitions) {
+            if (partition.read == null) continue;
+            if (partition.read.isDone()) return partition;
+            if (first == null) first = partition;
+        }
+        return first;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        for (Partition partition : partitions) {
+            partition.close();
+        }
+    }
+
+    private class Partition {
+        private final String url;
+        private final String sql;
+        private final Object[] params;
+        private Connection connection;
+        private PreparedStatement stmt;
+        private Jdbc.ResultSetIterator rows;
+        // the chunk being read, null when the partition is read
+        private FutureTask<List<Map<String, Object>>> read;
+
+        Partition(String url, String sql, Object[] params) {
+            this.url = url;
+            this.sql = sql;
+            this.params = params;
+        }
+
+        void readNext() {
+            read = new FutureTask<>(this::readChunk);
+            executor.execute(read);
+        }
+
+        private List<Map<String, Object>> readChunk() throws Exception {
+            if (closed) {
+                return Collections.emptyList();
+            }
+            if (rows == null) {
+                connection = getConnection(url, config);
+                // see https://jdbc.postgresql.org/documentation/91/query.html#query-with-cursors
+                connection.setAutoCommit(config.isAutoCommit());
+                stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                stmt.setFetchSize(config.getFetchSize().intValue());
+                for (int i = 0; i < params.length; i++) stmt.setObject(i + 1, params[i]);
+                rows = new Jdbc.ResultSetIterator(log, stmt.executeQuery(), stmt, connection, config);
+            }
+            final int size = Math.max(1, config.getFetchSize().intValue());
+            final List<Map<String, Object>> chunk = new ArrayList<>(Math.min(size, 1024));
+            while (!closed && chunk.size() < size && rows.hasNext()) {
+                chunk.add(rows.next());
+            }
+            return chunk;
+        }
+
+        // the rows read, and the next chunk is started unless the partition is read
+        List<Map<String, Object>> take() {
+            // it's read by the consumer when no thread has started it yet
+            read.run();
+            final List<Map<String, Object>> chunk;
+            try {
+                chunk = read.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Cannot read the partition `" + sql + "`: " + e.getCause().getMessage(), e.getCause());
+            }
+            if (rows.hasNext()) {
+                readNext();
+            } else {
+                read = null;
+            }
+            return chunk;
+        }
+
+        // the chunk being read stops at the next row, one not started yet doesn't open the connection
+        void close() {
+            if (read != null) {
+                read.run();
+                try {
+                    read.get();
+                } catch (Exception e) {
+                    // reported by the consumer
+                }
+                read = null;
+            }
+            Jdbc.closeIt(log, stmt, connection);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package apoc.load;
 
 import apoc.Extended;
+import apoc.Pools;
 import apoc.export.util.CountingReader;
 import apoc.load.util.LoadCsvConfig;
 import apoc.util.FileUtils;
@@ -14,7 +15,9 @@ import org.neo4j.procedure.Description;
 import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
@@ -31,6 +34,9 @@ public class LoadCsv {
     @Context
     public GraphDatabaseService db;
 
+    @Context
+    public Pools pools;
+
     @Procedure
     @Description("apoc.load.csv('urlOrBinary',{config}) YIELD lineNo, list, map - load CSV from URL as stream of values,\n config contains any of: {skip:1,limit:5,header:false,sep:'TAB',ignore:['tmp'],nullValues:['na'],arraySep:';',mapping:{years:{type:'int',arraySep:'-',array:false,name:'age',ignore:false}}")
     public Stream<CSVResult> csv(@Name("urlOrBinary") Object urlOrBinary, @Name(value = "config", defaultValue = "{}") Map<String, Object> configMap) {
@@ -45,9 +51,19 @@ public class LoadCsv {
         try {
             String url = null;
             if (urlOrBinary instanceof String) {
+                // the files matching a glob pattern are loaded one after the other
+                final List<String> files = FileUtils.expandGlob((String) urlOrBinary);
+                if (files.size() > 1 || !files.get(0).equals(urlOrBinary)) {
+                    final Map<String, Object> headers = httpHeaders;
+                    return files.stream().flatMap(file -> csvParams(file, headers == null ? null : new HashMap<>(headers), payload, configMap));
+                }
                 url = (String) urlOrBinary;
                 httpHeaders = httpHeaders != null ? httpHeaders : new HashMap<>();
                 httpHeaders.putAll(Util.extractCredentialsIfNeeded(url, true));
+                if (config.isParallel()) {
+                    final Stream<CSVResult> parallel = streamCsvParallel(url, config);
+                    if (parallel != null) return parallel;
+                }
             }
             reader = FileUtils.readerFor(urlOrBinary, httpHeaders, payload, config.getCompressionAlgo());
             return streamCsv(url, config, reader);
@@ -62,7 +78,28 @@ public class LoadCsv {
 
     public Stream<CSVResult> streamCsv(@Name("url") String url, LoadCsvConfig config, CountingReader reader) throws IOException {
 
-        CSVReader csv = new CSVReaderBuilder(reader)
+        CSVReader csv = csvReader(reader, config);
+
+        String[] header = getHeader(csv, config);
+        return StreamSupport.stream(new CSVSpliterator(csv, header, url, config.getSkip(), config.getLimit(),
+                checkIgnore(config), config.getMappings(), config.getNullValues(), config.getResults(), config.getIgnoreErrors()), false)
+                .onClose(() -> closeReaderSafely(reader));
+    }
+
+    /**
+     * Parses the chunks of an uncompressed local file with the tasks of the pool.
+     * Returns null for the other inputs, that are read by a single reader.
+     */
+    private Stream<CSVResult> streamCsvParallel(String url, LoadCsvConfig config) throws IOException {
+        if (!ParallelCSVSpliterator.isSupported(config)) return null;
+        File file = FileUtils.getLocalFile(url);
+        if (file == null || file.getName().endsWith(".gz")) return null;
+        ParallelCSVSpliterator spliterator = new ParallelCSVSpliterator(url, file, config, checkIgnore(config), pools.getDefaultExecutorService());
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    static CSVReader csvReader(Reader reader, LoadCsvConfig config) {
+        return new CSVReaderBuilder(reader)
                 .withCSVParser(new CSVParserBuilder()
                         .withEscapeChar(config.getEscapeChar())
                         .withQuoteChar(config.getQuoteChar())
@@ -70,15 +107,13 @@ public class LoadCsv {
                         .withSeparator(config.getSeparator())
                         .build())
                 .build();
+    }
 
-        String[] header = getHeader(csv, config);
-        boolean checkIgnore = !config.getIgnore().isEmpty() || config.getMappings().values().stream().anyMatch(m -> m.ignore);
-        return StreamSupport.stream(new CSVSpliterator(csv, header, url, config.getSkip(), config.getLimit(),
-                checkIgnore, config.getMappings(), config.getNullValues(), config.getResults(), config.getIgnoreErrors()), false)
-                .onClose(() -> closeReaderSafely(reader));
+    private static boolean checkIgnore(LoadCsvConfig config) {
+        return !config.getIgnore().isEmpty() || config.getMappings().values().stream().anyMatch(m -> m.ignore);
     }
 
-    private String[] getHeader(CSVReader csv, LoadCsvConfig config) throws IOException {
+    static String[] getHeader(CSVReader csv, LoadCsvConfig config) throws IOException {
         if (!config.isHasHeader()) return null;
         String[] headers = csv.readNext();
         List<String> ignore = config.getIgnore();
@@ -96,12 +131,9 @@ public class LoadCsv {
 
     private static class CSVSpliterator extends Spliterators.AbstractSpliterator<CSVResult> {
         private final CSVReader csv;
-        private final String[] header;
+        private final CSVHeader header;
         private final String url;
         private final long limit;
-        private final boolean ignore;
-        private final Map<String, Mapping> mapping;
-        private final List<String> nullValues;
         private final EnumSet<Results> results;
         private final boolean ignoreErrors;
         long lineNo;
@@ -109,11 +141,8 @@ public class LoadCsv {
         public CSVSpliterator(CSVReader csv, String[] header, String url, long skip, long limit, boolean ignore, Map<String, Mapping> mapping, List<String> nullValues, EnumSet<Results> results, boolean ignoreErrors) throws IOException {
             super(Long.MAX_VALUE, Spliterator.ORDERED);
             this.csv = csv;
-            this.header = header;
+            this.header = new CSVHeader(header, ignore, mapping, nullValues);
             this.url = url;
-            this.ignore = ignore;
-            this.mapping = mapping;
-            this.nullValues = nullValues;
             this.results = results;
             this.ignoreErrors = ignoreErrors;
             this.limit = Util.isSumOutOfRange(skip, limit) ? Long.MAX_VALUE : (skip + limit);
@@ -126,9 +155,14 @@ public class LoadCsv {
         @Override
         public boolean tryAdvance(Consumer<? super CSVResult> action) {
             try {
-                String[] row = csv.readNext();
-                if (row != null && lineNo < limit) {
-                    action.accept(new CSVResult(header, row, lineNo, ignore,mapping, nullValues,results));
+                String[] row;
+                while ((row = csv.readNext()) != null && lineNo < limit) {
+                    final CSVResult result = toResult(header, row, lineNo, results, ignoreErrors, url);
+                    if (result == null) {
+                        lineNo++;
+                        continue;
+                    }
+                    action.accept(result);
                     lineNo++;
                     return true;
                 }
@@ -138,4 +172,22 @@ public class LoadCsv {
             }
         }
     }
+
+    /**
+     * @return the result of the row, or null if it can't be converted and the errors are ignored
+     */
+    static CSVResult toResult(CSVHeader header, String[] row, long lineNo, EnumSet<Results> results, boolean ignoreErrors, String url) {
+        try {
+            return new CSVResult(header, row, lineNo, results);
+        } catch (RuntimeException e) {
+            if (ignoreErrors) {
+                return null;
+            }
+            throw conversionError(url, lineNo, e);
+        }
+    }
+
+    static RuntimeException conversionError(String url, long lineNo, RuntimeException e) {
+        return new RuntimeException("Error converting CSV from " + (url == null ? "binary" : "URL " + cleanUrl(url)) + " at " + lineNo + ": " + e.getMessage(), e);
+    }
 }
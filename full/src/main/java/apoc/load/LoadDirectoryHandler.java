@@ -10,18 +10,26 @@ import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.logging.Log;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static apoc.util.FileUtils.getPathFromUrlString;
@@ -32,14 +40,26 @@ import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
 import static java.nio.file.WatchEvent.Kind;
 import static org.apache.commons.lang3.StringUtils.replaceOnce;
 
+/**
+ * The directory listeners of a database share a single {@link WatchService}, polled every {@link #POLL_MILLIS} ms on
+ * the scheduled pool. The events of each listener are coalesced per file, and a file is handled only once it had no
+ * events and the same size for the {@code interval} of the listener, so a file being written triggers the cypher once.
+ */
 public class LoadDirectoryHandler extends LifecycleAdapter {
 
-    public final Map<LoadDirectoryItem, Future> storage = new ConcurrentHashMap<>();
+    private static final long POLL_MILLIS = 100;
+
+    public final Map<LoadDirectoryItem, Subscription> storage = new ConcurrentHashMap<>();
 
     private final Log log;
     private final GraphDatabaseService db;
     private final Pools pools;
 
+    // guarded by this
+    private final Map<Path, WatchKey> watchKeys = new HashMap<>();
+    private WatchService watcher;
+    private ScheduledFuture<?> poller;
+
     public LoadDirectoryHandler(GraphDatabaseService db, Log log, Pools pools) {
         this.db = db;
         this.log = log;
@@ -76,24 +96,28 @@ public class LoadDirectoryHandler extends LifecycleAdapter {
         remove(loadDirectoryItem);
     }
 
-    private void remove(LoadDirectoryItem loadDirectoryItem) {
-        Future removed = storage.remove(loadDirectoryItem);
+    private synchronized void remove(LoadDirectoryItem loadDirectoryItem) {
+        Subscription removed = storage.remove(loadDirectoryItem);
         if (removed == null) {
             String name = loadDirectoryItem.getName();
             throw new RuntimeException("Listener with name: " + name + " doesn't exists");
         }
-        removed.cancel(true);
+        unsubscribe(removed);
     }
 
-    public void add(LoadDirectoryItem loadDirectoryItem) {
-        storage.compute(loadDirectoryItem, (k, v) -> {
-            if (v != null) {
-                try {
-                    v.cancel(true);
-                } catch (Exception ignored) {}
-            }
-            return pools.getDefaultExecutorService().submit(createListener(loadDirectoryItem));
-        });
+    public synchronized void add(LoadDirectoryItem loadDirectoryItem) {
+        Subscription previous = storage.remove(loadDirectoryItem);
+        if (previous != null) {
+            unsubscribe(previous);
+        }
+        Subscription subscription = new Subscription(loadDirectoryItem);
+        storage.put(loadDirectoryItem, subscription);
+        try {
+            subscription.subscribe();
+            loadDirectoryItem.setStatusRunning();
+        } catch (Exception e) {
+            subscription.fail(e);
+        }
     }
 
     public Stream<LoadDirectoryItem.LoadDirectoryResult> list() {
@@ -105,53 +129,206 @@ public class LoadDirectoryHandler extends LifecycleAdapter {
         keys.forEach(this::remove);
     }
 
-    private Runnable createListener(LoadDirectoryItem item) {
-        return () -> {
-            try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
-
-                final LoadDirectoryItem.LoadDirectoryConfig config = item.getConfig();
-
-                getPathFromUrlString(item.getUrlDir()).register(watcher, fromListStringToKindArray(config.getListenEventType()));
-
-                item.setStatusRunning();
-                while (true) {
-                    WatchKey watchKey = watcher.take();
-                    if (watchKey != null) {
-                        watchKey.reset();
-                        Path dir = (Path) watchKey.watchable();
-                        for (WatchEvent event : watchKey.pollEvents()) {
-                            Path filePath = dir.resolve((Path) event.context());
-                                WildcardFileFilter fileFilter = new WildcardFileFilter(item.getPattern());
-                                final String fileName = filePath.getFileName().toString();
-                                boolean matchFilePattern = fileFilter.accept(dir.toFile(), fileName);
-                                if (matchFilePattern) {
-                                    try (Transaction tx = db.beginTx()) {
-                                        final String stringFileDirectory = getPathDependingOnUseNeo4jConfig(dir.toString());
-                                        final String stringFilePath = getPathDependingOnUseNeo4jConfig(filePath.toString());
-
-                                        tx.execute(item.getCypher(),
-                                                Map.of("fileName", fileName,
-                                                        "filePath", stringFilePath,
-                                                        "fileDirectory", stringFileDirectory,
-                                                        "listenEventType", event.kind().name().replace("ENTRY_", ""))
-                                        );
-                                        tx.commit();
-                                    }
-                                }
-                        }
+    private void unsubscribe(Subscription subscription) {
+        subscription.cancelled = true;
+        final Path dir = subscription.dir;
+        if (dir != null && storage.values().stream().noneMatch(other -> dir.equals(other.dir))) {
+            final WatchKey watchKey = watchKeys.remove(dir);
+            if (watchKey != null) {
+                watchKey.cancel();
+            }
+        }
+        if (storage.isEmpty() && watcher != null) {
+            poller.cancel(false);
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                log.warn("Error while closing the directory watcher", e);
+            }
+            poller = null;
+            watcher = null;
+        }
+    }
+
+    private void poll() {
+        try {
+            final List<Subscription> ready = new ArrayList<>();
+            synchronized (this) {
+                if (watcher == null) {
+                    return;
+                }
+                final long now = System.currentTimeMillis();
+                WatchKey watchKey;
+                while ((watchKey = watcher.poll()) != null) {
+                    Path dir = (Path) watchKey.watchable();
+                    for (WatchEvent<?> event : watchKey.pollEvents()) {
+                        // an overflow has no file, the events lost can't be recovered
+                        if (!(event.context() instanceof Path)) continue;
+                        Path filePath = dir.resolve((Path) event.context());
+                        storage.values().forEach(subscription -> subscription.offer(dir, filePath, event.kind(), now));
                     }
-                    Thread.sleep(config.getInterval());
+                    watchKey.reset();
                 }
-            } catch (Exception e) {
-                if (e instanceof InterruptedException) {
-                    return;
+                storage.values().stream()
+                        .filter(subscription -> subscription.collectReady(now))
+                        .forEach(ready::add);
+            }
+            ready.forEach(subscription -> pools.getDefaultExecutorService().submit(subscription::execute));
+        } catch (Exception e) {
+            // an exception would stop the next executions
+            log.warn("Error while polling the directory watcher", e);
+        }
+    }
+
+    private static long sizeOf(Path filePath) {
+        try {
+            return Files.size(filePath);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * A file event waiting for its file to be stable.
+     */
+    private static class FileEvent {
+        private final Path filePath;
+        private Kind<?> kind;
+        private long lastEvent;
+        private long size;
+
+        FileEvent(Path filePath, Kind<?> kind, long lastEvent) {
+            this.filePath = filePath;
+            this.kind = kind;
+            this.lastEvent = lastEvent;
+            this.size = sizeOf(filePath);
+        }
+
+        // a modification doesn't change a creation
+        void merge(Kind<?> kind, long lastEvent) {
+            if (kind != ENTRY_MODIFY) {
+                this.kind = kind;
+            }
+            this.lastEvent = lastEvent;
+            this.size = sizeOf(filePath);
+        }
+
+        Map<String, Object> toParams() {
+            final Path dir = filePath.getParent();
+            return Map.of("fileName", filePath.getFileName().toString(),
+                    "filePath", getPathDependingOnUseNeo4jConfig(filePath.toString()),
+                    "fileDirectory", getPathDependingOnUseNeo4jConfig(dir.toString()),
+                    "listenEventType", kind.name().replace("ENTRY_", ""));
+        }
+    }
+
+    /**
+     * The directory and the pending events of a listener. The events are collected by the poller, and executed
+     * on the default pool by at most one task at a time.
+     */
+    class Subscription {
+        private final LoadDirectoryItem item;
+        private final Set<Kind> kinds;
+        private final WildcardFileFilter fileFilter;
+        private final long interval;
+        private final int batchSize;
+        // only used by the poller
+        private final Map<Path, FileEvent> pending = new LinkedHashMap<>();
+        private List<FileEvent> ready = Collections.emptyList();
+        private Path dir;
+        private volatile boolean running;
+        private volatile boolean cancelled;
+
+        Subscription(LoadDirectoryItem item) {
+            final LoadDirectoryItem.LoadDirectoryConfig config = item.getConfig();
+            this.item = item;
+            this.kinds = Set.of(fromListStringToKindArray(config.getListenEventType()));
+            this.fileFilter = new WildcardFileFilter(item.getPattern());
+            this.interval = config.getInterval();
+            this.batchSize = config.getBatchSize().intValue();
+        }
+
+        // all the kinds are registered, as the listeners of the same directory can listen to different ones
+        void subscribe() throws IOException {
+            final Path path = getPathFromUrlString(item.getUrlDir()).toAbsolutePath().normalize();
+            if (!watchKeys.containsKey(path)) {
+                if (watcher == null) {
+                    watcher = FileSystems.getDefault().newWatchService();
+                    poller = pools.getScheduledExecutorService().scheduleWithFixedDelay(LoadDirectoryHandler.this::poll, POLL_MILLIS, POLL_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                watchKeys.put(path, path.register(watcher, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY));
+            }
+            this.dir = path;
+        }
+
+        void offer(Path dir, Path filePath, Kind<?> kind, long now) {
+            if (cancelled || !dir.equals(this.dir) || !kinds.contains(kind)
+                    || !fileFilter.accept(dir.toFile(), filePath.getFileName().toString())) {
+                return;
+            }
+            final FileEvent event = pending.get(filePath);
+            if (event == null) {
+                pending.put(filePath, new FileEvent(filePath, kind, now));
+            } else {
+                event.merge(kind, now);
+            }
+        }
+
+        // true if there are stable files to handle and no execution running
+        boolean collectReady(long now) {
+            if (running || cancelled || pending.isEmpty()) {
+                return false;
+            }
+            final List<FileEvent> stable = new ArrayList<>();
+            for (Iterator<FileEvent> it = pending.values().iterator(); it.hasNext(); ) {
+                final FileEvent event = it.next();
+                if (now - event.lastEvent < interval) continue;
+                final long size = event.kind == ENTRY_DELETE ? event.size : sizeOf(event.filePath);
+                if (size != event.size) {
+                    // still written
+                    event.size = size;
+                    event.lastEvent = now;
+                    continue;
                 }
-                log.warn(String.format("Error while executing procedure with name %s . " +
-                        "The status of the directory listener is changed to ERROR. " +
-                        "Type `call apoc.load.directory.async.list` to more details.", item.getName()));
-                item.setError(ExceptionUtils.getStackTrace(e));
+                stable.add(event);
+                it.remove();
+            }
+            if (stable.isEmpty()) {
+                return false;
             }
-        };
+            ready = stable;
+            running = true;
+            return true;
+        }
+
+        // one transaction per file, or per batch of files with the batchSize config
+        void execute() {
+            try {
+                final List<Map<String, Object>> events = ready.stream().map(FileEvent::toParams).collect(Collectors.toList());
+                final int size = batchSize > 0 ? batchSize : 1;
+                for (int from = 0; from < events.size() && !cancelled; from += size) {
+                    final List<Map<String, Object>> batch = events.subList(from, Math.min(events.size(), from + size));
+                    try (Transaction tx = db.beginTx()) {
+                        tx.execute(item.getCypher(), batchSize > 0 ? Map.of("events", batch) : batch.get(0));
+                        tx.commit();
+                    }
+                }
+            } catch (Exception e) {
+                fail(e);
+            } finally {
+                ready = Collections.emptyList();
+                running = false;
+            }
+        }
+
+        // the listener stops at the first error, until it's added again
+        void fail(Exception e) {
+            cancelled = true;
+            log.warn(String.format("Error while executing procedure with name %s . " +
+                    "The status of the directory listener is changed to ERROR. " +
+                    "Type `call apoc.load.directory.async.list` to more details.", item.getName()));
+            item.setError(ExceptionUtils.getStackTrace(e));
+        }
     }
 
     public static String getPathDependingOnUseNeo4jConfig(String urlFile) {
@@ -14,17 +14,20 @@ public class LoadDirectoryItem {
 
     public static final String LISTEN_EVENT_TYPE = "listenEventType";
     public static final String INTERVAL = "interval";
+    public static final String BATCH_SIZE = "batchSize";
     public static final Set<String> DEFAULT_EVENT_TYPES = Set.of("CREATE", "DELETE", "MODIFY");
 
     public static class LoadDirectoryConfig {
 
         private final List<String> listenEventType;
         private final Long interval;
+        private final Long batchSize;
 
         public LoadDirectoryConfig(Map<String, Object> config) {
             if (config == null) config = Collections.emptyMap();
             this.interval = (Long) config.getOrDefault(INTERVAL, 1000L);
             this.listenEventType = (List<String>) config.getOrDefault(LISTEN_EVENT_TYPE, new ArrayList<>(DEFAULT_EVENT_TYPES));
+            this.batchSize = (Long) config.getOrDefault(BATCH_SIZE, 0L);
         }
 
         public List<String> getListenEventType() {
@@ -34,6 +37,10 @@ public class LoadDirectoryItem {
         public Long getInterval() {
             return interval;
         }
+
+        public Long getBatchSize() {
+            return batchSize;
+        }
     }
 
     public static class LoadDirectoryResult {
@@ -52,7 +59,7 @@ public class LoadDirectoryItem {
             this.pattern = pattern;
             this.cypher = cypher;
             this.urlDir = urlDir;
-            this.config = Map.of(LISTEN_EVENT_TYPE, configClass.getListenEventType(), INTERVAL, configClass.getInterval());
+            this.config = Map.of(LISTEN_EVENT_TYPE, configClass.getListenEventType(), INTERVAL, configClass.getInterval(), BATCH_SIZE, configClass.getBatchSize());
             this.error = error;
         }
     }
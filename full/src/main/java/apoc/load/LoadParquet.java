@@ -0,0 +1,330 @@
+package apoc.load;
+
+import apoc.Extended;
+import apoc.export.parquet.ParquetConfig;
+import apoc.export.parquet.ParquetUtil;
+import apoc.load.util.ByteBufferChannel;
+import apoc.result.MapResult;
+import apoc.util.FileUtils;
+import apoc.util.Util;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static apoc.util.Util.cleanUrl;
+
+@Extended
+public class LoadParquet {
+
+    private static final Set<String> OPERATORS = Set.of("eq", "notEq", "lt", "ltEq", "gt", "gtEq");
+
+    @Procedure("apoc.load.parquet")
+    @Description("apoc.load.parquet('url',{config}) YIELD value - load a parquet file as stream of maps,\n" +
+            " config contains any of: {columns:['name','age'], filter:{age:{gt:30}, name:'Selma'}, skip:1, limit:5}")
+    public Stream<MapResult> parquet(@Name("url") String url, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+        ParquetConfig parquetConfig = new ParquetConfig(config);
+        try {
+            File file = FileUtils.getLocalFile(url);
+            ByteBuffer[] segments = file != null
+                    ? ByteBufferChannel.map(file.toPath())
+                    : ByteBufferChannel.wrap(FileUtils.inputStreamFor(url, null, null, null).readAllBytes());
+            ParquetRowIterator iterator = new ParquetRowIterator(new ParquetUtil.BufferInputFile(segments), parquetConfig);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .skip(parquetConfig.getSkip())
+                    .limit(parquetConfig.getLimit())
+                    .map(MapResult::new)
+                    .onClose(iterator::close);
+        } catch (IOException e) {
+            throw new RuntimeException("Can't read Parquet from URL " + cleanUrl(url), e);
+        }
+    }
+
+    private static class ParquetRowIterator implements Iterator<Map<String, Object>>, AutoCloseable {
+        private final ParquetFileReader reader;
+        private final MessageType requestedSchema;
+        private final MessageColumnIO columnIO;
+        private final Set<String> columns;
+        private final List<Condition> conditions;
+        private RecordReader<Group> recordReader;
+        private long remainingInRowGroup;
+        private Map<String, Object> next;
+
+        ParquetRowIterator(ParquetUtil.BufferInputFile file, ParquetConfig config) throws IOException {
+            // the row group statistics are only needed to filter, the exact check is done on every row
+            final ParquetReadOptions.Builder options = ParquetReadOptions.builder();
+            final ParquetFileReader reader = ParquetFileReader.open(file, options.build());
+            final MessageType fileSchema = reader.getFooter().getFileMetaData().getSchema();
+            this.conditions = toConditions(fileSchema, config.getFilter());
+            final FilterPredicate predicate = toPredicate(conditions);
+            if (predicate != null) {
+                // reopen the file with the predicate, so that the row groups not matching the statistics are dropped
+                reader.close();
+                options.withRecordFilter(FilterCompat.get(predicate)).useStatsFilter(true).useDictionaryFilter(true);
+                this.reader = ParquetFileReader.open(file, options.build());
+            } else {
+                this.reader = reader;
+            }
+            this.columns = config.getColumns().isEmpty()
+                    ? fileSchema.getFields().stream().map(Type::getName).collect(Collectors.toCollection(LinkedHashSet::new))
+                    : new LinkedHashSet<>(config.getColumns());
+            // the requested schema contains the projected columns plus the ones needed by the filter
+            final Set<String> requested = new LinkedHashSet<>(columns);
+            conditions.forEach(condition -> requested.add(condition.column));
+            final List<Type> fields = new ArrayList<>(requested.size());
+            for (String column : requested) {
+                if (!fileSchema.containsField(column)) {
+                    throw new RuntimeException("Column " + column + " doesn't exist in the parquet file, available columns are: " +
+                            fileSchema.getFields().stream().map(Type::getName).collect(Collectors.toList()));
+                }
+                fields.add(fileSchema.getType(column));
+            }
+            this.requestedSchema = new MessageType(fileSchema.getName(), fields);
+            this.reader.setRequestedSchema(requestedSchema);
+            this.columnIO = new ColumnIOFactory().getColumnIO(requestedSchema, fileSchema);
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    if (remainingInRowGroup == 0) {
+                        final PageReadStore pages = reader.readNextRowGroup();
+                        if (pages == null) {
+                            return false;
+                        }
+                        remainingInRowGroup = pages.getRowCount();
+                        recordReader = columnIO.getRecordReader(pages, new GroupRecordConverter(requestedSchema));
+                        continue;
+                    }
+                    remainingInRowGroup--;
+                    final Map<String, Object> row = ParquetUtil.toMap(recordReader.read());
+                    if (conditions.stream().allMatch(condition -> condition.matches(row.get(condition.column)))) {
+                        row.keySet().retainAll(columns);
+                        next = row;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new RuntimeException("Error reading Parquet row group", e);
+            }
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            final Map<String, Object> row = next;
+            next = null;
+            return row;
+        }
+
+        @Override
+        public void close() {
+            Util.close(reader);
+        }
+    }
+
+    private static class Condition {
+        private final PrimitiveType type;
+        private final String column;
+        private final String operator;
+        private final Object value;
+
+        Condition(PrimitiveType type, String column, String operator, Object value) {
+            this.type = type;
+            this.column = column;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        boolean matches(Object actual) {
+            if (actual == null || value == null) {
+                switch (operator) {
+                    case "eq": return actual == value;
+                    case "notEq": return actual != value;
+                    default: return false;
+                }
+            }
+            final Integer comparison = compare(actual, value);
+            if (comparison == null) {
+                switch (operator) {
+                    case "eq": return Objects.equals(actual, value);
+                    case "notEq": return !Objects.equals(actual, value);
+                    default: return false;
+                }
+            }
+            switch (operator) {
+                case "eq": return comparison == 0;
+                case "notEq": return comparison != 0;
+                case "lt": return comparison < 0;
+                case "ltEq": return comparison <= 0;
+                case "gt": return comparison > 0;
+                default: return comparison >= 0;
+            }
+        }
+
+        private static Integer compare(Object actual, Object expected) {
+            if (actual instanceof Number && expected instanceof Number) {
+                if ((actual instanceof Long || actual instanceof Integer) && (expected instanceof Long || expected instanceof Integer)) {
+                    return Long.compare(((Number) actual).longValue(), ((Number) expected).longValue());
+                }
+                return Double.compare(((Number) actual).doubleValue(), ((Number) expected).doubleValue());
+            }
+            if (actual instanceof String && expected instanceof String) {
+                return ((String) actual).compareTo((String) expected);
+            }
+            if (actual instanceof Boolean && expected instanceof Boolean) {
+                return Boolean.compare((Boolean) actual, (Boolean) expected);
+            }
+            if (actual instanceof LocalDate && expected instanceof LocalDate) {
+                return ((LocalDate) actual).compareTo((LocalDate) expected);
+            }
+            final Long actualMillis = ParquetUtil.toEpochMillis(actual);
+            final Long expectedMillis = ParquetUtil.toEpochMillis(expected);
+            if (actualMillis != null && expectedMillis != null) {
+                final int comparison = Long.compare(actualMillis, expectedMillis);
+                // the epoch millis are truncated, use the nanos for the exact order
+                return comparison != 0 ? comparison : Integer.compare(nanos(actual), nanos(expected));
+            }
+            return null;
+        }
+
+        private static int nanos(Object temporal) {
+            return temporal instanceof TemporalAccessor && ((TemporalAccessor) temporal).isSupported(ChronoField.NANO_OF_SECOND)
+                    ? ((TemporalAccessor) temporal).get(ChronoField.NANO_OF_SECOND) % 1_000_000 : 0;
+        }
+
+        /**
+         * @return the Parquet predicate used to drop row groups by their statistics,
+         * or null if the value can't be converted exactly to the column type
+         */
+        FilterPredicate toPredicate() {
+            if (type == null || column.contains(".")) {
+                return null;
+            }
+            final LogicalTypeAnnotation logicalType = type.getLogicalTypeAnnotation();
+            switch (type.getPrimitiveTypeName()) {
+                case INT64:
+                    if (logicalType instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) {
+                        final Long millis = ParquetUtil.toEpochMillis(value);
+                        return ((LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) logicalType).getUnit() == LogicalTypeAnnotation.TimeUnit.MILLIS
+                                && (value == null || millis != null) && nanos(value) == 0
+                                ? predicate(FilterApi.longColumn(column), millis) : null;
+                    }
+                    if (logicalType != null || !(value == null || value instanceof Long || value instanceof Integer)) return null;
+                    return predicate(FilterApi.longColumn(column), value == null ? null : ((Number) value).longValue());
+                case INT32:
+                    if (logicalType instanceof LogicalTypeAnnotation.DateLogicalTypeAnnotation) {
+                        if (!(value == null || value instanceof LocalDate)) return null;
+                        return predicate(FilterApi.intColumn(column), value == null ? null : (int) ((LocalDate) value).toEpochDay());
+                    }
+                    if (logicalType != null || !(value == null || value instanceof Long || value instanceof Integer)) return null;
+                    if (value != null && ((Number) value).longValue() != ((Number) value).intValue()) return null;
+                    return predicate(FilterApi.intColumn(column), value == null ? null : ((Number) value).intValue());
+                case DOUBLE:
+                    if (!(value == null || value instanceof Number)) return null;
+                    return predicate(FilterApi.doubleColumn(column), value == null ? null : ((Number) value).doubleValue());
+                case BOOLEAN:
+                    if (!(value == null || value instanceof Boolean)) return null;
+                    final Operators.BooleanColumn booleanColumn = FilterApi.booleanColumn(column);
+                    switch (operator) {
+                        case "eq": return FilterApi.eq(booleanColumn, (Boolean) value);
+                        case "notEq": return FilterApi.notEq(booleanColumn, (Boolean) value);
+                        default: return null;
+                    }
+                case BINARY:
+                    if (!(logicalType instanceof LogicalTypeAnnotation.StringLogicalTypeAnnotation) || !(value == null || value instanceof String)) return null;
+                    return predicate(FilterApi.binaryColumn(column), value == null ? null : Binary.fromString((String) value));
+                default:
+                    return null;
+            }
+        }
+
+        private <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsLtGt> FilterPredicate predicate(C column, T value) {
+            switch (operator) {
+                case "eq": return FilterApi.eq(column, value);
+                case "notEq": return FilterApi.notEq(column, value);
+            }
+            if (value == null) {
+                return null;
+            }
+            switch (operator) {
+                case "lt": return FilterApi.lt(column, value);
+                case "ltEq": return FilterApi.ltEq(column, value);
+                case "gt": return FilterApi.gt(column, value);
+                default: return FilterApi.gtEq(column, value);
+            }
+        }
+    }
+
+    /**
+     * The filter is a map of column to either a value (equality) or a map of operator to value,
+     * e.g. {age: {gt: 30, lt: 60}, name: 'Selma'}; all the conditions have to match.
+     */
+    private static List<Condition> toConditions(MessageType schema, Map<String, Object> filter) {
+        final List<Condition> conditions = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : filter.entrySet()) {
+            final String column = entry.getKey();
+            final PrimitiveType type = schema.containsField(column) && schema.getType(column).isPrimitive()
+                    ? schema.getType(column).asPrimitiveType() : null;
+            final Map<String, Object> operators = entry.getValue() instanceof Map
+                    ? (Map<String, Object>) entry.getValue()
+                    : Collections.singletonMap("eq", entry.getValue());
+            for (Map.Entry<String, Object> operator : operators.entrySet()) {
+                if (!OPERATORS.contains(operator.getKey())) {
+                    throw new RuntimeException("Unsupported filter operator " + operator.getKey() + " for column " + column + ", supported ones are: " + OPERATORS);
+                }
+                conditions.add(new Condition(type, column, operator.getKey(), operator.getValue()));
+            }
+        }
+        return conditions;
+    }
+
+    private static FilterPredicate toPredicate(List<Condition> conditions) {
+        FilterPredicate predicate = null;
+        for (Condition condition : conditions) {
+            final FilterPredicate current = condition.toPredicate();
+            if (current != null) {
+                predicate = predicate == null ? current : FilterApi.and(predicate, current);
+            }
+        }
+        return predicate;
+    }
+}
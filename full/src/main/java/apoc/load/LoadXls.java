@@ -6,6 +6,7 @@ import apoc.meta.Meta;
 import apoc.util.FileUtils;
 import apoc.util.Util;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.usermodel.*;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.procedure.Context;
@@ -14,7 +15,11 @@ import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
 import org.neo4j.values.storable.LocalDateTimeValue;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.*;
 import java.time.temporal.TemporalAccessor;
 import java.util.*;
@@ -45,7 +50,7 @@ public class LoadXls {
     // Sheet1!$A$1:$F$1
     static class Selection {
         private static final Pattern PATTERN = Pattern.compile("([a-z]+)(\\d+)?(?::([a-z]+)(\\d+)?)?", Pattern.CASE_INSENSITIVE);
-        private static final int DEFAULT = -1;
+        static final int DEFAULT = -1;
         String sheet;
         int top = DEFAULT;
         int left = DEFAULT;
@@ -93,16 +98,16 @@ public class LoadXls {
             if (bottom == DEFAULT) bottom = lastRowNum;
         }
 
-        public void updateHorizontal(short firstCellNum, short lastCellNum) {
+        public void updateHorizontal(int firstCellNum, int lastCellNum) {
             if (left == DEFAULT) left = firstCellNum;
             if (right == DEFAULT) right = lastCellNum;
         }
     }
     @Procedure("apoc.load.xls")
-    @Description("apoc.load.xls('url','selector',{config}) YIELD lineNo, list, map - load XLS fom URL as stream of row values,\n config contains any of: {skip:1,limit:5,header:false,ignore:['tmp'],arraySep:';',mapping:{years:{type:'int',arraySep:'-',array:false,name:'age',ignore:false, dateFormat:'iso_date', dateParse:['dd-MM-yyyy']}}")
+    @Description("apoc.load.xls('url','selector',{config}) YIELD lineNo, list, map - load XLS fom URL as stream of row values,\n config contains any of: {skip:1,limit:5,header:false,ignore:['tmp'],arraySep:';',streaming:false,mapping:{years:{type:'int',arraySep:'-',array:false,name:'age',ignore:false, dateFormat:'iso_date', dateParse:['dd-MM-yyyy']}}")
     public Stream<XLSResult> xls(@Name("url") String url, @Name("selector") String selector, @Name(value = "config",defaultValue = "{}") Map<String, Object> config) {
         boolean failOnError = booleanValue(config, "failOnError", true);
-        try (CountingInputStream stream = FileUtils.inputStreamFor(url, null, null, null)) {
+        try {
             Selection selection = new Selection(selector);
 
             char arraySep = separator(config, "arraySep", DEFAULT_ARRAY_SEP);
@@ -114,17 +119,24 @@ public class LoadXls {
             List<Object> nullValues = value(config, "nullValues", emptyList());
             Map<String, Map<String, Object>> mapping = value(config, "mapping", Collections.emptyMap());
             Map<String, Mapping> mappings = createMapping(mapping, arraySep, ignore);
+            boolean checkIgnore = !ignore.isEmpty() || mappings.values().stream().anyMatch( m -> m.ignore);
 
-            Workbook workbook = WorkbookFactory.create(stream);
-            Sheet sheet = workbook.getSheet(selection.sheet);
-            if (sheet==null) throw new IllegalStateException("Sheet "+selection.sheet+" not found");
-            selection.updateVertical(sheet.getFirstRowNum(),sheet.getLastRowNum());
-            Row firstRow = sheet.getRow(selection.top);
-            selection.updateHorizontal(firstRow.getFirstCellNum(), firstRow.getLastCellNum());
+            if (booleanValue(config, "streaming", false)) {
+                Stream<XLSResult> rows = streamXlsx(url, selection, hasHeader, skip, limit, ignore, checkIgnore, mappings, nullValues);
+                if (rows != null) return rows;
+            }
 
-            String[] header = getHeader(hasHeader, firstRow,selection, ignore, mappings);
-            boolean checkIgnore = !ignore.isEmpty() || mappings.values().stream().anyMatch( m -> m.ignore);
-            return StreamSupport.stream(new XLSSpliterator(sheet, selection, header, url, skip, limit, checkIgnore,mappings, nullValues), false);
+            try (CountingInputStream stream = FileUtils.inputStreamFor(url, null, null, null)) {
+                Workbook workbook = WorkbookFactory.create(stream);
+                Sheet sheet = workbook.getSheet(selection.sheet);
+                if (sheet==null) throw new IllegalStateException("Sheet "+selection.sheet+" not found");
+                selection.updateVertical(sheet.getFirstRowNum(),sheet.getLastRowNum());
+                Row firstRow = sheet.getRow(selection.top);
+                selection.updateHorizontal(firstRow.getFirstCellNum(), firstRow.getLastCellNum());
+
+                String[] header = getHeader(hasHeader, firstRow,selection, ignore, mappings);
+                return StreamSupport.stream(new XLSSpliterator(sheet, selection, header, url, skip, limit, checkIgnore,mappings, nullValues), false);
+            }
         } catch (Exception e) {
             if(!failOnError)
                 return Stream.of(new  XLSResult(new String[0], new Object[0], 0, true, Collections.emptyMap(), emptyList()));
@@ -133,6 +145,63 @@ public class LoadXls {
         }
     }
 
+    /**
+     * Streams the rows of a .xlsx file with {@link XlsxStreamingReader}, remote files are first copied to a temp file.
+     * Returns null for other formats, like the binary .xls one, that are read by the workbook reader.
+     */
+    private Stream<XLSResult> streamXlsx(String url, Selection selection, boolean hasHeader, long skip, long limit,
+                                         List<String> ignore, boolean checkIgnore, Map<String, Mapping> mappings, List<Object> nullValues) throws Exception {
+        File localFile = FileUtils.getLocalFile(url);
+        final File file;
+        if (localFile != null) {
+            file = localFile;
+        } else {
+            file = Files.createTempFile("apoc-load-xls", ".xlsx").toFile();
+            try (CountingInputStream stream = FileUtils.inputStreamFor(url, null, null, null)) {
+                Files.copy(stream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (Exception e) {
+                file.delete();
+                throw e;
+            }
+        }
+        final Runnable cleanup = () -> {
+            if (localFile == null) file.delete();
+        };
+        if (FileMagic.valueOf(file) != FileMagic.OOXML) {
+            cleanup.run();
+            return null;
+        }
+        XlsxStreamingReader reader = null;
+        try {
+            reader = new XlsxStreamingReader(file, selection.sheet);
+            XlsxStreamingReader.SheetRow firstRow = reader.nextRow();
+            while (firstRow != null && selection.top != Selection.DEFAULT && firstRow.index < selection.top) {
+                firstRow = reader.nextRow();
+            }
+            if (firstRow == null) throw new IllegalStateException("Sheet " + selection.sheet + " doesn't have rows");
+            // the last row is not known in advance, the rows are read up to the end of the sheet
+            selection.updateVertical(firstRow.index, Integer.MAX_VALUE);
+            selection.updateHorizontal(firstRow.firstCell, firstRow.values.length);
+
+            String[] header = getHeader(hasHeader, firstRow.values, selection, ignore, mappings);
+            final XlsxStreamingReader rowReader = reader;
+            return StreamSupport.stream(new XLSXStreamingSpliterator(reader, firstRow, selection, header, url, skip, limit, checkIgnore, mappings, nullValues), false)
+                    .onClose(() -> {
+                        try {
+                            rowReader.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        } finally {
+                            cleanup.run();
+                        }
+                    });
+        } catch (Exception e) {
+            if (reader != null) reader.close();
+            cleanup.run();
+            throw e;
+        }
+    }
+
     private Map<String, Mapping> createMapping(Map<String, Map<String, Object>> mapping, char arraySep, List<String> ignore) {
         if (mapping.isEmpty()) return Collections.emptyMap();
         HashMap<String, Mapping> result = new HashMap<>(mapping.size());
@@ -238,6 +307,19 @@ public class LoadXls {
         return result;
     }
 
+    private String[] getHeader(boolean hasHeader, Object[] header, Selection selection, List<String> ignore, Map<String, Mapping> mapping) {
+        if (!hasHeader) return null;
+
+        String[] result = new String[selection.right - selection.left];
+        for (int i = selection.left; i < selection.right; i++) {
+            Object cell = i < header.length ? header[i] : null;
+            if (cell == null) throw new IllegalStateException("Header at position "+i+" doesn't have a value");
+            String value = cell.toString();
+            result[i- selection.left] = ignore.contains(value) || mapping.getOrDefault(value, Mapping.EMPTY).ignore ? null : value;
+        }
+        return result;
+    }
+
     private boolean booleanValue(Map<String, Object> config, String key, boolean defaultValue) {
         if (config == null || !config.containsKey(key)) return defaultValue;
         Object value = config.get(key);
@@ -282,15 +364,27 @@ public class LoadXls {
 
     }
 
+    private static Object[] extract(Object[] values, Selection selection) {
+        Object[] result = new Object[selection.right-selection.left];
+        for (int i = selection.left; i < selection.right && i < values.length; i++) {
+            result[i-selection.left] = values[i];
+        }
+        return result;
+    }
+
+    static LocalDateTimeValue toLocalDateTimeValue(Date date) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(date);
+        LocalDateTime localDateTime = LocalDateTime.of(cal.get(Calendar.YEAR), cal.get(Calendar.MONTH)+1, cal.get(Calendar.DAY_OF_MONTH),
+                cal.get(Calendar.HOUR_OF_DAY), cal.get(Calendar.MINUTE), cal.get(Calendar.SECOND));
+        return LocalDateTimeValue.localDateTime(localDateTime);
+    }
+
     private static Object getValue(Cell cell, CellType type) {
         switch (type) {
             case NUMERIC: // In excel the date is NUMERIC Type
                 if (DateUtil.isCellDateFormatted(cell)) {
-                    Calendar cal = Calendar.getInstance();
-                    cal.setTime(cell.getDateCellValue());
-                    LocalDateTime localDateTime = LocalDateTime.of(cal.get(Calendar.YEAR), cal.get(Calendar.MONTH)+1, cal.get(Calendar.DAY_OF_MONTH),
-                            cal.get(Calendar.HOUR_OF_DAY), cal.get(Calendar.MINUTE), cal.get(Calendar.SECOND));
-                    return LocalDateTimeValue.localDateTime(localDateTime);
+                    return toLocalDateTimeValue(cell.getDateCellValue());
 //                    return LocalDateTimeValue.localDateTime(cell.getDateCellValue().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
                 }
                 double value = cell.getNumericCellValue();
@@ -404,4 +498,56 @@ public class LoadXls {
             }
         }
     }
+
+    private static class XLSXStreamingSpliterator extends Spliterators.AbstractSpliterator<XLSResult> {
+        private final XlsxStreamingReader reader;
+        private final Selection selection;
+        private final String[] header;
+        private final String url;
+        private final long limit;
+        private final boolean ignore;
+        private final Map<String, Mapping> mapping;
+        private final List<Object> nullValues;
+        private final long skip;
+        private XlsxStreamingReader.SheetRow pending;
+        long lineNo;
+
+        public XLSXStreamingSpliterator(XlsxStreamingReader reader, XlsxStreamingReader.SheetRow firstRow, Selection selection, String[] header, String url, long skip, long limit, boolean ignore, Map<String, Mapping> mapping, List<Object> nullValues) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.reader = reader;
+            this.selection = selection;
+            this.header = header;
+            this.url = url;
+            this.ignore = ignore;
+            this.mapping = mapping;
+            this.nullValues = nullValues;
+            int headerOffset = header != null ? 1 : 0;
+            this.skip = skip + selection.top + headerOffset;
+            this.limit = limit == Long.MAX_VALUE ? selection.bottom : skip + limit;
+            // without header the first row is already a data row
+            this.pending = header == null ? firstRow : null;
+            lineNo = this.skip;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super XLSResult> action) {
+            try {
+                XlsxStreamingReader.SheetRow row;
+                do {
+                    row = pending != null ? pending : reader.nextRow();
+                    pending = null;
+                } while (row != null && row.index < lineNo);
+                // as in the workbook reader a missing row ends the selection
+                if (row != null && row.index == lineNo && lineNo <= limit) {
+                    Object[] list = extract(row.values, selection);
+                    action.accept(new XLSResult(header, list, lineNo-skip, ignore,mapping, nullValues));
+                    lineNo++;
+                    return true;
+                }
+                return false;
+            } catch (Exception e) {
+                throw new RuntimeException("Error reading XLS from URL " + cleanUrl(url) + " at " + lineNo, e);
+            }
+        }
+    }
 }
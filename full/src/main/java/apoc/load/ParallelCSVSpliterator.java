@@ -0,0 +1,479 @@
+package apoc.load;
+
+import apoc.load.util.LoadCsvConfig;
+import apoc.util.Util;
+import com.opencsv.CSVReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static apoc.util.Util.cleanUrl;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads the rows of an uncompressed local CSV file with the tasks of a pool, each one parsing a chunk of the file.
+ *
+ * A chunk starts at the first record that begins at or after its byte offset, and ends where the next chunk starts.
+ * As the offset can fall inside a quoted value with line breaks, its state is guessed by scanning the following bytes
+ * both as if they were outside and inside quotes: a quote that can neither open nor close a value rules out one of the two.
+ * The guess is then checked against the end of the previous chunk, and the chunk is parsed again when they differ.
+ *
+ * The rows are returned in the order of the file, or with {@code ordered: false} as soon as their chunk is parsed,
+ * in which case {@code lineNo}, {@code skip} and {@code limit} follow the order in which the rows are returned.
+ *
+ * The rows are converted by the tasks: with {@code ignoreErrors} the ones that fail are skipped but still counted
+ * in {@code lineNo}, otherwise the error is raised when the row would have been returned.
+ */
+class ParallelCSVSpliterator extends Spliterators.AbstractSpliterator<CSVResult> implements AutoCloseable {
+
+    private static final int BLOCK_SIZE = 1 << 16;
+    private static final int RESYNC_LOOKAHEAD = 1 << 16;
+
+    private final String url;
+    private final LoadCsvConfig config;
+    private final ExecutorService executor;
+    private final FileChannel channel;
+    private final long size;
+    private final byte separator;
+    private final byte quote;
+    private final byte escape;
+    private final boolean ignoreQuotations;
+    private final CSVHeader header;
+    private final long dataStart;
+    private final int maxPending;
+    private final Deque<Slot> window = new ArrayDeque<>();
+    private final Semaphore completions = new Semaphore(0);
+
+    private final long limit;
+    private long skip;
+    private long lineNo;
+    private long nextOffset;
+    private long previousEnd;
+    private Iterator<CSVResult> rows = Collections.emptyIterator();
+    // the error of the row after the current ones
+    private RuntimeException error;
+
+    ParallelCSVSpliterator(String url, File file, LoadCsvConfig config, boolean checkIgnore, ExecutorService executor) throws IOException {
+        super(Long.MAX_VALUE, Spliterator.ORDERED);
+        this.url = url;
+        this.config = config;
+        this.executor = executor;
+        this.separator = (byte) config.getSeparator();
+        this.quote = (byte) config.getQuoteChar();
+        this.escape = (byte) config.getEscapeChar();
+        this.ignoreQuotations = config.isIgnoreQuotations();
+        this.maxPending = Math.max(2, Runtime.getRuntime().availableProcessors());
+        this.limit = Util.isSumOutOfRange(config.getSkip(), config.getLimit()) ? Long.MAX_VALUE : (config.getSkip() + config.getLimit());
+        this.skip = config.getSkip();
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            this.size = channel.size();
+            if (config.isHasHeader()) {
+                this.dataStart = new Scanner(0, false).nextRecordStart();
+                try (CSVReader csv = LoadCsv.csvReader(new StringReader(read(0, dataStart)), config)) {
+                    this.header = new CSVHeader(LoadCsv.getHeader(csv, config), checkIgnore, config.getMappings(), config.getNullValues());
+                }
+            } else {
+                this.dataStart = 0;
+                this.header = new CSVHeader(null, checkIgnore, config.getMappings(), config.getNullValues());
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.nextOffset = dataStart;
+        this.previousEnd = dataStart;
+    }
+
+    /**
+     * The records are split on the bytes of the separator, quote and escape characters, so they must be single byte in UTF-8.
+     */
+    static boolean isSupported(LoadCsvConfig config) {
+        return isSingleByte(config.getSeparator()) && isSingleByte(config.getQuoteChar()) && isSingleByte(config.getEscapeChar());
+    }
+
+    private static boolean isSingleByte(char c) {
+        return c < 128 && c != '\n' && c != '\r';
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super CSVResult> action) {
+        while (lineNo < limit) {
+            if (!rows.hasNext()) {
+                if (error != null) {
+                    throw LoadCsv.conversionError(url, lineNo, error);
+                }
+                rows = nextChunk();
+                if (rows == null) {
+                    return false;
+                }
+                continue;
+            }
+            final CSVResult row = rows.next();
+            if (row == null) {
+                // an ignored error
+                if (skip > 0) skip--;
+                lineNo++;
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                lineNo++;
+                continue;
+            }
+            row.lineNo = lineNo++;
+            action.accept(row);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        window.forEach(slot -> slot.task.cancel(false));
+        window.clear();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private Iterator<CSVResult> nextChunk() {
+        while (true) {
+            retire();
+            while (window.size() < maxPending && nextOffset < size) {
+                final long from = nextOffset;
+                nextOffset = Math.min(size, from + config.getChunkSize());
+                window.addLast(new Slot(from, nextOffset, from != dataStart));
+            }
+            if (window.isEmpty()) {
+                return null;
+            }
+            final Slot slot = config.isOrdered() ? validatedHead() : firstParsed();
+            if (slot != null) {
+                slot.emitted = true;
+                final List<CSVResult> parsed = slot.chunk.rows;
+                slot.chunk.rows = null;
+                error = slot.chunk.error;
+                return parsed.iterator();
+            }
+            // nothing can be returned yet: parse the first pending chunk here if the pool did not start it, or wait for one
+            for (Slot pending : window) {
+                if (!pending.task.isDone()) {
+                    pending.task.run();
+                    break;
+                }
+            }
+            try {
+                completions.tryAcquire(10, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    // the returned chunks that are known to start where the previous one ends are not needed anymore
+    private void retire() {
+        while (!window.isEmpty() && window.peekFirst().emitted && window.peekFirst().chunk.start == previousEnd) {
+            previousEnd = window.removeFirst().chunk.end;
+        }
+    }
+
+    private Slot validatedHead() {
+        final Slot head = window.peekFirst();
+        if (head.await().start != previousEnd) {
+            head.reparse(previousEnd);
+        }
+        return head;
+    }
+
+    /**
+     * The first chunk that is parsed and either follows the chunks before it or was split with certainty.
+     */
+    private Slot firstParsed() {
+        boolean chained = true;
+        long expected = previousEnd;
+        for (Slot slot : window) {
+            if (!slot.task.isDone()) {
+                chained = false;
+                continue;
+            }
+            Chunk chunk = slot.await();
+            if (chained && chunk.start != expected) {
+                if (slot.emitted) {
+                    throw new IllegalStateException("Error reading CSV from " + describe() + ": the rows between the bytes " + expected + " and " + chunk.end
+                            + " were split inside a quoted value, load the file with ordered: true");
+                }
+                chunk = slot.reparse(expected);
+            }
+            if (!slot.emitted && (chained || chunk.certain)) {
+                return slot;
+            }
+            if (chained) {
+                expected = chunk.end;
+            }
+        }
+        return null;
+    }
+
+    private String describe() {
+        return "URL " + cleanUrl(url);
+    }
+
+    private String read(long start, long end) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) break;
+        }
+        return new String(buffer.array(), 0, buffer.position(), UTF_8);
+    }
+
+    private int byteAt(long position) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(1);
+        return channel.read(buffer, position) == 1 ? buffer.get(0) & 0xFF : -1;
+    }
+
+    private Chunk parse(long from, long to, boolean resync) throws IOException {
+        long start = from;
+        boolean certain = true;
+        if (resync) {
+            // the offset must not split an escaped quote, so the state there is either inside or outside quotes
+            long offset = from;
+            while (offset < size && (byteAt(offset - 1) == quote || byteAt(offset - 1) == escape)) {
+                offset++;
+            }
+            final Scanner outside = new Scanner(offset, false);
+            final Scanner inside = new Scanner(offset, true);
+            final long lookahead = Math.min(size, offset + RESYNC_LOOKAHEAD);
+            final boolean outsidePlausible = outside.isPlausibleUntil(lookahead);
+            final boolean insidePlausible = inside.isPlausibleUntil(lookahead);
+            // without quotes there is nothing to tell, and a quoted value that long is unlikely
+            certain = ignoreQuotations || outsidePlausible != insidePlausible || (outsidePlausible && !outside.sawQuote);
+            final boolean startsInside = !ignoreQuotations && insidePlausible && !outsidePlausible;
+            start = !startsInside && byteAt(offset - 1) == '\n' ? offset : new Scanner(offset, startsInside).nextRecordStart();
+        }
+        long end = start;
+        final Scanner scanner = new Scanner(start, false);
+        while (end < to) {
+            end = scanner.nextRecordStart();
+        }
+
+        final List<CSVResult> results = new ArrayList<>();
+        if (end > start) {
+            try (CSVReader csv = LoadCsv.csvReader(new StringReader(read(start, end)), config)) {
+                String[] row;
+                while ((row = csv.readNext()) != null) {
+                    try {
+                        results.add(new CSVResult(header, row, 0, config.getResults()));
+                    } catch (RuntimeException e) {
+                        if (!config.getIgnoreErrors()) {
+                            return new Chunk(start, end, certain, results, e);
+                        }
+                        results.add(null);
+                    }
+                }
+            }
+        }
+        return new Chunk(start, end, certain, results, null);
+    }
+
+    private static class Chunk {
+        final long start;
+        final long end;
+        final boolean certain;
+        // with ignoreErrors the rows that fail are null, otherwise the rows stop before the first one, that failed with this error
+        final RuntimeException error;
+        List<CSVResult> rows;
+
+        Chunk(long start, long end, boolean certain, List<CSVResult> rows, RuntimeException error) {
+            this.start = start;
+            this.end = end;
+            this.certain = certain;
+            this.rows = rows;
+            this.error = error;
+        }
+    }
+
+    /**
+     * The chunk of the bytes between two offsets of the file, parsed by a task of the pool.
+     */
+    private class Slot {
+        final long to;
+        FutureTask<Chunk> task;
+        Chunk chunk;
+        boolean emitted;
+
+        Slot(long from, long to, boolean resync) {
+            this.to = to;
+            this.task = new FutureTask<>(() -> parse(from, to, resync)) {
+                @Override
+                protected void done() {
+                    completions.release();
+                }
+            };
+            executor.execute(task);
+        }
+
+        // runs the task here when no thread of the pool started it yet
+        Chunk await() {
+            if (chunk != null) {
+                return chunk;
+            }
+            task.run();
+            try {
+                chunk = task.get();
+                return chunk;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new RuntimeException("Error reading CSV from " + describe(), cause);
+            }
+        }
+
+        Chunk reparse(long start) {
+            chunk = null;
+            task = new FutureTask<>(() -> parse(start, to, false));
+            return await();
+        }
+    }
+
+    /**
+     * Follows the quotes of the bytes like the parser of opencsv does, to find where the records start.
+     */
+    private class Scanner {
+        private final ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+        private long position;
+        private boolean inQuotes;
+        private boolean inField;
+        private int previous;
+        boolean sawQuote;
+
+        Scanner(long position, boolean inQuotes) throws IOException {
+            this.position = position;
+            this.inQuotes = inQuotes;
+            this.previous = '\n';
+            if (position > 0) {
+                this.previous = byteAt(position - 1);
+            }
+            this.inField = previous != separator && previous != '\n' && previous != '\r';
+            buffer.limit(0);
+        }
+
+        private int peek() throws IOException {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                final int read = channel.read(buffer, position);
+                buffer.flip();
+                if (read <= 0) {
+                    return -1;
+                }
+            }
+            return buffer.get(buffer.position()) & 0xFF;
+        }
+
+        private int next() throws IOException {
+            final int b = peek();
+            if (b != -1) {
+                buffer.position(buffer.position() + 1);
+                position++;
+            }
+            return b;
+        }
+
+        private boolean quoted() {
+            return (inQuotes && !ignoreQuotations) || inField;
+        }
+
+        /**
+         * @return the position after the next line break outside quotes, or the size of the file
+         */
+        long nextRecordStart() throws IOException {
+            int b;
+            while ((b = next()) != -1) {
+                if (step(b)) {
+                    return position;
+                }
+            }
+            return size;
+        }
+
+        /**
+         * @return false if a quote found before the limit can neither open nor close a value
+         */
+        boolean isPlausibleUntil(long limit) throws IOException {
+            int b;
+            while (position < limit && (b = next()) != -1) {
+                if (b == quote && !(quoted() && peek() == quote)) {
+                    sawQuote = true;
+                    final boolean plausible = inQuotes
+                            ? isBoundary(peek()) || peek() == -1
+                            : isBoundary(previous);
+                    if (!plausible) {
+                        return false;
+                    }
+                }
+                step(b);
+            }
+            return true;
+        }
+
+        private boolean isBoundary(int b) {
+            return b == separator || b == '\n' || b == '\r';
+        }
+
+        // returns true at the end of a record
+        private boolean step(int b) throws IOException {
+            previous = b;
+            if (b == '\n' || b == '\r') {
+                inField = false;
+                if (!inQuotes || ignoreQuotations) {
+                    inQuotes = false;
+                    return b == '\n';
+                }
+            } else if (b == escape) {
+                final int next = peek();
+                if (quoted() && (next == quote || next == escape)) {
+                    previous = next();
+                }
+            } else if (b == quote) {
+                if (quoted() && peek() == quote) {
+                    previous = next();
+                } else {
+                    inQuotes = !inQuotes;
+                }
+                inField = !inField;
+            } else if (b == separator) {
+                if (!inQuotes || ignoreQuotations) {
+                    inField = false;
+                }
+            } else {
+                inField = true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package apoc.load;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+/**
+ * Reads the rows of one sheet of a .xlsx file with constant memory: the package is opened by {@link XSSFReader}
+ * and the sheet xml is pulled one row at a time, only the shared strings and the cell styles are kept on the heap.
+ * The values are the same of the workbook based reader of {@link LoadXls}.
+ */
+class XlsxStreamingReader implements AutoCloseable {
+
+    static class SheetRow {
+        final int index;
+        final int firstCell;
+        // indexed by column, up to the last cell of the row
+        final Object[] values;
+
+        SheetRow(int index, int firstCell, Object[] values) {
+            this.index = index;
+            this.firstCell = firstCell;
+            this.values = values;
+        }
+    }
+
+    private final OPCPackage pkg;
+    private final InputStream sheetStream;
+    private final XMLStreamReader xml;
+    private final ReadOnlySharedStringsTable strings;
+    private final StylesTable styles;
+    private final Map<Integer, Boolean> dateStyles = new HashMap<>();
+    private int lastRowIndex = -1;
+
+    XlsxStreamingReader(File file, String sheetName) throws Exception {
+        pkg = OPCPackage.open(file, PackageAccess.READ);
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            strings = new ReadOnlySharedStringsTable(pkg);
+            styles = reader.getStylesTable();
+            sheetStream = findSheet(reader, sheetName);
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            xml = factory.createXMLStreamReader(sheetStream);
+        } catch (Exception e) {
+            pkg.revert();
+            throw e;
+        }
+    }
+
+    private static InputStream findSheet(XSSFReader reader, String sheetName) throws Exception {
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+        while (sheets.hasNext()) {
+            InputStream stream = sheets.next();
+            // like Workbook.getSheet the name is case insensitive
+            if (sheets.getSheetName().equalsIgnoreCase(sheetName)) {
+                return stream;
+            }
+            stream.close();
+        }
+        throw new IllegalStateException("Sheet " + sheetName + " not found");
+    }
+
+    /**
+     * @return the next row present in the sheet or null at the end of the sheet
+     */
+    SheetRow nextRow() throws XMLStreamException {
+        while (xml.hasNext()) {
+            if (xml.next() == START_ELEMENT && "row".equals(xml.getLocalName())) {
+                String ref = xml.getAttributeValue(null, "r");
+                lastRowIndex = ref == null ? lastRowIndex + 1 : Integer.parseInt(ref) - 1;
+                return readRow(lastRowIndex);
+            }
+        }
+        return null;
+    }
+
+    private SheetRow readRow(int index) throws XMLStreamException {
+        Object[] values = new Object[16];
+        int firstCell = -1;
+        int lastCell = -1;
+        int column = -1;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == END_ELEMENT && "row".equals(xml.getLocalName())) {
+                break;
+            }
+            if (event == START_ELEMENT && "c".equals(xml.getLocalName())) {
+                String ref = xml.getAttributeValue(null, "r");
+                column = ref == null ? column + 1 : columnIndex(ref);
+                Object value = readCell(xml.getAttributeValue(null, "t"), xml.getAttributeValue(null, "s"));
+                if (firstCell == -1) firstCell = column;
+                lastCell = column;
+                if (column >= values.length) {
+                    values = Arrays.copyOf(values, Math.max(values.length * 2, column + 1));
+                }
+                values[column] = value;
+            }
+        }
+        return new SheetRow(index, firstCell, Arrays.copyOf(values, lastCell + 1));
+    }
+
+    private Object readCell(String type, String style) throws XMLStreamException {
+        String value = null;
+        StringBuilder inline = null;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == END_ELEMENT && "c".equals(xml.getLocalName())) {
+                break;
+            }
+            if (event == START_ELEMENT) {
+                String name = xml.getLocalName();
+                if ("v".equals(name)) {
+                    value = xml.getElementText();
+                } else if ("t".equals(name)) {
+                    // the text runs of an inline string
+                    if (inline == null) inline = new StringBuilder();
+                    inline.append(xml.getElementText());
+                }
+            }
+        }
+        if (type == null) type = "n";
+        switch (type) {
+            case "s":
+                return value == null ? null : strings.getItemAt(Integer.parseInt(value)).getString();
+            case "inlineStr":
+                return inline == null ? null : inline.toString();
+            case "str":
+                return value;
+            case "b":
+                return value == null ? null : "1".equals(value) || "true".equalsIgnoreCase(value);
+            case "e":
+                return null;
+            case "n":
+                if (value == null || value.isEmpty()) return null;
+                double number = Double.parseDouble(value);
+                if (isDateStyle(style) && DateUtil.isValidExcelDate(number)) {
+                    return LoadXls.toLocalDateTimeValue(DateUtil.getJavaDate(number));
+                }
+                if (number == Math.floor(number)) return (long) number;
+                return number;
+            default:
+                return value;
+        }
+    }
+
+    private boolean isDateStyle(String style) {
+        int index = style == null ? 0 : Integer.parseInt(style);
+        return dateStyles.computeIfAbsent(index, i -> {
+            if (styles == null || i >= styles.getNumCellStyles()) return false;
+            XSSFCellStyle cellStyle = styles.getStyleAt(i);
+            return cellStyle != null && DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+        });
+    }
+
+    // "AB12" -> 27
+    static int columnIndex(String reference) {
+        int column = 0;
+        for (int i = 0; i < reference.length(); i++) {
+            char c = Character.toUpperCase(reference.charAt(i));
+            if (c < 'A' || c > 'Z') break;
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            sheetStream.close();
+            pkg.revert();
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -163,6 +164,28 @@ public class ExportXlsTest {
     }
 
 
+    @Test
+    public void testExportQueryXlsSplitsSheetsAtMaxRows() throws Exception {
+        String fileName = "querySplit.xlsx";
+        TestUtil.testCall(db, "CALL apoc.export.xls.query('UNWIND range(1, 5) AS value RETURN value', $file, {maxRowsPerSheet: 3, rowWindowSize: 1})",
+                map("file", fileName), (r) -> assertEquals(fileName, r.get("file")));
+
+        try (InputStream inp = new FileInputStream(new File(directory, fileName))) {
+            Workbook wb = WorkbookFactory.create(inp);
+            assertEquals(3, wb.getNumberOfSheets());
+            List<Double> values = new ArrayList<>();
+            for (int i = 0; i < wb.getNumberOfSheets(); i++) {
+                Sheet sheet = wb.getSheetAt(i);
+                assertEquals(i == 0 ? "Sheet0" : "Sheet0 (" + (i + 1) + ")", sheet.getSheetName());
+                assertEquals("value", sheet.getRow(0).getCell(0).getStringCellValue());
+                for (int rowNum = 1; rowNum <= sheet.getLastRowNum(); rowNum++) {
+                    values.add(sheet.getRow(rowNum).getCell(0).getNumericCellValue());
+                }
+            }
+            assertEquals(List.of(1d, 2d, 3d, 4d, 5d), values);
+        }
+    }
+
     private void assertResults(String fileName, Map<String, Object> r, final String source, long expectedNodes, long expectedRels, int expectedNodesSource) {
         assertEquals(expectedNodes, r.get("nodes")); // we're exporting nodes with multiple label multiple times
         assertEquals(2L, r.get("relationships"));
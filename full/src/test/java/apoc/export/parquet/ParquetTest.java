@@ -0,0 +1,115 @@
+package apoc.export.parquet;
+
+import apoc.ApocSettings;
+import apoc.graph.Graphs;
+import apoc.load.LoadParquet;
+import apoc.util.TestUtil;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.test.rule.DbmsRule;
+import org.neo4j.test.rule.ImpermanentDbmsRule;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static apoc.util.MapUtil.map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParquetTest {
+
+    private static File directory = new File("target/parquet import");
+
+    static { //noinspection ResultOfMethodCallIgnored
+        directory.mkdirs();
+    }
+
+    @ClassRule
+    public static DbmsRule db = new ImpermanentDbmsRule()
+            .withSetting(ApocSettings.apoc_import_file_enabled, true)
+            .withSetting(GraphDatabaseSettings.load_csv_file_url_root, directory.toPath().toAbsolutePath())
+            .withSetting(ApocSettings.apoc_export_file_enabled, true);
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        TestUtil.registerProcedure(db, ExportParquet.class, LoadParquet.class, Graphs.class);
+        db.executeTransactionally("CREATE (f:User {name:'Adam',age:42,male:true,kids:['Sam','Anna','Grace'], born:date('2015-05-18')})-[:KNOWS {since: 1993}]->(b:User {name:'Jim',age:42})");
+    }
+
+    @Test
+    public void testRoundtripParquetAll() {
+        TestUtil.testCall(db, "CALL apoc.export.parquet.all('all.parquet')",
+                r -> {
+                    assertEquals(2L, r.get("nodes"));
+                    assertEquals(1L, r.get("relationships"));
+                    assertEquals("parquet", r.get("format"));
+                });
+
+        TestUtil.testResult(db, "CALL apoc.load.parquet('all.parquet') YIELD value RETURN value", r -> {
+            final Map<String, Object> adam = (Map<String, Object>) r.next().get("value");
+            assertEquals("Adam", adam.get("name"));
+            assertEquals(42L, adam.get("age"));
+            assertEquals(true, adam.get("male"));
+            assertEquals(List.of("Sam", "Anna", "Grace"), adam.get("kids"));
+            assertEquals(LocalDate.of(2015, 5, 18), adam.get("born"));
+            assertEquals(List.of("User"), adam.get("labels"));
+            assertNull(adam.get("<type>"));
+
+            final Map<String, Object> jim = (Map<String, Object>) r.next().get("value");
+            assertEquals("Jim", jim.get("name"));
+            assertNull(jim.get("kids"));
+
+            final Map<String, Object> knows = (Map<String, Object>) r.next().get("value");
+            assertEquals("KNOWS", knows.get("<type>"));
+            assertEquals(1993L, knows.get("since"));
+            assertEquals(adam.get("<id>"), knows.get("<source.id>"));
+            assertEquals(jim.get("<id>"), knows.get("<target.id>"));
+            assertFalse(r.hasNext());
+        });
+    }
+
+    @Test
+    public void testExportParquetDataHasOnlyTheKeysOfTheExportedEntities() {
+        TestUtil.testCall(db, "MATCH (u:User {name: 'Jim'}) CALL apoc.export.parquet.data([u], [], 'jim.parquet') YIELD nodes RETURN nodes",
+                r -> assertEquals(1L, r.get("nodes")));
+
+        TestUtil.testCall(db, "CALL apoc.load.parquet('jim.parquet', {columns: ['name', 'age']}) YIELD value RETURN value",
+                r -> assertEquals(map("name", "Jim", "age", 42L), r.get("value")));
+        try {
+            TestUtil.testCall(db, "CALL apoc.load.parquet('jim.parquet', {columns: ['kids']}) YIELD value RETURN value", r -> {});
+            fail("the kids of Adam should not have a column");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Column kids doesn't exist in the parquet file"));
+        }
+    }
+
+    @Test
+    public void testLoadParquetProjectionAndFilter() {
+        TestUtil.testCall(db, "CALL apoc.export.parquet.query('UNWIND range(0, 9999) AS id RETURN id, toString(id) AS name, id / 2.0 AS half', " +
+                        "'query.parquet', {rowGroupSize: 16384, compression: 'GZIP'})",
+                r -> assertEquals(10000L, r.get("rows")));
+
+        final List<Long> expected = LongStream.range(9000, 9500).boxed().collect(Collectors.toList());
+        TestUtil.testResult(db, "CALL apoc.load.parquet('query.parquet', {columns: ['id'], filter: {id: {gtEq: 9000, lt: 9500}}}) YIELD value RETURN value",
+                r -> {
+                    final List<Map<String, Object>> rows = r.stream()
+                            .map(row -> (Map<String, Object>) row.get("value"))
+                            .collect(Collectors.toList());
+                    assertEquals(expected, rows.stream().map(row -> row.get("id")).collect(Collectors.toList()));
+                    assertEquals(Set.of("id"), rows.get(0).keySet());
+                });
+
+        TestUtil.testCall(db, "CALL apoc.load.parquet('query.parquet', {filter: {name: '42'}}) YIELD value RETURN value",
+                r -> assertEquals(map("id", 42L, "name", "42", "half", 21.0D), r.get("value")));
+    }
+}
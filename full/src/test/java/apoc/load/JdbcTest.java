@@ -1,5 +1,6 @@
 package apoc.load;
 
+import apoc.load.util.JdbcConnectionPool;
 import apoc.periodic.Periodic;
 import apoc.util.TestUtil;
 import apoc.util.Util;
@@ -21,6 +22,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
 import java.time.ZoneId;
+import java.util.List;
 import java.util.Map;
 
 import static apoc.ApocConfig.apocConfig;
@@ -28,6 +30,7 @@ import static apoc.util.MapUtil.map;
 import static apoc.util.TestUtil.testCall;
 import static apoc.util.TestUtil.testResult;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 
 public class JdbcTest extends AbstractJdbcTest {
 
@@ -56,6 +59,7 @@ public class JdbcTest extends AbstractJdbcTest {
     @After
     public void tearDown() throws SQLException {
         conn.close();
+        JdbcConnectionPool.closeAll();
         try {
             if (testName.getMethodName().endsWith(TEST_WITH_AUTHENTICATION)) {
                 DriverManager.getConnection("jdbc:derby:derbyDB;user=apoc;password=Ap0c!#Db;shutdown=true");
@@ -88,6 +92,76 @@ public class JdbcTest extends AbstractJdbcTest {
                 (row) -> assertResult(row));
     }
 
+    @Test
+    public void testLoadJdbcWithPool() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            testCall(db, "CALL apoc.load.jdbc('jdbc:derby:derbyDB','SELECT * FROM PERSON WHERE NAME = ?',['John'], {poolSize: 2})",
+                    (row) -> assertResult(row));
+        }
+        // the connections are returned to the pool with their initial auto-commit, so the updates are committed
+        testCall(db, "UNWIND range(1, 50) AS i " +
+                        "CALL apoc.load.jdbcUpdate('jdbc:derby:derbyDB','INSERT INTO PERSON(NAME, SURNAME) VALUES(?, ?)', ['Name ' + i, 'Pooled'], {poolSize: 2}) YIELD row " +
+                        "RETURN sum(row.count) AS count",
+                (row) -> assertEquals(50L, row.get("count")));
+        testCall(db, "CALL apoc.load.jdbc('jdbc:derby:derbyDB','SELECT COUNT(*) AS C FROM PERSON WHERE SURNAME = ?',['Pooled'], {poolSize: 2, statementCacheSize: 0})",
+                (row) -> assertEquals(Util.map("C", 50), row.get("row")));
+    }
+
+    @Test
+    public void testLoadJdbcUpdateBatch() throws Exception {
+        testResult(db, "CALL apoc.load.jdbcUpdateBatch('jdbc:derby:derbyDB','INSERT INTO PERSON(NAME, SURNAME) VALUES(?, ?)', " +
+                        "[i IN range(1, 55) | ['Name ' + i, 'Batch']], {batchSize: 20, commitInterval: 40})",
+                (result) -> {
+                    List<Map<String, Object>> rows = Iterators.asList(result.<Map<String, Object>>columnAs("row"));
+                    assertEquals(3, rows.size());
+                    assertEquals(Util.map("batch", 0L, "rows", 20L, "count", 20L, "committed", true, "error", null), rows.get(0));
+                    assertEquals(Util.map("batch", 1L, "rows", 20L, "count", 20L, "committed", true, "error", null), rows.get(1));
+                    assertEquals(Util.map("batch", 2L, "rows", 15L, "count", 15L, "committed", true, "error", null), rows.get(2));
+                });
+        testCall(db, "CALL apoc.load.jdbc('jdbc:derby:derbyDB','SELECT COUNT(*) AS C FROM PERSON WHERE SURNAME = ?',['Batch'])",
+                (row) -> assertEquals(Util.map("C", 55), row.get("row")));
+
+        // the second batch is too long for the column: it stops the execution and the batches since the last commit are rolled back
+        testResult(db, "CALL apoc.load.jdbcUpdateBatch('jdbc:derby:derbyDB','INSERT INTO PERSON(NAME, SURNAME) VALUES(?, ?)', " +
+                        "[i IN range(1, 30) | ['Name ' + i, CASE i WHEN 25 THEN reduce(s = '', x IN range(1, 100) | s + 'x') ELSE 'Failed' END]], {batchSize: 10, commitInterval: 20, failOnError: false})",
+                (result) -> {
+                    List<Map<String, Object>> rows = Iterators.asList(result.<Map<String, Object>>columnAs("row"));
+                    assertEquals(3, rows.size());
+                    assertEquals(true, rows.get(0).get("committed"));
+                    assertEquals(true, rows.get(1).get("committed"));
+                    assertEquals(false, rows.get(2).get("committed"));
+                    assertNotNull(rows.get(2).get("error"));
+                });
+        testCall(db, "CALL apoc.load.jdbc('jdbc:derby:derbyDB','SELECT COUNT(*) AS C FROM PERSON WHERE SURNAME = ?',['Failed'])",
+                (row) -> assertEquals(Util.map("C", 20), row.get("row")));
+    }
+
+    @Test
+    public void testLoadJdbcUpdateBatchDoesNotReuseTheRowsOfAFailedBatch() throws Exception {
+        // the second row has more parameters than the placeholders, the first one is already added to the batch
+        testCall(db, "CALL apoc.load.jdbcUpdateBatch('jdbc:derby:derbyDB','INSERT INTO PERSON(NAME, SURNAME) VALUES(?, ?)', " +
+                        "[['Name 1', 'Stale'], ['Name 2', 'Stale', 'extra']], {poolSize: 1, failOnError: false})",
+                (row) -> assertNotNull(((Map) row.get("row")).get("error")));
+        // the same cached statement runs only the rows of this call
+        testCall(db, "CALL apoc.load.jdbcUpdateBatch('jdbc:derby:derbyDB','INSERT INTO PERSON(NAME, SURNAME) VALUES(?, ?)', " +
+                        "[['Name 3', 'Fresh']], {poolSize: 1})",
+                (row) -> assertEquals(1L, ((Map) row.get("row")).get("count")));
+        testCall(db, "CALL apoc.load.jdbc('jdbc:derby:derbyDB','SELECT COUNT(*) AS C FROM PERSON WHERE SURNAME IN (?, ?)',['Stale', 'Fresh'])",
+                (row) -> assertEquals(Util.map("C", 1), row.get("row")));
+    }
+
+    @Test
+    public void testLoadJdbcPartitioned() throws Exception {
+        testCall(db, "CALL apoc.load.jdbcUpdateBatch('jdbc:derby:derbyDB','INSERT INTO PERSON(NAME, SURNAME) VALUES(?, ?)', " +
+                        "[i IN range(1, 55) | ['Name ' + i, 'Partitioned']])",
+                (row) -> assertEquals(55L, ((Map) row.get("row")).get("count")));
+        // the rows outside of the bounds are read by the first and the last partition
+        testCall(db, "CALL apoc.load.jdbc('jdbc:derby:derbyDB','SELECT NAME, CAST(SUBSTR(NAME, 6) AS INT) AS ID FROM PERSON WHERE SURNAME = ?',['Partitioned'], " +
+                        "{partitionColumn: 'ID', lowerBound: 10, upperBound: 40, numPartitions: 4, fetchSize: 5}) YIELD row " +
+                        "RETURN count(*) AS count, count(DISTINCT row.ID) AS distinct, sum(row.ID) AS sum",
+                (row) -> assertEquals(Util.map("count", 55L, "distinct", 55L, "sum", 1540L), row));
+    }
+
     @Test
     public void testLoadJdbcSelect() throws Exception {
         testCall(db, "CALL apoc.load.jdbc('jdbc:derby:derbyDB','SELECT * FROM PERSON')",
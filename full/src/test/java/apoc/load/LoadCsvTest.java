@@ -14,6 +14,7 @@ import org.mockserver.model.Header;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.graphdb.QueryExecutionException;
 import org.neo4j.graphdb.Result;
+import org.neo4j.internal.helpers.collection.Iterators;
 import org.neo4j.test.rule.DbmsRule;
 import org.neo4j.test.rule.ImpermanentDbmsRule;
 import org.testcontainers.containers.GenericContainer;
@@ -21,6 +22,7 @@ import org.testcontainers.containers.GenericContainer;
 import java.io.File;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
@@ -523,6 +525,74 @@ RETURN m.col_1,m.col_2,m.col_3
         }
     }
 
+    @Test public void testLoadCsvParallel() throws Exception {
+        File file = Paths.get(getUrlFileName("test.csv").toURI()).getParent().resolve("parallel.csv").toFile();
+        StringBuilder csv = new StringBuilder("id,name,notes\n");
+        for (int i = 0; i < 2000; i++) {
+            String notes = i % 3 == 0 ? "\"multi\nline, \"\"quoted\"\"\n" + i + "\"" : "plain " + i;
+            csv.append(i).append(",\"name ").append(i).append("\",").append(notes).append("\n");
+        }
+        Files.writeString(file.toPath(), csv.toString());
+        try {
+            String query = "CALL apoc.load.csv('parallel.csv', $config) YIELD lineNo, map RETURN lineNo, map";
+            List<Map<String, Object>> expected = db.executeTransactionally(query, map("config", map()), r -> Iterators.asList(r));
+            assertEquals(2000, expected.size());
+            assertEquals("multi\nline, \"quoted\"\n0", ((Map) expected.get(0).get("map")).get("notes"));
+
+            List<Map<String, Object>> ordered = db.executeTransactionally(query,
+                    map("config", map("parallel", true, "chunkSize", 256)), r -> Iterators.asList(r));
+            assertEquals(expected, ordered);
+
+            List<Map<String, Object>> unordered = db.executeTransactionally(query,
+                    map("config", map("parallel", true, "ordered", false, "chunkSize", 256)), r -> Iterators.asList(r));
+            assertEquals(expected.stream().map(row -> row.get("map")).collect(Collectors.toSet()),
+                    unordered.stream().map(row -> row.get("map")).collect(Collectors.toSet()));
+            assertEquals(2000, unordered.size());
+
+            List<Map<String, Object>> limited = db.executeTransactionally(query,
+                    map("config", map("parallel", true, "chunkSize", 256, "skip", 10, "limit", 5)), r -> Iterators.asList(r));
+            assertEquals(expected.subList(10, 15), limited);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test public void testLoadCsvParallelWithMalformedLine() throws Exception {
+        File file = Paths.get(getUrlFileName("test.csv").toURI()).getParent().resolve("parallel-malformed.csv").toFile();
+        StringBuilder csv = new StringBuilder("id,born\n");
+        for (int i = 0; i < 500; i++) {
+            if (i == 300) {
+                csv.append(i).append(",not a date\n");
+            } else if (i == 400) {
+                csv.append(i).append("\n");
+            } else {
+                csv.append(i).append(",2020-01-01\n");
+            }
+        }
+        Files.writeString(file.toPath(), csv.toString());
+        try {
+            String query = "CALL apoc.load.csv('parallel-malformed.csv', $config) YIELD lineNo, map RETURN lineNo, map.id AS id";
+            Map<String, Object> mapping = map("born", map("type", "date"));
+            for (boolean parallel : List.of(false, true)) {
+                List<Map<String, Object>> rows = db.executeTransactionally(query,
+                        map("config", map("parallel", parallel, "chunkSize", 256, "mapping", mapping, "ignoreErrors", true)), r -> Iterators.asList(r));
+                assertEquals(498, rows.size());
+                // the skipped rows still count in lineNo
+                assertEquals(map("lineNo", 301L, "id", "301"), rows.get(300));
+                assertEquals(map("lineNo", 499L, "id", "499"), rows.get(497));
+
+                try {
+                    db.executeTransactionally(query, map("config", map("parallel", parallel, "chunkSize", 256, "mapping", mapping)), r -> Iterators.asList(r));
+                    fail("the row 300 should fail");
+                } catch (QueryExecutionException e) {
+                    assertTrue(e.getMessage(), e.getMessage().contains("Error converting CSV from") && e.getMessage().contains(" at 300: "));
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
     @Ignore("long running test")
     @Test public void testWithEmptyQuoteChar() throws Exception {
         //TODO: fix this test to not download 7 MB each time.
@@ -291,7 +291,7 @@ public class LoadDirectoryTest {
 
         assertIsRunning("testOne");
         assertIsRunning("testTwo");
-        final Map<String, Object> defaultConfig = Map.of("listenEventType", eventTypes, "interval", 1000L);
+        final Map<String, Object> defaultConfig = Map.of("listenEventType", eventTypes, "interval", 1000L, "batchSize", 0L);
         testResult(db, "CALL apoc.load.directory.async.list()", result -> {
             Map<String, Object> mapTestOne = result.next();
             assertThat(mapTestOne.get("name"), isOneOf("testOne", "testTwo"));
@@ -342,7 +342,7 @@ public class LoadDirectoryTest {
 
     @Test
     public void testFolderListenerNotMatchingPattern() throws IOException, InterruptedException {
-        final Map<String, Object> defaultConfig = Map.of("listenEventType", eventTypes, "interval", 1000L);
+        final Map<String, Object> defaultConfig = Map.of("listenEventType", eventTypes, "interval", 1000L, "batchSize", 0L);
         testCall(db, "CALL apoc.load.directory.async.add('test','CREATE (n:Test {file: $fileName})','*.json')", result -> {
             assertEquals("test", result.get("name"));
             assertEquals("*.json", result.get("pattern"));
@@ -410,6 +410,32 @@ public class LoadDirectoryTest {
         FileUtils.forceDelete(file2);
     }
 
+    @Test
+    public void testAddFolderListenerWithBatchSize() throws IOException {
+        db.executeTransactionally("CALL apoc.load.directory.async.add('testBatch','UNWIND $events AS event CREATE (n:TestBatch {file: event.fileName, event: event.listenEventType})', '*.txt', '', {batchSize: 10, interval: 500}) YIELD name RETURN name");
+        assertIsRunning("testBatch");
+
+        final List<File> files = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final File file = temporaryFolder.newFile(IMPORT_DIR + File.separator + "batchFile" + i + ".txt");
+            // the events of the same file are coalesced
+            try (FileWriter fileWriter = new FileWriter(file)) {
+                fileWriter.write("content");
+            }
+            files.add(file);
+        }
+
+        final String queryCount = "MATCH (n:TestBatch {event: 'CREATE'}) RETURN count(DISTINCT n.file) AS files, count(n) AS count";
+        assertEventually(() -> db.executeTransactionally(queryCount,
+                emptyMap(), (r) -> r.next()),
+                value -> Map.of("files", 3L, "count", 3L).equals(value), 20L, TimeUnit.SECONDS);
+
+        testCallEmpty(db, "CALL apoc.load.directory.async.remove('testBatch')", emptyMap());
+        for (File file : files) {
+            FileUtils.forceDelete(file);
+        }
+    }
+
     @Test
     public void testAddFolderWithOnlyNameAndCypher() throws InterruptedException, IOException {
         testResult(db, "CALL apoc.load.directory.async.add('testOnlyNameAndCypher','CREATE (n:TestOnly {prop: $filePath})')",
@@ -533,7 +559,7 @@ public class LoadDirectoryTest {
 
     @Test
     public void testListenerItemWithError() throws Exception, IOException {
-        final Map<String, Object> defaultConfig = Map.of("listenEventType", eventTypes, "interval", 1000L);
+        final Map<String, Object> defaultConfig = Map.of("listenEventType", eventTypes, "interval", 1000L, "batchSize", 0L);
 
         db.executeTransactionally("CALL apoc.load.directory.async.add('notExistent', 'CREATE (n:Node)', '*', 'pathNotExistent')");
 
@@ -97,6 +97,29 @@ public class LoadXlsTest {
                 });
     }
 
+    @Test public void testLoadXlsStreaming() throws Exception {
+        List<List<Object>> cases = asList(
+                asList(loadTest, "Full", map("mapping", map("Integer", map("type", "int"), "Array", map("type", "int", "array", true, "arraySep", ";")))),
+                asList(loadTest, "Many", map("mapping", map("Float", map("type", "float")))),
+                asList(loadTest, "Offset!B2:F3", map()),
+                asList(loadTest, "NoHeader", map("header", false)),
+                asList(loadTest, "Kids", map("skip", 1, "limit", 1)),
+                asList(loadTest, "Kids", map("ignore", asList("age"))),
+                asList(testDate, "sheet", map()),
+                asList(testColumnsAfterZ, "Sheet1!A1:AY10", map()),
+                asList(brokenHeader, "temp", map("header", false)));
+        for (List<Object> args : cases) {
+            Map<String, Object> config = (Map<String, Object>) args.get(2);
+            Map<String, Object> streamingConfig = new LinkedHashMap<>(config);
+            streamingConfig.put("streaming", true);
+            String query = "CALL apoc.load.xls($url, $selector, $config)";
+            List<Map<String, Object>> expected = db.executeTransactionally(query, map("url", args.get(0), "selector", args.get(1), "config", config), Iterators::asList);
+            List<Map<String, Object>> actual = db.executeTransactionally(query, map("url", args.get(0), "selector", args.get(1), "config", streamingConfig), Iterators::asList);
+            assertFalse(expected.isEmpty());
+            assertEquals("selector " + args.get(1), expected, actual);
+        }
+    }
+
     @Test public void testLoadXlsNoHeaders() throws Exception {
         testCall(db, "CALL apoc.load.xls($url,'NoHeader',{header:false})", map("url",loadTest), // 'file:load_test.xlsx'
                 (r) -> {